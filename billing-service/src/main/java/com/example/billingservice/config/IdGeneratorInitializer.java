@@ -0,0 +1,41 @@
+package com.example.billingservice.config;
+
+import com.example.billingservice.entity.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the pooled id generators in {@code id_generators} past the highest id already stored.
+ * Invoices, items and payments used AUTO_INCREMENT ids before, so without this the first pooled block
+ * would collide with existing rows. Runs once per startup after Hibernate has updated the schema.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void alignGenerators() {
+        align("invoices", "invoices");
+        align("invoice_items", "invoice_items");
+        align("payments", "payments");
+    }
+
+    private void align(String generator, String table) {
+        // Table names are constants above, never user input
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (generator, next_value) VALUES (?, ?) AS new " +
+                "ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, new.next_value)",
+                generator, maxId + IdGenerators.ALLOCATION_SIZE + 1);
+        logger.debug("Aligned id generator {} with table {}", generator, table);
+    }
+}
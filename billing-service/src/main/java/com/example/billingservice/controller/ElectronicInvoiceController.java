@@ -0,0 +1,45 @@
+package com.example.billingservice.controller;
+
+import com.example.billingservice.dto.ElectronicInvoiceBatchDto;
+import com.example.billingservice.dto.ElectronicInvoiceDto;
+import com.example.billingservice.service.ElectronicInvoiceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/electronic-invoices")
+@CrossOrigin(origins = "*")
+public class ElectronicInvoiceController {
+
+    @Autowired
+    private ElectronicInvoiceService electronicInvoiceService;
+
+    /**
+     * Generates and submits the UBL document of every issued invoice that does not have one yet.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ElectronicInvoiceBatchDto> runBatch() {
+        return ResponseEntity.ok(electronicInvoiceService.runBatch());
+    }
+
+    @GetMapping("/{invoiceId}")
+    public ResponseEntity<ElectronicInvoiceDto> getElectronicInvoice(@PathVariable Long invoiceId) {
+        Optional<ElectronicInvoiceDto> electronicInvoice = electronicInvoiceService.getElectronicInvoice(invoiceId);
+        return electronicInvoice.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The submitted document, or a preview for invoices that have not been through a batch yet.
+     */
+    @GetMapping("/{invoiceId}/xml")
+    public ResponseEntity<byte[]> getUblDocument(@PathVariable Long invoiceId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .body(electronicInvoiceService.getUblDocument(invoiceId));
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.billingservice.controller;
 
+import com.example.billingservice.dto.BulkInvoiceResultDto;
+import com.example.billingservice.dto.CursorPage;
+import com.example.billingservice.dto.LedgerEntryDto;
 import com.example.billingservice.dto.InvoiceDto;
+import com.example.billingservice.dto.InvoiceSummaryDto;
 import com.example.billingservice.entity.InvoiceStatus;
 import com.example.billingservice.entity.PaymentStatus;
 import com.example.billingservice.service.InvoiceService;
@@ -35,6 +39,12 @@ public class InvoiceController {
         return new ResponseEntity<>(createdInvoice, HttpStatus.CREATED);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkInvoiceResultDto> createInvoicesBulk(@RequestBody List<InvoiceDto> invoiceDtos) {
+        BulkInvoiceResultDto result = invoiceService.createInvoicesBulk(invoiceDtos);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<InvoiceDto> updateInvoice(
             @PathVariable Long id,
@@ -58,7 +68,7 @@ public class InvoiceController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<InvoiceDto>> getAllInvoices(
+    public ResponseEntity<Page<InvoiceSummaryDto>> getAllInvoices(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -68,66 +78,106 @@ public class InvoiceController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<InvoiceDto> invoices = invoiceService.getAllInvoices(pageable);
+        Page<InvoiceSummaryDto> invoices = invoiceService.getAllInvoices(pageable);
+        return ResponseEntity.ok(invoices);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<InvoiceSummaryDto>> listInvoices(
+            @RequestParam(required = false) InvoiceStatus status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPage<InvoiceSummaryDto> invoices = invoiceService.listInvoices(status, after, size);
+        return ResponseEntity.ok(invoices);
+    }
+
+    @GetMapping("/cursor/date-range")
+    public ResponseEntity<CursorPage<InvoiceSummaryDto>> listInvoicesByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPage<InvoiceSummaryDto> invoices = invoiceService.listInvoicesByDateRange(startDate, endDate, after, size);
         return ResponseEntity.ok(invoices);
     }
 
+    /**
+     * Invoices, payments and refunds of a client, newest first, with the balance after each entry.
+     */
+    @GetMapping("/client/{clientId}/ledger")
+    public ResponseEntity<CursorPage<LedgerEntryDto>> getClientLedger(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        CursorPage<LedgerEntryDto> ledger = invoiceService.getClientLedger(clientId, after, size);
+        return ResponseEntity.ok(ledger);
+    }
+
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<Page<InvoiceDto>> getInvoicesByClient(
+    public ResponseEntity<Page<InvoiceSummaryDto>> getInvoicesByClient(
             @PathVariable Long clientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<InvoiceDto> invoices = invoiceService.getInvoicesByClient(clientId, pageable);
+        Page<InvoiceSummaryDto> invoices = invoiceService.getInvoicesByClient(clientId, pageable);
         return ResponseEntity.ok(invoices);
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<Page<InvoiceDto>> getInvoicesByStatus(
+    public ResponseEntity<Page<InvoiceSummaryDto>> getInvoicesByStatus(
             @PathVariable InvoiceStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<InvoiceDto> invoices = invoiceService.getInvoicesByStatus(status, pageable);
+        Page<InvoiceSummaryDto> invoices = invoiceService.getInvoicesByStatus(status, pageable);
         return ResponseEntity.ok(invoices);
     }
 
     @GetMapping("/payment-status/{paymentStatus}")
-    public ResponseEntity<Page<InvoiceDto>> getInvoicesByPaymentStatus(
+    public ResponseEntity<Page<InvoiceSummaryDto>> getInvoicesByPaymentStatus(
             @PathVariable PaymentStatus paymentStatus,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<InvoiceDto> invoices = invoiceService.getInvoicesByPaymentStatus(paymentStatus, pageable);
+        Page<InvoiceSummaryDto> invoices = invoiceService.getInvoicesByPaymentStatus(paymentStatus, pageable);
         return ResponseEntity.ok(invoices);
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<Page<InvoiceDto>> getInvoicesByDateRange(
+    public ResponseEntity<Page<InvoiceSummaryDto>> getInvoicesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("issueDate").descending());
-        Page<InvoiceDto> invoices = invoiceService.getInvoicesByDateRange(startDate, endDate, pageable);
+        Page<InvoiceSummaryDto> invoices = invoiceService.getInvoicesByDateRange(startDate, endDate, pageable);
         return ResponseEntity.ok(invoices);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<InvoiceDto>> searchInvoices(
+    public ResponseEntity<Page<InvoiceSummaryDto>> searchInvoices(
             @RequestParam String searchTerm,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<InvoiceDto> invoices = invoiceService.searchInvoices(searchTerm, pageable);
+        Page<InvoiceSummaryDto> invoices = invoiceService.searchInvoices(searchTerm, pageable);
         return ResponseEntity.ok(invoices);
     }
 
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        int indexed = invoiceService.rebuildSearchIndex();
+        return ResponseEntity.ok(Map.of("indexedInvoices", indexed));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteInvoice(@PathVariable Long id) {
         invoiceService.deleteInvoice(id);
@@ -157,8 +207,8 @@ public class InvoiceController {
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<InvoiceDto>> getOverdueInvoices() {
-        List<InvoiceDto> overdueInvoices = invoiceService.getOverdueInvoices();
+    public ResponseEntity<List<InvoiceSummaryDto>> getOverdueInvoices() {
+        List<InvoiceSummaryDto> overdueInvoices = invoiceService.getOverdueInvoices();
         return ResponseEntity.ok(overdueInvoices);
     }
 
@@ -168,6 +218,12 @@ public class InvoiceController {
         return ResponseEntity.ok(statistics);
     }
 
+    @PostMapping("/statistics/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildStatisticsRollup() {
+        int rows = invoiceService.rebuildStatisticsRollup();
+        return ResponseEntity.ok(Map.of("rollupRows", rows));
+    }
+
     @GetMapping("/total-invoiced")
     public ResponseEntity<BigDecimal> getTotalInvoicedAmount() {
         BigDecimal total = invoiceService.getTotalInvoicedAmount();
@@ -182,8 +238,13 @@ public class InvoiceController {
 
     @PostMapping("/mark-overdue")
     public ResponseEntity<String> markOverdueInvoices() {
-        invoiceService.markOverdueInvoices();
-        return ResponseEntity.ok("Overdue invoices marked successfully");
+        int marked = invoiceService.markOverdueInvoices();
+        return ResponseEntity.ok("Overdue invoices marked successfully: " + marked);
     }
-}
 
+    @PostMapping("/send-reminders")
+    public ResponseEntity<String> sendOverdueReminders() {
+        int sent = invoiceService.sendOverdueReminders();
+        return ResponseEntity.ok("Payment reminders sent successfully: " + sent);
+    }
+}
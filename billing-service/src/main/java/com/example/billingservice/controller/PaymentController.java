@@ -1,10 +1,17 @@
 package com.example.billingservice.controller;
 
 
+import com.example.billingservice.dto.BulkPaymentRequest;
+import com.example.billingservice.dto.BulkPaymentResultDto;
+import com.example.billingservice.dto.CursorPage;
 import com.example.billingservice.dto.PaymentDto;
+import com.example.billingservice.dto.ReconciliationResultDto;
+import com.example.billingservice.dto.StatementFormat;
 import com.example.billingservice.entity.PaymentMethod;
 import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.exception.BillingException;
 import com.example.billingservice.service.PaymentService;
+import com.example.billingservice.service.ReconciliationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,10 +20,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -30,12 +42,49 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private ReconciliationService reconciliationService;
+
     @PostMapping
-    public ResponseEntity<PaymentDto> createPayment(@Valid @RequestBody PaymentDto paymentDto) {
-        PaymentDto createdPayment = paymentService.createPayment(paymentDto);
+    public ResponseEntity<PaymentDto> createPayment(
+            @Valid @RequestBody PaymentDto paymentDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        PaymentDto createdPayment = paymentService.createPayment(paymentDto, idempotencyKey);
         return new ResponseEntity<>(createdPayment, HttpStatus.CREATED);
     }
 
+    /**
+     * Posts one remittance across many invoices; lines that cannot be applied are reported, not fatal.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkPaymentResultDto> allocatePayment(
+            @Valid @RequestBody BulkPaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        BulkPaymentResultDto result = paymentService.allocatePayment(request, idempotencyKey);
+        return new ResponseEntity<>(result, HttpStatus.CREATED);
+    }
+
+    /**
+     * Matches a CSV or OFX bank statement against unreconciled payments; the format is taken from
+     * the file extension unless given.
+     */
+    @PostMapping(value = "/reconciliation", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ReconciliationResultDto> reconcileStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) StatementFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        StatementFormat statementFormat = Optional.ofNullable(format)
+                .or(() -> StatementFormat.fromFileName(file.getOriginalFilename()))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Cannot tell the statement format from the file name; pass format=CSV or OFX"));
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(reconciliationService.reconcile(in, statementFormat, fromDate, toDate));
+        } catch (IOException e) {
+            throw new BillingException("Error reading statement: " + e.getMessage(), e);
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PaymentDto> updatePayment(
             @PathVariable Long id,
@@ -73,6 +122,27 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<PaymentDto>> listPayments(
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPage<PaymentDto> payments = paymentService.listPayments(status, after, size);
+        return ResponseEntity.ok(payments);
+    }
+
+    @GetMapping("/cursor/date-range")
+    public ResponseEntity<CursorPage<PaymentDto>> listPaymentsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPage<PaymentDto> payments = paymentService.listPaymentsByDateRange(startDate, endDate, after, size);
+        return ResponseEntity.ok(payments);
+    }
+
     @GetMapping("/invoice/{invoiceId}")
     public ResponseEntity<List<PaymentDto>> getPaymentsByInvoice(@PathVariable Long invoiceId) {
         List<PaymentDto> payments = paymentService.getPaymentsByInvoice(invoiceId);
@@ -120,8 +190,10 @@ public class PaymentController {
     }
 
     @PostMapping("/{id}/process")
-    public ResponseEntity<PaymentDto> processPayment(@PathVariable Long id) {
-        PaymentDto processedPayment = paymentService.processPayment(id);
+    public ResponseEntity<PaymentDto> processPayment(
+            @PathVariable Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        PaymentDto processedPayment = paymentService.processPayment(id, idempotencyKey);
         return ResponseEntity.ok(processedPayment);
     }
 
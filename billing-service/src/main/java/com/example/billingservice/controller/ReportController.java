@@ -0,0 +1,191 @@
+package com.example.billingservice.controller;
+
+import com.example.billingservice.dto.AgingReportDto;
+import com.example.billingservice.dto.ReportExportFormat;
+import com.example.billingservice.dto.ReportJobDto;
+import com.example.billingservice.dto.ReportJobRequest;
+import com.example.billingservice.dto.ReportJobStatus;
+import com.example.billingservice.dto.StatementRunDto;
+import com.example.billingservice.service.ReportJobService;
+import com.example.billingservice.service.ReportService;
+import com.example.billingservice.service.StatementRunService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    private static final MediaType EXCEL_MEDIA_TYPE =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private StatementRunService statementRunService;
+
+    @GetMapping("/invoices/excel")
+    public ResponseEntity<StreamingResponseBody> exportInvoicesExcel(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        StreamingResponseBody body = outputStream ->
+                reportService.writeInvoicesExcel(startDate, endDate, outputStream);
+        return attachment("facturas.xlsx", EXCEL_MEDIA_TYPE, body);
+    }
+
+    @GetMapping("/payments/excel")
+    public ResponseEntity<StreamingResponseBody> exportPaymentsExcel(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        StreamingResponseBody body = outputStream ->
+                reportService.writePaymentsExcel(startDate, endDate, outputStream);
+        return attachment("pagos.xlsx", EXCEL_MEDIA_TYPE, body);
+    }
+
+    /**
+     * Collection report streamed row by row: NDJSON by default, CSV with {@code Accept: text/csv}.
+     */
+    @GetMapping("/collections/export")
+    public ResponseEntity<StreamingResponseBody> exportCollections(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestHeader HttpHeaders headers) {
+
+        List<MediaType> accepted = headers.getAccept();
+        Optional<ReportExportFormat> format = ReportExportFormat.fromAccept(accepted);
+        if (format.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        ReportExportFormat selected = format.get();
+        StreamingResponseBody body = outputStream ->
+                reportService.writeCollectionReport(startDate, endDate, selected, outputStream);
+        return attachment("cobros." + selected.getExtension(), selected.getMediaType(), body);
+    }
+
+    /**
+     * Accounts-receivable aging by client; {@code asOfDate} defaults to today. A past date rebuilds
+     * balances from the payments made up to that day; future dates are rejected.
+     */
+    @GetMapping("/aging")
+    public ResponseEntity<AgingReportDto> getAgingReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+        return ResponseEntity.ok(reportService.generateAgingReport(orToday(asOfDate)));
+    }
+
+    @GetMapping("/aging/excel")
+    public ResponseEntity<StreamingResponseBody> exportAgingExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+        LocalDate cutOff = orToday(asOfDate);
+        StreamingResponseBody body = outputStream -> reportService.writeAgingReportExcel(cutOff, outputStream);
+        return attachment("cartera-" + cutOff + ".xlsx", EXCEL_MEDIA_TYPE, body);
+    }
+
+    @GetMapping("/aging/pdf")
+    public ResponseEntity<byte[]> exportAgingPdf(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+        LocalDate cutOff = orToday(asOfDate);
+        return attachment("cartera-" + cutOff + ".pdf", MediaType.APPLICATION_PDF,
+                reportService.generateAgingReportPdf(cutOff));
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobDto> submitReportJob(@Valid @RequestBody ReportJobRequest request) {
+        ReportJobDto job = reportJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/reports/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobDto> getReportJob(@PathVariable String jobId) {
+        Optional<ReportJobDto> job = reportJobService.getJob(jobId);
+        return job.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReportJob(@PathVariable String jobId) {
+        Optional<ReportJobDto> job = reportJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.get().getStatus() != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Report job " + jobId + " is " + job.get().getStatus());
+        }
+
+        StreamingResponseBody body = outputStream -> reportJobService.writeResult(jobId, outputStream);
+        return attachment(job.get().getFileName(), MediaType.parseMediaType(job.get().getContentType()), body);
+    }
+
+    /**
+     * Starts a statement run over every invoice with an open balance; poll the returned location for progress.
+     */
+    @PostMapping("/statement-runs")
+    public ResponseEntity<StatementRunDto> startStatementRun() {
+        return accepted(statementRunService.start());
+    }
+
+    @PostMapping("/statement-runs/{runId}/resume")
+    public ResponseEntity<StatementRunDto> resumeStatementRun(@PathVariable String runId) {
+        return accepted(statementRunService.resume(runId));
+    }
+
+    @GetMapping("/statement-runs/{runId}")
+    public ResponseEntity<StatementRunDto> getStatementRun(@PathVariable String runId) {
+        Optional<StatementRunDto> run = statementRunService.getRun(runId);
+        return run.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/statement-runs/{runId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadStatementRun(@PathVariable String runId) {
+        Optional<StatementRunDto> run = statementRunService.getRun(runId);
+        if (run.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (run.get().getStatus() != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Statement run " + runId + " is " + run.get().getStatus());
+        }
+
+        StreamingResponseBody body = outputStream -> statementRunService.writeArchive(runId, outputStream);
+        return attachment(run.get().getFileName(), MediaType.parseMediaType("application/zip"), body);
+    }
+
+    private ResponseEntity<StatementRunDto> accepted(StatementRunDto run) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/reports/statement-runs/" + run.getRunId()))
+                .body(run);
+    }
+
+    private LocalDate orToday(LocalDate date) {
+        return date != null ? date : LocalDate.now();
+    }
+
+    private <T> ResponseEntity<T> attachment(String fileName, MediaType mediaType, T body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(mediaType)
+                .body(body);
+    }
+}
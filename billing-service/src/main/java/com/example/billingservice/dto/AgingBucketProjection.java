@@ -0,0 +1,17 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Outstanding balance of one client split by days past due.
+ */
+public interface AgingBucketProjection {
+    Long getClientId();
+    String getClientName();
+    Long getInvoiceCount();
+    BigDecimal getDays0To30();
+    BigDecimal getDays31To60();
+    BigDecimal getDays61To90();
+    BigDecimal getOver90();
+    BigDecimal getTotal();
+}
@@ -0,0 +1,108 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accounts-receivable aging as of a cut-off date. Days past due are counted from the due date to
+ * {@code asOfDate}; balances not yet due fall in the 0-30 bucket.
+ */
+public class AgingReportDto {
+    private LocalDate asOfDate;
+    private LocalDateTime generatedAt;
+    private List<ClientAgingDto> clients = new ArrayList<>();
+    private ClientAgingDto totals;
+
+    public AgingReportDto() {}
+
+    public AgingReportDto(LocalDate asOfDate) {
+        this.asOfDate = asOfDate;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    public static class ClientAgingDto {
+        private Long clientId;
+        private String clientName;
+        private Long invoiceCount;
+        private BigDecimal days0To30;
+        private BigDecimal days31To60;
+        private BigDecimal days61To90;
+        private BigDecimal over90;
+        private BigDecimal total;
+
+        public ClientAgingDto() {}
+
+        public ClientAgingDto(Long clientId, String clientName, Long invoiceCount, BigDecimal days0To30,
+                              BigDecimal days31To60, BigDecimal days61To90, BigDecimal over90, BigDecimal total) {
+            this.clientId = clientId;
+            this.clientName = clientName;
+            this.invoiceCount = invoiceCount;
+            this.days0To30 = days0To30;
+            this.days31To60 = days31To60;
+            this.days61To90 = days61To90;
+            this.over90 = over90;
+            this.total = total;
+        }
+
+        public ClientAgingDto copy() {
+            return new ClientAgingDto(clientId, clientName, invoiceCount, days0To30, days31To60, days61To90,
+                    over90, total);
+        }
+
+        // Getters and Setters
+        public Long getClientId() { return clientId; }
+        public void setClientId(Long clientId) { this.clientId = clientId; }
+
+        public String getClientName() { return clientName; }
+        public void setClientName(String clientName) { this.clientName = clientName; }
+
+        public Long getInvoiceCount() { return invoiceCount; }
+        public void setInvoiceCount(Long invoiceCount) { this.invoiceCount = invoiceCount; }
+
+        public BigDecimal getDays0To30() { return days0To30; }
+        public void setDays0To30(BigDecimal days0To30) { this.days0To30 = days0To30; }
+
+        public BigDecimal getDays31To60() { return days31To60; }
+        public void setDays31To60(BigDecimal days31To60) { this.days31To60 = days31To60; }
+
+        public BigDecimal getDays61To90() { return days61To90; }
+        public void setDays61To90(BigDecimal days61To90) { this.days61To90 = days61To90; }
+
+        public BigDecimal getOver90() { return over90; }
+        public void setOver90(BigDecimal over90) { this.over90 = over90; }
+
+        public BigDecimal getTotal() { return total; }
+        public void setTotal(BigDecimal total) { this.total = total; }
+    }
+
+    /**
+     * Deep copy, so a report shared through a cache can be handed to callers that may modify it.
+     */
+    public AgingReportDto copy() {
+        AgingReportDto copy = new AgingReportDto();
+        copy.asOfDate = asOfDate;
+        copy.generatedAt = generatedAt;
+        copy.clients = new ArrayList<>(clients.size());
+        for (ClientAgingDto client : clients) {
+            copy.clients.add(client.copy());
+        }
+        copy.totals = totals != null ? totals.copy() : null;
+        return copy;
+    }
+
+    // Getters and Setters
+    public LocalDate getAsOfDate() { return asOfDate; }
+    public void setAsOfDate(LocalDate asOfDate) { this.asOfDate = asOfDate; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public List<ClientAgingDto> getClients() { return clients; }
+    public void setClients(List<ClientAgingDto> clients) { this.clients = clients; }
+
+    public ClientAgingDto getTotals() { return totals; }
+    public void setTotals(ClientAgingDto totals) { this.totals = totals; }
+}
@@ -0,0 +1,21 @@
+package com.example.billingservice.dto;
+
+/**
+ * Published inside the writing transaction whenever invoice or payment data that feeds the
+ * dashboard statistics changes. Listeners act on it only after the transaction commits.
+ */
+public class BillingChangeEvent {
+
+    public enum Source {
+        INVOICE,
+        PAYMENT
+    }
+
+    private final Source source;
+
+    public BillingChangeEvent(Source source) {
+        this.source = source;
+    }
+
+    public Source getSource() { return source; }
+}
@@ -0,0 +1,36 @@
+package com.example.billingservice.dto;
+
+import com.example.billingservice.entity.InvoiceStatus;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable: one instance is cached and shared by every statistics caller.
+ */
+public final class BillingTotalsDto {
+    private final BigDecimal totalInvoiced;
+    private final BigDecimal totalPaid;
+    private final BigDecimal totalOutstanding;
+    private final Map<InvoiceStatus, Long> invoiceCountByStatus;
+
+    // Constructors
+    public BillingTotalsDto(BigDecimal totalInvoiced, BigDecimal totalPaid, BigDecimal totalOutstanding,
+                            Map<InvoiceStatus, Long> invoiceCountByStatus) {
+        this.totalInvoiced = totalInvoiced;
+        this.totalPaid = totalPaid;
+        this.totalOutstanding = totalOutstanding;
+        Map<InvoiceStatus, Long> counts = new EnumMap<>(InvoiceStatus.class);
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            counts.put(status, invoiceCountByStatus.getOrDefault(status, 0L));
+        }
+        this.invoiceCountByStatus = Collections.unmodifiableMap(counts);
+    }
+
+    // Getters
+    public BigDecimal getTotalInvoiced() { return totalInvoiced; }
+    public BigDecimal getTotalPaid() { return totalPaid; }
+    public BigDecimal getTotalOutstanding() { return totalOutstanding; }
+    public Map<InvoiceStatus, Long> getInvoiceCountByStatus() { return invoiceCountByStatus; }
+}
@@ -0,0 +1,31 @@
+package com.example.billingservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkInvoiceResultDto {
+    private int total;
+    private int created;
+    private int failed;
+    private long elapsedMillis;
+    private List<BulkInvoiceRowResultDto> results = new ArrayList<>();
+
+    // Constructors
+    public BulkInvoiceResultDto() {}
+
+    // Getters and Setters
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public List<BulkInvoiceRowResultDto> getResults() { return results; }
+    public void setResults(List<BulkInvoiceRowResultDto> results) { this.results = results; }
+}
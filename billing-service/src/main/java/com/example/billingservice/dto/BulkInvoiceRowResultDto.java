@@ -0,0 +1,45 @@
+package com.example.billingservice.dto;
+
+public class BulkInvoiceRowResultDto {
+    private int index;
+    private boolean success;
+    private Long invoiceId;
+    private String invoiceNumber;
+    private String errorMessage;
+
+    // Constructors
+    public BulkInvoiceRowResultDto() {}
+
+    public static BulkInvoiceRowResultDto created(int index, Long invoiceId, String invoiceNumber) {
+        BulkInvoiceRowResultDto result = new BulkInvoiceRowResultDto();
+        result.setIndex(index);
+        result.setSuccess(true);
+        result.setInvoiceId(invoiceId);
+        result.setInvoiceNumber(invoiceNumber);
+        return result;
+    }
+
+    public static BulkInvoiceRowResultDto failed(int index, String errorMessage) {
+        BulkInvoiceRowResultDto result = new BulkInvoiceRowResultDto();
+        result.setIndex(index);
+        result.setSuccess(false);
+        result.setErrorMessage(errorMessage);
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,66 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+
+public class BulkPaymentLineResultDto {
+    private int index;
+    private boolean success;
+    private Long invoiceId;
+    private String invoiceNumber;
+    private BigDecimal amount;
+    private Long paymentId;
+    private String paymentNumber;
+    private BigDecimal balanceDue;
+    private String errorMessage;
+
+    // Constructors
+    public BulkPaymentLineResultDto() {}
+
+    public static BulkPaymentLineResultDto allocated(int index, Long invoiceId, String invoiceNumber, BigDecimal amount) {
+        BulkPaymentLineResultDto result = new BulkPaymentLineResultDto();
+        result.setIndex(index);
+        result.setSuccess(true);
+        result.setInvoiceId(invoiceId);
+        result.setInvoiceNumber(invoiceNumber);
+        result.setAmount(amount);
+        return result;
+    }
+
+    public static BulkPaymentLineResultDto failed(int index, Long invoiceId, BigDecimal amount, String errorMessage) {
+        BulkPaymentLineResultDto result = new BulkPaymentLineResultDto();
+        result.setIndex(index);
+        result.setSuccess(false);
+        result.setInvoiceId(invoiceId);
+        result.setAmount(amount);
+        result.setErrorMessage(errorMessage);
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public String getPaymentNumber() { return paymentNumber; }
+    public void setPaymentNumber(String paymentNumber) { this.paymentNumber = paymentNumber; }
+
+    public BigDecimal getBalanceDue() { return balanceDue; }
+    public void setBalanceDue(BigDecimal balanceDue) { this.balanceDue = balanceDue; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,63 @@
+package com.example.billingservice.dto;
+
+import com.example.billingservice.entity.PaymentMethod;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkPaymentRequest {
+
+    // Required for FIFO allocation
+    private Long clientId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be positive")
+    private BigDecimal amount;
+
+    private PaymentAllocationMode allocationMode = PaymentAllocationMode.FIFO;
+
+    // Used with EXPLICIT allocation, applied in order
+    private List<PaymentAllocationDto> allocations = new ArrayList<>();
+
+    @NotNull(message = "Payment method is required")
+    private PaymentMethod paymentMethod;
+
+    private LocalDateTime paymentDate;
+    private String referenceNumber;
+    private String transactionId;
+    private String notes;
+
+    // Constructors
+    public BulkPaymentRequest() {}
+
+    // Getters and Setters
+    public Long getClientId() { return clientId; }
+    public void setClientId(Long clientId) { this.clientId = clientId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public PaymentAllocationMode getAllocationMode() { return allocationMode; }
+    public void setAllocationMode(PaymentAllocationMode allocationMode) { this.allocationMode = allocationMode; }
+
+    public List<PaymentAllocationDto> getAllocations() { return allocations; }
+    public void setAllocations(List<PaymentAllocationDto> allocations) { this.allocations = allocations; }
+
+    public PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public LocalDateTime getPaymentDate() { return paymentDate; }
+    public void setPaymentDate(LocalDateTime paymentDate) { this.paymentDate = paymentDate; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+    public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
@@ -0,0 +1,44 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkPaymentResultDto {
+    private BigDecimal remittanceAmount;
+    private BigDecimal allocatedAmount;
+    private BigDecimal unallocatedAmount;
+    private int paymentsCreated;
+    private int invoicesUpdated;
+    private int failed;
+    private long elapsedMillis;
+    private List<BulkPaymentLineResultDto> results = new ArrayList<>();
+
+    // Constructors
+    public BulkPaymentResultDto() {}
+
+    // Getters and Setters
+    public BigDecimal getRemittanceAmount() { return remittanceAmount; }
+    public void setRemittanceAmount(BigDecimal remittanceAmount) { this.remittanceAmount = remittanceAmount; }
+
+    public BigDecimal getAllocatedAmount() { return allocatedAmount; }
+    public void setAllocatedAmount(BigDecimal allocatedAmount) { this.allocatedAmount = allocatedAmount; }
+
+    public BigDecimal getUnallocatedAmount() { return unallocatedAmount; }
+    public void setUnallocatedAmount(BigDecimal unallocatedAmount) { this.unallocatedAmount = unallocatedAmount; }
+
+    public int getPaymentsCreated() { return paymentsCreated; }
+    public void setPaymentsCreated(int paymentsCreated) { this.paymentsCreated = paymentsCreated; }
+
+    public int getInvoicesUpdated() { return invoicesUpdated; }
+    public void setInvoicesUpdated(int invoicesUpdated) { this.invoicesUpdated = invoicesUpdated; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public List<BulkPaymentLineResultDto> getResults() { return results; }
+    public void setResults(List<BulkPaymentLineResultDto> results) { this.results = results; }
+}
@@ -0,0 +1,37 @@
+package com.example.billingservice.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. Pass {@code nextCursor} back as {@code after} to get the
+ * following slice; it is null on the last one. No total count is computed.
+ */
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    // Constructors
+    public CursorPage() {}
+
+    public CursorPage(List<T> content, String nextCursor, int size) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.size = size;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
@@ -0,0 +1,33 @@
+package com.example.billingservice.dto;
+
+import java.time.LocalDateTime;
+
+public class DianResponseDto {
+    private boolean accepted;
+    private String code;
+    private String message;
+    private LocalDateTime receivedAt;
+
+    // Constructors
+    public DianResponseDto() {}
+
+    public DianResponseDto(boolean accepted, String code, String message) {
+        this.accepted = accepted;
+        this.code = code;
+        this.message = message;
+        this.receivedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public boolean isAccepted() { return accepted; }
+    public void setAccepted(boolean accepted) { this.accepted = accepted; }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+    public void setReceivedAt(LocalDateTime receivedAt) { this.receivedAt = receivedAt; }
+}
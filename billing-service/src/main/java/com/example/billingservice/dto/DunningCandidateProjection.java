@@ -0,0 +1,20 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Open invoice due for its next payment reminder: what the notification needs, without the entity.
+ */
+public interface DunningCandidateProjection {
+    Long getId();
+    String getInvoiceNumber();
+    Long getClientId();
+    String getClientName();
+    String getClientEmail();
+    BigDecimal getBalanceDue();
+    LocalDateTime getDueDate();
+    // Stage before this run claimed it, to put it back if the hand-off fails
+    Integer getDunningStage();
+    LocalDateTime getDunningSentAt();
+}
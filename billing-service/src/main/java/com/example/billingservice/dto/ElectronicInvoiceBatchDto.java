@@ -0,0 +1,38 @@
+package com.example.billingservice.dto;
+
+import java.time.LocalDateTime;
+
+public class ElectronicInvoiceBatchDto {
+    private int generated;
+    private int accepted;
+    private int rejected;
+    private int failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private long durationMs;
+
+    // Constructors
+    public ElectronicInvoiceBatchDto() {}
+
+    // Getters and Setters
+    public int getGenerated() { return generated; }
+    public void setGenerated(int generated) { this.generated = generated; }
+
+    public int getAccepted() { return accepted; }
+    public void setAccepted(int accepted) { this.accepted = accepted; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+}
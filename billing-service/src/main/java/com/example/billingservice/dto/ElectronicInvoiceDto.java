@@ -0,0 +1,56 @@
+package com.example.billingservice.dto;
+
+import com.example.billingservice.entity.ElectronicInvoiceStatus;
+
+import java.time.LocalDateTime;
+
+public class ElectronicInvoiceDto {
+    private Long invoiceId;
+    private String invoiceNumber;
+    private String cufe;
+    private String qrUrl;
+    private String fileName;
+    private ElectronicInvoiceStatus status;
+    private String responseCode;
+    private String responseMessage;
+    private LocalDateTime generatedAt;
+    private LocalDateTime respondedAt;
+    private int attempts;
+
+    // Constructors
+    public ElectronicInvoiceDto() {}
+
+    // Getters and Setters
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public String getCufe() { return cufe; }
+    public void setCufe(String cufe) { this.cufe = cufe; }
+
+    public String getQrUrl() { return qrUrl; }
+    public void setQrUrl(String qrUrl) { this.qrUrl = qrUrl; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public ElectronicInvoiceStatus getStatus() { return status; }
+    public void setStatus(ElectronicInvoiceStatus status) { this.status = status; }
+
+    public String getResponseCode() { return responseCode; }
+    public void setResponseCode(String responseCode) { this.responseCode = responseCode; }
+
+    public String getResponseMessage() { return responseMessage; }
+    public void setResponseMessage(String responseMessage) { this.responseMessage = responseMessage; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public LocalDateTime getRespondedAt() { return respondedAt; }
+    public void setRespondedAt(LocalDateTime respondedAt) { this.respondedAt = respondedAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
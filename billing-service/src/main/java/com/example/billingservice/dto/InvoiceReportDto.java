@@ -2,6 +2,7 @@ package com.example.billingservice.dto;
 
 import com.example.billingservice.entity.InvoiceStatus;
 import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.entity.Money;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -54,9 +55,7 @@ public class InvoiceReportDto {
 
     public BigDecimal getCollectionPercentage() {
         if (totalAmount != null && totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal collected = paidAmount != null ? paidAmount : BigDecimal.ZERO;
-            return collected.divide(totalAmount, 4, java.math.RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            return Money.percentOf(Money.cents(paidAmount), Money.cents(totalAmount));
         }
         return BigDecimal.ZERO;
     }
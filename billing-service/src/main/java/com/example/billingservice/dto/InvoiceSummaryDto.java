@@ -0,0 +1,100 @@
+package com.example.billingservice.dto;
+
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Invoice row for list views: header fields only, no items or payments. Selected directly by
+ * JPQL constructor expressions, so listing a page never touches the lazy collections.
+ */
+public class InvoiceSummaryDto {
+    private Long id;
+    private String invoiceNumber;
+    private Long clientId;
+    private String clientName;
+    private Long petId;
+    private String petName;
+    private InvoiceStatus status;
+    private PaymentStatus paymentStatus;
+    private PaymentMethod paymentMethod;
+    private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
+    private BigDecimal balanceDue;
+    private LocalDateTime issueDate;
+    private LocalDateTime dueDate;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public InvoiceSummaryDto() {}
+
+    public InvoiceSummaryDto(Long id, String invoiceNumber, Long clientId, String clientName, Long petId,
+                             String petName, InvoiceStatus status, PaymentStatus paymentStatus,
+                             PaymentMethod paymentMethod, BigDecimal totalAmount, BigDecimal paidAmount,
+                             BigDecimal balanceDue, LocalDateTime issueDate, LocalDateTime dueDate,
+                             LocalDateTime createdAt) {
+        this.id = id;
+        this.invoiceNumber = invoiceNumber;
+        this.clientId = clientId;
+        this.clientName = clientName;
+        this.petId = petId;
+        this.petName = petName;
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.paymentMethod = paymentMethod;
+        this.totalAmount = totalAmount;
+        this.paidAmount = paidAmount;
+        this.balanceDue = balanceDue;
+        this.issueDate = issueDate;
+        this.dueDate = dueDate;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public Long getClientId() { return clientId; }
+    public void setClientId(Long clientId) { this.clientId = clientId; }
+
+    public String getClientName() { return clientName; }
+    public void setClientName(String clientName) { this.clientName = clientName; }
+
+    public Long getPetId() { return petId; }
+    public void setPetId(Long petId) { this.petId = petId; }
+
+    public String getPetName() { return petName; }
+    public void setPetName(String petName) { this.petName = petName; }
+
+    public InvoiceStatus getStatus() { return status; }
+    public void setStatus(InvoiceStatus status) { this.status = status; }
+
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public BigDecimal getPaidAmount() { return paidAmount; }
+    public void setPaidAmount(BigDecimal paidAmount) { this.paidAmount = paidAmount; }
+
+    public BigDecimal getBalanceDue() { return balanceDue; }
+    public void setBalanceDue(BigDecimal balanceDue) { this.balanceDue = balanceDue; }
+
+    public LocalDateTime getIssueDate() { return issueDate; }
+    public void setIssueDate(LocalDateTime issueDate) { this.issueDate = issueDate; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,51 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Client ledger line. Invoices are debits, payments credits and refunds debits again;
+ * {@code balance} is what the client owes after this entry.
+ */
+public class LedgerEntryDto {
+    private LedgerEntryType entryType;
+    private Long entryId;
+    private LocalDateTime entryDate;
+    private String reference;
+    private Long invoiceId;
+    private String invoiceNumber;
+    private BigDecimal debit;
+    private BigDecimal credit;
+    private BigDecimal balance;
+
+    // Constructors
+    public LedgerEntryDto() {}
+
+    // Getters and Setters
+    public LedgerEntryType getEntryType() { return entryType; }
+    public void setEntryType(LedgerEntryType entryType) { this.entryType = entryType; }
+
+    public Long getEntryId() { return entryId; }
+    public void setEntryId(Long entryId) { this.entryId = entryId; }
+
+    public LocalDateTime getEntryDate() { return entryDate; }
+    public void setEntryDate(LocalDateTime entryDate) { this.entryDate = entryDate; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public BigDecimal getDebit() { return debit; }
+    public void setDebit(BigDecimal debit) { this.debit = debit; }
+
+    public BigDecimal getCredit() { return credit; }
+    public void setCredit(BigDecimal credit) { this.credit = credit; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
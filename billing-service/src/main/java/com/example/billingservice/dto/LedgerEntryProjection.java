@@ -0,0 +1,21 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a client ledger with the balance after it, as computed by the database.
+ */
+public interface LedgerEntryProjection {
+    String getEntryType();
+    Long getEntryId();
+    // Unique across invoices (even) and payments (odd); orders entries that share a timestamp
+    Long getSortId();
+    LocalDateTime getEntryDate();
+    String getReference();
+    Long getInvoiceId();
+    String getInvoiceNumber();
+    BigDecimal getDebit();
+    BigDecimal getCredit();
+    BigDecimal getBalance();
+}
@@ -0,0 +1,17 @@
+package com.example.billingservice.dto;
+
+public enum LedgerEntryType {
+    INVOICE("Factura"),
+    PAYMENT("Pago"),
+    REFUND("Reembolso");
+
+    private final String description;
+
+    LedgerEntryType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+
+public class PaymentAllocationDto {
+    private Long invoiceId;
+    private BigDecimal amount;
+
+    // Constructors
+    public PaymentAllocationDto() {}
+
+    public PaymentAllocationDto(Long invoiceId, BigDecimal amount) {
+        this.invoiceId = invoiceId;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
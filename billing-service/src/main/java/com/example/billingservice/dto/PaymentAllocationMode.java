@@ -0,0 +1,10 @@
+package com.example.billingservice.dto;
+
+/**
+ * How a bulk remittance is spread over invoices: oldest due date first across the client's open
+ * invoices, or exactly as listed in the request.
+ */
+public enum PaymentAllocationMode {
+    FIFO,
+    EXPLICIT
+}
@@ -2,6 +2,7 @@ package com.example.billingservice.dto;
 
 import com.example.billingservice.entity.PaymentMethod;
 import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.entity.Money;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.Duration;
@@ -87,9 +88,7 @@ public class PaymentReportDto {
     public BigDecimal getPaymentPercentage() {
         if (invoiceTotal != null && invoiceTotal.compareTo(BigDecimal.ZERO) > 0 && amount != null) {
             // For refunds (negative amounts), calculate percentage differently
-            BigDecimal absAmount = amount.abs();
-            return absAmount.divide(invoiceTotal, 4, BigDecimal.ROUND_HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            return Money.percentOf(Math.abs(Money.cents(amount)), Money.cents(invoiceTotal));
         }
         return BigDecimal.ZERO;
     }
@@ -0,0 +1,15 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Unreconciled payment as loaded into the reconciliation indexes.
+ */
+public interface ReconciliationCandidateProjection {
+    Long getId();
+    String getReferenceNumber();
+    String getTransactionId();
+    BigDecimal getAmount();
+    LocalDateTime getPaymentDate();
+}
@@ -0,0 +1,10 @@
+package com.example.billingservice.dto;
+
+/**
+ * Rule that matched a statement line, strongest first.
+ */
+public enum ReconciliationMatchType {
+    TRANSACTION_ID,
+    REFERENCE,
+    AMOUNT_DATE
+}
@@ -0,0 +1,77 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReconciliationResultDto {
+    private String reconciliationId;
+    private StatementFormat format;
+    private int linesRead;
+    private int candidatePayments;
+    private int matched;
+    private Map<ReconciliationMatchType, Integer> matchedByRule = new EnumMap<>(ReconciliationMatchType.class);
+    private int unmatched;
+    private int ambiguous;
+    // Matched lines whose payments a concurrent import reconciled first
+    private int alreadyReconciled;
+    // Debits, zero amounts and lines that could not be parsed
+    private int skipped;
+    private BigDecimal matchedAmount;
+    private BigDecimal unmatchedAmount;
+    private long elapsedMillis;
+    // First unmatched, ambiguous and invalid lines only, up to app.billing.reconciliation.max-reported-lines
+    private List<ReconciliationLineDto> unmatchedLines = new ArrayList<>();
+    private boolean unmatchedLinesTruncated;
+
+    // Constructors
+    public ReconciliationResultDto() {}
+
+    // Getters and Setters
+    public String getReconciliationId() { return reconciliationId; }
+    public void setReconciliationId(String reconciliationId) { this.reconciliationId = reconciliationId; }
+
+    public StatementFormat getFormat() { return format; }
+    public void setFormat(StatementFormat format) { this.format = format; }
+
+    public int getLinesRead() { return linesRead; }
+    public void setLinesRead(int linesRead) { this.linesRead = linesRead; }
+
+    public int getCandidatePayments() { return candidatePayments; }
+    public void setCandidatePayments(int candidatePayments) { this.candidatePayments = candidatePayments; }
+
+    public int getMatched() { return matched; }
+    public void setMatched(int matched) { this.matched = matched; }
+
+    public Map<ReconciliationMatchType, Integer> getMatchedByRule() { return matchedByRule; }
+    public void setMatchedByRule(Map<ReconciliationMatchType, Integer> matchedByRule) { this.matchedByRule = matchedByRule; }
+
+    public int getUnmatched() { return unmatched; }
+    public void setUnmatched(int unmatched) { this.unmatched = unmatched; }
+
+    public int getAmbiguous() { return ambiguous; }
+    public void setAmbiguous(int ambiguous) { this.ambiguous = ambiguous; }
+
+    public int getAlreadyReconciled() { return alreadyReconciled; }
+    public void setAlreadyReconciled(int alreadyReconciled) { this.alreadyReconciled = alreadyReconciled; }
+
+    public int getSkipped() { return skipped; }
+    public void setSkipped(int skipped) { this.skipped = skipped; }
+
+    public BigDecimal getMatchedAmount() { return matchedAmount; }
+    public void setMatchedAmount(BigDecimal matchedAmount) { this.matchedAmount = matchedAmount; }
+
+    public BigDecimal getUnmatchedAmount() { return unmatchedAmount; }
+    public void setUnmatchedAmount(BigDecimal unmatchedAmount) { this.unmatchedAmount = unmatchedAmount; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public List<ReconciliationLineDto> getUnmatchedLines() { return unmatchedLines; }
+    public void setUnmatchedLines(List<ReconciliationLineDto> unmatchedLines) { this.unmatchedLines = unmatchedLines; }
+
+    public boolean isUnmatchedLinesTruncated() { return unmatchedLinesTruncated; }
+    public void setUnmatchedLinesTruncated(boolean unmatchedLinesTruncated) { this.unmatchedLinesTruncated = unmatchedLinesTruncated; }
+}
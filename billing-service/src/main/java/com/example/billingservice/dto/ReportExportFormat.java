@@ -0,0 +1,48 @@
+package com.example.billingservice.dto;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Row-streaming export formats, chosen from the request's {@code Accept} header.
+ */
+public enum ReportExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ReportExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * First format the client accepts, by q-value and then header order; a wildcard gets NDJSON.
+     * Empty when nothing acceptable is on offer.
+     */
+    public static Optional<ReportExportFormat> fromAccept(List<MediaType> accepted) {
+        if (accepted.isEmpty()) {
+            return Optional.of(NDJSON);
+        }
+        return accepted.stream()
+                .filter(mediaType -> mediaType.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .flatMap(mediaType -> Arrays.stream(values())
+                        .filter(format -> mediaType.includes(format.mediaType)))
+                .findFirst();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.billingservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public class ReportJobRequest {
+
+    @NotNull
+    private ReportJobType reportType;
+
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    // Constructors
+    public ReportJobRequest() {}
+
+    public ReportJobRequest(ReportJobType reportType, LocalDateTime startDate, LocalDateTime endDate) {
+        this.reportType = reportType;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+    public ReportJobType getReportType() { return reportType; }
+    public void setReportType(ReportJobType reportType) { this.reportType = reportType; }
+
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+}
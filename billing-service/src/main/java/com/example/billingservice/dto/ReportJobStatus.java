@@ -0,0 +1,18 @@
+package com.example.billingservice.dto;
+
+public enum ReportJobStatus {
+    QUEUED("En cola"),
+    RUNNING("En proceso"),
+    COMPLETED("Completado"),
+    FAILED("Fallido");
+
+    private final String description;
+
+    ReportJobStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
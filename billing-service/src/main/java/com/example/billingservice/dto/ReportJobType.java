@@ -0,0 +1,34 @@
+package com.example.billingservice.dto;
+
+public enum ReportJobType {
+    SALES_REPORT_PDF("reporte-ventas.pdf", "application/pdf", true),
+    OUTSTANDING_INVOICES_PDF("facturas-pendientes.pdf", "application/pdf", false),
+    INVOICES_EXCEL("facturas.xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", true),
+    PAYMENTS_EXCEL("pagos.xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", true),
+    SALES_ANALYSIS_EXCEL("analisis-ventas.xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", true);
+
+    private final String fileName;
+    private final String contentType;
+    private final boolean dateRangeRequired;
+
+    ReportJobType(String fileName, String contentType, boolean dateRangeRequired) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.dateRangeRequired = dateRangeRequired;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isDateRangeRequired() {
+        return dateRangeRequired;
+    }
+}
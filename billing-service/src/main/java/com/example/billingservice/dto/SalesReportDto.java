@@ -2,6 +2,7 @@ package com.example.billingservice.dto;
 
 import com.example.billingservice.entity.ServiceType;
 import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.Money;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -61,16 +62,14 @@ public class SalesReportDto {
     // Calculated methods
     public BigDecimal getCollectionRate() {
         if (totalSales != null && totalSales.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal paid = totalPaid != null ? totalPaid : BigDecimal.ZERO;
-            return paid.divide(totalSales, 4, java.math.RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            return Money.percentOf(Money.cents(totalPaid), Money.cents(totalSales));
         }
         return BigDecimal.ZERO;
     }
 
     public BigDecimal getAverageInvoiceAmount() {
         if (totalInvoices != null && totalInvoices > 0 && totalSales != null) {
-            return totalSales.divide(new BigDecimal(totalInvoices), 2, java.math.RoundingMode.HALF_UP);
+            return Money.amount(Money.dividedBy(Money.cents(totalSales), totalInvoices));
         }
         return BigDecimal.ZERO;
     }
@@ -101,7 +100,7 @@ public class SalesReportDto {
             this.totalAmount = totalAmount;
             this.quantity = quantity;
             this.averagePrice = quantity != null && quantity > 0 ?
-                    totalAmount.divide(new BigDecimal(quantity), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+                    Money.amount(Money.dividedBy(Money.cents(totalAmount), quantity)) : BigDecimal.ZERO;
         }
 
         // Getters and Setters
@@ -143,7 +142,7 @@ public class SalesReportDto {
             this.totalAmount = totalAmount;
             this.transactionCount = transactionCount;
             this.averageTransaction = transactionCount != null && transactionCount > 0 ?
-                    totalAmount.divide(new BigDecimal(transactionCount), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+                    Money.amount(Money.dividedBy(Money.cents(totalAmount), transactionCount)) : BigDecimal.ZERO;
         }
 
         // Getters and Setters
@@ -187,7 +186,7 @@ public class SalesReportDto {
             this.totalSpent = totalSpent;
             this.invoiceCount = invoiceCount;
             this.averageInvoice = invoiceCount != null && invoiceCount > 0 ?
-                    totalSpent.divide(new BigDecimal(invoiceCount), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+                    Money.amount(Money.dividedBy(Money.cents(totalSpent), invoiceCount)) : BigDecimal.ZERO;
             this.loyaltyLevel = calculateLoyaltyLevel(totalSpent, invoiceCount);
         }
 
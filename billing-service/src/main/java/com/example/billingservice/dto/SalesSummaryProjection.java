@@ -0,0 +1,20 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Single-row aggregate of the invoices issued in a period, computed by the database.
+ * Sums and counts are {@code null} when the period has no invoices.
+ */
+public interface SalesSummaryProjection {
+    Long getTotalInvoices();
+    BigDecimal getTotalSales();
+    BigDecimal getTotalPaid();
+    BigDecimal getTotalOutstanding();
+    BigDecimal getTotalTax();
+    BigDecimal getTotalDiscount();
+    Long getPaidInvoices();
+    Long getPendingInvoices();
+    Long getOverdueInvoices();
+    Long getCancelledInvoices();
+}
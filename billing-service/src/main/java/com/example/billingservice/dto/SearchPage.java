@@ -0,0 +1,29 @@
+package com.example.billingservice.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of search results. When {@code truncated} is true the search stopped after the configured
+ * number of candidates, so {@code totalElements} only counts the matches found up to that point.
+ */
+public class SearchPage<T> extends PageImpl<T> {
+
+    private final boolean truncated;
+
+    public SearchPage(List<T> content, Pageable pageable, long total, boolean truncated) {
+        super(content, pageable, total);
+        this.truncated = truncated;
+    }
+
+    public boolean isTruncated() { return truncated; }
+
+    @Override
+    public <U> SearchPage<U> map(Function<? super T, ? extends U> converter) {
+        return new SearchPage<>(getContent().stream().<U>map(converter).toList(), getPageable(),
+                getTotalElements(), truncated);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.billingservice.dto;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Bank and card-processor statement formats accepted for reconciliation.
+ */
+public enum StatementFormat {
+    CSV,
+    OFX;
+
+    // From the uploaded file name; QFX is OFX under another extension
+    public static Optional<StatementFormat> fromFileName(String fileName) {
+        if (fileName == null) {
+            return Optional.empty();
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            return Optional.of(CSV);
+        }
+        if (name.endsWith(".ofx") || name.endsWith(".qfx")) {
+            return Optional.of(OFX);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.billingservice.dto;
+
+/**
+ * Invoice selected for a statement run; enough to name its archive entry.
+ */
+public interface StatementInvoiceProjection {
+    Long getId();
+    String getInvoiceNumber();
+    Long getClientId();
+}
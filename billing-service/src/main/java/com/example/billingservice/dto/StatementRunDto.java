@@ -0,0 +1,63 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class StatementRunDto {
+    private String runId;
+    private ReportJobStatus status;
+    private int totalInvoices;
+    private int renderedInvoices;
+    private int failedInvoices;
+    private BigDecimal progressPercentage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    private String fileName;
+    private Long sizeBytes;
+    private String errorMessage;
+
+    // Constructors
+    public StatementRunDto() {}
+
+    // Getters and Setters
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+
+    public ReportJobStatus getStatus() { return status; }
+    public void setStatus(ReportJobStatus status) { this.status = status; }
+
+    public int getTotalInvoices() { return totalInvoices; }
+    public void setTotalInvoices(int totalInvoices) { this.totalInvoices = totalInvoices; }
+
+    public int getRenderedInvoices() { return renderedInvoices; }
+    public void setRenderedInvoices(int renderedInvoices) { this.renderedInvoices = renderedInvoices; }
+
+    public int getFailedInvoices() { return failedInvoices; }
+    public void setFailedInvoices(int failedInvoices) { this.failedInvoices = failedInvoices; }
+
+    public BigDecimal getProgressPercentage() { return progressPercentage; }
+    public void setProgressPercentage(BigDecimal progressPercentage) { this.progressPercentage = progressPercentage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,15 @@
+package com.example.billingservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Rollup sums for one invoice status / payment status combination.
+ */
+public interface StatusTotalsProjection {
+    String getInvoiceStatus();
+    String getPaymentStatus();
+    Long getInvoiceCount();
+    BigDecimal getTotalAmount();
+    BigDecimal getPaidAmount();
+    BigDecimal getBalanceDue();
+}
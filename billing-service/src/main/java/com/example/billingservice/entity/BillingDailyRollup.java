@@ -0,0 +1,54 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated invoice totals per issue day, invoice status, payment status and payment method.
+ * Maintained incrementally by invoice and payment writes; rebuilt from {@code invoices} on demand.
+ */
+@Entity
+@Table(name = "billing_daily_rollup")
+public class BillingDailyRollup {
+
+    @EmbeddedId
+    private BillingDailyRollupId id;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount = 0L;
+
+    @Column(name = "total_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "paid_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    @Column(name = "balance_due", precision = 15, scale = 2, nullable = false)
+    private BigDecimal balanceDue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public BillingDailyRollup() {}
+
+    // Getters and Setters
+    public BillingDailyRollupId getId() { return id; }
+    public void setId(BillingDailyRollupId id) { this.id = id; }
+
+    public Long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(Long invoiceCount) { this.invoiceCount = invoiceCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public BigDecimal getPaidAmount() { return paidAmount; }
+    public void setPaidAmount(BigDecimal paidAmount) { this.paidAmount = paidAmount; }
+
+    public BigDecimal getBalanceDue() { return balanceDue; }
+    public void setBalanceDue(BigDecimal balanceDue) { this.balanceDue = balanceDue; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,65 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Embeddable
+public class BillingDailyRollupId implements Serializable {
+
+    // Enum names are stored as plain strings so a missing value can be keyed as NONE
+    public static final String NONE = "NONE";
+
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Column(name = "invoice_status", length = 20)
+    private String invoiceStatus;
+
+    @Column(name = "payment_status", length = 20)
+    private String paymentStatus;
+
+    @Column(name = "payment_method", length = 20)
+    private String paymentMethod;
+
+    // Constructors
+    public BillingDailyRollupId() {}
+
+    public BillingDailyRollupId(LocalDate rollupDate, String invoiceStatus, String paymentStatus, String paymentMethod) {
+        this.rollupDate = rollupDate;
+        this.invoiceStatus = invoiceStatus;
+        this.paymentStatus = paymentStatus;
+        this.paymentMethod = paymentMethod;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BillingDailyRollupId)) return false;
+        BillingDailyRollupId that = (BillingDailyRollupId) o;
+        return Objects.equals(rollupDate, that.rollupDate)
+                && Objects.equals(invoiceStatus, that.invoiceStatus)
+                && Objects.equals(paymentStatus, that.paymentStatus)
+                && Objects.equals(paymentMethod, that.paymentMethod);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rollupDate, invoiceStatus, paymentStatus, paymentMethod);
+    }
+
+    // Getters and Setters
+    public LocalDate getRollupDate() { return rollupDate; }
+    public void setRollupDate(LocalDate rollupDate) { this.rollupDate = rollupDate; }
+
+    public String getInvoiceStatus() { return invoiceStatus; }
+    public void setInvoiceStatus(String invoiceStatus) { this.invoiceStatus = invoiceStatus; }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+}
@@ -0,0 +1,47 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-prefix, per-day counter for invoice and payment numbers (e.g. {@code VET-20240115}).
+ * {@code nextValue} is the first number not yet handed out to any node.
+ */
+@Entity
+@Table(name = "document_sequences")
+public class DocumentSequence {
+
+    @Id
+    @Column(name = "sequence_key", length = 40)
+    private String sequenceKey;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public DocumentSequence() {}
+
+    public DocumentSequence(String sequenceKey, Long nextValue) {
+        this.sequenceKey = sequenceKey;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+    public String getSequenceKey() { return sequenceKey; }
+    public void setSequenceKey(String sequenceKey) { this.sequenceKey = sequenceKey; }
+
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
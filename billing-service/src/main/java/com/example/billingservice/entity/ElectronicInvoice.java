@@ -0,0 +1,98 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row of an invoice's UBL document: its CUFE, the file written to the outbox and the answer
+ * of the tax authority. The row is stored as SUBMITTING before the document is sent and updated
+ * with the answer; FAILED rows are retried until they reach the attempt limit.
+ */
+@Entity
+@Table(name = "electronic_invoices", indexes = {
+        @Index(name = "idx_electronic_invoices_status", columnList = "status")
+})
+public class ElectronicInvoice {
+
+    @Id
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+
+    // Number, CUFE and file are missing on FAILED rows of invoices that could not be generated
+    @Column(name = "invoice_number")
+    private String invoiceNumber;
+
+    // SHA-384 in hex
+    @Column(name = "cufe", length = 96)
+    private String cufe;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ElectronicInvoiceStatus status;
+
+    @Column(name = "response_code", length = 10)
+    private String responseCode;
+
+    @Column(name = "response_message", length = 500)
+    private String responseMessage;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    @Column(name = "responded_at")
+    private LocalDateTime respondedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // Lets saveAll tell new rows (null version) from existing ones without a select per row
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Constructors
+    public ElectronicInvoice() {}
+
+    public ElectronicInvoice(Long invoiceId) {
+        this.invoiceId = invoiceId;
+        this.status = ElectronicInvoiceStatus.SUBMITTING;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public String getCufe() { return cufe; }
+    public void setCufe(String cufe) { this.cufe = cufe; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public ElectronicInvoiceStatus getStatus() { return status; }
+    public void setStatus(ElectronicInvoiceStatus status) { this.status = status; }
+
+    public String getResponseCode() { return responseCode; }
+    public void setResponseCode(String responseCode) { this.responseCode = responseCode; }
+
+    public String getResponseMessage() { return responseMessage; }
+    public void setResponseMessage(String responseMessage) { this.responseMessage = responseMessage; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public LocalDateTime getRespondedAt() { return respondedAt; }
+    public void setRespondedAt(LocalDateTime respondedAt) { this.respondedAt = respondedAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
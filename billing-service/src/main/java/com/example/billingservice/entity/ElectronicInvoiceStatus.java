@@ -0,0 +1,18 @@
+package com.example.billingservice.entity;
+
+public enum ElectronicInvoiceStatus {
+    SUBMITTING("Enviando"),
+    ACCEPTED("Aceptada"),
+    REJECTED("Rechazada"),
+    FAILED("Fallida");
+
+    private final String description;
+
+    ElectronicInvoiceStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.billingservice.entity;
+
+/**
+ * Pooled id generators kept in the {@code id_generators} table. The entity mappings and the startup
+ * alignment in {@code IdGeneratorInitializer} must agree on the block size.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+
+    // Ids handed out per round trip to the generator table
+    public static final int ALLOCATION_SIZE = 100;
+
+    private IdGenerators() {}
+}
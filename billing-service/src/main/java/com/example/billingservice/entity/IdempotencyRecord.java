@@ -0,0 +1,53 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}. The row is inserted in the same
+ * transaction as the write it guards, so the key and the write commit or roll back together.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    // Operation plus client key, e.g. "payments.create:3f2a..."
+    @Id
+    @Column(name = "record_key", length = 160)
+    private String recordKey;
+
+    // SHA-256 of the request, to reject a key reused for a different request
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    @Lob
+    @Column(name = "response_body", columnDefinition = "MEDIUMTEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public IdempotencyRecord() {}
+
+    // Getters and Setters
+    public String getRecordKey() { return recordKey; }
+    public void setRecordKey(String recordKey) { this.recordKey = recordKey; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -3,16 +3,28 @@ package com.example.billingservice.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
+import org.hibernate.Hibernate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_invoices_status_created_id", columnList = "invoice_status, created_at, id"),
+        @Index(name = "idx_invoices_issue_date_id", columnList = "issue_date, id"),
+        @Index(name = "idx_invoices_payment_status_due", columnList = "payment_status, due_date"),
+        @Index(name = "idx_invoices_client_issue_date", columnList = "client_id, issue_date"),
+        @Index(name = "idx_invoices_dunning", columnList = "payment_status, dunning_stage, due_date")
+})
 public class Invoice {
+    // Pooled ids (one table round-trip per 100 rows) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_id_generator")
+    @TableGenerator(name = "invoice_id_generator", table = IdGenerators.TABLE, pkColumnName = "generator",
+            valueColumnName = "next_value", pkColumnValue = "invoices",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "invoice_number", unique = true)
@@ -96,6 +108,13 @@ public class Invoice {
     @Column(name = "payment_date")
     private LocalDateTime paymentDate;
 
+    // Last reminder stage sent (position in app.billing.dunning.stages, 0 = none yet)
+    @Column(name = "dunning_stage", nullable = false, columnDefinition = "int default 0")
+    private int dunningStage;
+
+    @Column(name = "dunning_sent_at")
+    private LocalDateTime dunningSentAt;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -105,6 +124,10 @@ public class Invoice {
     @Column(name = "created_by")
     private Long createdBy;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<InvoiceItem> items = new ArrayList<>();
 
@@ -118,47 +141,74 @@ public class Invoice {
         if (issueDate == null) {
             issueDate = LocalDateTime.now();
         }
-        generateInvoiceNumber();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
-        calculateTotals();
-    }
-
-    private void generateInvoiceNumber() {
-        if (invoiceNumber == null || invoiceNumber.isEmpty()) {
-            // Format: VET-YYYY-MM-DD-XXXXX
-            String datePrefix = java.time.LocalDate.now().toString().replace("-", "");
-            this.invoiceNumber = "VET-" + datePrefix + "-" + String.format("%05d",
-                    (int)(Math.random() * 99999) + 1);
+        if (Hibernate.isInitialized(items)) {
+            calculateTotals();
+        } else {
+            // Items were not touched in this session, so the stored subtotal is current
+            calculateTotalsFromSubtotal();
         }
     }
 
     public void calculateTotals() {
         // Calculate subtotal from items
-        this.subtotal = items.stream()
-                .map(InvoiceItem::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long itemsSubtotal = 0;
+        for (InvoiceItem item : items) {
+            itemsSubtotal = Math.addExact(itemsSubtotal, Money.cents(item.getTotal()));
+        }
+        this.subtotal = Money.amount(itemsSubtotal);
+
+        calculateTotalsFromSubtotal();
+    }
+
+    /**
+     * Applies a new paid amount and refreshes balance and payment status without touching items.
+     */
+    public void updatePaidAmount(BigDecimal paidAmount) {
+        long paid = Money.cents(paidAmount);
+        long balance = Math.subtractExact(Money.cents(totalAmount), paid);
+        this.paidAmount = Money.amount(paid);
+        this.balanceDue = Money.amount(balance);
+        updatePaymentStatus(paid, balance);
+    }
+
+    // Each step rounds HALF_UP to the cent, so the stored parts always add up to the stored total.
+    // Works in plain cents: this runs on every persist and update.
+    private void calculateTotalsFromSubtotal() {
+        long base = Money.cents(subtotal);
+        long paid = Money.cents(paidAmount);
 
         // Apply discount
-        this.discountAmount = subtotal.multiply(discountPercentage).divide(new BigDecimal("100"));
-        BigDecimal discountedSubtotal = subtotal.subtract(discountAmount);
+        long discount = Money.percentage(base, discountPercentage);
+        long discountedSubtotal = base - discount;
 
         // Calculate tax
-        this.taxAmount = discountedSubtotal.multiply(taxPercentage).divide(new BigDecimal("100"));
+        long tax = Money.percentage(discountedSubtotal, taxPercentage);
 
         // Calculate total
-        this.totalAmount = discountedSubtotal.add(taxAmount);
+        long total = Math.addExact(discountedSubtotal, tax);
 
         // Calculate balance due
-        this.balanceDue = totalAmount.subtract(paidAmount);
+        long balance = Math.subtractExact(total, paid);
+
+        this.subtotal = Money.amount(base);
+        this.paidAmount = Money.amount(paid);
+        this.discountAmount = Money.amount(discount);
+        this.taxAmount = Money.amount(tax);
+        this.totalAmount = Money.amount(total);
+        this.balanceDue = Money.amount(balance);
+
+        updatePaymentStatus(paid, balance);
+    }
 
-        // Update payment status
-        if (balanceDue.compareTo(BigDecimal.ZERO) <= 0) {
+    private void updatePaymentStatus(long paid, long balance) {
+        if (balance <= 0) {
             this.paymentStatus = PaymentStatus.PAID;
-        } else if (paidAmount.compareTo(BigDecimal.ZERO) > 0) {
+        } else if (paid > 0) {
             this.paymentStatus = PaymentStatus.PARTIAL;
         }
     }
@@ -250,6 +300,12 @@ public class Invoice {
     public LocalDateTime getPaymentDate() { return paymentDate; }
     public void setPaymentDate(LocalDateTime paymentDate) { this.paymentDate = paymentDate; }
 
+    public int getDunningStage() { return dunningStage; }
+    public void setDunningStage(int dunningStage) { this.dunningStage = dunningStage; }
+
+    public LocalDateTime getDunningSentAt() { return dunningSentAt; }
+    public void setDunningSentAt(LocalDateTime dunningSentAt) { this.dunningSentAt = dunningSentAt; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -259,6 +315,9 @@ public class Invoice {
     public Long getCreatedBy() { return createdBy; }
     public void setCreatedBy(Long createdBy) { this.createdBy = createdBy; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<InvoiceItem> getItems() { return items; }
     public void setItems(List<InvoiceItem> items) { this.items = items; }
 
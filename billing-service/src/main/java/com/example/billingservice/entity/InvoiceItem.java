@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @Table(name = "invoice_items")
 public class InvoiceItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_item_id_generator")
+    @TableGenerator(name = "invoice_item_id_generator", table = IdGenerators.TABLE, pkColumnName = "generator",
+            valueColumnName = "next_value", pkColumnValue = "invoice_items",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -66,18 +69,17 @@ public class InvoiceItem {
 
     @PrePersist
     @PreUpdate
-    protected void calculateTotal() {
+    public void calculateTotal() {
         if (unitPrice != null && quantity != null) {
-            BigDecimal subtotal = unitPrice.multiply(new BigDecimal(quantity));
+            long subtotal = Math.multiplyExact(Money.cents(unitPrice), quantity);
 
             // Apply discount
-            if (discountPercentage != null && discountPercentage.compareTo(BigDecimal.ZERO) > 0) {
-                this.discountAmount = subtotal.multiply(discountPercentage).divide(new BigDecimal("100"));
-            } else {
-                this.discountAmount = BigDecimal.ZERO;
-            }
+            long discount = discountPercentage != null && discountPercentage.signum() > 0
+                    ? Money.percentage(subtotal, discountPercentage)
+                    : 0;
 
-            this.total = subtotal.subtract(discountAmount);
+            this.discountAmount = Money.amount(discount);
+            this.total = Money.amount(subtotal - discount);
         }
     }
 
@@ -0,0 +1,29 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Inverted index for invoice search: one row per distinct trigram (or word-prefix gram such as
+ * {@code ^ab}) of an invoice's number, client name and pet name. The primary key doubles as the
+ * lookup index; {@code invoice_id} is indexed separately for re-indexing and deletes.
+ */
+@Entity
+@Table(name = "invoice_search_grams", indexes = {
+        @Index(name = "idx_invoice_search_grams_invoice", columnList = "invoice_id")
+})
+public class InvoiceSearchGram {
+
+    @EmbeddedId
+    private InvoiceSearchGramId id;
+
+    // Constructors
+    public InvoiceSearchGram() {}
+
+    public InvoiceSearchGram(String gram, Long invoiceId) {
+        this.id = new InvoiceSearchGramId(gram, invoiceId);
+    }
+
+    // Getters and Setters
+    public InvoiceSearchGramId getId() { return id; }
+    public void setId(InvoiceSearchGramId id) { this.id = id; }
+}
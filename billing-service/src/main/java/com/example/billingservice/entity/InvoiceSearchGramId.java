@@ -0,0 +1,44 @@
+package com.example.billingservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class InvoiceSearchGramId implements Serializable {
+
+    @Column(name = "gram", length = 3)
+    private String gram;
+
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+
+    // Constructors
+    public InvoiceSearchGramId() {}
+
+    public InvoiceSearchGramId(String gram, Long invoiceId) {
+        this.gram = gram;
+        this.invoiceId = invoiceId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InvoiceSearchGramId)) return false;
+        InvoiceSearchGramId that = (InvoiceSearchGramId) o;
+        return Objects.equals(gram, that.gram) && Objects.equals(invoiceId, that.invoiceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(gram, invoiceId);
+    }
+
+    // Getters and Setters
+    public String getGram() { return gram; }
+    public void setGram(String gram) { this.gram = gram; }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+}
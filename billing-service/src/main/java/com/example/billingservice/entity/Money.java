@@ -0,0 +1,182 @@
+package com.example.billingservice.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable amount in COP held as a {@code long} number of cents. Every operation that can
+ * produce a fraction of a cent rounds HALF_UP (away from zero on ties), the same rule the
+ * DECIMAL(x,2) columns apply on store. Overflow throws {@link ArithmeticException}.
+ *
+ * <p>Entity columns and DTO fields stay {@code BigDecimal}, so the JDBC and JSON representation
+ * of every amount is unchanged and no converter runs per column or per field. Arithmetic goes
+ * through this type instead: the static cent helpers let hot paths such as invoice totals and
+ * report aggregation work on plain {@code long}s without creating a {@code Money} per step.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+    // Percentages are carried in hundredths of a percent, matching the DECIMAL(5,2) columns
+    private static final long PERCENT_DIVISOR = 10_000L;
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Null is treated as zero; more than two decimals are rounded HALF_UP.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(cents(amount));
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    // Static cent helpers
+
+    /**
+     * Cents in {@code amount}; null is zero and more than two decimals are rounded HALF_UP.
+     */
+    public static long cents(BigDecimal amount) {
+        return amount == null || amount.signum() == 0 ? 0 : toMinorUnits(amount, SCALE);
+    }
+
+    public static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * {@code percent}% of {@code cents}, rounded HALF_UP to the cent. Null means 0%.
+     */
+    public static long percentage(long cents, BigDecimal percent) {
+        if (percent == null || percent.signum() == 0 || cents == 0) {
+            return 0;
+        }
+        return divideHalfUp(Math.multiplyExact(cents, toMinorUnits(percent, 2)), PERCENT_DIVISOR);
+    }
+
+    public static long dividedBy(long cents, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division of money by zero");
+        }
+        return divideHalfUp(cents, divisor);
+    }
+
+    /**
+     * {@code part} as a percentage of {@code whole}, with two decimals. Zero when {@code whole} is not positive.
+     */
+    public static BigDecimal percentOf(long part, long whole) {
+        if (whole <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(divideHalfUp(Math.multiplyExact(part, PERCENT_DIVISOR), whole), 2);
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return other.cents == 0 ? this : ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return other.cents == 0 ? this : ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public Money abs() {
+        return cents < 0 ? negate() : this;
+    }
+
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * {@code percent}% of this amount, e.g. {@code percentage(19.00)} for IVA. Null means 0%.
+     */
+    public Money percentage(BigDecimal percent) {
+        return ofCents(percentage(cents, percent));
+    }
+
+    public Money dividedBy(long divisor) {
+        return ofCents(dividedBy(cents, divisor));
+    }
+
+    /**
+     * This amount as a percentage of {@code whole}, with two decimals. Zero when {@code whole} is not positive.
+     */
+    public BigDecimal percentOf(Money whole) {
+        return percentOf(cents, whole.cents);
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return amount(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).cents == cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static long toMinorUnits(BigDecimal value, int scale) {
+        BigDecimal scaled = value.scale() == scale ? value : value.setScale(scale, RoundingMode.HALF_UP);
+        return scaled.scaleByPowerOfTen(scale).longValueExact();
+    }
+
+    // HALF_UP on the magnitude, so -0.5 rounds to -1 like BigDecimal does
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
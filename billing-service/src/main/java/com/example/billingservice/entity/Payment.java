@@ -7,10 +7,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_payments_status_created_id", columnList = "payment_status, created_at, id"),
+        @Index(name = "idx_payments_date_id", columnList = "payment_date, id"),
+        @Index(name = "idx_payments_reconciled_date", columnList = "reconciled_at, payment_date")
+})
 public class Payment {
+    // Pooled ids (one table round-trip per 100 rows) so bulk allocations insert as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "payment_id_generator")
+    @TableGenerator(name = "payment_id_generator", table = IdGenerators.TABLE, pkColumnName = "generator",
+            valueColumnName = "next_value", pkColumnValue = "payments",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -51,6 +60,13 @@ public class Payment {
     @Column(name = "processed_by_name")
     private String processedByName;
 
+    // Set when a bank statement line was matched to this payment
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    @Column(name = "reconciliation_id", length = 36)
+    private String reconciliationId;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -64,7 +80,6 @@ public class Payment {
         if (paymentDate == null) {
             paymentDate = LocalDateTime.now();
         }
-        generatePaymentNumber();
     }
 
     @PreUpdate
@@ -72,15 +87,6 @@ public class Payment {
         updatedAt = LocalDateTime.now();
     }
 
-    private void generatePaymentNumber() {
-        if (paymentNumber == null || paymentNumber.isEmpty()) {
-            // Format: PAY-YYYY-MM-DD-XXXXX
-            String datePrefix = java.time.LocalDate.now().toString().replace("-", "");
-            this.paymentNumber = "PAY-" + datePrefix + "-" + String.format("%05d",
-                    (int)(Math.random() * 99999) + 1);
-        }
-    }
-
     // Constructors
     public Payment() {}
 
@@ -127,6 +133,12 @@ public class Payment {
     public String getProcessedByName() { return processedByName; }
     public void setProcessedByName(String processedByName) { this.processedByName = processedByName; }
 
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+    public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
+
+    public String getReconciliationId() { return reconciliationId; }
+    public void setReconciliationId(String reconciliationId) { this.reconciliationId = reconciliationId; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -0,0 +1,116 @@
+package com.example.billingservice.entity;
+
+import com.example.billingservice.dto.ReportJobStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a month-end statement run. The archive is written in parts; after each part is on
+ * disk the run records the last invoice id it covers, so a resumed run continues from there.
+ */
+@Entity
+@Table(name = "statement_runs", indexes = {
+        @Index(name = "idx_statement_runs_created_at", columnList = "created_at")
+})
+public class StatementRun {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ReportJobStatus status;
+
+    // Open invoices counted when the run started; payments during the run can lower the real number
+    @Column(name = "total_invoices", nullable = false)
+    private int totalInvoices;
+
+    @Column(name = "rendered_invoices", nullable = false)
+    private int renderedInvoices;
+
+    @Column(name = "failed_invoices", nullable = false)
+    private int failedInvoices;
+
+    // Highest invoice id contained in a completed part
+    @Column(name = "checkpoint_invoice_id", nullable = false)
+    private long checkpointInvoiceId;
+
+    @Column(name = "part_count", nullable = false)
+    private int partCount;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // Heartbeat: refreshed with every checkpoint
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Constructors
+    public StatementRun() {}
+
+    public StatementRun(String id) {
+        this.id = id;
+        this.status = ReportJobStatus.QUEUED;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public ReportJobStatus getStatus() { return status; }
+    public void setStatus(ReportJobStatus status) { this.status = status; }
+
+    public int getTotalInvoices() { return totalInvoices; }
+    public void setTotalInvoices(int totalInvoices) { this.totalInvoices = totalInvoices; }
+
+    public int getRenderedInvoices() { return renderedInvoices; }
+    public void setRenderedInvoices(int renderedInvoices) { this.renderedInvoices = renderedInvoices; }
+
+    public int getFailedInvoices() { return failedInvoices; }
+    public void setFailedInvoices(int failedInvoices) { this.failedInvoices = failedInvoices; }
+
+    public long getCheckpointInvoiceId() { return checkpointInvoiceId; }
+    public void setCheckpointInvoiceId(long checkpointInvoiceId) { this.checkpointInvoiceId = checkpointInvoiceId; }
+
+    public int getPartCount() { return partCount; }
+    public void setPartCount(int partCount) { this.partCount = partCount; }
+
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
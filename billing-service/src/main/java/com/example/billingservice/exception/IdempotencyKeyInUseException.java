@@ -0,0 +1,11 @@
+package com.example.billingservice.exception;
+
+/**
+ * Another request holding the same {@code Idempotency-Key} committed or is still running.
+ */
+public class IdempotencyKeyInUseException extends IllegalStateException {
+
+    public IdempotencyKeyInUseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
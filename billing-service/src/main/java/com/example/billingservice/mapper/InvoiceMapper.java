@@ -1,6 +1,7 @@
 package com.example.billingservice.mapper;
 
 import com.example.billingservice.dto.InvoiceDto;
+import com.example.billingservice.dto.InvoiceSummaryDto;
 import com.example.billingservice.entity.Invoice;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -69,6 +70,19 @@ public class InvoiceMapper {
         return dto;
     }
 
+    // For entities that are already loaded; never touches items or payments
+    public InvoiceSummaryDto toSummaryDto(Invoice entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        return new InvoiceSummaryDto(entity.getId(), entity.getInvoiceNumber(), entity.getClientId(),
+                entity.getClientName(), entity.getPetId(), entity.getPetName(), entity.getStatus(),
+                entity.getPaymentStatus(), entity.getPaymentMethod(), entity.getTotalAmount(),
+                entity.getPaidAmount(), entity.getBalanceDue(), entity.getIssueDate(), entity.getDueDate(),
+                entity.getCreatedAt());
+    }
+
     public Invoice toEntity(InvoiceDto dto) {
         if (dto == null) {
             return null;
@@ -0,0 +1,74 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.dto.StatusTotalsProjection;
+import com.example.billingservice.entity.BillingDailyRollup;
+import com.example.billingservice.entity.BillingDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BillingDailyRollupRepository extends JpaRepository<BillingDailyRollup, BillingDailyRollupId> {
+
+    // Atomic upsert: concurrent writers on the same key add their deltas without lost updates
+    @Modifying
+    @Query(value = "INSERT INTO billing_daily_rollup " +
+            "(rollup_date, invoice_status, payment_status, payment_method, invoice_count, total_amount, paid_amount, balance_due, updated_at) " +
+            "VALUES (:rollupDate, :invoiceStatus, :paymentStatus, :paymentMethod, :invoiceCount, :totalAmount, :paidAmount, :balanceDue, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "invoice_count = invoice_count + :invoiceCount, " +
+            "total_amount = total_amount + :totalAmount, " +
+            "paid_amount = paid_amount + :paidAmount, " +
+            "balance_due = balance_due + :balanceDue, " +
+            "updated_at = NOW()", nativeQuery = true)
+    int applyDelta(@Param("rollupDate") LocalDate rollupDate,
+                   @Param("invoiceStatus") String invoiceStatus,
+                   @Param("paymentStatus") String paymentStatus,
+                   @Param("paymentMethod") String paymentMethod,
+                   @Param("invoiceCount") long invoiceCount,
+                   @Param("totalAmount") BigDecimal totalAmount,
+                   @Param("paidAmount") BigDecimal paidAmount,
+                   @Param("balanceDue") BigDecimal balanceDue);
+
+    @Query("SELECT r.id.invoiceStatus AS invoiceStatus, r.id.paymentStatus AS paymentStatus, " +
+            "SUM(r.invoiceCount) AS invoiceCount, SUM(r.totalAmount) AS totalAmount, " +
+            "SUM(r.paidAmount) AS paidAmount, SUM(r.balanceDue) AS balanceDue " +
+            "FROM BillingDailyRollup r GROUP BY r.id.invoiceStatus, r.id.paymentStatus")
+    List<StatusTotalsProjection> getTotalsByStatus();
+
+    @Query("SELECT SUM(r.totalAmount) FROM BillingDailyRollup r WHERE r.id.rollupDate BETWEEN :startDate AND :endDate")
+    BigDecimal getTotalAmountBetween(@Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate);
+
+    // Current contribution of a set of invoices, grouped by rollup key
+    @Query(value = "SELECT DATE(i.issue_date), COALESCE(i.invoice_status, 'NONE'), COALESCE(i.payment_status, 'NONE'), " +
+            "COALESCE(i.payment_method, 'NONE'), COUNT(*), COALESCE(SUM(i.total_amount), 0), " +
+            "COALESCE(SUM(i.paid_amount), 0), COALESCE(SUM(i.balance_due), 0) " +
+            "FROM invoices i WHERE i.id IN (:invoiceIds) AND i.issue_date IS NOT NULL " +
+            "GROUP BY DATE(i.issue_date), COALESCE(i.invoice_status, 'NONE'), COALESCE(i.payment_status, 'NONE'), " +
+            "COALESCE(i.payment_method, 'NONE')", nativeQuery = true)
+    List<Object[]> sumContributionsByInvoiceIds(@Param("invoiceIds") List<Long> invoiceIds);
+
+    // Shared next-key locks over the whole primary key: every rollup writer changes an invoice row before its
+    // delta, so writers in flight finish first and new ones, inserts included, wait for the rebuild to commit
+    @Query(value = "SELECT COUNT(*) FROM invoices i FORCE INDEX (PRIMARY) FOR SHARE", nativeQuery = true)
+    long lockInvoicesForRebuild();
+
+    // Backfill from the invoices table in one set-based statement
+    @Modifying
+    @Query(value = "INSERT INTO billing_daily_rollup " +
+            "(rollup_date, invoice_status, payment_status, payment_method, invoice_count, total_amount, paid_amount, balance_due, updated_at) " +
+            "SELECT DATE(i.issue_date), COALESCE(i.invoice_status, 'NONE'), COALESCE(i.payment_status, 'NONE'), " +
+            "COALESCE(i.payment_method, 'NONE'), COUNT(*), COALESCE(SUM(i.total_amount), 0), " +
+            "COALESCE(SUM(i.paid_amount), 0), COALESCE(SUM(i.balance_due), 0), NOW() " +
+            "FROM invoices i WHERE i.issue_date IS NOT NULL " +
+            "GROUP BY DATE(i.issue_date), COALESCE(i.invoice_status, 'NONE'), COALESCE(i.payment_status, 'NONE'), " +
+            "COALESCE(i.payment_method, 'NONE')", nativeQuery = true)
+    int rebuildFromInvoices();
+}
@@ -0,0 +1,19 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.entity.DocumentSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DocumentSequence s WHERE s.sequenceKey = :sequenceKey")
+    Optional<DocumentSequence> findForUpdate(@Param("sequenceKey") String sequenceKey);
+}
@@ -0,0 +1,9 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.entity.ElectronicInvoice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ElectronicInvoiceRepository extends JpaRepository<ElectronicInvoice, Long> {
+}
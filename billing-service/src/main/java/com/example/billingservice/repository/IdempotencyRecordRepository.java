@@ -0,0 +1,35 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Plain INSERT so a concurrent holder of the same key makes this block, then fail on the primary key
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (record_key, request_hash, created_at, expires_at) " +
+            "VALUES (:recordKey, :requestHash, :createdAt, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("recordKey") String recordKey,
+                    @Param("requestHash") String requestHash,
+                    @Param("createdAt") LocalDateTime createdAt,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody WHERE r.recordKey = :recordKey")
+    int updateResponse(@Param("recordKey") String recordKey, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = :recordKey AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("recordKey") String recordKey, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < :now LIMIT :batchSize", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -1,20 +1,36 @@
 package com.example.billingservice.repository;
 
 // InvoiceRepository.java
+import com.example.billingservice.dto.AgingBucketProjection;
+import com.example.billingservice.dto.DunningCandidateProjection;
+import com.example.billingservice.dto.InvoiceSummaryDto;
+import com.example.billingservice.dto.LedgerEntryProjection;
+import com.example.billingservice.dto.SalesSummaryProjection;
+import com.example.billingservice.dto.StatementInvoiceProjection;
 import com.example.billingservice.entity.Invoice;
 import com.example.billingservice.entity.InvoiceStatus;
 import com.example.billingservice.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
@@ -25,6 +41,49 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Page<Invoice> findByStatus(InvoiceStatus status, Pageable pageable);
     Page<Invoice> findByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable);
 
+    // Single-invoice fetches for the full DTO; items and payments are two bags, so they load in two queries
+    @EntityGraph(attributePaths = "items")
+    Optional<Invoice> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "payments")
+    Optional<Invoice> findWithPaymentsById(Long id);
+
+    @EntityGraph(attributePaths = "items")
+    List<Invoice> findWithItemsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Invoice> findWithItemsByInvoiceNumber(String invoiceNumber);
+
+    // List views: header columns only
+    String SUMMARY_SELECT = "SELECT new com.example.billingservice.dto.InvoiceSummaryDto(i.id, i.invoiceNumber, " +
+            "i.clientId, i.clientName, i.petId, i.petName, i.status, i.paymentStatus, i.paymentMethod, " +
+            "i.totalAmount, i.paidAmount, i.balanceDue, i.issueDate, i.dueDate, i.createdAt) FROM Invoice i ";
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(i) FROM Invoice i")
+    Page<InvoiceSummaryDto> findAllSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE i.clientId = :clientId",
+            countQuery = "SELECT COUNT(i) FROM Invoice i WHERE i.clientId = :clientId")
+    Page<InvoiceSummaryDto> findSummariesByClientId(@Param("clientId") Long clientId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE i.status = :status",
+            countQuery = "SELECT COUNT(i) FROM Invoice i WHERE i.status = :status")
+    Page<InvoiceSummaryDto> findSummariesByStatus(@Param("status") InvoiceStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE i.paymentStatus = :paymentStatus",
+            countQuery = "SELECT COUNT(i) FROM Invoice i WHERE i.paymentStatus = :paymentStatus")
+    Page<InvoiceSummaryDto> findSummariesByPaymentStatus(@Param("paymentStatus") PaymentStatus paymentStatus,
+                                                         Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE i.issueDate BETWEEN :startDate AND :endDate",
+            countQuery = "SELECT COUNT(i) FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate")
+    Page<InvoiceSummaryDto> findSummariesByIssueDateBetween(@Param("startDate") LocalDateTime startDate,
+                                                            @Param("endDate") LocalDateTime endDate,
+                                                            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE i.dueDate < :currentDate AND i.paymentStatus != 'PAID' ORDER BY i.dueDate")
+    List<InvoiceSummaryDto> findOverdueSummaries(@Param("currentDate") LocalDateTime currentDate);
+
     // Date range queries
     @Query("SELECT i FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate")
     Page<Invoice> findByIssueDateBetween(@Param("startDate") LocalDateTime startDate,
@@ -36,10 +95,112 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
                                        @Param("endDate") LocalDateTime endDate,
                                        Pageable pageable);
 
+    // Keyset pagination, newest first; the Pageable only carries the row limit, so no count query runs
+    @Query("SELECT i FROM Invoice i ORDER BY i.createdAt DESC, i.id DESC")
+    List<Invoice> findLatest(Pageable limit);
+
+    // Rows without a timestamp sort last when descending, as MySQL does, so they come after every dated row
+    // and a cursor without a sort key only continues among them
+    @Query("SELECT i FROM Invoice i WHERE i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id) " +
+            "OR (i.createdAt IS NULL AND (:createdAt IS NOT NULL OR i.id < :id)) " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<Invoice> findLatestAfter(@Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id,
+                                  Pageable limit);
+
+    @Query("SELECT i FROM Invoice i WHERE i.status = :status ORDER BY i.createdAt DESC, i.id DESC")
+    List<Invoice> findLatestByStatus(@Param("status") InvoiceStatus status, Pageable limit);
+
+    @Query("SELECT i FROM Invoice i WHERE i.status = :status " +
+            "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id) " +
+            "OR (i.createdAt IS NULL AND (:createdAt IS NOT NULL OR i.id < :id))) " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<Invoice> findLatestByStatusAfter(@Param("status") InvoiceStatus status,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable limit);
+
+    @Query("SELECT i FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findLatestByIssueDate(@Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate,
+                                        Pageable limit);
+
+    @Query("SELECT i FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate " +
+            "AND (i.issueDate < :issueDate OR (i.issueDate = :issueDate AND i.id < :id)) " +
+            "ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findLatestByIssueDateAfter(@Param("startDate") LocalDateTime startDate,
+                                             @Param("endDate") LocalDateTime endDate,
+                                             @Param("issueDate") LocalDateTime issueDate,
+                                             @Param("id") Long id,
+                                             Pageable limit);
+
+    // Forward-only cursor for exports; rows must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate ORDER BY i.issueDate, i.id")
+    Stream<Invoice> streamByIssueDateBetween(@Param("startDate") LocalDateTime startDate,
+                                             @Param("endDate") LocalDateTime endDate);
+
     // Overdue invoices
     @Query("SELECT i FROM Invoice i WHERE i.dueDate < :currentDate AND i.paymentStatus != 'PAID'")
     List<Invoice> findOverdueInvoices(@Param("currentDate") LocalDateTime currentDate);
 
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.dueDate < :currentDate AND i.paymentStatus != 'PAID'")
+    long countOverdueInvoices(@Param("currentDate") LocalDateTime currentDate);
+
+    // Next chunk of invoices to mark overdue, row-locked until the surrounding transaction ends
+    @Query(value = "SELECT i.id FROM invoices i WHERE i.due_date < :currentDate " +
+            "AND i.payment_status <> 'PAID' AND i.invoice_status <> 'OVERDUE' " +
+            "ORDER BY i.id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockOverdueCandidateIds(@Param("currentDate") LocalDateTime currentDate,
+                                       @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = :status, i.updatedAt = :updatedAt, i.version = i.version + 1 " +
+            "WHERE i.id IN :ids")
+    int updateStatusByIds(@Param("ids") List<Long> ids,
+                          @Param("status") InvoiceStatus status,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Bulk payment allocation: a client's open invoices, oldest due date first, one slice at a time
+    @Query("SELECT i FROM Invoice i WHERE i.clientId = :clientId AND i.paymentStatus != 'PAID' " +
+            "AND i.balanceDue > 0 AND i.status NOT IN ('DRAFT', 'CANCELLED') ORDER BY i.dueDate, i.id")
+    Slice<Invoice> findOpenByClientIdOldestFirst(@Param("clientId") Long clientId, Pageable page);
+
+    // Dunning: next chunk due for the given stage, oldest due date first, row-locked until the
+    // surrounding transaction ends. Stages are listed (not "< stage") so every (payment status, stage)
+    // pair is an index range on due_date.
+    @Query(value = "SELECT i.id AS id, i.invoice_number AS invoiceNumber, i.client_id AS clientId, " +
+            "i.client_name AS clientName, i.client_email AS clientEmail, i.balance_due AS balanceDue, " +
+            "i.due_date AS dueDate, i.dunning_stage AS dunningStage, i.dunning_sent_at AS dunningSentAt " +
+            "FROM invoices i " +
+            "WHERE i.payment_status IN ('PENDING', 'PARTIAL') AND i.dunning_stage IN (:stages) " +
+            "AND i.due_date <= :cutoff AND i.balance_due > 0 AND i.invoice_status NOT IN ('DRAFT', 'CANCELLED') " +
+            "ORDER BY i.due_date, i.id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<DunningCandidateProjection> lockDunningCandidates(@Param("stages") List<Integer> stages,
+                                                           @Param("cutoff") LocalDateTime cutoff,
+                                                           @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Invoice i SET i.dunningStage = :stage, i.dunningSentAt = :sentAt, i.version = i.version + 1 " +
+            "WHERE i.id IN :ids")
+    int updateDunningStage(@Param("ids") List<Long> ids,
+                           @Param("stage") int stage,
+                           @Param("sentAt") LocalDateTime sentAt);
+
+    // Undoes one invoice's claim when the reminder never reached the notification service
+    @Modifying
+    @Query("UPDATE Invoice i SET i.dunningStage = :previousStage, i.dunningSentAt = :previousSentAt, " +
+            "i.version = i.version + 1 WHERE i.id = :id AND i.dunningStage = :stage AND i.dunningSentAt = :sentAt")
+    int revertDunningStage(@Param("id") Long id,
+                           @Param("stage") int stage,
+                           @Param("sentAt") LocalDateTime sentAt,
+                           @Param("previousStage") int previousStage,
+                           @Param("previousSentAt") LocalDateTime previousSentAt);
+
     // Statistics queries
     @Query("SELECT COUNT(i) FROM Invoice i WHERE i.status = :status")
     Long countByStatus(@Param("status") InvoiceStatus status);
@@ -56,12 +217,47 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query("SELECT SUM(i.balanceDue) FROM Invoice i WHERE i.paymentStatus != 'PAID'")
     BigDecimal getTotalOutstandingAmount();
 
-    // Monthly/yearly reports
-    @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE YEAR(i.issueDate) = :year AND MONTH(i.issueDate) = :month")
-    BigDecimal getTotalAmountByMonth(@Param("year") int year, @Param("month") int month);
+    // Sales report aggregate: one round-trip, one row
+    @Query("SELECT COUNT(i) AS totalInvoices, " +
+            "SUM(i.totalAmount) AS totalSales, " +
+            "SUM(i.paidAmount) AS totalPaid, " +
+            "SUM(i.balanceDue) AS totalOutstanding, " +
+            "SUM(i.taxAmount) AS totalTax, " +
+            "SUM(i.discountAmount) AS totalDiscount, " +
+            "SUM(CASE WHEN i.paymentStatus = 'PAID' THEN 1 ELSE 0 END) AS paidInvoices, " +
+            "SUM(CASE WHEN i.paymentStatus = 'PENDING' THEN 1 ELSE 0 END) AS pendingInvoices, " +
+            "SUM(CASE WHEN i.paymentStatus <> 'PAID' AND i.paymentStatus <> 'PENDING' " +
+            "AND i.status = 'OVERDUE' THEN 1 ELSE 0 END) AS overdueInvoices, " +
+            "SUM(CASE WHEN i.status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelledInvoices " +
+            "FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate")
+    SalesSummaryProjection getSalesSummary(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE YEAR(i.issueDate) = :year")
-    BigDecimal getTotalAmountByYear(@Param("year") int year);
+    // Sales report breakdowns in one streamed result: an 'I' row per invoice issued in the range, a 'T' row per
+    // item and a 'P' row per paid payment of those invoices. One round trip, but each branch range-scans
+    // idx_invoices_issue_date_id, so the invoices of the range are read three times. Columns: kind, client id,
+    // client name, issue date, payment date, code (status / service type / payment method), payment status,
+    // amount, paid, balance, tax, discount, quantity.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT 'I', i.client_id, i.client_name, i.issue_date, NULL, i.invoice_status, i.payment_status, " +
+            "i.total_amount, i.paid_amount, i.balance_due, i.tax_amount, i.discount_amount, NULL " +
+            "FROM invoices i WHERE i.issue_date BETWEEN :startDate AND :endDate " +
+            "UNION ALL " +
+            "SELECT 'T', NULL, NULL, i.issue_date, NULL, it.service_type, NULL, " +
+            "it.total, NULL, NULL, NULL, NULL, it.quantity " +
+            "FROM invoice_items it JOIN invoices i ON i.id = it.invoice_id " +
+            "WHERE i.issue_date BETWEEN :startDate AND :endDate " +
+            "UNION ALL " +
+            "SELECT 'P', NULL, NULL, i.issue_date, p.payment_date, p.payment_method, NULL, " +
+            "p.amount, NULL, NULL, NULL, NULL, NULL " +
+            "FROM payments p JOIN invoices i ON i.id = p.invoice_id " +
+            "WHERE i.issue_date BETWEEN :startDate AND :endDate AND p.payment_status = 'PAID'",
+            nativeQuery = true)
+    Stream<Object[]> streamSalesReportRows(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
 
     // Client related queries
     @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.clientId = :clientId")
@@ -70,11 +266,95 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query("SELECT SUM(i.balanceDue) FROM Invoice i WHERE i.clientId = :clientId AND i.paymentStatus != 'PAID'")
     BigDecimal getOutstandingAmountByClient(@Param("clientId") Long clientId);
 
-    // Search functionality
-    @Query("SELECT i FROM Invoice i WHERE " +
-            "LOWER(i.invoiceNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(i.clientName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(i.petName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Invoice> searchInvoices(@Param("searchTerm") String searchTerm, Pageable pageable);
+    // Aging buckets for every client in one grouped pass; cut-offs are start-of-day due dates
+    @Query("SELECT i.clientId AS clientId, MAX(i.clientName) AS clientName, COUNT(i) AS invoiceCount, " +
+            "SUM(CASE WHEN i.dueDate IS NULL OR i.dueDate >= :cutoff30 THEN i.balanceDue ELSE 0 END) AS days0To30, " +
+            "SUM(CASE WHEN i.dueDate < :cutoff30 AND i.dueDate >= :cutoff60 THEN i.balanceDue ELSE 0 END) AS days31To60, " +
+            "SUM(CASE WHEN i.dueDate < :cutoff60 AND i.dueDate >= :cutoff90 THEN i.balanceDue ELSE 0 END) AS days61To90, " +
+            "SUM(CASE WHEN i.dueDate < :cutoff90 THEN i.balanceDue ELSE 0 END) AS over90, " +
+            "SUM(i.balanceDue) AS total " +
+            "FROM Invoice i WHERE i.paymentStatus != 'PAID' AND i.balanceDue > 0 " +
+            "AND i.status NOT IN ('DRAFT', 'CANCELLED') AND i.issueDate < :issuedBefore " +
+            "GROUP BY i.clientId ORDER BY SUM(i.balanceDue) DESC, i.clientId")
+    List<AgingBucketProjection> summarizeAgingByClient(@Param("cutoff30") LocalDateTime cutoff30,
+                                                       @Param("cutoff60") LocalDateTime cutoff60,
+                                                       @Param("cutoff90") LocalDateTime cutoff90,
+                                                       @Param("issuedBefore") LocalDateTime issuedBefore);
+
+    // Same buckets for a past cut-off: the open balance is the total less the payments made before
+    // :asOfEnd, since balance_due and payment_status only describe today
+    @Query(value = "SELECT b.client_id AS clientId, MAX(b.client_name) AS clientName, COUNT(*) AS invoiceCount, " +
+            "SUM(CASE WHEN b.due_date IS NULL OR b.due_date >= :cutoff30 THEN b.open_balance ELSE 0 END) AS days0To30, " +
+            "SUM(CASE WHEN b.due_date < :cutoff30 AND b.due_date >= :cutoff60 THEN b.open_balance ELSE 0 END) AS days31To60, " +
+            "SUM(CASE WHEN b.due_date < :cutoff60 AND b.due_date >= :cutoff90 THEN b.open_balance ELSE 0 END) AS days61To90, " +
+            "SUM(CASE WHEN b.due_date < :cutoff90 THEN b.open_balance ELSE 0 END) AS over90, " +
+            "SUM(b.open_balance) AS total " +
+            "FROM (SELECT i.client_id, i.client_name, i.due_date, " +
+            "      i.total_amount - COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.invoice_id = i.id " +
+            "          AND p.payment_status = 'PAID' AND p.payment_date < :asOfEnd), 0) AS open_balance " +
+            "      FROM invoices i WHERE i.invoice_status NOT IN ('DRAFT', 'CANCELLED') AND i.issue_date < :asOfEnd) b " +
+            "WHERE b.open_balance > 0 " +
+            "GROUP BY b.client_id ORDER BY SUM(b.open_balance) DESC, b.client_id",
+            nativeQuery = true)
+    List<AgingBucketProjection> summarizeAgingByClientAsOf(@Param("cutoff30") LocalDateTime cutoff30,
+                                                           @Param("cutoff60") LocalDateTime cutoff60,
+                                                           @Param("cutoff90") LocalDateTime cutoff90,
+                                                           @Param("asOfEnd") LocalDateTime asOfEnd);
+
+    // Client ledger: invoices, paid payments and refunds with a running balance from a window over the union.
+    // The window always runs over the whole history so a later page still carries the right balance.
+    // Drafts and cancelled invoices are left out together with their payments.
+    String CLIENT_LEDGER = "SELECT * FROM (" +
+            "SELECT l.entry_type AS entryType, l.entry_id AS entryId, l.sort_id AS sortId, l.entry_date AS entryDate, " +
+            "l.reference AS reference, l.invoice_id AS invoiceId, l.invoice_number AS invoiceNumber, " +
+            "l.debit AS debit, l.credit AS credit, " +
+            "SUM(l.debit - l.credit) OVER (ORDER BY l.entry_date, l.sort_id ROWS UNBOUNDED PRECEDING) AS balance " +
+            "FROM (" +
+            "SELECT 'INVOICE' AS entry_type, i.id AS entry_id, i.id * 2 AS sort_id, " +
+            "COALESCE(i.issue_date, i.created_at) AS entry_date, i.invoice_number AS reference, " +
+            "i.id AS invoice_id, i.invoice_number AS invoice_number, i.total_amount AS debit, 0.00 AS credit " +
+            "FROM invoices i WHERE i.client_id = :clientId AND i.invoice_status NOT IN ('DRAFT', 'CANCELLED') " +
+            "UNION ALL " +
+            "SELECT CASE WHEN p.payment_status = 'REFUNDED' THEN 'REFUND' ELSE 'PAYMENT' END, p.id, p.id * 2 + 1, " +
+            "COALESCE(p.payment_date, p.created_at), p.payment_number, i.id, i.invoice_number, " +
+            "CASE WHEN p.payment_status = 'REFUNDED' THEN -p.amount ELSE 0.00 END, " +
+            "CASE WHEN p.payment_status = 'PAID' THEN p.amount ELSE 0.00 END " +
+            "FROM payments p JOIN invoices i ON i.id = p.invoice_id " +
+            "WHERE i.client_id = :clientId AND i.invoice_status NOT IN ('DRAFT', 'CANCELLED') " +
+            "AND p.payment_status IN ('PAID', 'REFUNDED')" +
+            ") l) ledger ";
+
+    @Query(value = CLIENT_LEDGER + "ORDER BY ledger.entryDate DESC, ledger.sortId DESC LIMIT :limit",
+            nativeQuery = true)
+    List<LedgerEntryProjection> findClientLedger(@Param("clientId") Long clientId, @Param("limit") int limit);
+
+    @Query(value = CLIENT_LEDGER +
+            "WHERE ledger.entryDate < :entryDate OR (ledger.entryDate = :entryDate AND ledger.sortId < :sortId) " +
+            "OR (ledger.entryDate IS NULL AND (:entryDate IS NOT NULL OR ledger.sortId < :sortId)) " +
+            "ORDER BY ledger.entryDate DESC, ledger.sortId DESC LIMIT :limit", nativeQuery = true)
+    List<LedgerEntryProjection> findClientLedgerAfter(@Param("clientId") Long clientId,
+                                                      @Param("entryDate") LocalDateTime entryDate,
+                                                      @Param("sortId") Long sortId,
+                                                      @Param("limit") int limit);
+
+    // Statement runs: open invoices in id order, resumed after the last checkpointed id
+    @Query("SELECT i.id AS id, i.invoiceNumber AS invoiceNumber, i.clientId AS clientId FROM Invoice i " +
+            "WHERE i.id > :afterId AND i.paymentStatus != 'PAID' AND i.balanceDue > 0 " +
+            "AND i.status NOT IN ('DRAFT', 'CANCELLED') ORDER BY i.id")
+    List<StatementInvoiceProjection> findStatementTargets(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.paymentStatus != 'PAID' AND i.balanceDue > 0 " +
+            "AND i.status NOT IN ('DRAFT', 'CANCELLED')")
+    long countStatementTargets();
+
+    // Electronic invoicing: issued invoices with no outbox row, or a FAILED one still under the attempt limit, in id order
+    @Query("SELECT i.id FROM Invoice i WHERE i.id > :afterId AND i.status NOT IN ('DRAFT', 'CANCELLED') " +
+            "AND NOT EXISTS (SELECT 1 FROM ElectronicInvoice e WHERE e.invoiceId = i.id " +
+            "AND (e.status <> 'FAILED' OR e.attempts >= :maxAttempts)) ORDER BY i.id")
+    List<Long> findElectronicInvoiceTargets(@Param("afterId") Long afterId, @Param("maxAttempts") int maxAttempts,
+                                            Pageable limit);
+
+    // Id-ordered chunks for index backfills
+    List<Invoice> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
 }
 
@@ -0,0 +1,23 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.entity.InvoiceSearchGram;
+import com.example.billingservice.entity.InvoiceSearchGramId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface InvoiceSearchGramRepository extends JpaRepository<InvoiceSearchGram, InvoiceSearchGramId> {
+
+    @Modifying
+    @Query("DELETE FROM InvoiceSearchGram g WHERE g.id.invoiceId = :invoiceId")
+    int deleteByInvoiceId(@Param("invoiceId") Long invoiceId);
+
+    @Modifying
+    @Query("DELETE FROM InvoiceSearchGram g WHERE g.id.invoiceId IN :invoiceIds")
+    int deleteByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
+}
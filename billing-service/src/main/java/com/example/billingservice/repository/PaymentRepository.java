@@ -1,19 +1,28 @@
 package com.example.billingservice.repository;
 
+import com.example.billingservice.dto.ReconciliationCandidateProjection;
 import com.example.billingservice.entity.Payment;
 import com.example.billingservice.entity.PaymentMethod;
 import com.example.billingservice.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -28,9 +37,90 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
                                            @Param("endDate") LocalDateTime endDate,
                                            Pageable pageable);
 
+    // Keyset pagination, newest first; the Pageable only carries the row limit, so no count query runs
+    @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findLatest(Pageable limit);
+
+    // Rows without a timestamp sort last when descending, as MySQL does, so they come after every dated row
+    // and a cursor without a sort key only continues among them
+    @Query("SELECT p FROM Payment p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "OR (p.createdAt IS NULL AND (:createdAt IS NOT NULL OR p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findLatestAfter(@Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id,
+                                  Pageable limit);
+
+    @Query("SELECT p FROM Payment p WHERE p.paymentStatus = :status ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findLatestByStatus(@Param("status") PaymentStatus status, Pageable limit);
+
+    @Query("SELECT p FROM Payment p WHERE p.paymentStatus = :status " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "OR (p.createdAt IS NULL AND (:createdAt IS NOT NULL OR p.id < :id))) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findLatestByStatusAfter(@Param("status") PaymentStatus status,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable limit);
+
+    @Query("SELECT p FROM Payment p WHERE p.paymentDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY p.paymentDate DESC, p.id DESC")
+    List<Payment> findLatestByPaymentDate(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          Pageable limit);
+
+    @Query("SELECT p FROM Payment p WHERE p.paymentDate BETWEEN :startDate AND :endDate " +
+            "AND (p.paymentDate < :paymentDate OR (p.paymentDate = :paymentDate AND p.id < :id)) " +
+            "ORDER BY p.paymentDate DESC, p.id DESC")
+    List<Payment> findLatestByPaymentDateAfter(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate,
+                                               @Param("paymentDate") LocalDateTime paymentDate,
+                                               @Param("id") Long id,
+                                               Pageable limit);
+
+    // Forward-only cursor for exports; rows must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p JOIN FETCH p.invoice WHERE p.paymentDate BETWEEN :startDate AND :endDate ORDER BY p.paymentDate, p.id")
+    Stream<Payment> streamByPaymentDateBetween(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.paymentStatus = 'PAID'")
     BigDecimal getTotalPaidAmount();
 
+    // Bank reconciliation: unreconciled incoming payments in the statement window, as index entries
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.referenceNumber AS referenceNumber, p.transactionId AS transactionId, " +
+            "p.amount AS amount, p.paymentDate AS paymentDate FROM Payment p " +
+            "WHERE p.reconciledAt IS NULL AND p.paymentDate BETWEEN :startDate AND :endDate " +
+            "AND p.paymentStatus IN ('PENDING', 'PAID') AND p.amount > 0")
+    Stream<ReconciliationCandidateProjection> streamReconciliationCandidates(@Param("startDate") LocalDateTime startDate,
+                                                                             @Param("endDate") LocalDateTime endDate);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.reconciledAt = :reconciledAt, p.reconciliationId = :reconciliationId, " +
+            "p.updatedAt = :reconciledAt WHERE p.id IN :ids AND p.reconciledAt IS NULL")
+    int markReconciled(@Param("ids") List<Long> ids,
+                       @Param("reconciliationId") String reconciliationId,
+                       @Param("reconciledAt") LocalDateTime reconciledAt);
+
+    // Which of the ids a reconciliation run actually marked
+    @Query("SELECT p.id FROM Payment p WHERE p.id IN :ids AND p.reconciliationId = :reconciliationId")
+    List<Long> findIdsByReconciliationId(@Param("ids") List<Long> ids,
+                                         @Param("reconciliationId") String reconciliationId);
+
+    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.invoice.id = :invoiceId AND p.paymentStatus = 'PAID'")
+    BigDecimal getPaidAmountByInvoice(@Param("invoiceId") Long invoiceId);
+
+    // [invoiceId, paid amount]; invoices without paid payments are absent
+    @Query("SELECT p.invoice.id, SUM(p.amount) FROM Payment p WHERE p.invoice.id IN :invoiceIds " +
+            "AND p.paymentStatus = 'PAID' GROUP BY p.invoice.id")
+    List<Object[]> getPaidAmountsByInvoices(@Param("invoiceIds") Collection<Long> invoiceIds);
+
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.paymentMethod = :paymentMethod AND p.paymentStatus = 'PAID'")
     BigDecimal getTotalAmountByPaymentMethod(@Param("paymentMethod") PaymentMethod paymentMethod);
 
@@ -0,0 +1,13 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.entity.StatementRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StatementRunRepository extends JpaRepository<StatementRun, String> {
+    List<StatementRun> findByCreatedAtBefore(LocalDateTime cutoff);
+}
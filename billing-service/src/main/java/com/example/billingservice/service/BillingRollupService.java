@@ -0,0 +1,74 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.BillingTotalsDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the {@code billing_daily_rollup} table. Callers take a {@link Snapshot} of an invoice
+ * before mutating it and pass it to {@link #recordChange} once the new state has been flushed,
+ * inside the same transaction.
+ */
+public interface BillingRollupService {
+
+    Snapshot snapshot(Invoice invoice);
+    void recordChange(Snapshot before, Invoice after);
+    void recordCreated(Invoice invoice);
+    // One upsert per rollup key instead of one per invoice
+    void recordCreated(List<Invoice> invoices);
+    void recordDeleted(Snapshot before);
+
+    // Bulk status change; must run before the UPDATE, with the rows already locked
+    void recordStatusChange(List<Long> invoiceIds, InvoiceStatus newStatus);
+
+    // Reads
+    BillingTotalsDto getTotals();
+    BigDecimal getTotalAmountBetween(LocalDate startDate, LocalDate endDate);
+
+    // Backfill
+    int rebuild();
+
+    /**
+     * The part of an invoice that contributes to the rollup.
+     */
+    final class Snapshot {
+        private final LocalDate rollupDate;
+        private final String invoiceStatus;
+        private final String paymentStatus;
+        private final String paymentMethod;
+        private final Money totalAmount;
+        private final Money paidAmount;
+        private final Money balanceDue;
+
+        public Snapshot(LocalDate rollupDate, String invoiceStatus, String paymentStatus, String paymentMethod,
+                        Money totalAmount, Money paidAmount, Money balanceDue) {
+            this.rollupDate = rollupDate;
+            this.invoiceStatus = invoiceStatus;
+            this.paymentStatus = paymentStatus;
+            this.paymentMethod = paymentMethod;
+            this.totalAmount = totalAmount;
+            this.paidAmount = paidAmount;
+            this.balanceDue = balanceDue;
+        }
+
+        public boolean sameKey(Snapshot other) {
+            return rollupDate.equals(other.rollupDate)
+                    && invoiceStatus.equals(other.invoiceStatus)
+                    && paymentStatus.equals(other.paymentStatus)
+                    && paymentMethod.equals(other.paymentMethod);
+        }
+
+        public LocalDate getRollupDate() { return rollupDate; }
+        public String getInvoiceStatus() { return invoiceStatus; }
+        public String getPaymentStatus() { return paymentStatus; }
+        public String getPaymentMethod() { return paymentMethod; }
+        public Money getTotalAmount() { return totalAmount; }
+        public Money getPaidAmount() { return paidAmount; }
+        public Money getBalanceDue() { return balanceDue; }
+    }
+}
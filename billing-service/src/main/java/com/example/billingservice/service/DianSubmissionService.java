@@ -0,0 +1,12 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.DianResponseDto;
+
+import java.nio.file.Path;
+
+/**
+ * Sends a generated UBL invoice to the tax authority (DIAN) and returns its validation answer.
+ */
+public interface DianSubmissionService {
+    DianResponseDto submit(String cufe, Path document);
+}
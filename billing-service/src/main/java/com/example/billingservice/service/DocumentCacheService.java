@@ -0,0 +1,15 @@
+package com.example.billingservice.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Cache for rendered PDF documents. Entries are addressed by invoice id, document type and a
+ * content version (e.g. invoice version plus {@code updatedAt}), so a changed invoice never
+ * matches an old entry; {@link #evictInvoice} only frees the space early.
+ */
+public interface DocumentCacheService {
+
+    byte[] getOrRender(String documentType, Long invoiceId, String contentVersion, Supplier<byte[]> renderer);
+
+    void evictInvoice(Long invoiceId);
+}
@@ -0,0 +1,6 @@
+package com.example.billingservice.service;
+
+public interface DocumentNumberService {
+    String nextInvoiceNumber();
+    String nextPaymentNumber();
+}
@@ -0,0 +1,16 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.ElectronicInvoiceBatchDto;
+import com.example.billingservice.dto.ElectronicInvoiceDto;
+
+import java.util.Optional;
+
+/**
+ * Colombian electronic invoicing: UBL 2.1 documents with their CUFE, written to the outbox
+ * directory in batches and submitted to DIAN.
+ */
+public interface ElectronicInvoiceService {
+    byte[] getUblDocument(Long invoiceId);
+    Optional<ElectronicInvoiceDto> getElectronicInvoice(Long invoiceId);
+    ElectronicInvoiceBatchDto runBatch();
+}
@@ -0,0 +1,34 @@
+package com.example.billingservice.service;
+
+import java.util.Optional;
+
+/**
+ * Replays the stored response for a repeated {@code Idempotency-Key}. Callers check
+ * {@link #findResponse} first, then run {@link #claim}, the write and {@link #complete} inside one
+ * transaction. A duplicate that races the first request blocks on the claim and fails with
+ * {@link com.example.billingservice.exception.IdempotencyKeyInUseException} once the first commits.
+ */
+public interface IdempotencyService {
+
+    // Null when no key was sent
+    IdempotentRequest prepare(String operation, String idempotencyKey, Object request);
+
+    <T> Optional<T> findResponse(IdempotentRequest request, Class<T> responseType);
+
+    // Inside the write transaction
+    <T> Optional<T> claim(IdempotentRequest request, Class<T> responseType);
+    void complete(IdempotentRequest request, Object response);
+
+    final class IdempotentRequest {
+        private final String recordKey;
+        private final String requestHash;
+
+        public IdempotentRequest(String recordKey, String requestHash) {
+            this.recordKey = recordKey;
+            this.requestHash = requestHash;
+        }
+
+        public String getRecordKey() { return recordKey; }
+        public String getRequestHash() { return requestHash; }
+    }
+}
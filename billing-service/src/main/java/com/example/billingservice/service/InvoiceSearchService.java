@@ -0,0 +1,26 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.SearchPage;
+import com.example.billingservice.entity.Invoice;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Gram index over invoice number, client name and pet name. Terms of three or more characters
+ * match anywhere in a word; shorter terms match word prefixes. Writers must call {@link #index}
+ * after any change to those fields, inside the same transaction.
+ */
+public interface InvoiceSearchService {
+
+    void index(Invoice invoice);
+    // For freshly inserted invoices only: adds grams without deleting existing ones
+    void indexNew(List<Invoice> invoices);
+    void remove(Long invoiceId);
+
+    // Ranked by match quality, then newest first; the Pageable's sort is ignored
+    SearchPage<Invoice> search(String searchTerm, Pageable pageable);
+
+    // Backfill
+    int rebuild();
+}
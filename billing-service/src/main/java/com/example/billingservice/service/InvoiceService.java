@@ -1,12 +1,15 @@
 package com.example.billingservice.service;
 
+import com.example.billingservice.dto.BulkInvoiceResultDto;
+import com.example.billingservice.dto.CursorPage;
 import com.example.billingservice.dto.InvoiceDto;
 import com.example.billingservice.dto.InvoiceReportDto;
+import com.example.billingservice.dto.InvoiceSummaryDto;
+import com.example.billingservice.dto.LedgerEntryDto;
 import com.example.billingservice.entity.InvoiceStatus;
 import com.example.billingservice.entity.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -17,15 +20,24 @@ import java.util.Optional;
 
 public interface InvoiceService {
     InvoiceDto createInvoice(InvoiceDto invoiceDto);
+    BulkInvoiceResultDto createInvoicesBulk(List<InvoiceDto> invoiceDtos);
     InvoiceDto updateInvoice(Long id, InvoiceDto invoiceDto);
     Optional<InvoiceDto> getInvoiceById(Long id);
     Optional<InvoiceDto> getInvoiceByNumber(String invoiceNumber);
-    Page<InvoiceDto> getAllInvoices(Pageable pageable);
-    Page<InvoiceDto> getInvoicesByClient(Long clientId, Pageable pageable);
-    Page<InvoiceDto> getInvoicesByStatus(InvoiceStatus status, Pageable pageable);
-    Page<InvoiceDto> getInvoicesByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable);
-    Page<InvoiceDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
-    Page<InvoiceDto> searchInvoices(String searchTerm, Pageable pageable);
+    Page<InvoiceSummaryDto> getAllInvoices(Pageable pageable);
+    Page<InvoiceSummaryDto> getInvoicesByClient(Long clientId, Pageable pageable);
+    Page<InvoiceSummaryDto> getInvoicesByStatus(InvoiceStatus status, Pageable pageable);
+    Page<InvoiceSummaryDto> getInvoicesByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable);
+    Page<InvoiceSummaryDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    Page<InvoiceSummaryDto> searchInvoices(String searchTerm, Pageable pageable);
+    int rebuildSearchIndex();
+
+    // Keyset pagination (opaque "after" cursor, no count query)
+    CursorPage<InvoiceSummaryDto> listInvoices(InvoiceStatus status, String after, int size);
+    CursorPage<InvoiceSummaryDto> listInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate, String after, int size);
+
+    // Client ledger, newest entry first, each with the running balance after it
+    CursorPage<LedgerEntryDto> getClientLedger(Long clientId, String after, int size);
 
     void deleteInvoice(Long id);
     InvoiceDto changeInvoiceStatus(Long id, InvoiceStatus newStatus);
@@ -33,7 +45,7 @@ public interface InvoiceService {
     // Business logic methods
     InvoiceDto calculateTotals(Long invoiceId);
     InvoiceDto applyDiscount(Long invoiceId, BigDecimal discountPercentage);
-    List<InvoiceDto> getOverdueInvoices();
+    List<InvoiceSummaryDto> getOverdueInvoices();
 
     InvoiceDto sendInvoiceByEmail(Long invoiceId);
 
@@ -42,14 +54,12 @@ public interface InvoiceService {
     BigDecimal getTotalInvoicedAmount();
     BigDecimal getTotalOutstandingAmount();
     Map<InvoiceStatus, Long> getInvoiceCountByStatus();
+    int rebuildStatisticsRollup();
 
     @Transactional(readOnly = true)
     List<InvoiceReportDto> generateInvoiceReport(LocalDateTime startDate, LocalDateTime endDate);
 
     // Automated processes
-    void markOverdueInvoices();
-    void sendInvoiceNotifications();
-
-    @Scheduled(fixedRate = 86400000) // Daily
-    void sendOverdueReminders();
+    int markOverdueInvoices();
+    int sendOverdueReminders();
 }
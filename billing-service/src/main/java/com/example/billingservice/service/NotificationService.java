@@ -0,0 +1,13 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.DunningCandidateProjection;
+
+import java.util.List;
+
+/**
+ * Outgoing client notifications. Reminders arrive in batches of a few hundred invoices that share
+ * the same dunning stage; a negative {@code daysFromDueDate} is a reminder before the due date.
+ */
+public interface NotificationService {
+    void sendPaymentReminders(int stage, int daysFromDueDate, List<DunningCandidateProjection> invoices);
+}
@@ -1,6 +1,9 @@
 package com.example.billingservice.service;
 
 
+import com.example.billingservice.dto.BulkPaymentRequest;
+import com.example.billingservice.dto.BulkPaymentResultDto;
+import com.example.billingservice.dto.CursorPage;
 import com.example.billingservice.dto.PaymentDto;
 import com.example.billingservice.entity.PaymentMethod;
 import com.example.billingservice.entity.PaymentStatus;
@@ -15,6 +18,11 @@ import java.util.Optional;
 
 public interface PaymentService {
     PaymentDto createPayment(PaymentDto paymentDto);
+    PaymentDto createPayment(PaymentDto paymentDto, String idempotencyKey);
+
+    // One remittance spread over many invoices (FIFO or explicit), in a single transaction
+    BulkPaymentResultDto allocatePayment(BulkPaymentRequest request, String idempotencyKey);
+
     PaymentDto updatePayment(Long id, PaymentDto paymentDto);
     Optional<PaymentDto> getPaymentById(Long id);
     Optional<PaymentDto> getPaymentByNumber(String paymentNumber);
@@ -24,8 +32,13 @@ public interface PaymentService {
     Page<PaymentDto> getPaymentsByMethod(PaymentMethod method, Pageable pageable);
     Page<PaymentDto> getPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
+    // Keyset pagination (opaque "after" cursor, no count query)
+    CursorPage<PaymentDto> listPayments(PaymentStatus status, String after, int size);
+    CursorPage<PaymentDto> listPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate, String after, int size);
+
     void deletePayment(Long id);
     PaymentDto processPayment(Long paymentId);
+    PaymentDto processPayment(Long paymentId, String idempotencyKey);
     PaymentDto refundPayment(Long paymentId, BigDecimal refundAmount);
 
     // Statistics
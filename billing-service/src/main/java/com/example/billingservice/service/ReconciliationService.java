@@ -0,0 +1,16 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.ReconciliationResultDto;
+import com.example.billingservice.dto.StatementFormat;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+
+/**
+ * Matches bank and card-processor statement lines against unreconciled payments and marks the
+ * matched payments as reconciled.
+ */
+public interface ReconciliationService {
+    // fromDate/toDate narrow the payments considered; null uses the configured look-back window
+    ReconciliationResultDto reconcile(InputStream statement, StatementFormat format, LocalDate fromDate, LocalDate toDate);
+}
@@ -0,0 +1,17 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.ReportJobDto;
+import com.example.billingservice.dto.ReportJobRequest;
+
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Runs heavy report exports off the request thread. An identical request that is still queued,
+ * running or has an unexpired result returns the existing job instead of starting a new one.
+ */
+public interface ReportJobService {
+    ReportJobDto submit(ReportJobRequest request);
+    Optional<ReportJobDto> getJob(String jobId);
+    void writeResult(String jobId, OutputStream outputStream);
+}
@@ -1,15 +1,21 @@
 package com.example.billingservice.service;
 
+import com.example.billingservice.dto.AgingReportDto;
 import com.example.billingservice.dto.InvoiceReportDto;
 import com.example.billingservice.dto.PaymentReportDto;
+import com.example.billingservice.dto.ReportExportFormat;
 import com.example.billingservice.dto.SalesReportDto;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReportService {
     // PDF Reports
     byte[] generateInvoicePdf(Long invoiceId);
+    // Bypasses the document cache, for batch runs that would otherwise evict every cached document
+    byte[] renderInvoicePdf(Long invoiceId);
     byte[] generatePaymentReceiptPdf(Long paymentId);
     byte[] generateSalesReportPdf(LocalDateTime startDate, LocalDateTime endDate);
     byte[] generateOutstandingInvoicesPdf();
@@ -19,11 +25,25 @@ public interface ReportService {
     byte[] generatePaymentsExcel(LocalDateTime startDate, LocalDateTime endDate);
     byte[] generateSalesAnalysisExcel(LocalDateTime startDate, LocalDateTime endDate);
 
+    // Streaming Excel exports (constant memory, written straight to the response)
+    void writeInvoicesExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream);
+    void writePaymentsExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream);
+
     // Data Reports
     SalesReportDto generateSalesReport(LocalDateTime startDate, LocalDateTime endDate);
     List<InvoiceReportDto> generateOverdueReport();
+
+    // Accounts-receivable aging by client (0-30/31-60/61-90/90+ days), one grouped query cached per cut-off date
+    AgingReportDto generateAgingReport(LocalDate asOfDate);
+    byte[] generateAgingReportPdf(LocalDate asOfDate);
+    void writeAgingReportExcel(LocalDate asOfDate, OutputStream outputStream);
+    // Loads the whole range into memory; use writeCollectionReport for exports
     List<PaymentReportDto> generateCollectionReport(LocalDateTime startDate, LocalDateTime endDate);
 
+    // Streaming collection export, one row per payment straight from a database cursor
+    void writeCollectionReport(LocalDateTime startDate, LocalDateTime endDate, ReportExportFormat format,
+                               OutputStream outputStream);
+
     // Email Reports
     void emailInvoice(Long invoiceId, String toEmail);
     void emailPaymentReceipt(Long paymentId, String toEmail);
@@ -0,0 +1,17 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.StatementRunDto;
+
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Renders the PDF of every invoice with an open balance into one ZIP archive in the background.
+ * A failed or interrupted run can be resumed from its last checkpoint.
+ */
+public interface StatementRunService {
+    StatementRunDto start();
+    StatementRunDto resume(String runId);
+    Optional<StatementRunDto> getRun(String runId);
+    void writeArchive(String runId, OutputStream outputStream);
+}
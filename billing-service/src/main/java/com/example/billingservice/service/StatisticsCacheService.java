@@ -0,0 +1,20 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.BillingChangeEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Cache for dashboard statistics. An entry is recomputed when a committed write from its
+ * {@code source} invalidated it (at most once per refresh interval) or when it is older than the
+ * maximum staleness. Concurrent callers for the same key share a single load.
+ *
+ * <p>Cached values are handed to every caller, so loaders must return immutable values. The cache
+ * is bounded; keys must come from a small fixed set, never from request parameters.
+ */
+public interface StatisticsCacheService {
+
+    <T> T get(String key, BillingChangeEvent.Source source, Supplier<T> loader);
+
+    void invalidate(BillingChangeEvent.Source source);
+}
@@ -0,0 +1,222 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.BillingChangeEvent;
+import com.example.billingservice.dto.BillingTotalsDto;
+import com.example.billingservice.dto.StatusTotalsProjection;
+import com.example.billingservice.entity.BillingDailyRollupId;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.repository.BillingDailyRollupRepository;
+import com.example.billingservice.service.BillingRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class BillingRollupServiceImpl implements BillingRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingRollupServiceImpl.class);
+
+    @Autowired
+    private BillingDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Snapshot snapshot(Invoice invoice) {
+        if (invoice == null || invoice.getIssueDate() == null) {
+            return null;
+        }
+        return new Snapshot(
+                invoice.getIssueDate().toLocalDate(),
+                keyOf(invoice.getStatus()),
+                keyOf(invoice.getPaymentStatus()),
+                keyOf(invoice.getPaymentMethod()),
+                Money.of(invoice.getTotalAmount()),
+                Money.of(invoice.getPaidAmount()),
+                Money.of(invoice.getBalanceDue()));
+    }
+
+    @Override
+    public void recordChange(Snapshot before, Invoice after) {
+        Snapshot current = snapshot(after);
+
+        if (before != null && current != null && before.sameKey(current)) {
+            // Same bucket: only the amounts moved
+            Money totalDelta = current.getTotalAmount().minus(before.getTotalAmount());
+            Money paidDelta = current.getPaidAmount().minus(before.getPaidAmount());
+            Money balanceDelta = current.getBalanceDue().minus(before.getBalanceDue());
+            if (!totalDelta.isZero() || !paidDelta.isZero() || !balanceDelta.isZero()) {
+                apply(current, 0, totalDelta, paidDelta, balanceDelta);
+            }
+            return;
+        }
+
+        if (before != null) {
+            apply(before, -1, before.getTotalAmount().negate(), before.getPaidAmount().negate(),
+                    before.getBalanceDue().negate());
+        }
+        if (current != null) {
+            apply(current, 1, current.getTotalAmount(), current.getPaidAmount(), current.getBalanceDue());
+        }
+    }
+
+    @Override
+    public void recordCreated(Invoice invoice) {
+        recordChange(null, invoice);
+    }
+
+    @Override
+    public void recordCreated(List<Invoice> invoices) {
+        Map<String, Snapshot> keys = new LinkedHashMap<>();
+        // Running sums in cents: total, paid, balance
+        Map<String, long[]> sums = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        for (Invoice invoice : invoices) {
+            Snapshot current = snapshot(invoice);
+            if (current == null) {
+                continue;
+            }
+            String key = current.getRollupDate() + "|" + current.getInvoiceStatus() + "|"
+                    + current.getPaymentStatus() + "|" + current.getPaymentMethod();
+            keys.putIfAbsent(key, current);
+            counts.merge(key, 1L, Long::sum);
+            long[] sum = sums.computeIfAbsent(key, k -> new long[3]);
+            sum[0] = Math.addExact(sum[0], current.getTotalAmount().getCents());
+            sum[1] = Math.addExact(sum[1], current.getPaidAmount().getCents());
+            sum[2] = Math.addExact(sum[2], current.getBalanceDue().getCents());
+        }
+
+        keys.forEach((key, snapshot) -> {
+            long[] sum = sums.get(key);
+            apply(snapshot, counts.get(key), Money.ofCents(sum[0]), Money.ofCents(sum[1]), Money.ofCents(sum[2]));
+        });
+    }
+
+    @Override
+    public void recordDeleted(Snapshot before) {
+        recordChange(before, null);
+    }
+
+    @Override
+    public void recordStatusChange(List<Long> invoiceIds, InvoiceStatus newStatus) {
+        if (invoiceIds.isEmpty()) {
+            return;
+        }
+        String targetStatus = keyOf(newStatus);
+
+        for (Object[] row : rollupRepository.sumContributionsByInvoiceIds(invoiceIds)) {
+            String invoiceStatus = (String) row[1];
+            if (targetStatus.equals(invoiceStatus)) {
+                continue;
+            }
+            LocalDate rollupDate = toLocalDate(row[0]);
+            String paymentStatus = (String) row[2];
+            String paymentMethod = (String) row[3];
+            long count = ((Number) row[4]).longValue();
+            BigDecimal total = toBigDecimal(row[5]);
+            BigDecimal paid = toBigDecimal(row[6]);
+            BigDecimal balance = toBigDecimal(row[7]);
+
+            rollupRepository.applyDelta(rollupDate, invoiceStatus, paymentStatus, paymentMethod,
+                    -count, total.negate(), paid.negate(), balance.negate());
+            rollupRepository.applyDelta(rollupDate, targetStatus, paymentStatus, paymentMethod,
+                    count, total, paid, balance);
+        }
+        // Status-only changes move counts between buckets and affect the overdue figures
+        publishChange();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BillingTotalsDto getTotals() {
+        Map<InvoiceStatus, Long> countByStatus = new EnumMap<>(InvoiceStatus.class);
+        Money invoiced = Money.ZERO;
+        Money paid = Money.ZERO;
+        Money outstanding = Money.ZERO;
+
+        for (StatusTotalsProjection row : rollupRepository.getTotalsByStatus()) {
+            String invoiceStatus = row.getInvoiceStatus();
+            paid = paid.plus(Money.of(row.getPaidAmount()));
+
+            if (InvoiceStatus.SENT.name().equals(invoiceStatus) || InvoiceStatus.PAID.name().equals(invoiceStatus)) {
+                invoiced = invoiced.plus(Money.of(row.getTotalAmount()));
+            }
+            if (!PaymentStatus.PAID.name().equals(row.getPaymentStatus())) {
+                outstanding = outstanding.plus(Money.of(row.getBalanceDue()));
+            }
+            if (!BillingDailyRollupId.NONE.equals(invoiceStatus)) {
+                countByStatus.merge(InvoiceStatus.valueOf(invoiceStatus),
+                        row.getInvoiceCount() != null ? row.getInvoiceCount() : 0L, Long::sum);
+            }
+        }
+
+        return new BillingTotalsDto(invoiced.toBigDecimal(), paid.toBigDecimal(), outstanding.toBigDecimal(),
+                countByStatus);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmountBetween(LocalDate startDate, LocalDate endDate) {
+        return orZero(rollupRepository.getTotalAmountBetween(startDate, endDate));
+    }
+
+    /**
+     * Replaces the rollup with a fresh aggregate of the invoices. The invoice rows stay share-locked
+     * until commit, so no {@code applyDelta} lands between the delete and the insert and is lost, or is
+     * counted twice on top of an aggregate that already includes it.
+     */
+    @Override
+    public int rebuild() {
+        long invoices = rollupRepository.lockInvoicesForRebuild();
+        logger.debug("Locked {} invoices for the rollup rebuild", invoices);
+        rollupRepository.deleteAllInBatch();
+        int rows = rollupRepository.rebuildFromInvoices();
+        logger.info("Rebuilt billing daily rollup: {} rows", rows);
+        publishChange();
+        return rows;
+    }
+
+    // Helper methods
+    private void apply(Snapshot key, long countDelta, Money totalDelta, Money paidDelta, Money balanceDelta) {
+        rollupRepository.applyDelta(key.getRollupDate(), key.getInvoiceStatus(), key.getPaymentStatus(),
+                key.getPaymentMethod(), countDelta, totalDelta.toBigDecimal(), paidDelta.toBigDecimal(),
+                balanceDelta.toBigDecimal());
+        publishChange();
+    }
+
+    private void publishChange() {
+        eventPublisher.publishEvent(new BillingChangeEvent(BillingChangeEvent.Source.INVOICE));
+    }
+
+    private String keyOf(Enum<?> value) {
+        return value != null ? value.name() : BillingDailyRollupId.NONE;
+    }
+
+    private BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date ? ((java.sql.Date) value).toLocalDate() : (LocalDate) value;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.service.DocumentCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier LRU cache for rendered PDFs: a byte-capped in-heap map in front of a byte-capped
+ * directory on disk. Every rendered document is written through to disk, so heap eviction only
+ * costs a file read. Disk errors are logged and treated as misses.
+ */
+@Service
+public class DocumentCacheServiceImpl implements DocumentCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentCacheServiceImpl.class);
+    private static final String FILE_SUFFIX = ".pdf";
+
+    @Value("${app.billing.pdf-cache.heap-max-bytes:33554432}")
+    private long heapMaxBytes;
+
+    @Value("${app.billing.pdf-cache.disk-max-bytes:536870912}")
+    private long diskMaxBytes;
+
+    @Value("${app.billing.pdf-cache.directory:${java.io.tmpdir}/billing-pdf-cache}")
+    private String directory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, byte[]> heapEntries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskEntries = new LinkedHashMap<>(256, 0.75f, true);
+    private long heapBytes;
+    private long diskBytes;
+
+    private Path cacheDirectory;
+    private Counter heapHits;
+    private Counter diskHits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() throws IOException {
+        cacheDirectory = Paths.get(directory);
+        Files.createDirectories(cacheDirectory);
+        loadDiskIndex();
+
+        heapHits = Counter.builder("billing.pdf.cache.requests").tag("result", "heap_hit").register(meterRegistry);
+        diskHits = Counter.builder("billing.pdf.cache.requests").tag("result", "disk_hit").register(meterRegistry);
+        misses = Counter.builder("billing.pdf.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("billing.pdf.cache.hit.ratio", this, DocumentCacheServiceImpl::hitRatio).register(meterRegistry);
+        Gauge.builder("billing.pdf.cache.heap.bytes", this, cache -> cache.heapBytes).register(meterRegistry);
+        Gauge.builder("billing.pdf.cache.disk.bytes", this, cache -> cache.diskBytes).register(meterRegistry);
+    }
+
+    @Override
+    public byte[] getOrRender(String documentType, Long invoiceId, String contentVersion, Supplier<byte[]> renderer) {
+        String key = invoicePrefix(invoiceId) + documentType + "-" + sanitize(contentVersion);
+
+        byte[] cached = getFromHeap(key);
+        if (cached != null) {
+            heapHits.increment();
+            return cached;
+        }
+
+        cached = readFromDisk(key);
+        if (cached != null) {
+            diskHits.increment();
+            putInHeap(key, cached);
+            return cached;
+        }
+
+        misses.increment();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] rendered = renderer.get();
+        sample.stop(Timer.builder("billing.pdf.render").tag("document", documentType).register(meterRegistry));
+
+        putInHeap(key, rendered);
+        writeToDisk(key, rendered);
+        return rendered;
+    }
+
+    @Override
+    public void evictInvoice(Long invoiceId) {
+        String prefix = invoicePrefix(invoiceId);
+        List<String> staleFiles = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Map.Entry<String, byte[]>> heapIterator = heapEntries.entrySet().iterator();
+            while (heapIterator.hasNext()) {
+                Map.Entry<String, byte[]> entry = heapIterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    heapBytes -= entry.getValue().length;
+                    heapIterator.remove();
+                }
+            }
+
+            Iterator<Map.Entry<String, Long>> diskIterator = diskEntries.entrySet().iterator();
+            while (diskIterator.hasNext()) {
+                Map.Entry<String, Long> entry = diskIterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    diskBytes -= entry.getValue();
+                    staleFiles.add(entry.getKey());
+                    diskIterator.remove();
+                }
+            }
+        }
+
+        staleFiles.forEach(this::deleteFile);
+        if (!staleFiles.isEmpty()) {
+            logger.debug("Evicted {} cached documents for invoice {}", staleFiles.size(), invoiceId);
+        }
+    }
+
+    private synchronized byte[] getFromHeap(String key) {
+        return heapEntries.get(key);
+    }
+
+    private synchronized void putInHeap(String key, byte[] content) {
+        if (content.length > heapMaxBytes) {
+            return;
+        }
+        byte[] previous = heapEntries.put(key, content);
+        heapBytes += content.length - (previous != null ? previous.length : 0);
+
+        Iterator<Map.Entry<String, byte[]>> iterator = heapEntries.entrySet().iterator();
+        while (heapBytes > heapMaxBytes && iterator.hasNext()) {
+            heapBytes -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+    }
+
+    private byte[] readFromDisk(String key) {
+        synchronized (this) {
+            // Touch the entry so it moves to the most recently used end
+            if (diskEntries.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            return Files.readAllBytes(fileFor(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Could not read cached document {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] content) {
+        if (content.length > diskMaxBytes) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(cacheDirectory, key, ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, fileFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write cached document {}: {}", key, e.getMessage());
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = diskEntries.put(key, (long) content.length);
+            diskBytes += content.length - (previous != null ? previous : 0L);
+
+            Iterator<Map.Entry<String, Long>> iterator = diskEntries.entrySet().iterator();
+            while (diskBytes > diskMaxBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                diskBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        evicted.forEach(this::deleteFile);
+    }
+
+    private void loadDiskIndex() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparingLong(this::lastModified))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        long size = file.toFile().length();
+                        diskEntries.put(name.substring(0, name.length() - FILE_SUFFIX.length()), size);
+                        diskBytes += size;
+                    });
+        }
+        logger.info("PDF cache at {} holds {} documents ({} bytes)", cacheDirectory, diskEntries.size(), diskBytes);
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            logger.warn("Could not delete cached document {}: {}", key, e.getMessage());
+        }
+    }
+
+    private long lastModified(Path file) {
+        return file.toFile().lastModified();
+    }
+
+    private Path fileFor(String key) {
+        return cacheDirectory.resolve(key + FILE_SUFFIX);
+    }
+
+    private double hitRatio() {
+        double hits = heapHits.count() + diskHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private static String invoicePrefix(Long invoiceId) {
+        return "inv-" + invoiceId + "-";
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+}
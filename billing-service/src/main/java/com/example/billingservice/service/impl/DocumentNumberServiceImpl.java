@@ -0,0 +1,117 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.entity.DocumentSequence;
+import com.example.billingservice.exception.BillingException;
+import com.example.billingservice.repository.DocumentSequenceRepository;
+import com.example.billingservice.service.DocumentNumberService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out per-day sequential document numbers ({@code VET-yyyyMMdd-00001}).
+ * Each node reserves {@code blockSize} numbers per database round-trip and serves them from memory,
+ * so numbers never collide across nodes. Numbers left in a block when the node stops or the day
+ * rolls over are not reused; set the block size to 1 if strictly gapless numbering is required.
+ */
+@Service
+public class DocumentNumberServiceImpl implements DocumentNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentNumberServiceImpl.class);
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String INVOICE_PREFIX = "VET";
+    private static final String PAYMENT_PREFIX = "PAY";
+    private static final int MAX_RESERVE_ATTEMPTS = 5;
+
+    @Value("${app.billing.numbering.block-size:50}")
+    private int blockSize;
+
+    @Autowired
+    private DocumentSequenceRepository sequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentMap<String, NumberBlock> blocks = new ConcurrentHashMap<>();
+
+    private TransactionTemplate reserveTransaction;
+
+    @PostConstruct
+    void init() {
+        // Reservations commit independently so a rolled-back invoice never returns its block
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public String nextInvoiceNumber() {
+        return next(INVOICE_PREFIX);
+    }
+
+    @Override
+    public String nextPaymentNumber() {
+        return next(PAYMENT_PREFIX);
+    }
+
+    private String next(String prefix) {
+        String sequenceKey = prefix + "-" + LocalDate.now().format(DAY_FORMATTER);
+        NumberBlock block = blocks.computeIfAbsent(sequenceKey, key -> new NumberBlock());
+
+        long value;
+        synchronized (block) {
+            if (block.next > block.last) {
+                long start = reserveBlock(sequenceKey);
+                block.next = start;
+                block.last = start + blockSize - 1;
+                // Drop blocks left over from previous days
+                blocks.keySet().removeIf(key -> key.startsWith(prefix + "-") && !key.equals(sequenceKey));
+            }
+            value = block.next++;
+        }
+
+        return sequenceKey + "-" + String.format("%05d", value);
+    }
+
+    private long reserveBlock(String sequenceKey) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long start = reserveTransaction.execute(status -> {
+                    DocumentSequence sequence = sequenceRepository.findForUpdate(sequenceKey).orElse(null);
+                    if (sequence == null) {
+                        // First reservation of the day; a concurrent insert from another node fails and retries
+                        sequenceRepository.saveAndFlush(new DocumentSequence(sequenceKey, 1L + blockSize));
+                        return 1L;
+                    }
+                    long first = sequence.getNextValue();
+                    sequence.setNextValue(first + blockSize);
+                    return first;
+                });
+                logger.debug("Reserved numbers {}..{} for {}", start, start + blockSize - 1, sequenceKey);
+                return start;
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw new BillingException("Could not reserve document numbers for " + sequenceKey, e);
+                }
+                logger.debug("Retrying number reservation for {} after: {}", sequenceKey, e.getMessage());
+            }
+        }
+    }
+
+    private static final class NumberBlock {
+        private long next = 1;
+        private long last = 0;
+    }
+}
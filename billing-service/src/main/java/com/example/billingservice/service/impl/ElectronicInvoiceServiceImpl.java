@@ -0,0 +1,406 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.DianResponseDto;
+import com.example.billingservice.dto.ElectronicInvoiceBatchDto;
+import com.example.billingservice.dto.ElectronicInvoiceDto;
+import com.example.billingservice.entity.ElectronicInvoice;
+import com.example.billingservice.entity.ElectronicInvoiceStatus;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.exception.BillingException;
+import com.example.billingservice.repository.ElectronicInvoiceRepository;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.service.DianSubmissionService;
+import com.example.billingservice.service.ElectronicInvoiceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batches walk the issued invoices that have no electronic document yet in id order,
+ * {@code batch-size} at a time. Each chunk is split across a pool with one thread per core; every
+ * thread loads its slice with the items in one query and streams each UBL document to the outbox
+ * with StAX.
+ *
+ * <p>The {@code electronic_invoices} row is the outbox record: it is stored as SUBMITTING before the
+ * document goes to DIAN and updated with the answer right after, so a CUFE is never sent twice
+ * because its row was lost. An invoice that cannot be generated, or whose submission throws, is
+ * stored as FAILED with its attempt count and retried by later batches until {@code max-attempts}.
+ * A row left in SUBMITTING (the node stopped while waiting for DIAN) is not sent again; its status
+ * has to be checked with DIAN by CUFE.
+ *
+ * <p>Only one batch runs across all nodes: the batch holds a MySQL named lock for its whole run on
+ * a connection opened outside the pool, so the batch threads keep every pooled connection. The
+ * lock goes away with that connection if the node dies.
+ */
+@Service
+public class ElectronicInvoiceServiceImpl implements ElectronicInvoiceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ElectronicInvoiceServiceImpl.class);
+    private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final String BATCH_LOCK = "billing.einvoice.batch";
+
+    @Value("${app.billing.einvoice.supplier-nit:900000000}")
+    private String supplierNit;
+
+    @Value("${app.billing.einvoice.supplier-name:Clínica Veterinaria}")
+    private String supplierName;
+
+    @Value("${app.billing.einvoice.software-id:}")
+    private String softwareId;
+
+    @Value("${app.billing.einvoice.technical-key:}")
+    private String technicalKey;
+
+    // 1 = production, 2 = test (habilitación)
+    @Value("${app.billing.einvoice.environment:2}")
+    private String environment;
+
+    @Value("${app.billing.einvoice.outbox-directory:${java.io.tmpdir}/billing-einvoice-outbox}")
+    private String outboxDirectory;
+
+    @Value("${app.billing.einvoice.batch-size:1000}")
+    private int batchSize;
+
+    // 0 uses every available core
+    @Value("${app.billing.einvoice.threads:0}")
+    private int threads;
+
+    @Value("${app.billing.einvoice.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.billing.einvoice.scheduled:false}")
+    private boolean scheduled;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ElectronicInvoiceRepository electronicInvoiceRepository;
+
+    @Autowired
+    private DianSubmissionService dianSubmissionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    // Local short-cut; the named lock is what keeps other nodes out
+    private final AtomicBoolean batchRunning = new AtomicBoolean();
+
+    private UblInvoiceWriter writer;
+    private ExecutorService pool;
+    private int poolSize;
+    private Path documentDirectory;
+    private Counter acceptedDocuments;
+    private Counter rejectedDocuments;
+    private Counter failedDocuments;
+
+    @PostConstruct
+    void init() throws IOException {
+        writer = new UblInvoiceWriter(supplierNit, supplierName, softwareId, technicalKey, environment);
+        documentDirectory = Files.createDirectories(Paths.get(outboxDirectory, "facturas"));
+
+        poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "einvoice-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        acceptedDocuments = Counter.builder("billing.einvoice.documents").tag("outcome", "accepted")
+                .register(meterRegistry);
+        rejectedDocuments = Counter.builder("billing.einvoice.documents").tag("outcome", "rejected")
+                .register(meterRegistry);
+        failedDocuments = Counter.builder("billing.einvoice.documents").tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public byte[] getUblDocument(Long invoiceId) {
+        // Once submitted, the file is the document of record
+        Optional<ElectronicInvoice> generated = electronicInvoiceRepository.findById(invoiceId)
+                .filter(record -> record.getStatus() != ElectronicInvoiceStatus.FAILED);
+        if (generated.isPresent()) {
+            try {
+                return Files.readAllBytes(documentDirectory.resolve(generated.get().getFileName()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading electronic invoice " + invoiceId, e);
+            }
+        }
+
+        // Preview: not written to the outbox nor submitted
+        Invoice invoice = invoiceRepository.findWithItemsById(invoiceId)
+                .orElseThrow(() -> new BillingException("Invoice not found with ID: " + invoiceId));
+        requireNumberAndIssueDate(invoice);
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writer.write(invoice, writer.cufe(invoice), out);
+            return out.toByteArray();
+        } catch (IOException | XMLStreamException e) {
+            throw new BillingException("Error generating electronic invoice: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ElectronicInvoiceDto> getElectronicInvoice(Long invoiceId) {
+        return electronicInvoiceRepository.findById(invoiceId).map(this::toDto);
+    }
+
+    @Override
+    public ElectronicInvoiceBatchDto runBatch() {
+        if (!batchRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("An electronic invoice batch is already running");
+        }
+        // Closing the connection ends its session, which releases the lock
+        try (Connection lockConnection = openLockConnection()) {
+            if (!claim(lockConnection)) {
+                throw new IllegalStateException("An electronic invoice batch is already running on another node");
+            }
+            return executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not claim the electronic invoice batch: " + e.getMessage(), e);
+        } finally {
+            batchRunning.set(false);
+        }
+    }
+
+    // Not borrowed from the pool: it stays open for the whole batch while every thread needs a pooled one
+    private Connection openLockConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    // GET_LOCK answers 1 when the lock was taken
+    private boolean claim(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, BATCH_LOCK);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getInt(1) == 1;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.einvoice.interval-ms:60000}")
+    public void runScheduledBatch() {
+        if (!scheduled || batchRunning.get()) {
+            return;
+        }
+        try {
+            runBatch();
+        } catch (IllegalStateException e) {
+            // A batch started through the API or on another node in the meantime
+            logger.debug(e.getMessage());
+        }
+    }
+
+    private ElectronicInvoiceBatchDto executeBatch() {
+        ElectronicInvoiceBatchDto result = new ElectronicInvoiceBatchDto();
+        result.setStartedAt(LocalDateTime.now());
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        long afterId = 0L;
+        List<Long> ids;
+        while (!(ids = invoiceRepository.findElectronicInvoiceTargets(afterId, maxAttempts,
+                PageRequest.of(0, batchSize))).isEmpty()) {
+            afterId = ids.get(ids.size() - 1);
+
+            int sliceSize = (ids.size() + poolSize - 1) / poolSize;
+            List<Future<ChunkResult>> slices = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += sliceSize) {
+                List<Long> slice = ids.subList(from, Math.min(from + sliceSize, ids.size()));
+                slices.add(pool.submit(() -> generate(slice)));
+            }
+
+            for (Future<ChunkResult> slice : slices) {
+                ChunkResult chunk = await(slice);
+                result.setAccepted(result.getAccepted() + chunk.accepted);
+                result.setRejected(result.getRejected() + chunk.rejected);
+                result.setGenerated(result.getGenerated() + chunk.accepted + chunk.rejected);
+                result.setFailed(result.getFailed() + chunk.failed);
+            }
+        }
+
+        result.setCompletedAt(LocalDateTime.now());
+        result.setDurationMs(Duration.between(result.getStartedAt(), result.getCompletedAt()).toMillis());
+        sample.stop(Timer.builder("billing.einvoice.batch.duration").register(meterRegistry));
+
+        if (result.getGenerated() > 0 || result.getFailed() > 0) {
+            logger.info("Electronic invoice batch: {} generated ({} accepted, {} rejected), {} failed in {} ms",
+                    result.getGenerated(), result.getAccepted(), result.getRejected(), result.getFailed(),
+                    result.getDurationMs());
+        }
+        return result;
+    }
+
+    private ChunkResult generate(List<Long> ids) {
+        // Rows of earlier failed attempts, updated in place on retry
+        Map<Long, ElectronicInvoice> previous = new HashMap<>();
+        for (ElectronicInvoice record : electronicInvoiceRepository.findAllById(ids)) {
+            previous.put(record.getInvoiceId(), record);
+        }
+
+        ChunkResult chunk = new ChunkResult();
+        for (Invoice invoice : invoiceRepository.findWithItemsByIdIn(ids)) {
+            ElectronicInvoice record = previous.getOrDefault(invoice.getId(), new ElectronicInvoice(invoice.getId()));
+            record.setAttempts(record.getAttempts() + 1);
+
+            DianResponseDto response;
+            try {
+                record = electronicInvoiceRepository.save(prepare(invoice, record));
+                response = dianSubmissionService.submit(record.getCufe(), documentDirectory.resolve(record.getFileName()));
+            } catch (Exception e) {
+                // Nothing reached DIAN, or it did not answer: sending the same CUFE again is safe.
+                // The invoice stays FAILED until a later batch retries it; the slice carries on.
+                chunk.failed++;
+                failedDocuments.increment();
+                record.setStatus(ElectronicInvoiceStatus.FAILED);
+                record.setResponseCode(null);
+                record.setResponseMessage(truncate(e.getMessage()));
+                record.setRespondedAt(null);
+                electronicInvoiceRepository.save(record);
+                logger.warn("Could not submit electronic invoice for invoice {} (attempt {} of {}): {}",
+                        invoice.getId(), record.getAttempts(), maxAttempts, e.getMessage());
+                continue;
+            }
+
+            // DIAN has the document now; if this save fails the row stays SUBMITTING and is not sent again
+            record.setStatus(response.isAccepted() ? ElectronicInvoiceStatus.ACCEPTED : ElectronicInvoiceStatus.REJECTED);
+            record.setResponseCode(response.getCode());
+            record.setResponseMessage(truncate(response.getMessage()));
+            record.setRespondedAt(response.getReceivedAt());
+            electronicInvoiceRepository.save(record);
+            if (response.isAccepted()) {
+                chunk.accepted++;
+                acceptedDocuments.increment();
+            } else {
+                chunk.rejected++;
+                rejectedDocuments.increment();
+            }
+        }
+        return chunk;
+    }
+
+    // Writes the document to the outbox and marks the row SUBMITTING with its CUFE and file
+    private ElectronicInvoice prepare(Invoice invoice, ElectronicInvoice record) throws IOException, XMLStreamException {
+        requireNumberAndIssueDate(invoice);
+        String cufe = writer.cufe(invoice);
+        String fileName = fileName(invoice);
+        Path target = documentDirectory.resolve(fileName);
+        Path temp = target.resolveSibling(fileName + ".tmp");
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            writer.write(invoice, cufe, out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        record.setInvoiceNumber(invoice.getInvoiceNumber());
+        record.setCufe(cufe);
+        record.setFileName(fileName);
+        record.setStatus(ElectronicInvoiceStatus.SUBMITTING);
+        record.setResponseCode(null);
+        record.setResponseMessage(null);
+        record.setGeneratedAt(LocalDateTime.now());
+        return record;
+    }
+
+    private ChunkResult await(Future<ChunkResult> slice) {
+        try {
+            return slice.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Electronic invoice batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Electronic invoice batch failed: " + e.getCause().getMessage(), e);
+        }
+    }
+
+    // File name, CUFE and document all need them; rows saved outside the invoice service can lack either
+    private void requireNumberAndIssueDate(Invoice invoice) {
+        if (invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().isBlank()) {
+            throw new BillingException("Invoice " + invoice.getId() + " has no invoice number");
+        }
+        if (invoice.getIssueDate() == null) {
+            throw new BillingException("Invoice " + invoice.getId() + " has no issue date");
+        }
+    }
+
+    // DIAN file names: fv + supplier NIT + document number
+    private String fileName(Invoice invoice) {
+        return "fv" + supplierNit + "-" + invoice.getInvoiceNumber().replaceAll("[^A-Za-z0-9-]", "") + ".xml";
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private ElectronicInvoiceDto toDto(ElectronicInvoice record) {
+        ElectronicInvoiceDto dto = new ElectronicInvoiceDto();
+        dto.setInvoiceId(record.getInvoiceId());
+        dto.setInvoiceNumber(record.getInvoiceNumber());
+        dto.setCufe(record.getCufe());
+        dto.setQrUrl(record.getCufe() != null ? writer.qrUrl(record.getCufe()) : null);
+        dto.setFileName(record.getFileName());
+        dto.setStatus(record.getStatus());
+        dto.setResponseCode(record.getResponseCode());
+        dto.setResponseMessage(record.getResponseMessage());
+        dto.setGeneratedAt(record.getGeneratedAt());
+        dto.setRespondedAt(record.getRespondedAt());
+        dto.setAttempts(record.getAttempts());
+        return dto;
+    }
+
+    private static final class ChunkResult {
+        private int accepted;
+        private int rejected;
+        private int failed;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.entity.IdempotencyRecord;
+import com.example.billingservice.exception.IdempotencyKeyInUseException;
+import com.example.billingservice.repository.IdempotencyRecordRepository;
+import com.example.billingservice.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Idempotency store in {@code idempotency_keys} with a bounded in-memory LRU in front of it.
+ * The front cache only ever holds committed responses, so a hit never needs the database;
+ * other nodes fall through to the table. Expired keys are treated as unused and purged in batches.
+ */
+@Service
+@Transactional
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    @Value("${app.billing.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.billing.idempotency.front-cache-size:10000}")
+    private int frontCacheSize;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Map<String, StoredResponse> frontCache;
+    private TransactionTemplate purgeTransaction;
+
+    @PostConstruct
+    void init() {
+        frontCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > frontCacheSize;
+            }
+        };
+        purgeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public IdempotentRequest prepare(String operation, String idempotencyKey, Object request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH || !key.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " printable ASCII characters");
+        }
+        return new IdempotentRequest(operation + ":" + key, hash(request));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> Optional<T> findResponse(IdempotentRequest request, Class<T> responseType) {
+        StoredResponse cached;
+        synchronized (frontCache) {
+            cached = frontCache.get(request.getRecordKey());
+        }
+        if (cached != null && cached.expiresAt.isAfter(LocalDateTime.now())) {
+            return Optional.of(replay(request, cached, responseType));
+        }
+
+        return idempotencyRecordRepository.findById(request.getRecordKey())
+                .filter(record -> record.getResponseBody() != null && record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(record -> {
+                    StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getResponseBody(), record.getExpiresAt());
+                    remember(request.getRecordKey(), stored);
+                    return replay(request, stored, responseType);
+                });
+    }
+
+    @Override
+    public <T> Optional<T> claim(IdempotentRequest request, Class<T> responseType) {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.deleteIfExpired(request.getRecordKey(), now);
+
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(request.getRecordKey());
+        if (existing.isPresent() && existing.get().getResponseBody() != null) {
+            IdempotencyRecord record = existing.get();
+            return Optional.of(replay(request,
+                    new StoredResponse(record.getRequestHash(), record.getResponseBody(), record.getExpiresAt()), responseType));
+        }
+
+        try {
+            idempotencyRecordRepository.insertClaim(request.getRecordKey(), request.getRequestHash(),
+                    now, now.plusHours(ttlHours));
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyKeyInUseException(
+                    "A request with the same Idempotency-Key was processed concurrently", e);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void complete(IdempotentRequest request, Object response) {
+        String body = toJson(response);
+        idempotencyRecordRepository.updateResponse(request.getRecordKey(), body);
+
+        StoredResponse stored = new StoredResponse(request.getRequestHash(), body, LocalDateTime.now().plusHours(ttlHours));
+        // Only a committed response may be replayed from memory
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(request.getRecordKey(), stored);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.idempotency.cleanup-interval-ms:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void purgeExpiredKeys() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            // Short transactions so the purge never holds locks for long
+            deleted = purgeTransaction.execute(status -> idempotencyRecordRepository.deleteExpired(now, PURGE_BATCH_SIZE));
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+
+        synchronized (frontCache) {
+            frontCache.values().removeIf(stored -> !stored.expiresAt.isAfter(now));
+        }
+        if (total > 0) {
+            logger.info("Purged {} expired idempotency keys", total);
+        }
+    }
+
+    private <T> T replay(IdempotentRequest request, StoredResponse stored, Class<T> responseType) {
+        if (!stored.requestHash.equals(request.getRequestHash())) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+        try {
+            return objectMapper.readValue(stored.body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private void remember(String recordKey, StoredResponse stored) {
+        synchronized (frontCache) {
+            frontCache.put(recordKey, stored);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent request/response", e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final String body;
+        private final LocalDateTime expiresAt;
+
+        private StoredResponse(String requestHash, String body, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.SearchPage;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.repository.InvoiceSearchGramRepository;
+import com.example.billingservice.service.InvoiceSearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Service
+@Transactional
+public class InvoiceSearchServiceImpl implements InvoiceSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceSearchServiceImpl.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final String PREFIX_MARK = "^";
+    // Rows per multi-row INSERT, well below the driver's placeholder limit
+    private static final int INSERT_BATCH_ROWS = 1000;
+    // Candidate rows read per query while confirming a search
+    private static final int SCAN_CHUNK_ROWS = 1000;
+    // Grams probed per search, rarest first; scoring re-checks the full term anyway
+    private static final int MAX_PROBED_GRAMS = 6;
+    // Posting-list counts stop here; any gram this common is a poor driver
+    private static final int GRAM_COUNT_CAP = 10000;
+
+    // Per-word score for an exact, prefix or infix hit in each field
+    private static final int[] NUMBER_SCORES = {100, 50, 10};
+    private static final int[] CLIENT_SCORES = {60, 30, 6};
+    private static final int[] PET_SCORES = {40, 20, 4};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private InvoiceSearchGramRepository gramRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.billing.search.max-candidates:20000}")
+    private int maxCandidates;
+
+    @Value("${app.billing.search.rebuild-chunk-size:1000}")
+    private int rebuildChunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void index(Invoice invoice) {
+        gramRepository.deleteByInvoiceId(invoice.getId());
+        insertGrams(invoice.getId(), indexGrams(invoice));
+    }
+
+    @Override
+    public void indexNew(List<Invoice> invoices) {
+        List<String> gramBatch = new ArrayList<>();
+        List<Long> idBatch = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            for (String gram : indexGrams(invoice)) {
+                gramBatch.add(gram);
+                idBatch.add(invoice.getId());
+                if (gramBatch.size() == INSERT_BATCH_ROWS) {
+                    insertRows(gramBatch, idBatch);
+                    gramBatch.clear();
+                    idBatch.clear();
+                }
+            }
+        }
+        if (!gramBatch.isEmpty()) {
+            insertRows(gramBatch, idBatch);
+        }
+    }
+
+    @Override
+    public void remove(Long invoiceId) {
+        gramRepository.deleteByInvoiceId(invoiceId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SearchPage<Invoice> search(String searchTerm, Pageable pageable) {
+        List<String> words = words(searchTerm);
+        if (words.isEmpty()) {
+            return emptyPage(pageable);
+        }
+
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : words) {
+            if (word.length() < 3) {
+                grams.add(PREFIX_MARK + word);
+            } else {
+                addTrigrams(word, grams);
+            }
+        }
+
+        List<String> rarestFirst = rarestFirst(new ArrayList<>(grams));
+        if (rarestFirst.isEmpty()) {
+            return emptyPage(pageable);
+        }
+
+        // Grams only narrow the candidates; confirm the words really occur and rank by where they do.
+        // Only number and names are read here, the page's invoices are loaded at the end.
+        List<RankedId> ranked = new ArrayList<>();
+        long beforeId = Long.MAX_VALUE;
+        int scanned = 0;
+        boolean truncated = false;
+        while (true) {
+            int limit = Math.min(SCAN_CHUNK_ROWS, maxCandidates - scanned);
+            if (limit <= 0) {
+                truncated = !candidateChunk(rarestFirst, beforeId, 1).isEmpty();
+                break;
+            }
+            List<Object[]> rows = candidateChunk(rarestFirst, beforeId, limit);
+            for (Object[] row : rows) {
+                long id = ((Number) row[0]).longValue();
+                int score = score((String) row[1], (String) row[2], (String) row[3], words);
+                if (score > 0) {
+                    ranked.add(new RankedId(id, score));
+                }
+                beforeId = id;
+            }
+            scanned += rows.size();
+            if (rows.size() < limit) {
+                break;
+            }
+        }
+        if (truncated) {
+            logger.debug("Invoice search '{}' stopped after {} candidates", searchTerm, scanned);
+        }
+
+        ranked.sort(Comparator.comparingInt((RankedId r) -> r.score).reversed()
+                .thenComparing(r -> r.id, Comparator.reverseOrder()));
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, to).stream().map(r -> r.id).toList();
+        Map<Long, Invoice> byId = new HashMap<>();
+        for (Invoice invoice : invoiceRepository.findAllById(pageIds)) {
+            byId.put(invoice.getId(), invoice);
+        }
+        List<Invoice> content = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new SearchPage<>(content, pageable, ranked.size(), truncated);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuild() {
+        long lastId = 0L;
+        int indexed = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Long> chunkIds = chunkTransaction.execute(status -> rebuildChunk(afterId));
+            if (chunkIds.isEmpty()) {
+                break;
+            }
+            indexed += chunkIds.size();
+            lastId = chunkIds.get(chunkIds.size() - 1);
+        }
+        logger.info("Rebuilt invoice search index for {} invoices", indexed);
+        return indexed;
+    }
+
+    private List<Long> rebuildChunk(long afterId) {
+        List<Invoice> invoices = invoiceRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, rebuildChunkSize));
+        List<Long> ids = invoices.stream().map(Invoice::getId).toList();
+        if (!ids.isEmpty()) {
+            gramRepository.deleteByInvoiceIds(ids);
+            indexNew(invoices);
+        }
+        entityManager.clear();
+        return ids;
+    }
+
+    // Helper methods
+    private SearchPage<Invoice> emptyPage(Pageable pageable) {
+        return new SearchPage<>(List.of(), pageable, 0, false);
+    }
+
+    /**
+     * Orders the grams by posting-list size, smallest first, and drops the ones beyond
+     * {@link #MAX_PROBED_GRAMS}. Each count stops at {@link #GRAM_COUNT_CAP}, so common grams cost a
+     * bounded index range instead of their whole posting list. Empty when a gram has no postings.
+     */
+    private List<String> rarestFirst(List<String> grams) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < grams.size(); i++) {
+            sql.append(i == 0 ? "" : " UNION ALL ")
+                    .append("SELECT ").append(i).append(" AS k, COUNT(*) AS n FROM (SELECT 1 FROM invoice_search_grams ")
+                    .append("WHERE gram = :g").append(i).append(" LIMIT ").append(GRAM_COUNT_CAP).append(") t").append(i);
+        }
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < grams.size(); i++) {
+            query.setParameter("g" + i, grams.get(i));
+        }
+
+        long[] counts = new long[grams.size()];
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            counts[((Number) columns[0]).intValue()] = ((Number) columns[1]).longValue();
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < grams.size(); i++) {
+            if (counts[i] == 0) {
+                return List.of();
+            }
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong(i -> counts[i]));
+        return order.stream().limit(MAX_PROBED_GRAMS).map(grams::get).toList();
+    }
+
+    /**
+     * Walks the rarest gram's postings newest first and keeps the invoices that also hold the other
+     * grams; each EXISTS is a primary-key probe on (gram, invoice_id).
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> candidateChunk(List<String> grams, long beforeId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT i.id, i.invoice_number, i.client_name, i.pet_name " +
+                "FROM invoice_search_grams g0 JOIN invoices i ON i.id = g0.invoice_id " +
+                "WHERE g0.gram = :g0 AND g0.invoice_id < :beforeId");
+        for (int i = 1; i < grams.size(); i++) {
+            sql.append(" AND EXISTS (SELECT 1 FROM invoice_search_grams g").append(i)
+                    .append(" WHERE g").append(i).append(".gram = :g").append(i)
+                    .append(" AND g").append(i).append(".invoice_id = g0.invoice_id)");
+        }
+        sql.append(" ORDER BY g0.invoice_id DESC LIMIT ").append(limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.setParameter("beforeId", beforeId);
+        for (int i = 0; i < grams.size(); i++) {
+            query.setParameter("g" + i, grams.get(i));
+        }
+        return query.getResultList();
+    }
+
+    private void insertGrams(Long invoiceId, Set<String> grams) {
+        if (grams.isEmpty()) {
+            return;
+        }
+        // One multi-row INSERT per invoice instead of a statement per gram
+        StringBuilder sql = new StringBuilder("INSERT INTO invoice_search_grams (gram, invoice_id) VALUES ");
+        int i = 0;
+        for (String ignored : grams) {
+            sql.append(i == 0 ? "" : ", ").append("(:g").append(i).append(", :invoiceId)");
+            i++;
+        }
+
+        Query insert = entityManager.createNativeQuery(sql.toString());
+        insert.setParameter("invoiceId", invoiceId);
+        i = 0;
+        for (String gram : grams) {
+            insert.setParameter("g" + i++, gram);
+        }
+        insert.executeUpdate();
+    }
+
+    private void insertRows(List<String> grams, List<Long> invoiceIds) {
+        StringBuilder sql = new StringBuilder("INSERT INTO invoice_search_grams (gram, invoice_id) VALUES ");
+        for (int i = 0; i < grams.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:g").append(i).append(", :i").append(i).append(")");
+        }
+
+        Query insert = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < grams.size(); i++) {
+            insert.setParameter("g" + i, grams.get(i));
+            insert.setParameter("i" + i, invoiceIds.get(i));
+        }
+        insert.executeUpdate();
+    }
+
+    private Set<String> indexGrams(Invoice invoice) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String field : Arrays.asList(invoice.getInvoiceNumber(), invoice.getClientName(), invoice.getPetName())) {
+            for (String word : words(field)) {
+                grams.add(PREFIX_MARK + word.charAt(0));
+                if (word.length() >= 2) {
+                    grams.add(PREFIX_MARK + word.substring(0, 2));
+                }
+                addTrigrams(word, grams);
+            }
+        }
+        return grams;
+    }
+
+    private void addTrigrams(String word, Set<String> grams) {
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            grams.add(word.substring(i, i + 3));
+        }
+    }
+
+    private int score(String invoiceNumber, String clientName, String petName, List<String> terms) {
+        List<String> numberWords = words(invoiceNumber);
+        List<String> clientWords = words(clientName);
+        List<String> petWords = words(petName);
+
+        int total = 0;
+        for (String term : terms) {
+            int best = Math.max(fieldScore(numberWords, term, NUMBER_SCORES),
+                    Math.max(fieldScore(clientWords, term, CLIENT_SCORES), fieldScore(petWords, term, PET_SCORES)));
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private int fieldScore(List<String> fieldWords, String term, int[] scores) {
+        int best = 0;
+        for (String word : fieldWords) {
+            if (word.equals(term)) {
+                return scores[0];
+            } else if (word.startsWith(term)) {
+                best = Math.max(best, scores[1]);
+            } else if (term.length() >= 3 && word.contains(term)) {
+                best = Math.max(best, scores[2]);
+            }
+        }
+        return best;
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String cleaned = SEPARATORS.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return cleaned.isEmpty() ? List.of() : List.of(cleaned.split(" "));
+    }
+
+    private static final class RankedId {
+        private final long id;
+        private final int score;
+
+        private RankedId(long id, int score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
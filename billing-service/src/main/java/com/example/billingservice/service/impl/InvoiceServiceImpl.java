@@ -1,30 +1,66 @@
 package com.example.billingservice.service.impl;
 
+import com.example.billingservice.dto.BulkInvoiceResultDto;
+import com.example.billingservice.dto.BulkInvoiceRowResultDto;
+import com.example.billingservice.dto.CursorPage;
+import com.example.billingservice.dto.DunningCandidateProjection;
+import com.example.billingservice.dto.InvoiceItemDto;
 import com.example.billingservice.dto.InvoiceDto;
 import com.example.billingservice.dto.InvoiceReportDto;
+import com.example.billingservice.dto.InvoiceSummaryDto;
+import com.example.billingservice.dto.LedgerEntryDto;
+import com.example.billingservice.dto.LedgerEntryProjection;
+import com.example.billingservice.dto.LedgerEntryType;
 import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceItem;
 import com.example.billingservice.entity.InvoiceStatus;
 import com.example.billingservice.entity.PaymentStatus;
 import com.example.billingservice.exception.InvoiceNotFoundException;
+import com.example.billingservice.mapper.InvoiceItemMapper;
 import com.example.billingservice.mapper.InvoiceMapper;
 import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.dto.BillingChangeEvent;
+import com.example.billingservice.dto.BillingTotalsDto;
+import com.example.billingservice.service.BillingRollupService;
+import com.example.billingservice.service.DocumentCacheService;
+import com.example.billingservice.service.DocumentNumberService;
+import com.example.billingservice.service.InvoiceSearchService;
 import com.example.billingservice.service.InvoiceService;
+import com.example.billingservice.service.NotificationService;
 import com.example.billingservice.service.ReportService;
+import com.example.billingservice.service.StatisticsCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,14 +75,228 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Autowired
     private InvoiceMapper invoiceMapper;
 
+    @Autowired
+    private InvoiceItemMapper invoiceItemMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private BillingRollupService billingRollupService;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private DocumentCacheService documentCacheService;
+
+    @Autowired
+    private InvoiceSearchService invoiceSearchService;
+
+    @Autowired
+    private StatisticsCacheService statisticsCacheService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.billing.overdue.chunk-size:500}")
+    private int overdueChunkSize;
+
+    // Days from the due date for each reminder stage, ascending; negative values remind before it,
+    // so the default first stage is the due-soon reminder a week ahead
+    @Value("${app.billing.dunning.stages:-7,1,15,30}")
+    private int[] dunningStages;
+
+    @Value("${app.billing.dunning.batch-size:200}")
+    private int dunningBatchSize;
+
+    @Value("${app.billing.bulk.max-rows:10000}")
+    private int bulkMaxRows;
+
+    @Value("${app.billing.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        for (int stage = 1; stage < dunningStages.length; stage++) {
+            if (dunningStages[stage] <= dunningStages[stage - 1]) {
+                throw new IllegalStateException("app.billing.dunning.stages must be in ascending order");
+            }
+        }
+    }
+
     @Override
     public InvoiceDto createInvoice(InvoiceDto invoiceDto) {
         Invoice invoice = invoiceMapper.toEntity(invoiceDto);
+        applyDefaults(invoice);
+
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        billingRollupService.recordCreated(savedInvoice);
+        invoiceSearchService.index(savedInvoice);
+        logger.info("Created new invoice with ID: {} and number: {}", savedInvoice.getId(), savedInvoice.getInvoiceNumber());
+
+        return invoiceMapper.toDto(savedInvoice);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkInvoiceResultDto createInvoicesBulk(List<InvoiceDto> invoiceDtos) {
+        if (invoiceDtos.size() > bulkMaxRows) {
+            throw new IllegalArgumentException("Bulk request exceeds the limit of " + bulkMaxRows + " invoices");
+        }
+        long start = System.currentTimeMillis();
+        BulkInvoiceRowResultDto[] results = new BulkInvoiceRowResultDto[invoiceDtos.size()];
+
+        List<Integer> chunk = new ArrayList<>(bulkChunkSize);
+        for (int index = 0; index < invoiceDtos.size(); index++) {
+            String error = validateBulkRow(invoiceDtos.get(index));
+            if (error != null) {
+                results[index] = BulkInvoiceRowResultDto.failed(index, error);
+                continue;
+            }
+            chunk.add(index);
+            if (chunk.size() == bulkChunkSize) {
+                createBulkChunkOrRows(invoiceDtos, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createBulkChunkOrRows(invoiceDtos, chunk, results);
+        }
+
+        BulkInvoiceResultDto result = new BulkInvoiceResultDto();
+        for (BulkInvoiceRowResultDto row : results) {
+            result.getResults().add(row);
+            if (row.isSuccess()) {
+                result.setCreated(result.getCreated() + 1);
+            } else {
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+        result.setTotal(invoiceDtos.size());
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        logger.info("Bulk created {} of {} invoices in {} ms",
+                result.getCreated(), result.getTotal(), result.getElapsedMillis());
+        return result;
+    }
+
+    private void createBulkChunkOrRows(List<InvoiceDto> invoiceDtos, List<Integer> indexes,
+                                       BulkInvoiceRowResultDto[] results) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> createBulkChunk(invoiceDtos, indexes, results));
+        } catch (RuntimeException e) {
+            // One bad row rolls back the whole chunk; redo it row by row to find out which
+            logger.warn("Bulk chunk of {} invoices failed, retrying row by row: {}", indexes.size(), e.getMessage());
+            for (Integer index : indexes) {
+                try {
+                    chunkTransaction.executeWithoutResult(
+                            status -> createBulkChunk(invoiceDtos, List.of(index), results));
+                } catch (RuntimeException rowError) {
+                    results[index] = BulkInvoiceRowResultDto.failed(index, rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void createBulkChunk(List<InvoiceDto> invoiceDtos, List<Integer> indexes,
+                                 BulkInvoiceRowResultDto[] results) {
+        List<Invoice> invoices = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            Invoice invoice = toNewInvoice(invoiceDtos.get(index));
+            entityManager.persist(invoice);
+            invoices.add(invoice);
+        }
+        // Pooled ids let Hibernate send invoices and items as JDBC batches here
+        entityManager.flush();
+
+        billingRollupService.recordCreated(invoices);
+        invoiceSearchService.indexNew(invoices);
+        entityManager.flush();
+
+        for (int i = 0; i < indexes.size(); i++) {
+            Invoice invoice = invoices.get(i);
+            results[indexes.get(i)] = BulkInvoiceRowResultDto.created(
+                    indexes.get(i), invoice.getId(), invoice.getInvoiceNumber());
+        }
+        entityManager.clear();
+    }
+
+    private Invoice toNewInvoice(InvoiceDto invoiceDto) {
+        Invoice invoice = invoiceMapper.toEntity(invoiceDto);
+        invoice.setId(null);
+        applyDefaults(invoice);
+
+        if (invoiceDto.getItems() != null && !invoiceDto.getItems().isEmpty()) {
+            for (InvoiceItemDto itemDto : invoiceDto.getItems()) {
+                InvoiceItem item = invoiceItemMapper.toEntity(itemDto);
+                item.setId(null);
+                item.setInvoice(invoice);
+                item.calculateTotal();
+                invoice.getItems().add(item);
+            }
+            if (invoice.getDiscountPercentage() == null) {
+                invoice.setDiscountPercentage(BigDecimal.ZERO);
+            }
+            invoice.calculateTotals();
+        }
+        return invoice;
+    }
 
+    private String validateBulkRow(InvoiceDto invoiceDto) {
+        if (invoiceDto == null) {
+            return "Invoice is required";
+        }
+        Set<ConstraintViolation<InvoiceDto>> violations = validator.validate(invoiceDto);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<InvoiceDto> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        if (invoiceDto.getItems() != null) {
+            for (InvoiceItemDto item : invoiceDto.getItems()) {
+                Set<ConstraintViolation<InvoiceItemDto>> itemViolations = validator.validate(item);
+                if (!itemViolations.isEmpty()) {
+                    ConstraintViolation<InvoiceItemDto> violation = itemViolations.iterator().next();
+                    return "items." + violation.getPropertyPath() + ": " + violation.getMessage();
+                }
+            }
+        }
+        return null;
+    }
+
+    private String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private InvoiceDto toDtoWithPayments(Invoice invoice) {
+        // Initializes invoice.payments on the same managed instance in a second query
+        invoiceRepository.findWithPaymentsById(invoice.getId());
+        return invoiceMapper.toDto(invoice);
+    }
+
+    private void applyDefaults(Invoice invoice) {
         // Set default values if not provided
+        if (invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().isEmpty()) {
+            invoice.setInvoiceNumber(documentNumberService.nextInvoiceNumber());
+        }
         if (invoice.getStatus() == null) {
             invoice.setStatus(InvoiceStatus.DRAFT);
         }
@@ -64,11 +314,6 @@ public class InvoiceServiceImpl implements InvoiceService {
         if (invoice.getTermsConditions() == null || invoice.getTermsConditions().isEmpty()) {
             invoice.setTermsConditions("Pago dentro de 30 días. Penalización por mora del 2% mensual.");
         }
-
-        Invoice savedInvoice = invoiceRepository.save(invoice);
-        logger.info("Created new invoice with ID: {} and number: {}", savedInvoice.getId(), savedInvoice.getInvoiceNumber());
-
-        return invoiceMapper.toDto(savedInvoice);
     }
 
     @Override
@@ -81,6 +326,8 @@ public class InvoiceServiceImpl implements InvoiceService {
             throw new IllegalStateException("Cannot modify a paid invoice");
         }
 
+        BillingRollupService.Snapshot before = billingRollupService.snapshot(existingInvoice);
+
         // Update only allowed fields
         existingInvoice.setClientName(invoiceDto.getClientName());
         existingInvoice.setClientEmail(invoiceDto.getClientEmail());
@@ -101,7 +348,10 @@ public class InvoiceServiceImpl implements InvoiceService {
         // Recalculate totals
         existingInvoice.calculateTotals();
 
-        Invoice updatedInvoice = invoiceRepository.save(existingInvoice);
+        Invoice updatedInvoice = invoiceRepository.saveAndFlush(existingInvoice);
+        billingRollupService.recordChange(before, updatedInvoice);
+        invoiceSearchService.index(updatedInvoice);
+        documentCacheService.evictInvoice(updatedInvoice.getId());
         logger.info("Updated invoice with ID: {}", id);
 
         return invoiceMapper.toDto(updatedInvoice);
@@ -110,57 +360,106 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional(readOnly = true)
     public Optional<InvoiceDto> getInvoiceById(Long id) {
-        return invoiceRepository.findById(id)
-                .map(invoiceMapper::toDto);
+        return invoiceRepository.findWithItemsById(id)
+                .map(this::toDtoWithPayments);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<InvoiceDto> getInvoiceByNumber(String invoiceNumber) {
-        return invoiceRepository.findByInvoiceNumber(invoiceNumber)
-                .map(invoiceMapper::toDto);
+        return invoiceRepository.findWithItemsByInvoiceNumber(invoiceNumber)
+                .map(this::toDtoWithPayments);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<InvoiceDto> getAllInvoices(Pageable pageable) {
-        return invoiceRepository.findAll(pageable)
-                .map(invoiceMapper::toDto);
+    public Page<InvoiceSummaryDto> getAllInvoices(Pageable pageable) {
+        return invoiceRepository.findAllSummaries(pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<InvoiceDto> getInvoicesByClient(Long clientId, Pageable pageable) {
-        return invoiceRepository.findByClientId(clientId, pageable)
-                .map(invoiceMapper::toDto);
+    public Page<InvoiceSummaryDto> getInvoicesByClient(Long clientId, Pageable pageable) {
+        return invoiceRepository.findSummariesByClientId(clientId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<InvoiceDto> getInvoicesByStatus(InvoiceStatus status, Pageable pageable) {
-        return invoiceRepository.findByStatus(status, pageable)
-                .map(invoiceMapper::toDto);
+    public Page<InvoiceSummaryDto> getInvoicesByStatus(InvoiceStatus status, Pageable pageable) {
+        return invoiceRepository.findSummariesByStatus(status, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<InvoiceDto> getInvoicesByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable) {
-        return invoiceRepository.findByPaymentStatus(paymentStatus, pageable)
-                .map(invoiceMapper::toDto);
+    public Page<InvoiceSummaryDto> getInvoicesByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable) {
+        return invoiceRepository.findSummariesByPaymentStatus(paymentStatus, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<InvoiceDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        return invoiceRepository.findByIssueDateBetween(startDate, endDate, pageable)
-                .map(invoiceMapper::toDto);
+    public Page<InvoiceSummaryDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        return invoiceRepository.findSummariesByIssueDateBetween(startDate, endDate, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<InvoiceDto> searchInvoices(String searchTerm, Pageable pageable) {
-        return invoiceRepository.searchInvoices(searchTerm, pageable)
-                .map(invoiceMapper::toDto);
+    public Page<InvoiceSummaryDto> searchInvoices(String searchTerm, Pageable pageable) {
+        return invoiceSearchService.search(searchTerm, pageable)
+                .map(invoiceMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildSearchIndex() {
+        return invoiceSearchService.rebuild();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<InvoiceSummaryDto> listInvoices(InvoiceStatus status, String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = KeysetCursor.clampSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Invoice> rows;
+        if (status == null) {
+            rows = cursor == null
+                    ? invoiceRepository.findLatest(limit)
+                    : invoiceRepository.findLatestAfter(cursor.getSortKey(), cursor.getId(), limit);
+        } else {
+            rows = cursor == null
+                    ? invoiceRepository.findLatestByStatus(status, limit)
+                    : invoiceRepository.findLatestByStatusAfter(status, cursor.getSortKey(), cursor.getId(), limit);
+        }
+        return KeysetCursor.toPage(rows, pageSize, Invoice::getCreatedAt, Invoice::getId, invoiceMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<InvoiceSummaryDto> listInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                                 String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = KeysetCursor.clampSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Invoice> rows = cursor == null
+                ? invoiceRepository.findLatestByIssueDate(startDate, endDate, limit)
+                : invoiceRepository.findLatestByIssueDateAfter(startDate, endDate,
+                        cursor.getSortKey(), cursor.getId(), limit);
+        return KeysetCursor.toPage(rows, pageSize, Invoice::getIssueDate, Invoice::getId, invoiceMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LedgerEntryDto> getClientLedger(Long clientId, String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = KeysetCursor.clampSize(size);
+
+        List<LedgerEntryProjection> rows = cursor == null
+                ? invoiceRepository.findClientLedger(clientId, pageSize + 1)
+                : invoiceRepository.findClientLedgerAfter(clientId, cursor.getSortKey(), cursor.getId(), pageSize + 1);
+        return KeysetCursor.toPage(rows, pageSize, LedgerEntryProjection::getEntryDate, LedgerEntryProjection::getSortId,
+                this::toLedgerEntryDto);
     }
 
     @Override
@@ -178,7 +477,11 @@ public class InvoiceServiceImpl implements InvoiceService {
             throw new IllegalStateException("Cannot delete invoice with associated payments");
         }
 
+        BillingRollupService.Snapshot before = billingRollupService.snapshot(invoice);
         invoiceRepository.delete(invoice);
+        billingRollupService.recordDeleted(before);
+        invoiceSearchService.remove(id);
+        documentCacheService.evictInvoice(id);
         logger.info("Deleted invoice with ID: {}", id);
     }
 
@@ -190,6 +493,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         // Validate status transitions
         validateStatusTransition(invoice.getStatus(), newStatus);
 
+        BillingRollupService.Snapshot before = billingRollupService.snapshot(invoice);
         invoice.setStatus(newStatus);
 
         // Set issue date when sending
@@ -197,7 +501,9 @@ public class InvoiceServiceImpl implements InvoiceService {
             invoice.setIssueDate(LocalDateTime.now());
         }
 
-        Invoice updatedInvoice = invoiceRepository.save(invoice);
+        Invoice updatedInvoice = invoiceRepository.saveAndFlush(invoice);
+        billingRollupService.recordChange(before, updatedInvoice);
+        documentCacheService.evictInvoice(updatedInvoice.getId());
         logger.info("Changed invoice {} status from {} to {}", id, invoice.getStatus(), newStatus);
 
         return invoiceMapper.toDto(updatedInvoice);
@@ -208,8 +514,11 @@ public class InvoiceServiceImpl implements InvoiceService {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new InvoiceNotFoundException("Invoice not found with ID: " + invoiceId));
 
+        BillingRollupService.Snapshot before = billingRollupService.snapshot(invoice);
         invoice.calculateTotals();
-        Invoice updatedInvoice = invoiceRepository.save(invoice);
+        Invoice updatedInvoice = invoiceRepository.saveAndFlush(invoice);
+        billingRollupService.recordChange(before, updatedInvoice);
+        documentCacheService.evictInvoice(updatedInvoice.getId());
 
         logger.info("Recalculated totals for invoice {}: Subtotal={}, Tax={}, Total={}",
                 invoiceId, invoice.getSubtotal(), invoice.getTaxAmount(), invoice.getTotalAmount());
@@ -228,10 +537,13 @@ public class InvoiceServiceImpl implements InvoiceService {
             throw new IllegalArgumentException("Discount percentage must be between 0 and 100");
         }
 
+        BillingRollupService.Snapshot before = billingRollupService.snapshot(invoice);
         invoice.setDiscountPercentage(discountPercentage);
         invoice.calculateTotals();
 
-        Invoice updatedInvoice = invoiceRepository.save(invoice);
+        Invoice updatedInvoice = invoiceRepository.saveAndFlush(invoice);
+        billingRollupService.recordChange(before, updatedInvoice);
+        documentCacheService.evictInvoice(updatedInvoice.getId());
         logger.info("Applied {}% discount to invoice {}, new total: {}",
                 discountPercentage, invoiceId, updatedInvoice.getTotalAmount());
 
@@ -240,11 +552,8 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<InvoiceDto> getOverdueInvoices() {
-        List<Invoice> overdueInvoices = invoiceRepository.findOverdueInvoices(LocalDateTime.now());
-        return overdueInvoices.stream()
-                .map(invoiceMapper::toDto)
-                .collect(Collectors.toList());
+    public List<InvoiceSummaryDto> getOverdueInvoices() {
+        return invoiceRepository.findOverdueSummaries(LocalDateTime.now());
     }
 
     @Override
@@ -262,9 +571,12 @@ public class InvoiceServiceImpl implements InvoiceService {
 
             // Update status to SENT if it was DRAFT
             if (invoice.getStatus() == InvoiceStatus.DRAFT) {
+                BillingRollupService.Snapshot before = billingRollupService.snapshot(invoice);
                 invoice.setStatus(InvoiceStatus.SENT);
                 invoice.setIssueDate(LocalDateTime.now());
-                invoiceRepository.save(invoice);
+                invoiceRepository.saveAndFlush(invoice);
+                billingRollupService.recordChange(before, invoice);
+                documentCacheService.evictInvoice(invoiceId);
             }
 
             logger.info("Sent invoice {} to email: {}", invoiceId, invoice.getClientEmail());
@@ -280,44 +592,59 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getInvoiceStatistics() {
+        return statisticsCacheService.get("invoices.statistics", BillingChangeEvent.Source.INVOICE,
+                this::loadInvoiceStatistics);
+    }
+
+    private Map<String, Object> loadInvoiceStatistics() {
         Map<String, Object> statistics = new HashMap<>();
 
-        statistics.put("totalInvoiced", getTotalInvoicedAmount());
-        statistics.put("totalPaid", invoiceRepository.getTotalPaidAmount());
-        statistics.put("totalOutstanding", getTotalOutstandingAmount());
-        statistics.put("invoiceCountByStatus", getInvoiceCountByStatus());
-        statistics.put("overdueCount", invoiceRepository.findOverdueInvoices(LocalDateTime.now()).size());
+        // Totals come from billing_daily_rollup: one grouped read instead of a scan per figure
+        BillingTotalsDto totals = getBillingTotals();
+        statistics.put("totalInvoiced", totals.getTotalInvoiced());
+        statistics.put("totalPaid", totals.getTotalPaid());
+        statistics.put("totalOutstanding", totals.getTotalOutstanding());
+        statistics.put("invoiceCountByStatus", totals.getInvoiceCountByStatus());
+        statistics.put("overdueCount", invoiceRepository.countOverdueInvoices(LocalDateTime.now()));
 
         // Monthly statistics
-        LocalDateTime now = LocalDateTime.now();
-        statistics.put("currentMonthTotal", invoiceRepository.getTotalAmountByMonth(now.getYear(), now.getMonthValue()));
-        statistics.put("currentYearTotal", invoiceRepository.getTotalAmountByYear(now.getYear()));
-
-        return statistics;
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        LocalDate yearStart = today.withDayOfYear(1);
+        statistics.put("currentMonthTotal", billingRollupService.getTotalAmountBetween(
+                monthStart, monthStart.plusMonths(1).minusDays(1)));
+        statistics.put("currentYearTotal", billingRollupService.getTotalAmountBetween(
+                yearStart, yearStart.plusYears(1).minusDays(1)));
+
+        return Collections.unmodifiableMap(statistics);
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalInvoicedAmount() {
-        BigDecimal total = invoiceRepository.getTotalInvoicedAmount();
-        return total != null ? total : BigDecimal.ZERO;
+        return getBillingTotals().getTotalInvoiced();
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalOutstandingAmount() {
-        BigDecimal total = invoiceRepository.getTotalOutstandingAmount();
-        return total != null ? total : BigDecimal.ZERO;
+        return getBillingTotals().getTotalOutstanding();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<InvoiceStatus, Long> getInvoiceCountByStatus() {
-        Map<InvoiceStatus, Long> counts = new HashMap<>();
-        for (InvoiceStatus status : InvoiceStatus.values()) {
-            counts.put(status, invoiceRepository.countByStatus(status));
-        }
-        return counts;
+        return getBillingTotals().getInvoiceCountByStatus();
+    }
+
+    private BillingTotalsDto getBillingTotals() {
+        return statisticsCacheService.get("invoices.totals", BillingChangeEvent.Source.INVOICE,
+                billingRollupService::getTotals);
+    }
+
+    @Override
+    public int rebuildStatisticsRollup() {
+        return billingRollupService.rebuild();
     }
 
     @Override
@@ -332,52 +659,136 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
-    @Scheduled(fixedRate = 86400000) // Daily at midnight
-    public void markOverdueInvoices() {
-        List<Invoice> overdueInvoices = invoiceRepository.findOverdueInvoices(LocalDateTime.now());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(cron = "${app.billing.overdue.cron:0 0 0 * * *}") // Daily at midnight
+    public int markOverdueInvoices() {
+        LocalDateTime now = LocalDateTime.now();
+        Timer.Sample sample = Timer.start(meterRegistry);
 
+        // Each chunk is its own short transaction: lock ids, adjust the rollup, bulk UPDATE
         int markedCount = 0;
-        for (Invoice invoice : overdueInvoices) {
-            if (invoice.getStatus() != InvoiceStatus.OVERDUE &&
-                    invoice.getPaymentStatus() != PaymentStatus.PAID) {
-                invoice.setStatus(InvoiceStatus.OVERDUE);
-                invoiceRepository.save(invoice);
-                markedCount++;
-            }
-        }
+        int chunkCount;
+        do {
+            chunkCount = chunkTransaction.execute(status -> markOverdueChunk(now));
+            markedCount += chunkCount;
+        } while (chunkCount == overdueChunkSize);
 
-        if (markedCount > 0) {
-            logger.info("Marked {} invoices as overdue", markedCount);
-        }
+        long elapsedNanos = sample.stop(meterRegistry.timer("billing.invoices.overdue.run"));
+        meterRegistry.counter("billing.invoices.overdue.marked").increment(markedCount);
+
+        logger.info("Marked {} invoices as overdue in {} ms", markedCount, elapsedNanos / 1_000_000);
+        return markedCount;
     }
 
-    @Override
-    @Scheduled(fixedRate = 604800000) // Weekly
-    public void sendInvoiceNotifications() {
-        // Send notifications for invoices due in 7 days
-        LocalDateTime dueSoon = LocalDateTime.now().plusDays(7);
-        // Implementation would integrate with notification service
-        logger.info("Sent invoice due soon notifications");
+    private int markOverdueChunk(LocalDateTime now) {
+        List<Long> ids = invoiceRepository.lockOverdueCandidateIds(now, overdueChunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        billingRollupService.recordStatusChange(ids, InvoiceStatus.OVERDUE);
+        int updated = invoiceRepository.updateStatusByIds(ids, InvoiceStatus.OVERDUE, now);
+        ids.forEach(documentCacheService::evictInvoice);
+        return updated;
     }
 
     @Override
-    @Scheduled(fixedRate = 86400000) // Daily
-    public void sendOverdueReminders() {
-        List<Invoice> overdueInvoices = getOverdueInvoicesForReminders();
-
-        for (Invoice invoice : overdueInvoices) {
-            try {
-                // Send overdue reminder
-                // Implementation would integrate with notification service
-                logger.info("Sent overdue reminder for invoice: {}", invoice.getInvoiceNumber());
-            } catch (Exception e) {
-                logger.error("Failed to send overdue reminder for invoice {}: {}",
-                        invoice.getInvoiceNumber(), e.getMessage());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(cron = "${app.billing.dunning.cron:0 0 8 * * *}") // Daily at 8 AM
+    public int sendOverdueReminders() {
+        // Whole seconds, so the stored dunning_sent_at compares equal when a chunk is released
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        // Most severe stage first: an invoice that is already far overdue skips the milder reminders
+        int sentCount = 0;
+        for (int stage = dunningStages.length; stage >= 1; stage--) {
+            int currentStage = stage;
+            List<Integer> previousStages = new ArrayList<>(stage);
+            for (int previous = 0; previous < stage; previous++) {
+                previousStages.add(previous);
             }
+            LocalDateTime cutoff = now.minusDays(dunningStages[stage - 1]);
+
+            // Each chunk is its own short transaction that locks and advances the stage. Reminders are
+            // handed off only after it commits, so a failed commit never sends them twice.
+            int stageCount = 0;
+            int chunkCount;
+            do {
+                List<DunningCandidateProjection> invoices;
+                try {
+                    invoices = chunkTransaction.execute(status -> claimDunningChunk(currentStage, previousStages, cutoff, now));
+                } catch (RuntimeException e) {
+                    // The chunk rolled back and keeps its stage; the next run retries it
+                    logger.error("Dunning stage {} stopped after {} reminders: {}", stage, stageCount, e.getMessage());
+                    break;
+                }
+                chunkCount = invoices.size();
+                if (chunkCount == 0) {
+                    break;
+                }
+                try {
+                    notificationService.sendPaymentReminders(stage, dunningStages[stage - 1], invoices);
+                } catch (RuntimeException e) {
+                    // Nothing was sent: give the invoices their stage back and leave the rest for the next run
+                    logger.error("Dunning stage {} hand-off failed after {} reminders: {}", stage, stageCount, e.getMessage());
+                    releaseDunningChunk(currentStage, now, invoices);
+                    break;
+                }
+                stageCount += chunkCount;
+            } while (chunkCount == dunningBatchSize);
+
+            meterRegistry.counter("billing.invoices.dunning.sent", "stage", String.valueOf(stage))
+                    .increment(stageCount);
+            sentCount += stageCount;
+        }
+
+        long elapsedNanos = sample.stop(meterRegistry.timer("billing.invoices.dunning.run"));
+        logger.info("Sent {} payment reminders in {} ms", sentCount, elapsedNanos / 1_000_000);
+        return sentCount;
+    }
+
+    private List<DunningCandidateProjection> claimDunningChunk(int stage, List<Integer> previousStages,
+                                                               LocalDateTime cutoff, LocalDateTime now) {
+        List<DunningCandidateProjection> invoices =
+                invoiceRepository.lockDunningCandidates(previousStages, cutoff, dunningBatchSize);
+        if (!invoices.isEmpty()) {
+            List<Long> ids = invoices.stream().map(DunningCandidateProjection::getId).collect(Collectors.toList());
+            invoiceRepository.updateDunningStage(ids, stage, now);
+        }
+        return invoices;
+    }
+
+    private void releaseDunningChunk(int stage, LocalDateTime sentAt, List<DunningCandidateProjection> invoices) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                for (DunningCandidateProjection invoice : invoices) {
+                    invoiceRepository.revertDunningStage(invoice.getId(), stage, sentAt,
+                            invoice.getDunningStage() != null ? invoice.getDunningStage() : 0,
+                            invoice.getDunningSentAt());
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not restore dunning stage of invoices {}; their stage {} reminder was not sent",
+                    invoices.stream().map(DunningCandidateProjection::getId).collect(Collectors.toList()),
+                    stage, e);
         }
     }
 
     // Helper methods
+    private LedgerEntryDto toLedgerEntryDto(LedgerEntryProjection row) {
+        LedgerEntryDto dto = new LedgerEntryDto();
+        dto.setEntryType(LedgerEntryType.valueOf(row.getEntryType()));
+        dto.setEntryId(row.getEntryId());
+        dto.setEntryDate(row.getEntryDate());
+        dto.setReference(row.getReference());
+        dto.setInvoiceId(row.getInvoiceId());
+        dto.setInvoiceNumber(row.getInvoiceNumber());
+        dto.setDebit(row.getDebit());
+        dto.setCredit(row.getCredit());
+        dto.setBalance(row.getBalance());
+        return dto;
+    }
+
     private void validateStatusTransition(InvoiceStatus currentStatus, InvoiceStatus newStatus) {
         // Define valid status transitions
         switch (currentStatus) {
@@ -404,13 +815,6 @@ public class InvoiceServiceImpl implements InvoiceService {
         }
     }
 
-    private List<Invoice> getOverdueInvoicesForReminders() {
-        return invoiceRepository.findOverdueInvoices(LocalDateTime.now())
-                .stream()
-                .filter(invoice -> invoice.getStatus() == InvoiceStatus.OVERDUE)
-                .collect(Collectors.toList());
-    }
-
     private InvoiceReportDto mapToInvoiceReportDto(Invoice invoice) {
         InvoiceReportDto dto = new InvoiceReportDto();
         dto.setId(invoice.getId());
@@ -0,0 +1,76 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque {@code after} token for keyset pagination: the sort key and id of the last row returned,
+ * Base64url-encoded. Listings fetch one row more than requested to know whether another page exists.
+ * A row without a sort key is encoded with an empty one; the queries place such rows after all dated rows.
+ */
+final class KeysetCursor {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final LocalDateTime sortKey;
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    LocalDateTime getSortKey() {
+        return sortKey;
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            String sortKey = decoded.substring(0, separator);
+            return new KeysetCursor(sortKey.isEmpty() ? null : LocalDateTime.parse(sortKey),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+    }
+
+    static String encode(LocalDateTime sortKey, Long id) {
+        String raw = (sortKey != null ? sortKey.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Builds the page from {@code size + 1} fetched rows; the extra row only signals that more exist.
+     */
+    static <E, D> CursorPage<D> toPage(List<E> rows, int size, Function<E, LocalDateTime> sortKey,
+                                       Function<E, Long> id, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = encode(sortKey.apply(last), id.apply(last));
+        }
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), nextCursor, pageRows.size());
+    }
+}
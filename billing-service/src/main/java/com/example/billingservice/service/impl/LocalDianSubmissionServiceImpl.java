@@ -0,0 +1,181 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.DianResponseDto;
+import com.example.billingservice.service.DianSubmissionService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Local stand-in for the DIAN reception web service. It re-reads the submitted document with
+ * StAX, runs the structural checks DIAN rejects most often (root element, ID, CUFE, totals,
+ * lines) and writes an acknowledgement next to the outbox in {@code respuestas/}. No signature or
+ * schema validation is done.
+ */
+@Service
+public class LocalDianSubmissionServiceImpl implements DianSubmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalDianSubmissionServiceImpl.class);
+    private static final String ACCEPTED_CODE = "00";
+    private static final String REJECTED_CODE = "99";
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Value("${app.billing.einvoice.outbox-directory:${java.io.tmpdir}/billing-einvoice-outbox}")
+    private String outboxDirectory;
+
+    private Path responseDirectory;
+
+    @PostConstruct
+    void init() throws IOException {
+        responseDirectory = Files.createDirectories(Paths.get(outboxDirectory, "respuestas"));
+    }
+
+    @Override
+    public DianResponseDto submit(String cufe, Path document) {
+        String problem;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(document))) {
+            problem = validate(cufe, in);
+        } catch (IOException | XMLStreamException e) {
+            problem = "Documento mal formado: " + e.getMessage();
+        }
+
+        DianResponseDto response = problem == null
+                ? new DianResponseDto(true, ACCEPTED_CODE, "Documento validado por la DIAN")
+                : new DianResponseDto(false, REJECTED_CODE, problem);
+        writeAcknowledgement(cufe, document, response);
+        if (!response.isAccepted()) {
+            logger.warn("Electronic invoice {} rejected: {}", document.getFileName(), problem);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the first problem found, or null when the document passes.
+     */
+    private String validate(String cufe, InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            String documentId = null;
+            String documentCufe = null;
+            boolean payableAmount = false;
+            int lines = 0;
+            int depth = 0;
+            boolean inMonetaryTotal = false;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if (depth == 1 && "LegalMonetaryTotal".equals(reader.getLocalName())) {
+                        inMonetaryTotal = false;
+                    }
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                depth++;
+                String namespace = reader.getNamespaceURI();
+                String name = reader.getLocalName();
+
+                if (depth == 1) {
+                    if (!UblInvoiceWriter.INVOICE_NS.equals(namespace) || !"Invoice".equals(name)) {
+                        return "El elemento raíz no es un Invoice UBL 2.1";
+                    }
+                } else if (depth == 2 && UblInvoiceWriter.CBC_NS.equals(namespace) && "ID".equals(name)) {
+                    documentId = reader.getElementText();
+                    depth--;
+                } else if (depth == 2 && UblInvoiceWriter.CBC_NS.equals(namespace) && "UUID".equals(name)) {
+                    documentCufe = reader.getElementText();
+                    depth--;
+                } else if (depth == 2 && "LegalMonetaryTotal".equals(name)) {
+                    inMonetaryTotal = true;
+                } else if (inMonetaryTotal && "PayableAmount".equals(name)) {
+                    payableAmount = !reader.getElementText().isBlank();
+                    depth--;
+                } else if (depth == 2 && "InvoiceLine".equals(name)) {
+                    lines++;
+                }
+            }
+
+            if (documentId == null || documentId.isBlank()) {
+                return "El documento no tiene número (cbc:ID)";
+            }
+            if (documentCufe == null || !documentCufe.equals(cufe)) {
+                return "El CUFE del documento no coincide con el enviado";
+            }
+            if (!payableAmount) {
+                return "El documento no tiene valor a pagar (cbc:PayableAmount)";
+            }
+            if (lines == 0) {
+                return "El documento no tiene líneas de detalle";
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void writeAcknowledgement(String cufe, Path document, DianResponseDto response) {
+        Path target = responseDirectory.resolve("ar-" + document.getFileName());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.setPrefix("cbc", UblInvoiceWriter.CBC_NS);
+            xml.writeStartElement("ApplicationResponse");
+            xml.writeNamespace("cbc", UblInvoiceWriter.CBC_NS);
+            element(xml, "IssueDate", DateTimeFormatter.ISO_LOCAL_DATE.format(response.getReceivedAt()));
+            element(xml, "IssueTime", DateTimeFormatter.ISO_LOCAL_TIME.format(response.getReceivedAt()));
+            element(xml, "UUID", cufe);
+            element(xml, "ResponseCode", response.getCode());
+            element(xml, "Description", response.getMessage());
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (IOException | XMLStreamException e) {
+            // The answer is also stored on the electronic invoice row, the file is only a trace
+            logger.warn("Could not write DIAN acknowledgement for {}: {}", document.getFileName(), e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write DIAN acknowledgement for {}: {}", document.getFileName(), e.getMessage());
+        }
+    }
+
+    private void element(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeStartElement(UblInvoiceWriter.CBC_NS, name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
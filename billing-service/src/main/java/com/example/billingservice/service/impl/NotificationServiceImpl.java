@@ -0,0 +1,25 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.DunningCandidateProjection;
+import com.example.billingservice.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class NotificationServiceImpl implements NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
+
+    @Override
+    public void sendPaymentReminders(int stage, int daysFromDueDate, List<DunningCandidateProjection> invoices) {
+        // Here you would integrate with the notification service (one bulk request per batch)
+        for (DunningCandidateProjection invoice : invoices) {
+            logger.debug("Payment reminder stage {} for invoice {} to {}", stage, invoice.getInvoiceNumber(),
+                    invoice.getClientEmail());
+        }
+        logger.info("Sent {} payment reminders for stage {} (day {})", invoices.size(), stage, daysFromDueDate);
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.ReconciliationCandidateProjection;
+import com.example.billingservice.dto.ReconciliationMatchType;
+import com.example.billingservice.entity.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Unreconciled payments hashed by transaction id, by reference and by amount+date, so each
+ * statement line is matched with a handful of lookups. A matched payment is flagged rather than
+ * removed and is skipped by later lookups.
+ *
+ * <p>Rules, strongest first: the line's transaction id (or its reference) equals a payment
+ * transaction id; the line's reference, or a few adjacent words of its description, equals a
+ * payment reference within the date tolerance; the exact amount on a date within the tolerance,
+ * when a single payment is closest. Identifier matches accept amounts within the absolute
+ * tolerance, or lower by up to the fee percentage for processors that deposit net of fees.
+ *
+ * <p>A bulk remittance is recorded as one payment per invoice, all sharing the transaction id
+ * and reference, while the bank shows one line for the whole transfer. When no single payment of
+ * an identifier fits the line, the open payments of that identifier are tried together: if their
+ * sum fits, the line matches all of them.
+ */
+final class PaymentMatchIndex {
+
+    // Description words shorter than this are too common to identify a payment
+    private static final int MIN_TOKEN_LENGTH = 4;
+    // Adjacent description words tried together, for references written with separators
+    private static final int MAX_JOINED_WORDS = 3;
+    private static final long DAY_FACTOR = 100_000L;
+
+    private final Map<String, List<Candidate>> byTransactionId = new HashMap<>();
+    private final Map<String, List<Candidate>> byReference = new HashMap<>();
+    // Key: amount in cents * 100000 + epoch day
+    private final Map<Long, List<Candidate>> byAmountDate = new HashMap<>();
+
+    private final long amountToleranceCents;
+    private final BigDecimal feeTolerancePercent;
+    private final int dateToleranceDays;
+    private int size;
+
+    PaymentMatchIndex(Money amountTolerance, BigDecimal feeTolerancePercent, int dateToleranceDays) {
+        this.amountToleranceCents = amountTolerance.getCents();
+        this.feeTolerancePercent = feeTolerancePercent;
+        this.dateToleranceDays = dateToleranceDays;
+    }
+
+    void add(ReconciliationCandidateProjection row) {
+        Candidate candidate = new Candidate(row.getId(), Money.of(row.getAmount()),
+                row.getPaymentDate().toLocalDate().toEpochDay());
+        String transactionId = normalize(row.getTransactionId());
+        if (transactionId != null) {
+            byTransactionId.computeIfAbsent(transactionId, key -> new ArrayList<>(1)).add(candidate);
+        }
+        String reference = normalize(row.getReferenceNumber());
+        if (reference != null) {
+            byReference.computeIfAbsent(reference, key -> new ArrayList<>(1)).add(candidate);
+        }
+        byAmountDate.computeIfAbsent(amountDateKey(candidate.amount.getCents(), candidate.epochDay),
+                key -> new ArrayList<>(1)).add(candidate);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Matches the line and flags the payment; null when nothing matches.
+     */
+    Match match(StatementLine line) {
+        long day = line.getDate().toEpochDay();
+        Money amount = line.getAmount();
+
+        String transactionId = normalize(line.getTransactionId());
+        String reference = normalize(line.getReference());
+        List<Candidate> found = find(byTransactionId.get(transactionId), amount, day, Integer.MAX_VALUE);
+        if (found == null && reference != null) {
+            found = find(byTransactionId.get(reference), amount, day, Integer.MAX_VALUE);
+        }
+        if (found != null) {
+            return claim(found, ReconciliationMatchType.TRANSACTION_ID);
+        }
+
+        found = find(byReference.get(reference), amount, day, dateToleranceDays);
+        if (found == null && line.getDescription() != null) {
+            found = matchDescription(line.getDescription(), amount, day);
+        }
+        if (found != null) {
+            return claim(found, ReconciliationMatchType.REFERENCE);
+        }
+
+        return matchAmountDate(amount.getCents(), day);
+    }
+
+    /**
+     * References are stored normalized, so "REF-00123" is keyed as REF00123 while the description
+     * splits it into REF and 00123. Runs of up to {@link #MAX_JOINED_WORDS} adjacent words are
+     * joined and looked up as well, longest first, which also covers "REF 00123".
+     */
+    private List<Candidate> matchDescription(String description, Money amount, long day) {
+        String[] words = description.toUpperCase(Locale.ROOT).split("[^\\p{Alnum}]+");
+        StringBuilder joined = new StringBuilder(32);
+        for (int start = 0; start < words.length; start++) {
+            for (int end = Math.min(words.length, start + MAX_JOINED_WORDS); end > start; end--) {
+                joined.setLength(0);
+                for (int i = start; i < end; i++) {
+                    joined.append(words[i]);
+                }
+                if (joined.length() >= MIN_TOKEN_LENGTH) {
+                    List<Candidate> found = find(byReference.get(joined.toString()), amount, day, dateToleranceDays);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Match matchAmountDate(long cents, long day) {
+        Candidate best = null;
+        long bestDistance = Long.MAX_VALUE;
+        boolean tied = false;
+        for (long probe = day - dateToleranceDays; probe <= day + dateToleranceDays; probe++) {
+            List<Candidate> candidates = byAmountDate.get(amountDateKey(cents, probe));
+            if (candidates == null) {
+                continue;
+            }
+            long distance = Math.abs(probe - day);
+            for (Candidate candidate : candidates) {
+                if (candidate.matched) {
+                    continue;
+                }
+                if (distance < bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                    tied = false;
+                } else if (distance == bestDistance) {
+                    tied = true;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        // Same amount on equally close dates: leave it to a person
+        return tied ? Match.ambiguous() : claim(List.of(best), ReconciliationMatchType.AMOUNT_DATE);
+    }
+
+    // The closest single payment of one identifier, else all of its open payments together
+    private List<Candidate> find(List<Candidate> candidates, Money amount, long day, int maxDays) {
+        if (candidates == null) {
+            return null;
+        }
+        Candidate single = closest(candidates, amount, day, maxDays);
+        if (single != null) {
+            return List.of(single);
+        }
+        return group(candidates, amount, day, maxDays);
+    }
+
+    private List<Candidate> group(List<Candidate> candidates, Money amount, long day, int maxDays) {
+        if (candidates.size() < 2) {
+            return null;
+        }
+        List<Candidate> open = new ArrayList<>(candidates.size());
+        long total = 0;
+        for (Candidate candidate : candidates) {
+            if (!candidate.matched && Math.abs(candidate.epochDay - day) <= maxDays) {
+                open.add(candidate);
+                total = Math.addExact(total, candidate.amount.getCents());
+            }
+        }
+        return open.size() > 1 && withinTolerance(Money.ofCents(total), amount) ? open : null;
+    }
+
+    private Candidate closest(List<Candidate> candidates, Money amount, long day, int maxDays) {
+        if (candidates == null) {
+            return null;
+        }
+        Candidate best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (Candidate candidate : candidates) {
+            long distance = Math.abs(candidate.epochDay - day);
+            if (!candidate.matched && distance <= maxDays && distance < bestDistance
+                    && withinTolerance(candidate.amount, amount)) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private boolean withinTolerance(Money expected, Money received) {
+        long difference = expected.getCents() - received.getCents();
+        if (Math.abs(difference) <= amountToleranceCents) {
+            return true;
+        }
+        return difference > 0 && difference <= expected.percentage(feeTolerancePercent).getCents();
+    }
+
+    private Match claim(List<Candidate> candidates, ReconciliationMatchType type) {
+        List<Long> paymentIds = new ArrayList<>(candidates.size());
+        Money total = Money.ZERO;
+        for (Candidate candidate : candidates) {
+            candidate.matched = true;
+            paymentIds.add(candidate.id);
+            total = total.plus(candidate.amount);
+        }
+        return new Match(paymentIds, total, type);
+    }
+
+    private static long amountDateKey(long cents, long epochDay) {
+        return cents * DAY_FACTOR + epochDay;
+    }
+
+    // Upper case, letters and digits only: "ref 00-123" and "REF00123" are the same reference
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.length() > 0 ? normalized.toString() : null;
+    }
+
+    private static final class Candidate {
+        private final long id;
+        private final Money amount;
+        private final long epochDay;
+        private boolean matched;
+
+        private Candidate(long id, Money amount, long epochDay) {
+            this.id = id;
+            this.amount = amount;
+            this.epochDay = epochDay;
+        }
+    }
+
+    static final class Match {
+        // More than one for a bulk remittance
+        private final List<Long> paymentIds;
+        private final Money paymentAmount;
+        private final ReconciliationMatchType type;
+
+        private Match(List<Long> paymentIds, Money paymentAmount, ReconciliationMatchType type) {
+            this.paymentIds = paymentIds;
+            this.paymentAmount = paymentAmount;
+            this.type = type;
+        }
+
+        static Match ambiguous() {
+            return new Match(List.of(), null, null);
+        }
+
+        boolean isAmbiguous() { return paymentIds.isEmpty(); }
+        List<Long> getPaymentIds() { return paymentIds; }
+        Money getPaymentAmount() { return paymentAmount; }
+        ReconciliationMatchType getType() { return type; }
+    }
+}
@@ -1,26 +1,57 @@
 package com.example.billingservice.service.impl;
 
+import com.example.billingservice.dto.BillingChangeEvent;
+import com.example.billingservice.dto.BulkPaymentLineResultDto;
+import com.example.billingservice.dto.BulkPaymentRequest;
+import com.example.billingservice.dto.BulkPaymentResultDto;
+import com.example.billingservice.dto.CursorPage;
+import com.example.billingservice.dto.PaymentAllocationDto;
+import com.example.billingservice.dto.PaymentAllocationMode;
 import com.example.billingservice.dto.PaymentDto;
 import com.example.billingservice.entity.*;
+import com.example.billingservice.exception.IdempotencyKeyInUseException;
 import com.example.billingservice.exception.PaymentException;
 import com.example.billingservice.mapper.PaymentMapper;
 import com.example.billingservice.repository.InvoiceRepository;
 import com.example.billingservice.repository.PaymentRepository;
+import com.example.billingservice.service.BillingRollupService;
+import com.example.billingservice.service.DocumentCacheService;
+import com.example.billingservice.service.DocumentNumberService;
+import com.example.billingservice.service.IdempotencyService;
 import com.example.billingservice.service.PaymentService;
+import com.example.billingservice.service.StatisticsCacheService;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +59,8 @@ import java.util.stream.Collectors;
 public class PaymentServiceImpl implements PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
+    // Open invoices read per query while allocating a FIFO remittance
+    private static final int FIFO_PAGE_SIZE = 50;
 
     @Autowired
     private PaymentRepository paymentRepository;
@@ -38,8 +71,55 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private PaymentMapper paymentMapper;
 
+    @Autowired
+    private BillingRollupService billingRollupService;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private DocumentCacheService documentCacheService;
+
+    @Autowired
+    private StatisticsCacheService statisticsCacheService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.billing.payments.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.billing.payments.bulk-max-lines:1000}")
+    private int bulkMaxLines;
+
+    private TransactionTemplate paymentTransaction;
+
+    @PostConstruct
+    void init() {
+        paymentTransaction = new TransactionTemplate(transactionManager);
+    }
+
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto createPayment(PaymentDto paymentDto) {
+        return createPayment(paymentDto, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaymentDto createPayment(PaymentDto paymentDto, String idempotencyKey) {
+        IdempotencyService.IdempotentRequest request =
+                idempotencyService.prepare("payments.create", idempotencyKey, paymentDto);
+        return idempotent(request, PaymentDto.class, () -> doCreatePayment(paymentDto));
+    }
+
+    private PaymentDto doCreatePayment(PaymentDto paymentDto) {
         Payment payment = paymentMapper.toEntity(paymentDto);
 
         // Validate invoice exists
@@ -48,6 +128,10 @@ public class PaymentServiceImpl implements PaymentService {
 
         payment.setInvoice(invoice);
 
+        if (payment.getPaymentNumber() == null || payment.getPaymentNumber().isEmpty()) {
+            payment.setPaymentNumber(documentNumberService.nextPaymentNumber());
+        }
+
         // Set default status if not provided
         if (payment.getPaymentStatus() == null) {
             payment.setPaymentStatus(PaymentStatus.PENDING);
@@ -64,7 +148,168 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkPaymentResultDto allocatePayment(BulkPaymentRequest request, String idempotencyKey) {
+        if (request.getAllocationMode() == PaymentAllocationMode.EXPLICIT) {
+            if (request.getAllocations() == null || request.getAllocations().isEmpty()) {
+                throw new IllegalArgumentException("Explicit allocation requires at least one invoice");
+            }
+            if (request.getAllocations().size() > bulkMaxLines) {
+                throw new IllegalArgumentException("Bulk payment exceeds the limit of " + bulkMaxLines + " invoices");
+            }
+        } else if (request.getClientId() == null) {
+            throw new IllegalArgumentException("FIFO allocation requires a client ID");
+        }
+
+        IdempotencyService.IdempotentRequest idempotentRequest =
+                idempotencyService.prepare("payments.bulk", idempotencyKey, request);
+        return idempotent(idempotentRequest, BulkPaymentResultDto.class, () -> doAllocatePayment(request));
+    }
+
+    /**
+     * Plans every line first, then inserts all payment rows as one batch and recomputes each
+     * affected invoice once from a single grouped SUM. Lines that cannot be applied are reported
+     * and skipped; the rest commit together.
+     */
+    private BulkPaymentResultDto doAllocatePayment(BulkPaymentRequest request) {
+        long start = System.currentTimeMillis();
+        Money remittance = Money.of(request.getAmount());
+        AllocationPlan plan = new AllocationPlan(remittance);
+
+        if (request.getAllocationMode() == PaymentAllocationMode.EXPLICIT) {
+            planExplicitAllocation(request, plan);
+        } else {
+            planFifoAllocation(request, plan);
+        }
+
+        if (!plan.payments.isEmpty()) {
+            // Pooled ids: Hibernate sends the inserts as JDBC batches
+            paymentRepository.saveAll(plan.payments);
+            updateInvoicePaymentStatuses(plan.invoices.values());
+        }
+
+        BulkPaymentResultDto result = new BulkPaymentResultDto();
+        for (int i = 0; i < plan.payments.size(); i++) {
+            Payment payment = plan.payments.get(i);
+            BulkPaymentLineResultDto line = plan.allocatedLines.get(i);
+            line.setPaymentId(payment.getId());
+            line.setPaymentNumber(payment.getPaymentNumber());
+            line.setBalanceDue(payment.getInvoice().getBalanceDue());
+        }
+        for (BulkPaymentLineResultDto line : plan.results) {
+            result.getResults().add(line);
+            if (!line.isSuccess()) {
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+        result.setRemittanceAmount(remittance.toBigDecimal());
+        result.setAllocatedAmount(remittance.minus(plan.remaining).toBigDecimal());
+        result.setUnallocatedAmount(plan.remaining.toBigDecimal());
+        result.setPaymentsCreated(plan.payments.size());
+        result.setInvoicesUpdated(plan.invoices.size());
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+
+        logger.info("Allocated bulk payment of {} to {} invoices ({} lines failed, {} unallocated) in {} ms",
+                result.getRemittanceAmount(), result.getInvoicesUpdated(), result.getFailed(),
+                result.getUnallocatedAmount(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Oldest due date first until the remittance runs out. Invoices are read a slice at a time, so a
+     * client with thousands of open invoices only loads as many as the remittance covers. Offsets
+     * are stable here because nothing is written until the whole plan is ready. Stops at
+     * {@code bulk-max-lines} like an explicit request would; whatever is left is reported as unallocated.
+     */
+    private void planFifoAllocation(BulkPaymentRequest request, AllocationPlan plan) {
+        int index = 0;
+        Pageable page = PageRequest.of(0, FIFO_PAGE_SIZE);
+        while (plan.remaining.isPositive() && index < bulkMaxLines) {
+            Slice<Invoice> invoices = invoiceRepository.findOpenByClientIdOldestFirst(request.getClientId(), page);
+            for (Invoice invoice : invoices) {
+                if (!plan.remaining.isPositive() || index >= bulkMaxLines) {
+                    break;
+                }
+                Money balance = Money.of(invoice.getBalanceDue());
+                plan.allocate(index++, invoice, balance.compareTo(plan.remaining) <= 0 ? balance : plan.remaining,
+                        newAllocationPayment(request, invoice));
+            }
+            if (!invoices.hasNext()) {
+                break;
+            }
+            page = invoices.nextPageable();
+        }
+    }
+
+    private void planExplicitAllocation(BulkPaymentRequest request, AllocationPlan plan) {
+        List<PaymentAllocationDto> allocations = request.getAllocations();
+        Set<Long> invoiceIds = new HashSet<>();
+        for (PaymentAllocationDto allocation : allocations) {
+            if (allocation.getInvoiceId() != null) {
+                invoiceIds.add(allocation.getInvoiceId());
+            }
+        }
+        Map<Long, Invoice> invoicesById = new HashMap<>();
+        for (Invoice invoice : invoiceRepository.findAllById(invoiceIds)) {
+            invoicesById.put(invoice.getId(), invoice);
+        }
+
+        // Amounts already planned per invoice, for invoices listed more than once
+        Map<Long, Money> planned = new HashMap<>();
+        for (int index = 0; index < allocations.size(); index++) {
+            PaymentAllocationDto allocation = allocations.get(index);
+            Invoice invoice = invoicesById.get(allocation.getInvoiceId());
+            Money amount = Money.of(allocation.getAmount());
+
+            String error = null;
+            if (allocation.getInvoiceId() == null) {
+                error = "Invoice ID is required";
+            } else if (!amount.isPositive()) {
+                error = "Amount must be positive";
+            } else if (invoice == null) {
+                error = "Invoice not found with ID: " + allocation.getInvoiceId();
+            } else if (invoice.getStatus() == InvoiceStatus.DRAFT || invoice.getStatus() == InvoiceStatus.CANCELLED) {
+                error = "Cannot pay an invoice in status " + invoice.getStatus();
+            } else {
+                Money open = Money.of(invoice.getBalanceDue()).minus(planned.getOrDefault(invoice.getId(), Money.ZERO));
+                if (amount.compareTo(open) > 0) {
+                    error = "Amount exceeds the balance due of " + open.toBigDecimal();
+                } else if (amount.compareTo(plan.remaining) > 0) {
+                    error = "Amount exceeds the remaining remittance of " + plan.remaining.toBigDecimal();
+                }
+            }
+
+            if (error != null) {
+                plan.results.add(BulkPaymentLineResultDto.failed(index, allocation.getInvoiceId(),
+                        allocation.getAmount(), error));
+                continue;
+            }
+            planned.merge(invoice.getId(), amount, Money::plus);
+            plan.allocate(index, invoice, amount, newAllocationPayment(request, invoice));
+        }
+    }
+
+    private Payment newAllocationPayment(BulkPaymentRequest request, Invoice invoice) {
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+        payment.setPaymentNumber(documentNumberService.nextPaymentNumber());
+        payment.setPaymentMethod(request.getPaymentMethod());
+        // The remittance has already been received
+        payment.setPaymentStatus(PaymentStatus.PAID);
+        payment.setPaymentDate(request.getPaymentDate() != null ? request.getPaymentDate() : LocalDateTime.now());
+        payment.setReferenceNumber(request.getReferenceNumber());
+        payment.setTransactionId(request.getTransactionId());
+        payment.setNotes(request.getNotes());
+        return payment;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto updatePayment(Long id, PaymentDto paymentDto) {
+        return withInvoiceRetry(() -> doUpdatePayment(id, paymentDto));
+    }
+
+    private PaymentDto doUpdatePayment(Long id, PaymentDto paymentDto) {
         Payment existingPayment = paymentRepository.findById(id)
                 .orElseThrow(() -> new PaymentException("Payment not found with ID: " + id));
 
@@ -138,7 +383,50 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentDto> listPayments(PaymentStatus status, String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = KeysetCursor.clampSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Payment> rows;
+        if (status == null) {
+            rows = cursor == null
+                    ? paymentRepository.findLatest(limit)
+                    : paymentRepository.findLatestAfter(cursor.getSortKey(), cursor.getId(), limit);
+        } else {
+            rows = cursor == null
+                    ? paymentRepository.findLatestByStatus(status, limit)
+                    : paymentRepository.findLatestByStatusAfter(status, cursor.getSortKey(), cursor.getId(), limit);
+        }
+        return KeysetCursor.toPage(rows, pageSize, Payment::getCreatedAt, Payment::getId, paymentMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentDto> listPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                          String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = KeysetCursor.clampSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Payment> rows = cursor == null
+                ? paymentRepository.findLatestByPaymentDate(startDate, endDate, limit)
+                : paymentRepository.findLatestByPaymentDateAfter(startDate, endDate,
+                        cursor.getSortKey(), cursor.getId(), limit);
+        return KeysetCursor.toPage(rows, pageSize, Payment::getPaymentDate, Payment::getId, paymentMapper::toDto);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deletePayment(Long id) {
+        withInvoiceRetry(() -> {
+            doDeletePayment(id);
+            return null;
+        });
+    }
+
+    private void doDeletePayment(Long id) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new PaymentException("Payment not found with ID: " + id));
 
@@ -157,7 +445,20 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto processPayment(Long paymentId) {
+        return processPayment(paymentId, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaymentDto processPayment(Long paymentId, String idempotencyKey) {
+        IdempotencyService.IdempotentRequest request =
+                idempotencyService.prepare("payments.process", idempotencyKey, paymentId);
+        return idempotent(request, PaymentDto.class, () -> doProcessPayment(paymentId));
+    }
+
+    private PaymentDto doProcessPayment(Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentException("Payment not found with ID: " + paymentId));
 
@@ -175,7 +476,12 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto refundPayment(Long paymentId, BigDecimal refundAmount) {
+        return withInvoiceRetry(() -> doRefundPayment(paymentId, refundAmount));
+    }
+
+    private PaymentDto doRefundPayment(Long paymentId, BigDecimal refundAmount) {
         Payment originalPayment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentException("Payment not found with ID: " + paymentId));
 
@@ -189,6 +495,7 @@ public class PaymentServiceImpl implements PaymentService {
 
         // Create refund payment
         Payment refund = new Payment();
+        refund.setPaymentNumber(documentNumberService.nextPaymentNumber());
         refund.setInvoice(originalPayment.getInvoice());
         refund.setAmount(refundAmount.negate()); // Negative amount for refund
         refund.setPaymentMethod(originalPayment.getPaymentMethod());
@@ -211,30 +518,38 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalPayments() {
-        BigDecimal total = paymentRepository.getTotalPaidAmount();
-        return total != null ? total : BigDecimal.ZERO;
+        return statisticsCacheService.get("payments.total", BillingChangeEvent.Source.PAYMENT, () -> {
+            BigDecimal total = paymentRepository.getTotalPaidAmount();
+            return total != null ? total : BigDecimal.ZERO;
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTodaysPayments() {
-        BigDecimal total = paymentRepository.getTodaysTotalPayments();
-        return total != null ? total : BigDecimal.ZERO;
+        // Keyed by date so the first poll after midnight never sees yesterday's figure
+        return statisticsCacheService.get("payments.today." + LocalDate.now(), BillingChangeEvent.Source.PAYMENT, () -> {
+            BigDecimal total = paymentRepository.getTodaysTotalPayments();
+            return total != null ? total : BigDecimal.ZERO;
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<PaymentMethod, BigDecimal> getPaymentsByMethod() {
-        List<Object[]> results = paymentRepository.getPaymentsByMethod();
-        Map<PaymentMethod, BigDecimal> paymentsByMethod = new HashMap<>();
-
-        for (Object[] result : results) {
-            PaymentMethod method = (PaymentMethod) result[0];
-            BigDecimal amount = (BigDecimal) result[1];
-            paymentsByMethod.put(method, amount);
-        }
-
-        return paymentsByMethod;
+        return statisticsCacheService.get("payments.by-method", BillingChangeEvent.Source.PAYMENT, () -> {
+            List<Object[]> results = paymentRepository.getPaymentsByMethod();
+            Map<PaymentMethod, BigDecimal> paymentsByMethod = new HashMap<>();
+
+            for (Object[] result : results) {
+                PaymentMethod method = (PaymentMethod) result[0];
+                BigDecimal amount = (BigDecimal) result[1];
+                paymentsByMethod.put(method, amount);
+            }
+
+            // Shared by every caller until the next refresh
+            return Collections.unmodifiableMap(paymentsByMethod);
+        });
     }
 
     @Override
@@ -249,17 +564,128 @@ public class PaymentServiceImpl implements PaymentService {
         return statistics;
     }
 
+    /**
+     * Replays the stored response for a repeated key without touching the invoice. Otherwise the
+     * key is claimed in the same transaction as the write, so a rollback releases it again.
+     */
+    private <T> T idempotent(IdempotencyService.IdempotentRequest request, Class<T> responseType, Supplier<T> work) {
+        if (request == null) {
+            return withInvoiceRetry(work);
+        }
+        Optional<T> replay = idempotencyService.findResponse(request, responseType);
+        if (replay.isPresent()) {
+            logger.debug("Replaying idempotent response for {}", request.getRecordKey());
+            return replay.get();
+        }
+
+        try {
+            return withInvoiceRetry(() -> {
+                Optional<T> stored = idempotencyService.claim(request, responseType);
+                if (stored.isPresent()) {
+                    return stored.get();
+                }
+                T result = work.get();
+                idempotencyService.complete(request, result);
+                return result;
+            });
+        } catch (IdempotencyKeyInUseException e) {
+            // Lost the race to a concurrent duplicate: its committed response is the answer
+            return idempotencyService.findResponse(request, responseType).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Runs a payment write in its own transaction, retrying from scratch when a concurrent
+     * payment on the same invoice bumped its version first.
+     */
+    private <T> T withInvoiceRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return paymentTransaction.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new PaymentException("Invoice was modified by a concurrent payment, please retry", e);
+                }
+                logger.debug("Retrying payment write (attempt {}) after concurrent invoice update: {}",
+                        attempt, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 10L * attempt + 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("Interrupted while retrying payment", e);
+        }
+    }
+
+    /**
+     * Batch form of {@link #updateInvoicePaymentStatus}: one grouped SUM and one flush for all
+     * invoices, and a single change event.
+     */
+    private void updateInvoicePaymentStatuses(Collection<Invoice> invoices) {
+        List<Long> invoiceIds = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            invoiceIds.add(invoice.getId());
+        }
+        Map<Long, BigDecimal> paidAmounts = new HashMap<>();
+        for (Object[] row : paymentRepository.getPaidAmountsByInvoices(invoiceIds)) {
+            paidAmounts.put((Long) row[0], (BigDecimal) row[1]);
+        }
+
+        List<BillingRollupService.Snapshot> before = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            before.add(billingRollupService.snapshot(invoice));
+            invoice.updatePaidAmount(paidAmounts.getOrDefault(invoice.getId(), BigDecimal.ZERO));
+        }
+        invoiceRepository.saveAllAndFlush(invoices);
+
+        int i = 0;
+        for (Invoice invoice : invoices) {
+            billingRollupService.recordChange(before.get(i++), invoice);
+            documentCacheService.evictInvoice(invoice.getId());
+        }
+        eventPublisher.publishEvent(new BillingChangeEvent(BillingChangeEvent.Source.PAYMENT));
+    }
+
     private void updateInvoicePaymentStatus(Invoice invoice) {
-        // Calculate total paid amount
-        BigDecimal totalPaid = paymentRepository.findByInvoiceId(invoice.getId())
-                .stream()
-                .filter(payment -> payment.getPaymentStatus() == PaymentStatus.PAID)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BillingRollupService.Snapshot before = billingRollupService.snapshot(invoice);
+
+        // Single SUM over the payments table; the invoice version check rejects stale totals
+        invoice.updatePaidAmount(paymentRepository.getPaidAmountByInvoice(invoice.getId()));
+
+        invoiceRepository.saveAndFlush(invoice);
+        billingRollupService.recordChange(before, invoice);
+        documentCacheService.evictInvoice(invoice.getId());
+        eventPublisher.publishEvent(new BillingChangeEvent(BillingChangeEvent.Source.PAYMENT));
+    }
 
-        invoice.setPaidAmount(totalPaid);
-        invoice.calculateTotals(); // This will update payment status and balance due
+    /**
+     * Lines of one bulk allocation in request order; allocated lines and payments share positions.
+     */
+    private static final class AllocationPlan {
+        private final List<BulkPaymentLineResultDto> results = new ArrayList<>();
+        private final List<BulkPaymentLineResultDto> allocatedLines = new ArrayList<>();
+        private final List<Payment> payments = new ArrayList<>();
+        private final Map<Long, Invoice> invoices = new LinkedHashMap<>();
+        private Money remaining;
+
+        private AllocationPlan(Money remittance) {
+            this.remaining = remittance;
+        }
 
-        invoiceRepository.save(invoice);
+        private void allocate(int index, Invoice invoice, Money amount, Payment payment) {
+            payment.setAmount(amount.toBigDecimal());
+            BulkPaymentLineResultDto line = BulkPaymentLineResultDto.allocated(index, invoice.getId(),
+                    invoice.getInvoiceNumber(), amount.toBigDecimal());
+            results.add(line);
+            allocatedLines.add(line);
+            payments.add(payment);
+            invoices.putIfAbsent(invoice.getId(), invoice);
+            remaining = remaining.minus(amount);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,264 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.ReconciliationCandidateProjection;
+import com.example.billingservice.dto.ReconciliationLineDto;
+import com.example.billingservice.dto.ReconciliationMatchType;
+import com.example.billingservice.dto.ReconciliationResultDto;
+import com.example.billingservice.dto.StatementFormat;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.exception.BillingException;
+import com.example.billingservice.repository.PaymentRepository;
+import com.example.billingservice.service.ReconciliationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Loads the unreconciled payments of the statement window into a {@link PaymentMatchIndex}, then
+ * reads the statement once, matching each line as it is read. Matched payment ids are marked in
+ * batches of about {@code batch-size}, each in its own short transaction, so neither the statement
+ * nor the matches are held in memory; only the first unmatched lines are kept for the response.
+ * A line counts as matched once its payments are marked under this import's id.
+ */
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationServiceImpl.class);
+
+    @Value("${app.billing.reconciliation.lookback-days:120}")
+    private int lookbackDays;
+
+    @Value("${app.billing.reconciliation.date-tolerance-days:3}")
+    private int dateToleranceDays;
+
+    @Value("${app.billing.reconciliation.amount-tolerance:0.00}")
+    private BigDecimal amountTolerance;
+
+    @Value("${app.billing.reconciliation.fee-tolerance-percent:0}")
+    private BigDecimal feeTolerancePercent;
+
+    @Value("${app.billing.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.billing.reconciliation.max-reported-lines:500}")
+    private int maxReportedLines;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ReconciliationResultDto reconcile(InputStream statement, StatementFormat format,
+                                             LocalDate fromDate, LocalDate toDate) {
+        long start = System.currentTimeMillis();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String reconciliationId = UUID.randomUUID().toString();
+        LocalDate today = LocalDate.now();
+
+        // Payments can be recorded a few days before or after the bank posts them
+        LocalDateTime windowStart = (fromDate != null ? fromDate : today.minusDays(lookbackDays))
+                .minusDays(dateToleranceDays).atStartOfDay();
+        LocalDateTime windowEnd = (toDate != null ? toDate : today)
+                .plusDays(dateToleranceDays + 1L).atStartOfDay();
+
+        PaymentMatchIndex index = new PaymentMatchIndex(Money.of(amountTolerance), feeTolerancePercent,
+                dateToleranceDays);
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<ReconciliationCandidateProjection> rows =
+                         paymentRepository.streamReconciliationCandidates(windowStart, windowEnd)) {
+                rows.forEach(index::add);
+            }
+        });
+
+        ReconciliationResultDto result = new ReconciliationResultDto();
+        result.setReconciliationId(reconciliationId);
+        result.setFormat(format);
+        result.setCandidatePayments(index.size());
+        Run run = new Run(result);
+
+        try (StatementReader reader = StatementReader.open(format, statement)) {
+            StatementLine line;
+            while ((line = reader.next()) != null) {
+                result.setLinesRead(result.getLinesRead() + 1);
+                if (line.getError() != null) {
+                    result.setSkipped(result.getSkipped() + 1);
+                    report(result, line, line.getError());
+                    continue;
+                }
+                if (!line.getAmount().isPositive()) {
+                    // Debits and fees are not incoming payments
+                    result.setSkipped(result.getSkipped() + 1);
+                    continue;
+                }
+
+                PaymentMatchIndex.Match match = index.match(line);
+                if (match == null || match.isAmbiguous()) {
+                    run.unmatchedAmount = run.unmatchedAmount.plus(line.getAmount());
+                    if (match == null) {
+                        result.setUnmatched(result.getUnmatched() + 1);
+                        report(result, line, "No matching payment");
+                    } else {
+                        result.setAmbiguous(result.getAmbiguous() + 1);
+                        report(result, line, "Several payments match this amount and date");
+                    }
+                    continue;
+                }
+
+                run.pending.add(new PendingMatch(line, match));
+                run.pendingPayments += match.getPaymentIds().size();
+                if (run.pendingPayments >= batchSize) {
+                    markReconciled(run);
+                }
+            }
+            markReconciled(run);
+        } catch (IOException | RuntimeException e) {
+            // Earlier batches are already committed; keep what was matched so far and tell the caller under which id
+            RuntimeException markFailure = null;
+            try {
+                markReconciled(run);
+            } catch (RuntimeException ex) {
+                markFailure = ex;
+            }
+            BillingException failure = new BillingException("Error reading statement after " + result.getLinesRead()
+                    + " lines; " + result.getMatched() + " matched lines were reconciled under "
+                    + reconciliationId + ": " + e.getMessage(), e);
+            if (markFailure != null) {
+                failure.addSuppressed(markFailure);
+            }
+            throw failure;
+        }
+
+        result.setMatchedAmount(run.matchedAmount.toBigDecimal());
+        result.setUnmatchedAmount(run.unmatchedAmount.toBigDecimal());
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        sample.stop(Timer.builder("billing.reconciliation.duration")
+                .tag("format", format.name())
+                .register(meterRegistry));
+
+        logger.info("Reconciliation {} ({}): {} lines, {} matched, {} unmatched, {} ambiguous, {} already reconciled, " +
+                        "{} skipped against {} payments in {} ms", reconciliationId, format, result.getLinesRead(),
+                result.getMatched(), result.getUnmatched(), result.getAmbiguous(), result.getAlreadyReconciled(),
+                result.getSkipped(), result.getCandidatePayments(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Marks the pending payments and counts their lines as matched. The update skips payments a
+     * concurrent import reconciled first; when fewer rows than ids were updated, the lines whose
+     * payments did not all end up under this id are reported instead of counted.
+     */
+    private void markReconciled(Run run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<Long> paymentIds = new ArrayList<>(run.pendingPayments);
+        for (PendingMatch match : run.pending) {
+            paymentIds.addAll(match.paymentIds);
+        }
+        String reconciliationId = run.result.getReconciliationId();
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> lost = writeTransaction.execute(status -> {
+            int updated = paymentRepository.markReconciled(paymentIds, reconciliationId, now);
+            if (updated == paymentIds.size()) {
+                return Set.of();
+            }
+            Set<Long> missing = new HashSet<>(paymentIds);
+            missing.removeAll(paymentRepository.findIdsByReconciliationId(paymentIds, reconciliationId));
+            return missing;
+        });
+
+        for (PendingMatch match : run.pending) {
+            if (!Collections.disjoint(match.paymentIds, lost)) {
+                run.result.setAlreadyReconciled(run.result.getAlreadyReconciled() + 1);
+                run.unmatchedAmount = run.unmatchedAmount.plus(match.line.getAmount());
+                report(run.result, match.line, "Payment already reconciled by another import");
+                continue;
+            }
+            run.result.setMatched(run.result.getMatched() + 1);
+            run.result.getMatchedByRule().merge(match.type, 1, Integer::sum);
+            run.matchedAmount = run.matchedAmount.plus(match.line.getAmount());
+        }
+        if (!lost.isEmpty()) {
+            logger.warn("Reconciliation {}: {} payments were already reconciled by another import",
+                    reconciliationId, lost.size());
+        }
+        run.pending.clear();
+        run.pendingPayments = 0;
+    }
+
+    private void report(ReconciliationResultDto result, StatementLine line, String reason) {
+        if (result.getUnmatchedLines().size() >= maxReportedLines) {
+            result.setUnmatchedLinesTruncated(true);
+            return;
+        }
+        ReconciliationLineDto dto = new ReconciliationLineDto();
+        dto.setLineNumber(line.getLineNumber());
+        dto.setDate(line.getDate());
+        dto.setAmount(line.getAmount() != null ? line.getAmount().toBigDecimal() : null);
+        dto.setReference(line.getReference());
+        dto.setTransactionId(line.getTransactionId());
+        dto.setDescription(line.getDescription());
+        dto.setReason(reason);
+        result.getUnmatchedLines().add(dto);
+    }
+
+    private static final class PendingMatch {
+        private final StatementLine line;
+        private final List<Long> paymentIds;
+        private final ReconciliationMatchType type;
+
+        private PendingMatch(StatementLine line, PaymentMatchIndex.Match match) {
+            this.line = line;
+            this.paymentIds = match.getPaymentIds();
+            this.type = match.getType();
+        }
+    }
+
+    // Counters of one import, updated as batches are marked
+    private static final class Run {
+        private final ReconciliationResultDto result;
+        private final List<PendingMatch> pending = new ArrayList<>();
+        private int pendingPayments;
+        private Money matchedAmount = Money.ZERO;
+        private Money unmatchedAmount = Money.ZERO;
+
+        private Run(ReconciliationResultDto result) {
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.ReportJobDto;
+import com.example.billingservice.dto.ReportJobRequest;
+import com.example.billingservice.dto.ReportJobStatus;
+import com.example.billingservice.dto.ReportJobType;
+import com.example.billingservice.service.ReportJobService;
+import com.example.billingservice.service.ReportService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory report job engine. Jobs run on a small fixed pool with a bounded queue so exports
+ * can never take more than {@code workers} database connections away from interactive requests;
+ * a full queue rejects new jobs instead of piling them up. Results are written to files under
+ * {@code directory} and deleted once their TTL expires. Job state lives on the node that accepted
+ * the job, so polling and download must reach the same instance.
+ */
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+
+    @Value("${app.billing.report-jobs.workers:2}")
+    private int workers;
+
+    @Value("${app.billing.report-jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.billing.report-jobs.result-ttl-minutes:30}")
+    private long resultTtlMinutes;
+
+    @Value("${app.billing.report-jobs.directory:${java.io.tmpdir}/billing-report-jobs}")
+    private String directory;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Request key -> job id for jobs that can still be shared; guarded by this
+    private final Map<String, String> jobsByRequestKey = new HashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private Path resultDirectory;
+
+    @PostConstruct
+    void init() throws IOException {
+        resultDirectory = Paths.get(directory);
+        Files.createDirectories(resultDirectory);
+        // Job state is not persisted, so files left by a previous run can never be downloaded
+        try (Stream<Path> files = Files.list(resultDirectory)) {
+            files.forEach(this::deleteQuietly);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("billing.report.jobs.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("billing.report.jobs.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public synchronized ReportJobDto submit(ReportJobRequest request) {
+        validate(request);
+        String requestKey = request.getReportType() + "|" + request.getStartDate() + "|" + request.getEndDate();
+
+        String existingId = jobsByRequestKey.get(requestKey);
+        ReportJob existing = existingId != null ? jobs.get(existingId) : null;
+        if (existing != null && existing.isShareable()) {
+            logger.debug("Report request {} joined existing job {}", requestKey, existing.id);
+            return existing.toDto();
+        }
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), requestKey, request);
+        jobs.put(job.id, job);
+        jobsByRequestKey.put(requestKey, job.id);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            jobsByRequestKey.remove(requestKey);
+            throw new RejectedExecutionException("Report queue is full, try again later", e);
+        }
+
+        logger.info("Queued report job {} ({})", job.id, request.getReportType());
+        return job.toDto();
+    }
+
+    @Override
+    public Optional<ReportJobDto> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ReportJob::toDto);
+    }
+
+    @Override
+    public void writeResult(String jobId, OutputStream outputStream) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || job.status != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Report job " + jobId + " has no result available");
+        }
+        try {
+            Files.copy(job.resultFile, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading report job result " + jobId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.report-jobs.cleanup-interval-ms:60000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            if (job.expiresAt == null || job.expiresAt.isAfter(now)) {
+                return false;
+            }
+            synchronized (this) {
+                jobsByRequestKey.remove(job.requestKey, job.id);
+            }
+            if (job.resultFile != null) {
+                deleteQuietly(job.resultFile);
+            }
+            return true;
+        });
+    }
+
+    private void run(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Path file = resultDirectory.resolve(job.id + "-" + job.request.getReportType().getFileName());
+
+        String outcome = "completed";
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                render(job.request, out);
+            }
+            job.resultFile = file;
+            job.sizeBytes = Files.size(file);
+            job.status = ReportJobStatus.COMPLETED;
+            logger.info("Report job {} completed ({} bytes)", job.id, job.sizeBytes);
+        } catch (Exception e) {
+            outcome = "failed";
+            deleteQuietly(file);
+            job.errorMessage = e.getMessage();
+            job.status = ReportJobStatus.FAILED;
+            synchronized (this) {
+                // A failed job should not absorb retries of the same request
+                jobsByRequestKey.remove(job.requestKey, job.id);
+            }
+            logger.error("Report job {} failed: {}", job.id, e.getMessage());
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            job.expiresAt = job.completedAt.plusMinutes(resultTtlMinutes);
+            sample.stop(Timer.builder("billing.report.jobs.duration")
+                    .tag("type", job.request.getReportType().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void render(ReportJobRequest request, OutputStream out) throws IOException {
+        LocalDateTime startDate = request.getStartDate();
+        LocalDateTime endDate = request.getEndDate();
+
+        switch (request.getReportType()) {
+            case SALES_REPORT_PDF:
+                out.write(reportService.generateSalesReportPdf(startDate, endDate));
+                break;
+            case OUTSTANDING_INVOICES_PDF:
+                out.write(reportService.generateOutstandingInvoicesPdf());
+                break;
+            case INVOICES_EXCEL:
+                reportService.writeInvoicesExcel(startDate, endDate, out);
+                break;
+            case PAYMENTS_EXCEL:
+                reportService.writePaymentsExcel(startDate, endDate, out);
+                break;
+            case SALES_ANALYSIS_EXCEL:
+                out.write(reportService.generateSalesAnalysisExcel(startDate, endDate));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + request.getReportType());
+        }
+    }
+
+    private void validate(ReportJobRequest request) {
+        if (request.getReportType() == null) {
+            throw new IllegalArgumentException("Report type is required");
+        }
+        if (request.getReportType().isDateRangeRequired()) {
+            if (request.getStartDate() == null || request.getEndDate() == null) {
+                throw new IllegalArgumentException("Start date and end date are required for " + request.getReportType());
+            }
+            if (request.getStartDate().isAfter(request.getEndDate())) {
+                throw new IllegalArgumentException("Start date must be before end date");
+            }
+        } else {
+            request.setStartDate(null);
+            request.setEndDate(null);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report job file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final String requestKey;
+        private final ReportJobRequest request;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile Path resultFile;
+        private volatile Long sizeBytes;
+        private volatile String errorMessage;
+
+        private ReportJob(String id, String requestKey, ReportJobRequest request) {
+            this.id = id;
+            this.requestKey = requestKey;
+            this.request = request;
+        }
+
+        private boolean isShareable() {
+            return status != ReportJobStatus.FAILED
+                    && (expiresAt == null || expiresAt.isAfter(LocalDateTime.now()));
+        }
+
+        private ReportJobDto toDto() {
+            ReportJobDto dto = new ReportJobDto();
+            dto.setJobId(id);
+            dto.setReportType(request.getReportType());
+            dto.setStatus(status);
+            dto.setStartDate(request.getStartDate());
+            dto.setEndDate(request.getEndDate());
+            dto.setSubmittedAt(submittedAt);
+            dto.setStartedAt(startedAt);
+            dto.setCompletedAt(completedAt);
+            dto.setExpiresAt(expiresAt);
+            dto.setFileName(request.getReportType().getFileName());
+            dto.setContentType(request.getReportType().getContentType());
+            dto.setSizeBytes(sizeBytes);
+            dto.setErrorMessage(errorMessage);
+            return dto;
+        }
+    }
+}
@@ -9,31 +9,60 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.example.billingservice.dto.AgingBucketProjection;
+import com.example.billingservice.dto.AgingReportDto;
+import com.example.billingservice.dto.BillingChangeEvent;
 import com.example.billingservice.dto.InvoiceReportDto;
 import com.example.billingservice.dto.PaymentReportDto;
+import com.example.billingservice.dto.ReportExportFormat;
 import com.example.billingservice.dto.SalesReportDto;
 import com.example.billingservice.entity.*;
 import com.example.billingservice.exception.BillingException;
 import com.example.billingservice.repository.InvoiceRepository;
 import com.example.billingservice.repository.InvoiceItemRepository;
 import com.example.billingservice.repository.PaymentRepository;
+import com.example.billingservice.service.BillingRollupService;
+import com.example.billingservice.service.DocumentCacheService;
 import com.example.billingservice.service.ReportService;
+import com.example.billingservice.service.StatisticsCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -41,7 +70,26 @@ public class ReportServiceImpl implements ReportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportServiceImpl.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int EXCEL_ROW_WINDOW = 200;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    private static final String[] COLLECTION_COLUMNS = {"paymentId", "paymentNumber", "paymentDate", "amount",
+            "paymentMethod", "paymentStatus", "referenceNumber", "transactionId", "processedByName",
+            "invoiceId", "invoiceNumber", "clientId", "clientName", "petName", "invoiceTotal", "remainingBalance"};
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String[] AGING_HEADERS = {"Cliente", "Facturas", "0-30 días", "31-60 días",
+            "61-90 días", "Más de 90 días", "Total"};
+    private static final int AGING_PDF_FLUSH_ROWS = 200;
+
+    @Value("${app.billing.reports.top-clients:10}")
+    private int topClientLimit;
+
+    @Value("${app.billing.reports.aging-cache-size:64}")
+    private long agingCacheSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     private InvoiceRepository invoiceRepository;
@@ -52,6 +100,25 @@ public class ReportServiceImpl implements ReportService {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private DocumentCacheService documentCacheService;
+
+    @Autowired
+    private StatisticsCacheService statisticsCacheService;
+
+    @Autowired
+    private BillingRollupService billingRollupService;
+
+    // Aging reports of past cut-off dates, which no later write changes
+    private Cache<LocalDate, AgingReportDto> closedAgingReports;
+
+    @PostConstruct
+    void init() {
+        closedAgingReports = Caffeine.newBuilder()
+                .maximumSize(agingCacheSize)
+                .build();
+    }
+
     @Override
     public byte[] generateInvoicePdf(Long invoiceId) {
         Optional<Invoice> invoiceOpt = invoiceRepository.findById(invoiceId);
@@ -61,6 +128,23 @@ public class ReportServiceImpl implements ReportService {
 
         Invoice invoice = invoiceOpt.get();
 
+        return documentCacheService.getOrRender("invoice", invoice.getId(), contentVersion(invoice),
+                () -> renderInvoicePdf(invoice));
+    }
+
+    @Override
+    public byte[] renderInvoicePdf(Long invoiceId) {
+        // Items in the same query: the renderer walks them for every invoice in a batch
+        Invoice invoice = invoiceRepository.findWithItemsById(invoiceId)
+                .orElseThrow(() -> new BillingException("Invoice not found with ID: " + invoiceId));
+        try {
+            return renderInvoicePdf(invoice);
+        } finally {
+            entityManager.detach(invoice);
+        }
+    }
+
+    private byte[] renderInvoicePdf(Invoice invoice) {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             PdfWriter writer = new PdfWriter(baos);
             PdfDocument pdfDoc = new PdfDocument(writer);
@@ -192,6 +276,14 @@ public class ReportServiceImpl implements ReportService {
         Payment payment = paymentOpt.get();
         Invoice invoice = payment.getInvoice();
 
+        // The receipt shows invoice totals too, so both versions are part of the key
+        String contentVersion = "p" + payment.getId() + "-" + epochMillis(payment.getUpdatedAt())
+                + "-" + contentVersion(invoice);
+        return documentCacheService.getOrRender("receipt", invoice.getId(), contentVersion,
+                () -> renderPaymentReceiptPdf(payment, invoice));
+    }
+
+    private byte[] renderPaymentReceiptPdf(Payment payment, Invoice invoice) {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             PdfWriter writer = new PdfWriter(baos);
             PdfDocument pdfDoc = new PdfDocument(writer);
@@ -346,103 +438,109 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public byte[] generateInvoicesExcel(LocalDateTime startDate, LocalDateTime endDate) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInvoicesExcel(startDate, endDate, baos);
+        return baos.toByteArray();
+    }
 
-            Sheet sheet = workbook.createSheet("Facturas");
+    @Override
+    public void writeInvoicesExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+        SXSSFWorkbook workbook = createStreamingWorkbook();
 
-            // Header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
+        try (Stream<Invoice> invoices = invoiceRepository.streamByIssueDateBetween(startDate, endDate)) {
+            SXSSFSheet sheet = workbook.createSheet("Facturas");
+            sheet.trackAllColumnsForAutoSizing();
 
-            // Create header row
-            Row headerRow = sheet.createRow(0);
             String[] headers = {"Número", "Cliente", "Mascota", "Fecha", "Total", "Pagado", "Saldo", "Estado"};
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell excelCell = headerRow.createCell(i);
-                excelCell.setCellValue(headers[i]);
-                excelCell.setCellStyle(headerStyle);
-            }
-
-            // Get invoices
-            Page<Invoice> invoices = invoiceRepository.findByIssueDateBetween(
-                    startDate, endDate, PageRequest.of(0, 1000));
+            createHeaderRow(workbook, sheet, headers);
 
             int rowNum = 1;
-            for (Invoice invoice : invoices.getContent()) {
+            Iterator<Invoice> iterator = invoices.iterator();
+            while (iterator.hasNext()) {
+                Invoice invoice = iterator.next();
                 Row row = sheet.createRow(rowNum++);
                 row.createCell(0).setCellValue(invoice.getInvoiceNumber());
                 row.createCell(1).setCellValue(invoice.getClientName());
                 row.createCell(2).setCellValue(invoice.getPetName() != null ? invoice.getPetName() : "");
                 row.createCell(3).setCellValue(invoice.getIssueDate() != null ?
                         invoice.getIssueDate().format(DATE_FORMATTER) : "");
-                row.createCell(4).setCellValue(invoice.getTotalAmount().doubleValue());
-                row.createCell(5).setCellValue(invoice.getPaidAmount().doubleValue());
-                row.createCell(6).setCellValue(invoice.getBalanceDue().doubleValue());
-                row.createCell(7).setCellValue(invoice.getStatus().getDescription());
+                row.createCell(4).setCellValue(toDouble(invoice.getTotalAmount()));
+                row.createCell(5).setCellValue(toDouble(invoice.getPaidAmount()));
+                row.createCell(6).setCellValue(toDouble(invoice.getBalanceDue()));
+                row.createCell(7).setCellValue(invoice.getStatus() != null ? invoice.getStatus().getDescription() : "");
+
+                // Keep the persistence context from growing with the export
+                entityManager.detach(invoice);
             }
 
-            // Auto-size columns
             for (int i = 0; i < headers.length; i++) {
                 sheet.autoSizeColumn(i);
             }
 
-            workbook.write(baos);
-            return baos.toByteArray();
+            workbook.write(outputStream);
+            outputStream.flush();
+            logger.info("Streamed {} invoices to Excel", rowNum - 1);
 
         } catch (Exception e) {
             logger.error("Error generating invoices Excel: {}", e.getMessage());
             throw new BillingException("Error generating invoices Excel", e);
+        } finally {
+            disposeWorkbook(workbook);
         }
     }
 
     @Override
     public byte[] generatePaymentsExcel(LocalDateTime startDate, LocalDateTime endDate) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writePaymentsExcel(startDate, endDate, baos);
+        return baos.toByteArray();
+    }
 
-            Sheet sheet = workbook.createSheet("Pagos");
+    @Override
+    public void writePaymentsExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+        SXSSFWorkbook workbook = createStreamingWorkbook();
 
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
+        try (Stream<Payment> payments = paymentRepository.streamByPaymentDateBetween(startDate, endDate)) {
+            SXSSFSheet sheet = workbook.createSheet("Pagos");
+            sheet.trackAllColumnsForAutoSizing();
 
-            Row headerRow = sheet.createRow(0);
             String[] headers = {"Número Pago", "Factura", "Cliente", "Monto", "Método", "Fecha", "Estado"};
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell excelCell = headerRow.createCell(i);
-                excelCell.setCellValue(headers[i]);
-                excelCell.setCellStyle(headerStyle);
-            }
-
-            Page<Payment> payments = paymentRepository.findByPaymentDateBetween(
-                    startDate, endDate, PageRequest.of(0, 1000));
+            createHeaderRow(workbook, sheet, headers);
 
             int rowNum = 1;
-            for (Payment payment : payments.getContent()) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                Invoice invoice = payment.getInvoice();
                 Row row = sheet.createRow(rowNum++);
                 row.createCell(0).setCellValue(payment.getPaymentNumber());
-                row.createCell(1).setCellValue(payment.getInvoice().getInvoiceNumber());
-                row.createCell(2).setCellValue(payment.getInvoice().getClientName());
-                row.createCell(3).setCellValue(payment.getAmount().doubleValue());
-                row.createCell(4).setCellValue(payment.getPaymentMethod().getDescription());
-                row.createCell(5).setCellValue(payment.getPaymentDate().format(DATETIME_FORMATTER));
-                row.createCell(6).setCellValue(payment.getPaymentStatus().getDescription());
+                row.createCell(1).setCellValue(invoice.getInvoiceNumber());
+                row.createCell(2).setCellValue(invoice.getClientName());
+                row.createCell(3).setCellValue(toDouble(payment.getAmount()));
+                row.createCell(4).setCellValue(payment.getPaymentMethod() != null ?
+                        payment.getPaymentMethod().getDescription() : "");
+                row.createCell(5).setCellValue(payment.getPaymentDate() != null ?
+                        payment.getPaymentDate().format(DATETIME_FORMATTER) : "");
+                row.createCell(6).setCellValue(payment.getPaymentStatus() != null ?
+                        payment.getPaymentStatus().getDescription() : "");
+
+                entityManager.detach(payment);
+                entityManager.detach(invoice);
             }
 
             for (int i = 0; i < headers.length; i++) {
                 sheet.autoSizeColumn(i);
             }
 
-            workbook.write(baos);
-            return baos.toByteArray();
+            workbook.write(outputStream);
+            outputStream.flush();
+            logger.info("Streamed {} payments to Excel", rowNum - 1);
 
         } catch (Exception e) {
             logger.error("Error generating payments Excel: {}", e.getMessage());
             throw new BillingException("Error generating payments Excel", e);
+        } finally {
+            disposeWorkbook(workbook);
         }
     }
 
@@ -474,59 +572,47 @@ public class ReportServiceImpl implements ReportService {
     public SalesReportDto generateSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
         SalesReportDto report = new SalesReportDto(startDate, endDate, "CUSTOM");
 
-        // Get basic statistics
-        Page<Invoice> invoices = invoiceRepository.findByIssueDateBetween(
-                startDate, endDate, PageRequest.of(0, Integer.MAX_VALUE));
-
-        BigDecimal totalSales = BigDecimal.ZERO;
-        BigDecimal totalPaid = BigDecimal.ZERO;
-        BigDecimal totalOutstanding = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-
-        int totalInvoices = 0;
-        int paidInvoices = 0;
-        int pendingInvoices = 0;
-        int overdueInvoices = 0;
-
-        for (Invoice invoice : invoices.getContent()) {
-            totalSales = totalSales.add(invoice.getTotalAmount() != null ? invoice.getTotalAmount() : BigDecimal.ZERO);
-            totalPaid = totalPaid.add(invoice.getPaidAmount() != null ? invoice.getPaidAmount() : BigDecimal.ZERO);
-            totalOutstanding = totalOutstanding.add(invoice.getBalanceDue() != null ? invoice.getBalanceDue() : BigDecimal.ZERO);
-            totalTax = totalTax.add(invoice.getTaxAmount() != null ? invoice.getTaxAmount() : BigDecimal.ZERO);
-            totalDiscount = totalDiscount.add(invoice.getDiscountAmount() != null ? invoice.getDiscountAmount() : BigDecimal.ZERO);
-            totalInvoices++;
-
-            if (invoice.getPaymentStatus() != null) {
-                switch (invoice.getPaymentStatus()) {
-                    case PAID:
-                        paidInvoices++;
-                        break;
-                    case PENDING:
-                        pendingInvoices++;
-                        break;
-                    default:
-                        if (invoice.getStatus() == InvoiceStatus.OVERDUE) {
-                            overdueInvoices++;
-                        }
-                        break;
-                }
-            }
+        // Totals and every breakdown from one streamed pass over the invoices, items and payments of the range
+        SalesReportAggregator aggregator = new SalesReportAggregator(topClientLimit);
+        try (Stream<Object[]> rows = invoiceRepository.streamSalesReportRows(startDate, endDate)) {
+            rows.forEach(aggregator::accept);
         }
+        aggregator.fill(report);
 
-        report.setTotalSales(totalSales);
-        report.setTotalPaid(totalPaid);
-        report.setTotalOutstanding(totalOutstanding);
-        report.setTotalTax(totalTax);
-        report.setTotalDiscount(totalDiscount);
-        report.setTotalInvoices(totalInvoices);
-        report.setPaidInvoices(paidInvoices);
-        report.setPendingInvoices(pendingInvoices);
-        report.setOverdueInvoices(overdueInvoices);
-
+        fillGrowth(report, startDate, endDate);
         return report;
     }
 
+    // Compares against the equally long period just before. For whole-day ranges the previous total
+    // comes from the daily rollup, which already holds it per issue day; other ranges cost one
+    // aggregate query over the invoices.
+    private void fillGrowth(SalesReportDto report, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime previousStart;
+        LocalDateTime previousEnd;
+        BigDecimal previousSales;
+        if (startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && endDate.toLocalTime().truncatedTo(ChronoUnit.SECONDS).equals(END_OF_DAY)) {
+            long days = ChronoUnit.DAYS.between(startDate.toLocalDate(), endDate.toLocalDate()) + 1;
+            LocalDate previousFirstDay = startDate.toLocalDate().minusDays(days);
+            LocalDate previousLastDay = startDate.toLocalDate().minusDays(1);
+            previousStart = previousFirstDay.atStartOfDay();
+            previousEnd = previousLastDay.atTime(LocalTime.MAX);
+            previousSales = billingRollupService.getTotalAmountBetween(previousFirstDay, previousLastDay);
+        } else {
+            previousEnd = startDate.minusNanos(1_000);
+            previousStart = previousEnd.minus(Duration.between(startDate, endDate));
+            previousSales = orZero(invoiceRepository.getSalesSummary(previousStart, previousEnd).getTotalSales());
+        }
+
+        Money previous = Money.of(previousSales);
+        report.setPreviousPeriodSales(previousSales);
+        report.setGrowthComparison("vs periodo anterior (" + previousStart.format(DATE_FORMATTER) + " - "
+                + previousEnd.format(DATE_FORMATTER) + ")");
+        report.setGrowthPercentage(previous.isPositive()
+                ? Money.of(report.getTotalSales()).minus(previous).percentOf(previous)
+                : null);
+    }
+
     @Override
     public List<InvoiceReportDto> generateOverdueReport() {
         List<Invoice> overdueInvoices = invoiceRepository.findOverdueInvoices(LocalDateTime.now());
@@ -535,6 +621,173 @@ public class ReportServiceImpl implements ReportService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public AgingReportDto generateAgingReport(LocalDate asOfDate) {
+        LocalDate today = LocalDate.now();
+        if (asOfDate.isAfter(today)) {
+            throw new IllegalArgumentException("Aging cut-off date cannot be in the future: " + asOfDate);
+        }
+        AgingReportDto report;
+        if (asOfDate.isBefore(today)) {
+            // A closed day: computed once from the as-of query, then kept by date
+            report = closedAgingReports.get(asOfDate, date -> loadAgingReport(date, false));
+        } else {
+            // Today's report follows writes. Payments reach balances through the invoice rollup, so
+            // INVOICE events cover both
+            report = statisticsCacheService.get("reports.aging." + today, BillingChangeEvent.Source.INVOICE,
+                    () -> loadAgingReport(today, true));
+        }
+        // Both caches hand out the same instance; callers get their own copy
+        return report.copy();
+    }
+
+    private AgingReportDto loadAgingReport(LocalDate asOfDate, boolean current) {
+        long started = System.nanoTime();
+        LocalDateTime cutoff30 = asOfDate.minusDays(30).atStartOfDay();
+        LocalDateTime cutoff60 = asOfDate.minusDays(60).atStartOfDay();
+        LocalDateTime cutoff90 = asOfDate.minusDays(90).atStartOfDay();
+        LocalDateTime asOfEnd = asOfDate.plusDays(1).atStartOfDay();
+        List<AgingBucketProjection> rows = current
+                ? invoiceRepository.summarizeAgingByClient(cutoff30, cutoff60, cutoff90, asOfEnd)
+                : invoiceRepository.summarizeAgingByClientAsOf(cutoff30, cutoff60, cutoff90, asOfEnd);
+
+        AgingReportDto report = new AgingReportDto(asOfDate);
+        long invoiceCount = 0;
+        Money days0To30 = Money.ZERO;
+        Money days31To60 = Money.ZERO;
+        Money days61To90 = Money.ZERO;
+        Money over90 = Money.ZERO;
+        Money total = Money.ZERO;
+
+        for (AgingBucketProjection row : rows) {
+            report.getClients().add(new AgingReportDto.ClientAgingDto(row.getClientId(), row.getClientName(),
+                    row.getInvoiceCount(), orZero(row.getDays0To30()), orZero(row.getDays31To60()),
+                    orZero(row.getDays61To90()), orZero(row.getOver90()), orZero(row.getTotal())));
+            invoiceCount += row.getInvoiceCount() != null ? row.getInvoiceCount() : 0L;
+            days0To30 = days0To30.plus(Money.of(row.getDays0To30()));
+            days31To60 = days31To60.plus(Money.of(row.getDays31To60()));
+            days61To90 = days61To90.plus(Money.of(row.getDays61To90()));
+            over90 = over90.plus(Money.of(row.getOver90()));
+            total = total.plus(Money.of(row.getTotal()));
+        }
+
+        report.setTotals(new AgingReportDto.ClientAgingDto(null, "Total", invoiceCount, days0To30.toBigDecimal(),
+                days31To60.toBigDecimal(), days61To90.toBigDecimal(), over90.toBigDecimal(), total.toBigDecimal()));
+        // Shared through the report caches
+        report.setClients(Collections.unmodifiableList(report.getClients()));
+        logger.info("Computed AR aging as of {} for {} clients in {} ms", asOfDate, rows.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return report;
+    }
+
+    @Override
+    public byte[] generateAgingReportPdf(LocalDate asOfDate) {
+        AgingReportDto report = generateAgingReport(asOfDate);
+
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            PdfWriter writer = new PdfWriter(baos);
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document document = new Document(pdfDoc);
+
+            document.add(new Paragraph("ANTIGÜEDAD DE CARTERA")
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setFontSize(20)
+                    .setBold());
+
+            document.add(new Paragraph("Fecha de corte: " + asOfDate.format(DATE_FORMATTER))
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setFontSize(12));
+
+            // Large-table mode lays out and releases rows in chunks instead of holding every client
+            Table table = new Table(new float[]{4, 1, 2, 2, 2, 2, 2}, true);
+            table.setWidth(UnitValue.createPercentValue(100));
+            for (String header : AGING_HEADERS) {
+                table.addHeaderCell(new com.itextpdf.layout.element.Cell().add(new Paragraph(header)).setBold());
+            }
+            document.add(table);
+
+            int rows = 0;
+            for (AgingReportDto.ClientAgingDto client : report.getClients()) {
+                addAgingPdfRow(table, client, false);
+                if (++rows % AGING_PDF_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
+            }
+            addAgingPdfRow(table, report.getTotals(), true);
+            table.complete();
+
+            document.close();
+            return baos.toByteArray();
+
+        } catch (Exception e) {
+            logger.error("Error generating AR aging PDF: {}", e.getMessage());
+            throw new BillingException("Error generating AR aging PDF", e);
+        }
+    }
+
+    private void addAgingPdfRow(Table table, AgingReportDto.ClientAgingDto row, boolean bold) {
+        String[] values = {
+                row.getClientName() != null ? row.getClientName() : "",
+                String.valueOf(row.getInvoiceCount()),
+                "$" + formatMoney(row.getDays0To30()),
+                "$" + formatMoney(row.getDays31To60()),
+                "$" + formatMoney(row.getDays61To90()),
+                "$" + formatMoney(row.getOver90()),
+                "$" + formatMoney(row.getTotal())
+        };
+        for (int i = 0; i < values.length; i++) {
+            com.itextpdf.layout.element.Cell cell = new com.itextpdf.layout.element.Cell().add(new Paragraph(values[i]));
+            if (i > 0) {
+                cell.setTextAlignment(TextAlignment.RIGHT);
+            }
+            if (bold) {
+                cell.setBold();
+            }
+            table.addCell(cell);
+        }
+    }
+
+    @Override
+    public void writeAgingReportExcel(LocalDate asOfDate, OutputStream outputStream) {
+        AgingReportDto report = generateAgingReport(asOfDate);
+        SXSSFWorkbook workbook = createStreamingWorkbook();
+
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Cartera " + asOfDate);
+            sheet.trackAllColumnsForAutoSizing();
+            createHeaderRow(workbook, sheet, AGING_HEADERS);
+
+            int rowNum = 1;
+            for (AgingReportDto.ClientAgingDto client : report.getClients()) {
+                writeAgingExcelRow(sheet.createRow(rowNum++), client);
+            }
+            writeAgingExcelRow(sheet.createRow(rowNum), report.getTotals());
+
+            for (int i = 0; i < AGING_HEADERS.length; i++) {
+                sheet.autoSizeColumn(i);
+            }
+
+            workbook.write(outputStream);
+            outputStream.flush();
+
+        } catch (Exception e) {
+            logger.error("Error generating AR aging Excel: {}", e.getMessage());
+            throw new BillingException("Error generating AR aging Excel", e);
+        } finally {
+            disposeWorkbook(workbook);
+        }
+    }
+
+    private void writeAgingExcelRow(Row row, AgingReportDto.ClientAgingDto values) {
+        row.createCell(0).setCellValue(values.getClientName() != null ? values.getClientName() : "");
+        row.createCell(1).setCellValue(values.getInvoiceCount() != null ? values.getInvoiceCount() : 0L);
+        row.createCell(2).setCellValue(toDouble(values.getDays0To30()));
+        row.createCell(3).setCellValue(toDouble(values.getDays31To60()));
+        row.createCell(4).setCellValue(toDouble(values.getDays61To90()));
+        row.createCell(5).setCellValue(toDouble(values.getOver90()));
+        row.createCell(6).setCellValue(toDouble(values.getTotal()));
+    }
+
     @Override
     public List<PaymentReportDto> generateCollectionReport(LocalDateTime startDate, LocalDateTime endDate) {
         Page<Payment> payments = paymentRepository.findByPaymentDateBetween(
@@ -545,6 +798,105 @@ public class ReportServiceImpl implements ReportService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void writeCollectionReport(LocalDateTime startDate, LocalDateTime endDate, ReportExportFormat format,
+                                      OutputStream outputStream) {
+        try (Stream<Payment> payments = paymentRepository.streamByPaymentDateBetween(startDate, endDate)) {
+            int rows = format == ReportExportFormat.CSV
+                    ? writeCollectionCsv(payments.iterator(), outputStream)
+                    : writeCollectionNdjson(payments.iterator(), outputStream);
+            logger.info("Streamed {} payments as {}", rows, format);
+        } catch (IOException e) {
+            // Usually the client went away mid-download; the response is already committed
+            logger.warn("Collection export aborted: {}", e.getMessage());
+            throw new BillingException("Error streaming collection report", e);
+        }
+    }
+
+    private int writeCollectionNdjson(Iterator<Payment> payments, OutputStream outputStream) throws IOException {
+        int rows = 0;
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(outputStream)) {
+            json.setRootValueSeparator(null);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (payments.hasNext()) {
+                Object[] values = collectionRow(payments.next());
+                json.writeStartObject();
+                for (int i = 0; i < COLLECTION_COLUMNS.length; i++) {
+                    json.writeFieldName(COLLECTION_COLUMNS[i]);
+                    writeJsonValue(json, values[i]);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (++rows % EXPORT_FLUSH_ROWS == 0) {
+                    json.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        return rows;
+    }
+
+    private int writeCollectionCsv(Iterator<Payment> payments, OutputStream outputStream) throws IOException {
+        int rows = 0;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeCsvLine(csv, COLLECTION_COLUMNS);
+        while (payments.hasNext()) {
+            writeCsvLine(csv, collectionRow(payments.next()));
+            if (++rows % EXPORT_FLUSH_ROWS == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+
+    // Values in COLLECTION_COLUMNS order; detaches the row so the persistence context stays empty
+    private Object[] collectionRow(Payment payment) {
+        Invoice invoice = payment.getInvoice();
+        Object[] values = {payment.getId(), payment.getPaymentNumber(), payment.getPaymentDate(), payment.getAmount(),
+                payment.getPaymentMethod(), payment.getPaymentStatus(), payment.getReferenceNumber(),
+                payment.getTransactionId(), payment.getProcessedByName(),
+                invoice.getId(), invoice.getInvoiceNumber(), invoice.getClientId(), invoice.getClientName(),
+                invoice.getPetName(), invoice.getTotalAmount(), invoice.getBalanceDue()};
+        entityManager.detach(payment);
+        entityManager.detach(invoice);
+        return values;
+    }
+
+    private void writeJsonValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof BigDecimal) {
+            json.writeNumber((BigDecimal) value);
+        } else if (value instanceof Long) {
+            json.writeNumber((Long) value);
+        } else {
+            // Enums by name, dates as ISO-8601
+            json.writeString(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+        }
+    }
+
+    private void writeCsvLine(Writer csv, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String text = values[i] instanceof BigDecimal ? ((BigDecimal) values[i]).toPlainString()
+                    : values[i] instanceof Enum ? ((Enum<?>) values[i]).name() : values[i].toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                csv.write('"');
+                csv.write(text.replace("\"", "\"\""));
+                csv.write('"');
+            } else {
+                csv.write(text);
+            }
+        }
+        csv.write("\r\n");
+    }
+
     @Override
     public void emailInvoice(Long invoiceId, String toEmail) {
         try {
@@ -589,6 +941,52 @@ public class ReportServiceImpl implements ReportService {
         return String.format("%,.2f", amount);
     }
 
+    private BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private double toDouble(BigDecimal amount) {
+        return amount != null ? amount.doubleValue() : 0.0;
+    }
+
+    private String contentVersion(Invoice invoice) {
+        return "v" + invoice.getVersion() + "-" + epochMillis(invoice.getUpdatedAt());
+    }
+
+    private long epochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    private SXSSFWorkbook createStreamingWorkbook() {
+        // Only the last EXCEL_ROW_WINDOW rows stay in memory; older rows are flushed to a temp file
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    private void createHeaderRow(Workbook workbook, Sheet sheet, String[] headers) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            org.apache.poi.ss.usermodel.Cell excelCell = headerRow.createCell(i);
+            excelCell.setCellValue(headers[i]);
+            excelCell.setCellStyle(headerStyle);
+        }
+    }
+
+    private void disposeWorkbook(SXSSFWorkbook workbook) {
+        workbook.dispose();
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            logger.warn("Error closing streaming workbook: {}", e.getMessage());
+        }
+    }
+
     private InvoiceReportDto mapToInvoiceReportDto(Invoice invoice) {
         InvoiceReportDto dto = new InvoiceReportDto();
         dto.setId(invoice.getId());
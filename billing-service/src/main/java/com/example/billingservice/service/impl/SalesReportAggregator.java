@@ -0,0 +1,293 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.SalesReportDto;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.entity.ServiceType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Fills every figure of a {@link SalesReportDto} from one pass over the rows of
+ * {@code InvoiceRepository.streamSalesReportRows}. Amounts are summed in cents. The per-client
+ * totals have to be kept until the end, but only the top {@code topClientLimit} are selected, with
+ * a min-heap instead of a full sort.
+ */
+final class SalesReportAggregator {
+
+    private static final int KIND = 0;
+    private static final int CLIENT_ID = 1;
+    private static final int CLIENT_NAME = 2;
+    private static final int ISSUE_DATE = 3;
+    private static final int PAYMENT_DATE = 4;
+    private static final int CODE = 5;
+    private static final int PAYMENT_STATUS = 6;
+    private static final int AMOUNT = 7;
+    private static final int PAID = 8;
+    private static final int BALANCE = 9;
+    private static final int TAX = 10;
+    private static final int DISCOUNT = 11;
+    private static final int QUANTITY = 12;
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final int topClientLimit;
+
+    private int invoices;
+    private int paidInvoices;
+    private int pendingInvoices;
+    private int overdueInvoices;
+    private int cancelledInvoices;
+    private long salesCents;
+    private long paidCents;
+    private long outstandingCents;
+    private long taxCents;
+    private long discountCents;
+
+    private final Map<ServiceType, long[]> services = new EnumMap<>(ServiceType.class);
+    private final Map<PaymentMethod, long[]> paymentMethods = new EnumMap<>(PaymentMethod.class);
+    private final Map<Long, ClientTotals> clients = new HashMap<>();
+    private final Map<YearMonth, long[]> months = new TreeMap<>();
+    private long paymentSeconds;
+    private long timedPayments;
+
+    SalesReportAggregator(int topClientLimit) {
+        this.topClientLimit = topClientLimit;
+    }
+
+    void accept(Object[] row) {
+        switch (row[KIND].toString()) {
+            case "I":
+                acceptInvoice(row);
+                break;
+            case "T":
+                acceptItem(row);
+                break;
+            case "P":
+                acceptPayment(row);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sales report row: " + row[KIND]);
+        }
+    }
+
+    private void acceptInvoice(Object[] row) {
+        InvoiceStatus status = enumValue(InvoiceStatus.class, row[CODE]);
+        PaymentStatus paymentStatus = enumValue(PaymentStatus.class, row[PAYMENT_STATUS]);
+        long total = cents(row[AMOUNT]);
+        long paid = cents(row[PAID]);
+        LocalDateTime issueDate = dateTime(row[ISSUE_DATE]);
+
+        invoices++;
+        salesCents = Math.addExact(salesCents, total);
+        paidCents = Math.addExact(paidCents, paid);
+        outstandingCents = Math.addExact(outstandingCents, cents(row[BALANCE]));
+        taxCents = Math.addExact(taxCents, cents(row[TAX]));
+        discountCents = Math.addExact(discountCents, cents(row[DISCOUNT]));
+
+        // Same rules as InvoiceRepository.getSalesSummary
+        if (paymentStatus == PaymentStatus.PAID) {
+            paidInvoices++;
+        } else if (paymentStatus == PaymentStatus.PENDING) {
+            pendingInvoices++;
+        } else if (paymentStatus != null && status == InvoiceStatus.OVERDUE) {
+            overdueInvoices++;
+        }
+        if (status == InvoiceStatus.CANCELLED) {
+            cancelledInvoices++;
+        }
+
+        if (row[CLIENT_ID] != null) {
+            Long clientId = ((Number) row[CLIENT_ID]).longValue();
+            ClientTotals client = clients.computeIfAbsent(clientId, id -> new ClientTotals(id));
+            client.accept((String) row[CLIENT_NAME], total, issueDate);
+        }
+
+        if (issueDate != null) {
+            long[] month = months.computeIfAbsent(YearMonth.from(issueDate), key -> new long[3]);
+            month[0] = Math.addExact(month[0], total);
+            month[1] = Math.addExact(month[1], paid);
+            month[2]++;
+        }
+    }
+
+    private void acceptItem(Object[] row) {
+        ServiceType serviceType = enumValue(ServiceType.class, row[CODE]);
+        long[] service = services.computeIfAbsent(serviceType != null ? serviceType : ServiceType.OTHER,
+                key -> new long[2]);
+        service[0] = Math.addExact(service[0], cents(row[AMOUNT]));
+        service[1] += row[QUANTITY] != null ? ((Number) row[QUANTITY]).longValue() : 0L;
+    }
+
+    private void acceptPayment(Object[] row) {
+        PaymentMethod method = enumValue(PaymentMethod.class, row[CODE]);
+        if (method != null) {
+            long[] totals = paymentMethods.computeIfAbsent(method, key -> new long[2]);
+            totals[0] = Math.addExact(totals[0], cents(row[AMOUNT]));
+            totals[1]++;
+        }
+
+        LocalDateTime issueDate = dateTime(row[ISSUE_DATE]);
+        LocalDateTime paymentDate = dateTime(row[PAYMENT_DATE]);
+        if (issueDate != null && paymentDate != null && !paymentDate.isBefore(issueDate)) {
+            paymentSeconds += Duration.between(issueDate, paymentDate).getSeconds();
+            timedPayments++;
+        }
+    }
+
+    void fill(SalesReportDto report) {
+        report.setTotalInvoices(invoices);
+        report.setTotalSales(Money.ofCents(salesCents).toBigDecimal());
+        report.setTotalPaid(Money.ofCents(paidCents).toBigDecimal());
+        report.setTotalOutstanding(Money.ofCents(outstandingCents).toBigDecimal());
+        report.setTotalTax(Money.ofCents(taxCents).toBigDecimal());
+        report.setTotalDiscount(Money.ofCents(discountCents).toBigDecimal());
+        report.setPaidInvoices(paidInvoices);
+        report.setPendingInvoices(pendingInvoices);
+        report.setOverdueInvoices(overdueInvoices);
+        report.setCancelledInvoices(cancelledInvoices);
+
+        report.setAveragePaymentTime(timedPayments > 0
+                ? BigDecimal.valueOf(paymentSeconds).divide(BigDecimal.valueOf(timedPayments * SECONDS_PER_DAY),
+                        2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+
+        report.setSalesByService(serviceBreakdown());
+        report.setSalesByPaymentMethod(paymentMethodBreakdown());
+        report.setTopClients(topClients());
+        report.setMonthlyBreakdown(monthlyBreakdown());
+    }
+
+    private List<SalesReportDto.ServiceSalesDto> serviceBreakdown() {
+        Money itemsTotal = Money.ofCents(services.values().stream().mapToLong(totals -> totals[0]).sum());
+        List<SalesReportDto.ServiceSalesDto> breakdown = new ArrayList<>();
+        services.forEach((serviceType, totals) -> {
+            Money amount = Money.ofCents(totals[0]);
+            SalesReportDto.ServiceSalesDto dto = new SalesReportDto.ServiceSalesDto(serviceType,
+                    amount.toBigDecimal(), Math.toIntExact(totals[1]));
+            dto.setPercentage(amount.percentOf(itemsTotal));
+            breakdown.add(dto);
+        });
+        breakdown.sort(Comparator.comparing(SalesReportDto.ServiceSalesDto::getTotalAmount).reversed());
+        return breakdown;
+    }
+
+    private List<SalesReportDto.PaymentMethodSalesDto> paymentMethodBreakdown() {
+        Money collected = Money.ofCents(paymentMethods.values().stream().mapToLong(totals -> totals[0]).sum());
+        List<SalesReportDto.PaymentMethodSalesDto> breakdown = new ArrayList<>();
+        paymentMethods.forEach((method, totals) -> {
+            Money amount = Money.ofCents(totals[0]);
+            SalesReportDto.PaymentMethodSalesDto dto = new SalesReportDto.PaymentMethodSalesDto(method,
+                    amount.toBigDecimal(), Math.toIntExact(totals[1]));
+            dto.setPercentage(amount.percentOf(collected));
+            breakdown.add(dto);
+        });
+        breakdown.sort(Comparator.comparing(SalesReportDto.PaymentMethodSalesDto::getTotalAmount).reversed());
+        return breakdown;
+    }
+
+    private List<SalesReportDto.ClientSalesDto> topClients() {
+        Comparator<ClientTotals> bySpend = Comparator.comparingLong((ClientTotals client) -> client.cents)
+                .thenComparing(client -> client.clientId, Comparator.reverseOrder());
+        // Min-heap of the best K seen so far: its head is the first to drop out
+        PriorityQueue<ClientTotals> heap = new PriorityQueue<>(topClientLimit + 1, bySpend);
+        for (ClientTotals client : clients.values()) {
+            heap.offer(client);
+            if (heap.size() > topClientLimit) {
+                heap.poll();
+            }
+        }
+
+        List<ClientTotals> top = new ArrayList<>(heap);
+        top.sort(bySpend.reversed());
+        List<SalesReportDto.ClientSalesDto> result = new ArrayList<>(top.size());
+        for (ClientTotals client : top) {
+            SalesReportDto.ClientSalesDto dto = new SalesReportDto.ClientSalesDto(client.clientId, client.clientName,
+                    Money.ofCents(client.cents).toBigDecimal(), client.invoices);
+            dto.setLastVisit(client.lastVisit);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private List<SalesReportDto.MonthlySalesDto> monthlyBreakdown() {
+        List<SalesReportDto.MonthlySalesDto> breakdown = new ArrayList<>(months.size());
+        Money previousSales = null;
+        for (Map.Entry<YearMonth, long[]> entry : months.entrySet()) {
+            long[] totals = entry.getValue();
+            Money sales = Money.ofCents(totals[0]);
+            SalesReportDto.MonthlySalesDto dto = new SalesReportDto.MonthlySalesDto(entry.getKey().getYear(),
+                    entry.getKey().getMonthValue(), sales.toBigDecimal(), Money.ofCents(totals[1]).toBigDecimal(),
+                    Math.toIntExact(totals[2]));
+            if (previousSales != null && previousSales.isPositive()) {
+                dto.setGrowthPercentage(sales.minus(previousSales).percentOf(previousSales));
+            }
+            breakdown.add(dto);
+            previousSales = sales;
+        }
+        return breakdown;
+    }
+
+    private static long cents(Object value) {
+        if (value == null) {
+            return 0L;
+        }
+        return Money.of(value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString())).getCents();
+    }
+
+    private static LocalDateTime dateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class ClientTotals {
+        private final Long clientId;
+        private String clientName;
+        private long cents;
+        private int invoices;
+        private LocalDateTime lastVisit;
+
+        private ClientTotals(Long clientId) {
+            this.clientId = clientId;
+        }
+
+        private void accept(String name, long total, LocalDateTime issueDate) {
+            cents = Math.addExact(cents, total);
+            invoices++;
+            if (issueDate != null && (lastVisit == null || issueDate.isAfter(lastVisit))) {
+                lastVisit = issueDate;
+                // Latest invoice carries the current name
+                if (name != null) {
+                    clientName = name;
+                }
+            } else if (clientName == null) {
+                clientName = name;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.entity.Money;
+
+import java.time.LocalDate;
+
+/**
+ * One transaction read from a statement. {@code error} is set when the line could not be parsed.
+ */
+final class StatementLine {
+
+    private final int lineNumber;
+    private LocalDate date;
+    private Money amount;
+    private String reference;
+    private String transactionId;
+    private String description;
+    private String error;
+
+    StatementLine(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    int getLineNumber() { return lineNumber; }
+
+    LocalDate getDate() { return date; }
+    void setDate(LocalDate date) { this.date = date; }
+
+    Money getAmount() { return amount; }
+    void setAmount(Money amount) { this.amount = amount; }
+
+    String getReference() { return reference; }
+    void setReference(String reference) { this.reference = reference; }
+
+    String getTransactionId() { return transactionId; }
+    void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    String getDescription() { return description; }
+    void setDescription(String description) { this.description = description; }
+
+    String getError() { return error; }
+    void setError(String error) { this.error = error; }
+}
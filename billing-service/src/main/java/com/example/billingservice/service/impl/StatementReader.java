@@ -0,0 +1,323 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.StatementFormat;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.exception.BillingException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads a bank or card-processor statement one transaction at a time, so memory does not grow
+ * with the file. Lines that cannot be parsed come back with an error instead of failing the import.
+ */
+abstract class StatementReader implements Closeable {
+
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+            DateTimeFormatter.BASIC_ISO_DATE
+    };
+
+    protected final BufferedReader reader;
+
+    protected StatementReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    static StatementReader open(StatementFormat format, InputStream inputStream) {
+        return format == StatementFormat.OFX ? new Ofx(inputStream) : new Csv(inputStream);
+    }
+
+    // Null at the end of the statement
+    abstract StatementLine next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static LocalDate parseDate(String value) {
+        String trimmed = value.trim();
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(trimmed, format);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        throw new IllegalArgumentException("Unrecognized date: " + value);
+    }
+
+    /**
+     * Accepts 1234.56, 1,234.56, 1.234,56 and 1234,56 with an optional currency sign; the last
+     * separator followed by one or two digits is the decimal one.
+     */
+    static Money parseAmount(String value) {
+        String cleaned = value.trim().replace("$", "").replace(" ", "").replace("COP", "");
+        int lastSeparator = Math.max(cleaned.lastIndexOf('.'), cleaned.lastIndexOf(','));
+        boolean decimal = lastSeparator >= 0 && cleaned.length() - lastSeparator - 1 <= 2;
+
+        StringBuilder digits = new StringBuilder(cleaned.length());
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (Character.isDigit(c) || c == '-') {
+                digits.append(c);
+            } else if (i == lastSeparator && decimal) {
+                digits.append('.');
+            }
+        }
+        if (digits.length() == 0) {
+            throw new IllegalArgumentException("Unrecognized amount: " + value);
+        }
+        return Money.of(new BigDecimal(digits.toString()));
+    }
+
+    static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * CSV with a header row. Columns are found by name (English or Spanish); quoted fields may
+     * contain the delimiter but not line breaks. Comma and semicolon delimiters are detected from
+     * the header.
+     */
+    static final class Csv extends StatementReader {
+
+        private int lineNumber;
+        private char delimiter = ',';
+        private int dateColumn = -1;
+        private int amountColumn = -1;
+        private int referenceColumn = -1;
+        private int transactionColumn = -1;
+        private int descriptionColumn = -1;
+
+        Csv(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        StatementLine next() throws IOException {
+            if (lineNumber == 0) {
+                readHeader();
+            }
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            List<String> fields = split(line);
+            StatementLine statementLine = new StatementLine(lineNumber);
+            statementLine.setReference(blankToNull(field(fields, referenceColumn)));
+            statementLine.setTransactionId(blankToNull(field(fields, transactionColumn)));
+            statementLine.setDescription(blankToNull(field(fields, descriptionColumn)));
+            try {
+                statementLine.setDate(parseDate(field(fields, dateColumn)));
+                statementLine.setAmount(parseAmount(field(fields, amountColumn)));
+            } catch (RuntimeException e) {
+                statementLine.setError(e.getMessage() != null ? e.getMessage() : "Invalid line");
+            }
+            return statementLine;
+        }
+
+        private void readHeader() throws IOException {
+            String header = reader.readLine();
+            lineNumber = 1;
+            if (header == null) {
+                throw new BillingException("Statement file is empty");
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            if (header.indexOf(';') >= 0 && header.indexOf(',') < 0) {
+                delimiter = ';';
+            }
+
+            List<String> columns = split(header);
+            for (int i = 0; i < columns.size(); i++) {
+                String name = columns.get(i).trim().toLowerCase(Locale.ROOT).replace(" ", "_");
+                if (dateColumn < 0 && (name.equals("date") || name.equals("fecha") || name.contains("posted"))) {
+                    dateColumn = i;
+                } else if (amountColumn < 0 && (name.equals("amount") || name.equals("monto")
+                        || name.equals("valor") || name.equals("credit") || name.equals("credito"))) {
+                    amountColumn = i;
+                } else if (transactionColumn < 0 && (name.contains("transaction") || name.contains("transaccion")
+                        || name.equals("fitid") || name.equals("authorization") || name.equals("autorizacion"))) {
+                    transactionColumn = i;
+                } else if (referenceColumn < 0 && (name.startsWith("reference") || name.startsWith("referencia")
+                        || name.equals("ref"))) {
+                    referenceColumn = i;
+                } else if (descriptionColumn < 0 && (name.startsWith("description") || name.startsWith("descripcion")
+                        || name.equals("memo") || name.equals("concepto"))) {
+                    descriptionColumn = i;
+                }
+            }
+            if (dateColumn < 0 || amountColumn < 0) {
+                throw new BillingException("Statement CSV needs a date and an amount column");
+            }
+        }
+
+        private List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private String field(List<String> fields, int column) {
+            return column >= 0 && column < fields.size() ? fields.get(column) : "";
+        }
+    }
+
+    /**
+     * OFX 1.x (SGML, closing tags optional) and 2.x (XML). Tags are tokenized from the character
+     * stream, so a file written on a single line is read the same way; only {@code STMTTRN}
+     * blocks are kept.
+     */
+    static final class Ofx extends StatementReader {
+
+        private int transactionNumber;
+
+        Ofx(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        StatementLine next() throws IOException {
+            StatementLine line = null;
+            String tag;
+            while ((tag = nextTag()) != null) {
+                if (tag.equals("STMTTRN")) {
+                    line = new StatementLine(++transactionNumber);
+                } else if (tag.equals("/STMTTRN")) {
+                    if (line != null) {
+                        if (line.getError() == null && (line.getDate() == null || line.getAmount() == null)) {
+                            line.setError("Transaction without DTPOSTED or TRNAMT");
+                        }
+                        return line;
+                    }
+                } else if (line != null && !tag.startsWith("/")) {
+                    String value = blankToNull(readValue());
+                    if (value != null) {
+                        apply(line, tag, value);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void apply(StatementLine line, String tag, String value) {
+            try {
+                switch (tag) {
+                    case "DTPOSTED":
+                        // 20240115120000[-5:COT]: the date part is enough
+                        line.setDate(LocalDate.parse(value.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE));
+                        break;
+                    case "TRNAMT":
+                        line.setAmount(Money.of(new BigDecimal(value.replace(',', '.'))));
+                        break;
+                    case "FITID":
+                        line.setTransactionId(value);
+                        break;
+                    case "REFNUM":
+                    case "CHECKNUM":
+                        if (line.getReference() == null) {
+                            line.setReference(value);
+                        }
+                        break;
+                    case "NAME":
+                    case "MEMO":
+                        line.setDescription(line.getDescription() == null ? value : line.getDescription() + " " + value);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                line.setError("Invalid " + tag + ": " + value);
+            }
+        }
+
+        // Upper-cased tag name without brackets, or null at the end of the stream
+        private String nextTag() throws IOException {
+            int c;
+            while ((c = reader.read()) != -1 && c != '<') {
+                // Skip headers and values that were not asked for
+            }
+            if (c == -1) {
+                return null;
+            }
+            StringBuilder tag = new StringBuilder(16);
+            while ((c = reader.read()) != -1 && c != '>') {
+                tag.append((char) c);
+            }
+            return tag.toString().trim().toUpperCase(Locale.ROOT);
+        }
+
+        // Text up to the next tag, which is left unread
+        private String readValue() throws IOException {
+            StringBuilder value = new StringBuilder(32);
+            while (true) {
+                reader.mark(1);
+                int c = reader.read();
+                if (c == -1) {
+                    break;
+                }
+                if (c == '<') {
+                    reader.reset();
+                    break;
+                }
+                value.append((char) c);
+            }
+            return decodeEntities(value.toString());
+        }
+
+        private String decodeEntities(String value) {
+            if (value.indexOf('&') < 0) {
+                return value;
+            }
+            return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&amp;", "&");
+        }
+    }
+}
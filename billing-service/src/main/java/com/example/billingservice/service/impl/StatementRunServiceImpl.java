@@ -0,0 +1,479 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.ReportJobStatus;
+import com.example.billingservice.dto.StatementInvoiceProjection;
+import com.example.billingservice.dto.StatementRunDto;
+import com.example.billingservice.entity.StatementRun;
+import com.example.billingservice.exception.BillingException;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.repository.StatementRunRepository;
+import com.example.billingservice.service.ReportService;
+import com.example.billingservice.service.StatementRunService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Runs are executed one at a time by a coordinator thread that walks the open invoices in id
+ * order, {@code part-size} at a time. Each part is rendered on a pool with one thread per core and
+ * written to its own ZIP as results arrive, in order, with at most two rendered documents per
+ * thread held in memory. Once a part is on disk the run row records the last id it covers; a
+ * resumed run drops any part written after that checkpoint and continues from it. The finished
+ * parts are copied into a single archive at the end.
+ */
+@Service
+public class StatementRunServiceImpl implements StatementRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementRunServiceImpl.class);
+    private static final String ARCHIVE_FILE_NAME = "estados-de-cuenta.zip";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    // 0 uses every available core
+    @Value("${app.billing.statement-runs.render-threads:0}")
+    private int renderThreads;
+
+    @Value("${app.billing.statement-runs.part-size:500}")
+    private int partSize;
+
+    @Value("${app.billing.statement-runs.queue-capacity:5}")
+    private int queueCapacity;
+
+    @Value("${app.billing.statement-runs.stale-after-minutes:10}")
+    private long staleAfterMinutes;
+
+    @Value("${app.billing.statement-runs.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${app.billing.statement-runs.directory:${java.io.tmpdir}/billing-statement-runs}")
+    private String directory;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private StatementRunRepository statementRunRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Runs queued or executing on this node
+    private final Set<String> activeRuns = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor coordinator;
+    private ExecutorService renderPool;
+    private int maxInFlight;
+    private Path runDirectory;
+    private Counter renderedDocuments;
+    private Counter failedDocuments;
+
+    @PostConstruct
+    void init() throws IOException {
+        runDirectory = Files.createDirectories(Paths.get(directory));
+
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger renderThreadCount = new AtomicInteger();
+        renderPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "statement-render-" + renderThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        maxInFlight = threads * 2;
+
+        coordinator = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statement-run");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        coordinator.allowCoreThreadTimeOut(true);
+
+        renderedDocuments = Counter.builder("billing.statement.runs.documents").tag("outcome", "rendered")
+                .register(meterRegistry);
+        failedDocuments = Counter.builder("billing.statement.runs.documents").tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupted runs keep their checkpoint and can be resumed after a restart
+        coordinator.shutdownNow();
+        renderPool.shutdownNow();
+    }
+
+    @Override
+    public StatementRunDto start() {
+        StatementRun run = new StatementRun(UUID.randomUUID().toString());
+        run.setTotalInvoices((int) invoiceRepository.countStatementTargets());
+        run = statementRunRepository.save(run);
+
+        schedule(run);
+        logger.info("Queued statement run {} for {} invoices", run.getId(), run.getTotalInvoices());
+        return toDto(run);
+    }
+
+    @Override
+    public StatementRunDto resume(String runId) {
+        StatementRun run = statementRunRepository.findById(runId)
+                .orElseThrow(() -> new BillingException("Statement run not found with ID: " + runId));
+
+        if (activeRuns.contains(runId) || run.getStatus() == ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Statement run " + runId + " is " + run.getStatus());
+        }
+        // A queued or running run whose heartbeat stopped was cut off by a crash or shutdown
+        LocalDateTime heartbeat = run.getUpdatedAt() != null ? run.getUpdatedAt() : run.getCreatedAt();
+        if (run.getStatus() != ReportJobStatus.FAILED
+                && heartbeat.isAfter(LocalDateTime.now().minusMinutes(staleAfterMinutes))) {
+            throw new IllegalStateException("Statement run " + runId + " is still " + run.getStatus());
+        }
+
+        run.setStatus(ReportJobStatus.QUEUED);
+        run.setErrorMessage(null);
+        run.setUpdatedAt(LocalDateTime.now());
+        run = statementRunRepository.save(run);
+
+        schedule(run);
+        logger.info("Resuming statement run {} after invoice {}", runId, run.getCheckpointInvoiceId());
+        return toDto(run);
+    }
+
+    @Override
+    public Optional<StatementRunDto> getRun(String runId) {
+        return statementRunRepository.findById(runId).map(this::toDto);
+    }
+
+    @Override
+    public void writeArchive(String runId, OutputStream outputStream) {
+        StatementRun run = statementRunRepository.findById(runId)
+                .filter(found -> found.getStatus() == ReportJobStatus.COMPLETED)
+                .orElseThrow(() -> new IllegalStateException("Statement run " + runId + " has no archive available"));
+        try {
+            Files.copy(archiveFile(run.getId()), outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading statement run archive " + runId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.statement-runs.cleanup-interval-ms:3600000}")
+    public void purgeExpiredRuns() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        for (StatementRun run : statementRunRepository.findByCreatedAtBefore(cutoff)) {
+            if (activeRuns.contains(run.getId())) {
+                continue;
+            }
+            deleteQuietly(archiveFile(run.getId()));
+            deleteDirectoryQuietly(runDirectory.resolve(run.getId()));
+            statementRunRepository.delete(run);
+            logger.info("Purged statement run {}", run.getId());
+        }
+    }
+
+    private void schedule(StatementRun run) {
+        String runId = run.getId();
+        if (!activeRuns.add(runId)) {
+            throw new IllegalStateException("Statement run " + runId + " is already queued");
+        }
+        try {
+            coordinator.execute(() -> {
+                try {
+                    execute(runId);
+                } finally {
+                    activeRuns.remove(runId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            activeRuns.remove(runId);
+            markFailed(run, "Statement run queue is full");
+            throw new RejectedExecutionException("Statement run queue is full, try again later", e);
+        }
+    }
+
+    private void execute(String runId) {
+        StatementRun run = statementRunRepository.findById(runId).orElse(null);
+        if (run == null) {
+            return;
+        }
+        Path partsDirectory = runDirectory.resolve(runId);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "completed";
+
+        try {
+            Files.createDirectories(partsDirectory);
+            discardUncheckpointedParts(partsDirectory, run.getPartCount());
+
+            LocalDateTime now = LocalDateTime.now();
+            run.setStatus(ReportJobStatus.RUNNING);
+            if (run.getStartedAt() == null) {
+                run.setStartedAt(now);
+            }
+            run.setUpdatedAt(now);
+            run = statementRunRepository.save(run);
+
+            List<StatementInvoiceProjection> targets;
+            while (!(targets = invoiceRepository.findStatementTargets(run.getCheckpointInvoiceId(),
+                    PageRequest.of(0, partSize))).isEmpty()) {
+                int partNumber = run.getPartCount() + 1;
+                int failed = writePart(partFile(partsDirectory, partNumber), targets);
+
+                run.setPartCount(partNumber);
+                run.setCheckpointInvoiceId(targets.get(targets.size() - 1).getId());
+                run.setRenderedInvoices(run.getRenderedInvoices() + targets.size() - failed);
+                run.setFailedInvoices(run.getFailedInvoices() + failed);
+                run.setUpdatedAt(LocalDateTime.now());
+                run = statementRunRepository.save(run);
+            }
+
+            Path archive = assembleArchive(runId, partsDirectory, run.getPartCount());
+            run.setSizeBytes(Files.size(archive));
+            run.setStatus(ReportJobStatus.COMPLETED);
+            run.setCompletedAt(LocalDateTime.now());
+            run.setUpdatedAt(run.getCompletedAt());
+            statementRunRepository.save(run);
+            deleteDirectoryQuietly(partsDirectory);
+
+            logger.info("Statement run {} completed: {} documents, {} failed, {} bytes", runId,
+                    run.getRenderedInvoices(), run.getFailedInvoices(), run.getSizeBytes());
+        } catch (Exception e) {
+            outcome = "failed";
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // Parts up to the checkpoint stay on disk for resume
+            markFailed(run, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            logger.error("Statement run {} stopped after invoice {}: {}", runId, run.getCheckpointInvoiceId(),
+                    e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("billing.statement.runs.duration")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Renders the part in parallel and writes entries in submission order; returns how many
+     * invoices could not be rendered.
+     */
+    private int writePart(Path part, List<StatementInvoiceProjection> targets)
+            throws IOException, InterruptedException, ExecutionException {
+        Path temp = part.resolveSibling(part.getFileName() + ".tmp");
+        Deque<Future<RenderedStatement>> window = new ArrayDeque<>();
+        int failed = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (StatementInvoiceProjection target : targets) {
+                if (window.size() >= maxInFlight) {
+                    failed += writeEntry(zip, window.poll().get());
+                }
+                window.add(renderPool.submit(() -> render(target)));
+            }
+            while (!window.isEmpty()) {
+                failed += writeEntry(zip, window.poll().get());
+            }
+        } finally {
+            window.forEach(future -> future.cancel(true));
+        }
+
+        Files.move(temp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return failed;
+    }
+
+    private RenderedStatement render(StatementInvoiceProjection target) {
+        try {
+            byte[] pdf = reportService.renderInvoicePdf(target.getId());
+            renderedDocuments.increment();
+            return new RenderedStatement(target, pdf);
+        } catch (Exception e) {
+            // Left out of its part and counted as failed; the part is still written and checkpointed
+            failedDocuments.increment();
+            logger.warn("Could not render statement for invoice {}: {}", target.getId(), e.getMessage());
+            return new RenderedStatement(target, null);
+        }
+    }
+
+    private int writeEntry(ZipOutputStream zip, RenderedStatement rendered) throws IOException {
+        if (rendered.pdf == null) {
+            return 1;
+        }
+        // PDF streams are already deflated, so the entries are stored as-is
+        CRC32 crc = new CRC32();
+        crc.update(rendered.pdf);
+        ZipEntry entry = new ZipEntry(entryName(rendered.target));
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(rendered.pdf.length);
+        entry.setCompressedSize(rendered.pdf.length);
+        entry.setCrc(crc.getValue());
+
+        zip.putNextEntry(entry);
+        zip.write(rendered.pdf);
+        zip.closeEntry();
+        return 0;
+    }
+
+    private Path assembleArchive(String runId, Path partsDirectory, int partCount) throws IOException {
+        Path archive = archiveFile(runId);
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+
+        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                try (ZipInputStream in = new ZipInputStream(
+                        new BufferedInputStream(Files.newInputStream(partFile(partsDirectory, partNumber))))) {
+                    ZipEntry source;
+                    while ((source = in.getNextEntry()) != null) {
+                        ZipEntry copy = new ZipEntry(source.getName());
+                        copy.setMethod(ZipEntry.STORED);
+                        copy.setSize(source.getSize());
+                        copy.setCompressedSize(source.getSize());
+                        copy.setCrc(source.getCrc());
+                        out.putNextEntry(copy);
+                        in.transferTo(out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        }
+
+        Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return archive;
+    }
+
+    // A crash between writing a part and saving the checkpoint leaves a part the run does not know about
+    private void discardUncheckpointedParts(Path partsDirectory, int partCount) throws IOException {
+        try (Stream<Path> files = Files.list(partsDirectory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.endsWith(".tmp") || partNumber(name) > partCount;
+            }).forEach(this::deleteQuietly);
+        }
+    }
+
+    private void markFailed(StatementRun run, String message) {
+        run.setStatus(ReportJobStatus.FAILED);
+        run.setErrorMessage(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        run.setUpdatedAt(LocalDateTime.now());
+        try {
+            statementRunRepository.save(run);
+        } catch (Exception e) {
+            logger.warn("Could not record failure of statement run {}: {}", run.getId(), e.getMessage());
+        }
+    }
+
+    private StatementRunDto toDto(StatementRun run) {
+        StatementRunDto dto = new StatementRunDto();
+        dto.setRunId(run.getId());
+        dto.setStatus(run.getStatus());
+        dto.setTotalInvoices(run.getTotalInvoices());
+        dto.setRenderedInvoices(run.getRenderedInvoices());
+        dto.setFailedInvoices(run.getFailedInvoices());
+        long processed = (long) run.getRenderedInvoices() + run.getFailedInvoices();
+        dto.setProgressPercentage(run.getStatus() == ReportJobStatus.COMPLETED || run.getTotalInvoices() == 0
+                ? new BigDecimal("100.00")
+                : BigDecimal.valueOf(Math.min(10_000L, processed * 10_000L / run.getTotalInvoices()), 2));
+        dto.setCreatedAt(run.getCreatedAt());
+        dto.setStartedAt(run.getStartedAt());
+        dto.setUpdatedAt(run.getUpdatedAt());
+        dto.setCompletedAt(run.getCompletedAt());
+        dto.setFileName(ARCHIVE_FILE_NAME);
+        dto.setSizeBytes(run.getSizeBytes());
+        dto.setErrorMessage(run.getErrorMessage());
+        return dto;
+    }
+
+    private String entryName(StatementInvoiceProjection target) {
+        String number = target.getInvoiceNumber() != null
+                ? target.getInvoiceNumber().replaceAll("[^A-Za-z0-9._-]", "_")
+                : "factura-" + target.getId();
+        return "cliente-" + target.getClientId() + "/" + number + ".pdf";
+    }
+
+    private Path archiveFile(String runId) {
+        return runDirectory.resolve(runId + ".zip");
+    }
+
+    private Path partFile(Path partsDirectory, int partNumber) {
+        return partsDirectory.resolve(String.format("part-%05d.zip", partNumber));
+    }
+
+    private int partNumber(String fileName) {
+        try {
+            return Integer.parseInt(fileName.substring("part-".length(), fileName.indexOf('.')));
+        } catch (RuntimeException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private void deleteDirectoryQuietly(Path path) {
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Could not delete statement run directory {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete statement run file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class RenderedStatement {
+        private final StatementInvoiceProjection target;
+        private final byte[] pdf;
+
+        private RenderedStatement(StatementInvoiceProjection target, byte[] pdf) {
+            this.target = target;
+            this.pdf = pdf;
+        }
+    }
+}
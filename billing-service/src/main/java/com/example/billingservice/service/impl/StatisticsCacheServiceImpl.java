@@ -0,0 +1,151 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.BillingChangeEvent;
+import com.example.billingservice.service.StatisticsCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Each source has a generation counter that committed writes bump. An entry remembers the
+ * generation it was loaded at, so a write that commits while a load is running still marks the
+ * result stale. Stale entries are reloaded no more than once per {@code min-refresh-ms}, which
+ * caps the query rate under constant writes; {@code max-staleness-ms} covers time-based figures
+ * (today's payments, overdue counts) that no write invalidates. Entries are dropped once they pass
+ * the maximum staleness, and the least recently used go first beyond {@code max-entries}, so keys
+ * built from dates cannot pile up.
+ */
+@Service
+public class StatisticsCacheServiceImpl implements StatisticsCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsCacheServiceImpl.class);
+
+    @Value("${app.billing.statistics-cache.min-refresh-ms:1000}")
+    private long minRefreshMs;
+
+    @Value("${app.billing.statistics-cache.max-staleness-ms:30000}")
+    private long maxStalenessMs;
+
+    @Value("${app.billing.statistics-cache.max-entries:256}")
+    private long maxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<BillingChangeEvent.Source, AtomicLong> generations = new EnumMap<>(BillingChangeEvent.Source.class);
+    private final Map<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private Cache<String, Entry> entries;
+
+    private Counter hits;
+    private Counter loadsStarted;
+    private Counter loadsJoined;
+
+    @PostConstruct
+    void init() {
+        for (BillingChangeEvent.Source source : BillingChangeEvent.Source.values()) {
+            generations.put(source, new AtomicLong());
+        }
+        // An entry past max staleness is never served again, so there is no reason to keep it
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(maxStalenessMs))
+                .build();
+        hits = Counter.builder("billing.statistics.cache.requests").tag("result", "hit").register(meterRegistry);
+        loadsStarted = Counter.builder("billing.statistics.cache.requests").tag("result", "load").register(meterRegistry);
+        loadsJoined = Counter.builder("billing.statistics.cache.requests").tag("result", "joined").register(meterRegistry);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, BillingChangeEvent.Source source, Supplier<T> loader) {
+        long generation = generations.get(source).get();
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && isFresh(entry, generation)) {
+            hits.increment();
+            return (T) entry.value;
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            loadsJoined.increment();
+            return (T) await(running);
+        }
+
+        loadsStarted.increment();
+        try {
+            long startedAt = System.nanoTime();
+            Object value = loader.get();
+            entries.put(key, new Entry(value, generation, startedAt));
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    @Override
+    public void invalidate(BillingChangeEvent.Source source) {
+        generations.get(source).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBillingChange(BillingChangeEvent event) {
+        invalidate(event.getSource());
+        logger.trace("Statistics for {} invalidated", event.getSource());
+    }
+
+    private boolean isFresh(Entry entry, long generation) {
+        long ageMs = (System.nanoTime() - entry.loadedAt) / 1_000_000;
+        if (ageMs >= maxStalenessMs) {
+            return false;
+        }
+        return entry.generation == generation || ageMs < minRefreshMs;
+    }
+
+    private Object await(CompletableFuture<Object> load) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for statistics", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause
+                    : new IllegalStateException("Statistics load failed", cause);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long generation;
+        // Start of the load, so the age covers the time the query itself took
+        private final long loadedAt;
+
+        private Entry(Object value, long generation, long loadedAt) {
+            this.value = value;
+            this.generation = generation;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceItem;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.entity.PaymentMethod;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+
+/**
+ * Writes a DIAN UBL 2.1 sales invoice ({@code Invoice-2}) straight to a stream with StAX, element
+ * by element in schema order, and computes its CUFE. Stateless once built, so one instance is
+ * shared by every batch thread.
+ */
+final class UblInvoiceWriter {
+
+    static final String INVOICE_NS = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2";
+    static final String CAC_NS = "urn:oasis:names:specification:ubl:schema:xsd:CommonAggregateComponents-2";
+    static final String CBC_NS = "urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2";
+    static final String EXT_NS = "urn:oasis:names:specification:ubl:schema:xsd:CommonExtensionComponents-2";
+    static final String STS_NS = "dian:gov:co:facturaelectronica:Structures-2-1";
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // Issue times are stored in Colombian local time
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss'-05:00'");
+    private static final String CURRENCY = "COP";
+    private static final String IVA_CODE = "01";
+    private static final String INC_CODE = "04";
+    private static final String ICA_CODE = "03";
+    private static final String ZERO_AMOUNT = "0.00";
+    private static final int[] NIT_WEIGHTS = {3, 7, 13, 17, 19, 23, 29, 37, 41, 43, 47, 53, 59, 67, 71};
+
+    private final String supplierNit;
+    private final String supplierCheckDigit;
+    private final String supplierName;
+    private final String softwareId;
+    private final String technicalKey;
+    private final String environment;
+
+    UblInvoiceWriter(String supplierNit, String supplierName, String softwareId, String technicalKey,
+                     String environment) {
+        this.supplierNit = supplierNit;
+        this.supplierCheckDigit = checkDigit(supplierNit);
+        this.supplierName = supplierName;
+        this.softwareId = softwareId;
+        this.technicalKey = technicalKey;
+        this.environment = environment;
+    }
+
+    /**
+     * CUFE: SHA-384 of NumFac, FecFac, HorFac, ValFac, the IVA/INC/ICA code and value pairs,
+     * ValTot, the supplier NIT, the customer document, the technical key and the environment.
+     */
+    String cufe(Invoice invoice) {
+        Totals totals = new Totals(invoice);
+        String source = invoice.getInvoiceNumber()
+                + DATE.format(invoice.getIssueDate())
+                + TIME.format(invoice.getIssueDate())
+                + totals.lineExtension
+                + IVA_CODE + totals.tax
+                + INC_CODE + ZERO_AMOUNT
+                + ICA_CODE + ZERO_AMOUNT
+                + totals.payable
+                + supplierNit
+                + customerDocument(invoice)
+                + technicalKey
+                + environment;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-384").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-384 is not available", e);
+        }
+    }
+
+    String qrUrl(String cufe) {
+        String host = "1".equals(environment) ? "catalogo-vpfe.dian.gov.co" : "catalogo-vpfe-hab.dian.gov.co";
+        return "https://" + host + "/document/searchqr?documentkey=" + cufe;
+    }
+
+    /**
+     * Writes the document; the invoice must have its items loaded. The stream is left open.
+     */
+    void write(Invoice invoice, String cufe, OutputStream outputStream) throws XMLStreamException {
+        Totals totals = new Totals(invoice);
+        XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(outputStream, "UTF-8");
+        try {
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.setDefaultNamespace(INVOICE_NS);
+            xml.setPrefix("cac", CAC_NS);
+            xml.setPrefix("cbc", CBC_NS);
+            xml.setPrefix("ext", EXT_NS);
+            xml.setPrefix("sts", STS_NS);
+            xml.writeStartElement(INVOICE_NS, "Invoice");
+            xml.writeDefaultNamespace(INVOICE_NS);
+            xml.writeNamespace("cac", CAC_NS);
+            xml.writeNamespace("cbc", CBC_NS);
+            xml.writeNamespace("ext", EXT_NS);
+            xml.writeNamespace("sts", STS_NS);
+
+            writeExtensions(xml, cufe);
+            cbc(xml, "UBLVersionID", "UBL 2.1");
+            cbc(xml, "CustomizationID", "10");
+            cbc(xml, "ProfileID", "DIAN 2.1: Factura Electrónica de Venta");
+            cbc(xml, "ProfileExecutionID", environment);
+            cbc(xml, "ID", invoice.getInvoiceNumber());
+            xml.writeStartElement(CBC_NS, "UUID");
+            xml.writeAttribute("schemeID", environment);
+            xml.writeAttribute("schemeName", "CUFE-SHA384");
+            xml.writeCharacters(cufe);
+            xml.writeEndElement();
+            cbc(xml, "IssueDate", DATE.format(invoice.getIssueDate()));
+            cbc(xml, "IssueTime", TIME.format(invoice.getIssueDate()));
+            if (invoice.getDueDate() != null) {
+                cbc(xml, "DueDate", DATE.format(invoice.getDueDate()));
+            }
+            cbc(xml, "InvoiceTypeCode", "01");
+            if (invoice.getNotes() != null && !invoice.getNotes().isBlank()) {
+                cbc(xml, "Note", invoice.getNotes());
+            }
+            cbc(xml, "DocumentCurrencyCode", CURRENCY);
+            cbc(xml, "LineCountNumeric", String.valueOf(invoice.getItems().size()));
+
+            writeSupplier(xml);
+            writeCustomer(xml, invoice);
+            writePaymentMeans(xml, invoice);
+            if (totals.hasDiscount) {
+                writeAllowance(xml, "1", invoice.getDiscountPercentage(), totals.discount, totals.lineExtension);
+            }
+            writeTaxTotal(xml, totals, invoice.getTaxPercentage());
+
+            xml.writeStartElement(CAC_NS, "LegalMonetaryTotal");
+            amount(xml, "LineExtensionAmount", totals.lineExtension);
+            amount(xml, "TaxExclusiveAmount", totals.taxable);
+            amount(xml, "TaxInclusiveAmount", totals.taxInclusive);
+            amount(xml, "AllowanceTotalAmount", totals.discount);
+            amount(xml, "PayableAmount", totals.payable);
+            xml.writeEndElement();
+
+            int line = 0;
+            for (InvoiceItem item : invoice.getItems()) {
+                writeLine(xml, ++line, item);
+            }
+
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+        } finally {
+            xml.close();
+        }
+    }
+
+    // Helper methods
+    private void writeExtensions(XMLStreamWriter xml, String cufe) throws XMLStreamException {
+        xml.writeStartElement(EXT_NS, "UBLExtensions");
+        xml.writeStartElement(EXT_NS, "UBLExtension");
+        xml.writeStartElement(EXT_NS, "ExtensionContent");
+        xml.writeStartElement(STS_NS, "DianExtensions");
+
+        xml.writeStartElement(STS_NS, "InvoiceSource");
+        xml.writeStartElement(CBC_NS, "IdentificationCode");
+        xml.writeAttribute("listAgencyID", "6");
+        xml.writeAttribute("listAgencyName", "United Nations Economic Commission for Europe");
+        xml.writeAttribute("listSchemeURI", "urn:oasis:names:specification:ubl:codelist:gc:CountryIdentificationCode-2.1");
+        xml.writeCharacters("CO");
+        xml.writeEndElement();
+        xml.writeEndElement();
+
+        xml.writeStartElement(STS_NS, "SoftwareProvider");
+        xml.writeStartElement(STS_NS, "ProviderID");
+        xml.writeAttribute("schemeAgencyID", "195");
+        xml.writeAttribute("schemeID", supplierCheckDigit);
+        xml.writeAttribute("schemeName", "31");
+        xml.writeCharacters(supplierNit);
+        xml.writeEndElement();
+        xml.writeStartElement(STS_NS, "SoftwareID");
+        xml.writeAttribute("schemeAgencyID", "195");
+        xml.writeCharacters(softwareId);
+        xml.writeEndElement();
+        xml.writeEndElement();
+
+        xml.writeStartElement(STS_NS, "QRCode");
+        xml.writeCharacters(qrUrl(cufe));
+        xml.writeEndElement();
+
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void writeSupplier(XMLStreamWriter xml) throws XMLStreamException {
+        xml.writeStartElement(CAC_NS, "AccountingSupplierParty");
+        // 1 = legal entity
+        cbc(xml, "AdditionalAccountID", "1");
+        xml.writeStartElement(CAC_NS, "Party");
+        partyName(xml, supplierName);
+        xml.writeStartElement(CAC_NS, "PartyTaxScheme");
+        cbc(xml, "RegistrationName", supplierName);
+        xml.writeStartElement(CBC_NS, "CompanyID");
+        xml.writeAttribute("schemeAgencyID", "195");
+        xml.writeAttribute("schemeID", supplierCheckDigit);
+        xml.writeAttribute("schemeName", "31");
+        xml.writeCharacters(supplierNit);
+        xml.writeEndElement();
+        taxScheme(xml, IVA_CODE, "IVA");
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void writeCustomer(XMLStreamWriter xml, Invoice invoice) throws XMLStreamException {
+        String name = invoice.getClientName() != null ? invoice.getClientName() : "Consumidor final";
+
+        xml.writeStartElement(CAC_NS, "AccountingCustomerParty");
+        // 2 = natural person
+        cbc(xml, "AdditionalAccountID", "2");
+        xml.writeStartElement(CAC_NS, "Party");
+        partyName(xml, name);
+        if (invoice.getClientAddress() != null) {
+            xml.writeStartElement(CAC_NS, "PhysicalLocation");
+            xml.writeStartElement(CAC_NS, "Address");
+            xml.writeStartElement(CAC_NS, "AddressLine");
+            cbc(xml, "Line", invoice.getClientAddress());
+            xml.writeEndElement();
+            xml.writeStartElement(CAC_NS, "Country");
+            cbc(xml, "IdentificationCode", "CO");
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndElement();
+        }
+        xml.writeStartElement(CAC_NS, "PartyTaxScheme");
+        cbc(xml, "RegistrationName", name);
+        xml.writeStartElement(CBC_NS, "CompanyID");
+        xml.writeAttribute("schemeAgencyID", "195");
+        // 13 = cédula de ciudadanía
+        xml.writeAttribute("schemeName", "13");
+        xml.writeCharacters(customerDocument(invoice));
+        xml.writeEndElement();
+        taxScheme(xml, "ZZ", "No aplica");
+        xml.writeEndElement();
+        if (invoice.getClientPhone() != null || invoice.getClientEmail() != null) {
+            xml.writeStartElement(CAC_NS, "Contact");
+            if (invoice.getClientPhone() != null) {
+                cbc(xml, "Telephone", invoice.getClientPhone());
+            }
+            if (invoice.getClientEmail() != null) {
+                cbc(xml, "ElectronicMail", invoice.getClientEmail());
+            }
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void writePaymentMeans(XMLStreamWriter xml, Invoice invoice) throws XMLStreamException {
+        boolean credit = invoice.getDueDate() != null
+                && invoice.getDueDate().toLocalDate().isAfter(invoice.getIssueDate().toLocalDate());
+
+        xml.writeStartElement(CAC_NS, "PaymentMeans");
+        // 1 = cash sale, 2 = credit
+        cbc(xml, "ID", credit ? "2" : "1");
+        cbc(xml, "PaymentMeansCode", paymentMeansCode(invoice.getPaymentMethod()));
+        if (credit) {
+            cbc(xml, "PaymentDueDate", DATE.format(invoice.getDueDate()));
+        }
+        xml.writeEndElement();
+    }
+
+    private void writeAllowance(XMLStreamWriter xml, String id, BigDecimal percentage, String amount,
+                                String baseAmount) throws XMLStreamException {
+        xml.writeStartElement(CAC_NS, "AllowanceCharge");
+        cbc(xml, "ID", id);
+        cbc(xml, "ChargeIndicator", "false");
+        if (percentage != null) {
+            cbc(xml, "MultiplierFactorNumeric", percentage.setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
+        amount(xml, "Amount", amount);
+        amount(xml, "BaseAmount", baseAmount);
+        xml.writeEndElement();
+    }
+
+    private void writeTaxTotal(XMLStreamWriter xml, Totals totals, BigDecimal taxPercentage) throws XMLStreamException {
+        xml.writeStartElement(CAC_NS, "TaxTotal");
+        amount(xml, "TaxAmount", totals.tax);
+        xml.writeStartElement(CAC_NS, "TaxSubtotal");
+        amount(xml, "TaxableAmount", totals.taxable);
+        amount(xml, "TaxAmount", totals.tax);
+        xml.writeStartElement(CAC_NS, "TaxCategory");
+        cbc(xml, "Percent", (taxPercentage != null ? taxPercentage : BigDecimal.ZERO)
+                .setScale(2, RoundingMode.HALF_UP).toPlainString());
+        taxScheme(xml, IVA_CODE, "IVA");
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void writeLine(XMLStreamWriter xml, int line, InvoiceItem item) throws XMLStreamException {
+        Money lineTotal = Money.of(item.getTotal());
+        Money discount = Money.of(item.getDiscountAmount());
+
+        xml.writeStartElement(CAC_NS, "InvoiceLine");
+        cbc(xml, "ID", String.valueOf(line));
+        xml.writeStartElement(CBC_NS, "InvoicedQuantity");
+        // 94 = unit
+        xml.writeAttribute("unitCode", "94");
+        xml.writeCharacters(String.valueOf(item.getQuantity()));
+        xml.writeEndElement();
+        amount(xml, "LineExtensionAmount", format(lineTotal));
+        if (discount.isPositive()) {
+            writeAllowance(xml, "1", item.getDiscountPercentage(), format(discount),
+                    format(lineTotal.plus(discount)));
+        }
+        xml.writeStartElement(CAC_NS, "Item");
+        cbc(xml, "Description", item.getDescription());
+        xml.writeEndElement();
+        xml.writeStartElement(CAC_NS, "Price");
+        amount(xml, "PriceAmount", format(Money.of(item.getUnitPrice())));
+        xml.writeStartElement(CBC_NS, "BaseQuantity");
+        xml.writeAttribute("unitCode", "94");
+        xml.writeCharacters("1");
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void partyName(XMLStreamWriter xml, String name) throws XMLStreamException {
+        xml.writeStartElement(CAC_NS, "PartyName");
+        cbc(xml, "Name", name);
+        xml.writeEndElement();
+    }
+
+    private void taxScheme(XMLStreamWriter xml, String id, String name) throws XMLStreamException {
+        xml.writeStartElement(CAC_NS, "TaxScheme");
+        cbc(xml, "ID", id);
+        cbc(xml, "Name", name);
+        xml.writeEndElement();
+    }
+
+    private void cbc(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeStartElement(CBC_NS, name);
+        xml.writeCharacters(value != null ? value : "");
+        xml.writeEndElement();
+    }
+
+    private void amount(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeStartElement(CBC_NS, name);
+        xml.writeAttribute("currencyID", CURRENCY);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+
+    // Client documents live in the client service; the client id stands in until invoices carry it
+    private String customerDocument(Invoice invoice) {
+        return invoice.getClientId() != null ? String.valueOf(invoice.getClientId()) : "222222222222";
+    }
+
+    private String paymentMeansCode(PaymentMethod method) {
+        if (method == null) {
+            return "ZZZ";
+        }
+        switch (method) {
+            case CASH: return "10";
+            case CREDIT_CARD: return "48";
+            case DEBIT_CARD: return "49";
+            case BANK_TRANSFER: return "47";
+            case CHECK: return "20";
+            default: return "ZZZ";
+        }
+    }
+
+    private static String format(Money money) {
+        return money.toBigDecimal().setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    static String checkDigit(String nit) {
+        int sum = 0;
+        for (int i = 0; i < nit.length() && i < NIT_WEIGHTS.length; i++) {
+            sum += Character.digit(nit.charAt(nit.length() - 1 - i), 10) * NIT_WEIGHTS[i];
+        }
+        int remainder = sum % 11;
+        return String.valueOf(remainder > 1 ? 11 - remainder : remainder);
+    }
+
+    /**
+     * Document totals as they are written, so the CUFE and the XML use the same strings.
+     */
+    private static final class Totals {
+        private final String lineExtension;
+        private final String discount;
+        private final String taxable;
+        private final String tax;
+        private final String taxInclusive;
+        private final String payable;
+        private final boolean hasDiscount;
+
+        private Totals(Invoice invoice) {
+            Money subtotal = Money.of(invoice.getSubtotal());
+            Money discountAmount = Money.of(invoice.getDiscountAmount());
+            Money taxableAmount = subtotal.minus(discountAmount);
+            Money taxAmount = Money.of(invoice.getTaxAmount());
+
+            this.lineExtension = format(subtotal);
+            this.discount = format(discountAmount);
+            this.taxable = format(taxableAmount);
+            this.tax = format(taxAmount);
+            this.taxInclusive = format(taxableAmount.plus(taxAmount));
+            this.payable = format(Money.of(invoice.getTotalAmount()));
+            this.hasDiscount = discountAmount.isPositive();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.service.DocumentCacheService;
+import com.example.billingservice.service.ReportService;
+import com.example.billingservice.service.impl.BillingRollupServiceImpl;
+import com.example.billingservice.service.impl.ReportServiceImpl;
+import com.example.billingservice.service.impl.StatisticsCacheServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Minimal Spring context for benchmarks that need JPA: the real repositories and
+ * {@link ReportServiceImpl} on an in-memory H2 database in MySQL mode. The PDF cache is replaced
+ * by a pass-through so every call measures rendering. Eureka, the web layer and
+ * {@code application.yml} are left out.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private static final int SEED_BATCH = 1_000;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static BenchmarkContext start(String databaseName) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.config.name=billing-benchmark",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=100",
+                        "--spring.jpa.properties.hibernate.order_inserts=true",
+                        "--spring.jpa.open-in-view=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.cloud.discovery.enabled=false",
+                        "--logging.level.root=WARN");
+        return new BenchmarkContext(context);
+    }
+
+    ReportService reportService() {
+        return context.getBean(ReportService.class);
+    }
+
+    InvoiceRepository invoiceRepository() {
+        return context.getBean(InvoiceRepository.class);
+    }
+
+    /**
+     * Persists {@code count} fixture invoices, numbered from 0, in batched transactions.
+     */
+    void seedInvoices(int count, int itemsPerInvoice, int paymentsPerInvoice) {
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        for (int start = 0; start < count; start += SEED_BATCH) {
+            int from = start;
+            int to = Math.min(count, start + SEED_BATCH);
+            transaction.executeWithoutResult(status -> {
+                EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+                for (int i = from; i < to; i++) {
+                    Invoice invoice = BenchmarkFixtures.invoice(i, itemsPerInvoice, paymentsPerInvoice);
+                    entityManager.persist(invoice);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Invoice.class)
+    @EnableJpaRepositories(basePackageClasses = InvoiceRepository.class)
+    @Import({ReportServiceImpl.class, StatisticsCacheServiceImpl.class, BillingRollupServiceImpl.class})
+    static class BenchmarkConfiguration {
+
+        @Bean
+        DocumentCacheService passThroughDocumentCache() {
+            return new DocumentCacheService() {
+                @Override
+                public byte[] getOrRender(String documentType, Long invoiceId, String contentVersion,
+                                          Supplier<byte[]> renderer) {
+                    return renderer.get();
+                }
+
+                @Override
+                public void evictInvoice(Long invoiceId) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceItem;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.Payment;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.entity.ServiceType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Deterministic invoices for the JMH benchmarks, shaped like production data: COP prices,
+ * 19% IVA, a discount on some lines and a partial payment.
+ */
+final class BenchmarkFixtures {
+
+    static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private static final ServiceType[] SERVICE_TYPES = ServiceType.values();
+    private static final InvoiceStatus[] STATUSES = {InvoiceStatus.SENT, InvoiceStatus.PAID, InvoiceStatus.OVERDUE};
+    private static final PaymentStatus[] PAYMENT_STATUSES = {PaymentStatus.PARTIAL, PaymentStatus.PAID, PaymentStatus.PENDING};
+
+    private BenchmarkFixtures() {}
+
+    static Invoice invoice(int index, int itemCount, int paymentCount) {
+        Invoice invoice = new Invoice((long) (index % 500), "Cliente " + (index % 500));
+        invoice.setInvoiceNumber(String.format("BENCH-%08d", index));
+        invoice.setClientEmail("cliente" + (index % 500) + "@example.com");
+        invoice.setClientPhone("300" + String.format("%07d", index % 10_000_000));
+        invoice.setClientAddress("Calle " + (index % 120) + " # " + (index % 80) + "-" + (index % 50));
+        invoice.setPetId((long) index);
+        invoice.setPetName("Mascota " + index);
+        invoice.setStatus(STATUSES[index % STATUSES.length]);
+        invoice.setPaymentMethod(PaymentMethod.values()[index % PaymentMethod.values().length]);
+        invoice.setIssueDate(BASE_DATE.plusMinutes(index));
+        invoice.setDueDate(BASE_DATE.plusMinutes(index).plusDays(30));
+        invoice.setDiscountPercentage(index % 5 == 0 ? new BigDecimal("5.00") : BigDecimal.ZERO);
+
+        for (int i = 0; i < itemCount; i++) {
+            InvoiceItem item = new InvoiceItem("Servicio " + i + " de la factura " + index, 1 + (i % 3),
+                    BigDecimal.valueOf(15_000_00L + (long) (index + i) * 1_250L % 40_000_00L, 2));
+            item.setServiceType(SERVICE_TYPES[(index + i) % SERVICE_TYPES.length]);
+            item.setDiscountPercentage(i % 4 == 0 ? new BigDecimal("10.00") : BigDecimal.ZERO);
+            item.setVeterinarianId((long) (i % 7));
+            item.setVeterinarianName("Dr. Veterinario " + (i % 7));
+            item.setServiceDate(invoice.getIssueDate());
+            item.calculateTotal();
+            item.setInvoice(invoice);
+            invoice.getItems().add(item);
+        }
+        invoice.calculateTotals();
+
+        BigDecimal installment = paymentCount > 0
+                ? invoice.getTotalAmount().divide(BigDecimal.valueOf(paymentCount + 1L), 2, java.math.RoundingMode.DOWN)
+                : BigDecimal.ZERO;
+        for (int i = 0; i < paymentCount; i++) {
+            Payment payment = new Payment(invoice, installment, PaymentMethod.CASH);
+            payment.setPaymentNumber(String.format("PAY-%08d-%d", index, i));
+            payment.setPaymentStatus(PaymentStatus.PAID);
+            payment.setPaymentDate(invoice.getIssueDate().plusDays(i + 1L));
+            invoice.getPayments().add(payment);
+        }
+        invoice.updatePaidAmount(installment.multiply(BigDecimal.valueOf(paymentCount)));
+        if (paymentCount == 0) {
+            invoice.setPaymentStatus(PAYMENT_STATUSES[index % PAYMENT_STATUSES.length]);
+        }
+        return invoice;
+    }
+}
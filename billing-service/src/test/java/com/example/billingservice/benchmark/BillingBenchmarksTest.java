@@ -0,0 +1,36 @@
+package com.example.billingservice.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs every JMH benchmark in this package and writes the results as JSON to
+ * {@code target/jmh/billing-benchmarks.json}, the file to keep and compare between releases.
+ * Run with {@code mvn test -Pbenchmark}; narrow it with {@code -Djmh.include=<regex>}.
+ */
+@Tag("benchmark")
+class BillingBenchmarksTest {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        File output = new File("target/jmh/billing-benchmarks.json");
+        output.getParentFile().mkdirs();
+
+        String include = System.getProperty("jmh.include", BillingBenchmarksTest.class.getPackageName() + "\\..*Benchmark\\.");
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.getPath())
+                .build();
+
+        assertFalse(new Runner(options).run().isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.dto.InvoiceDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.mapper.InvoiceItemMapper;
+import com.example.billingservice.mapper.InvoiceMapper;
+import com.example.billingservice.mapper.PaymentMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping for a full invoice with its items and payments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceMapperBenchmark {
+
+    @Param({"1", "10", "200"})
+    public int items;
+
+    private InvoiceMapper invoiceMapper;
+    private Invoice invoice;
+    private InvoiceDto invoiceDto;
+
+    @Setup
+    public void setUp() {
+        invoiceMapper = new InvoiceMapper();
+        ReflectionTestUtils.setField(invoiceMapper, "invoiceItemMapper", new InvoiceItemMapper());
+        ReflectionTestUtils.setField(invoiceMapper, "paymentMapper", new PaymentMapper());
+
+        invoice = BenchmarkFixtures.invoice(11, items, 2);
+        invoiceDto = invoiceMapper.toDto(invoice);
+    }
+
+    @Benchmark
+    public InvoiceDto toDto() {
+        return invoiceMapper.toDto(invoice);
+    }
+
+    @Benchmark
+    public Invoice toEntity() {
+        return invoiceMapper.toEntity(invoiceDto);
+    }
+}
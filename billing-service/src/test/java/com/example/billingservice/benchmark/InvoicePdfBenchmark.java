@@ -0,0 +1,54 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code generateInvoicePdf} end to end (load plus iText rendering) with the PDF cache bypassed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfBenchmark {
+
+    @Param({"5", "50"})
+    public int items;
+
+    private BenchmarkContext context;
+    private ReportService reportService;
+    private Long invoiceId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("invoice-pdf-bench");
+        context.seedInvoices(1, items, 2);
+        reportService = context.reportService();
+        invoiceId = context.invoiceRepository().findAll().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] generateInvoicePdf() {
+        return reportService.generateInvoicePdf(invoiceId);
+    }
+}
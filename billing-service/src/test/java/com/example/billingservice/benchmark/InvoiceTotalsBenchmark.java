@@ -0,0 +1,45 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.entity.Invoice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Invoice#calculateTotals()} as run by {@code @PreUpdate} on every invoice save.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceTotalsBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int items;
+
+    private Invoice invoice;
+
+    @Setup
+    public void setUp() {
+        invoice = BenchmarkFixtures.invoice(7, items, 1);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotals() {
+        invoice.calculateTotals();
+        return invoice.getBalanceDue();
+    }
+}
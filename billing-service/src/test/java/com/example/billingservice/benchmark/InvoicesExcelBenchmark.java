@@ -0,0 +1,58 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code generateInvoicesExcel} over date ranges selecting 1k, 10k and 100k invoices. Fixture
+ * invoices are one minute apart, so the range end picks the row count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InvoicesExcelBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private BenchmarkContext context;
+    private ReportService reportService;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("invoices-excel-bench");
+        context.seedInvoices(rows, 0, 0);
+        reportService = context.reportService();
+        startDate = BenchmarkFixtures.BASE_DATE;
+        endDate = BenchmarkFixtures.BASE_DATE.plusMinutes(rows - 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] generateInvoicesExcel() {
+        return reportService.generateInvoicesExcel(startDate, endDate);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.billingservice.benchmark;
+
+import com.example.billingservice.dto.SalesReportDto;
+import com.example.billingservice.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code generateSalesReport} over an in-memory H2 data set covering the whole seeded period.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesReportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int invoices;
+
+    private BenchmarkContext context;
+    private ReportService reportService;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("sales-report-bench");
+        context.seedInvoices(invoices, 3, 1);
+        reportService = context.reportService();
+        startDate = BenchmarkFixtures.BASE_DATE;
+        endDate = BenchmarkFixtures.BASE_DATE.plusMinutes(invoices);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SalesReportDto generateSalesReport() {
+        return reportService.generateSalesReport(startDate, endDate);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.billingservice.entity;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * JMH comparison of the previous BigDecimal invoice arithmetic against {@link Money}: per-invoice
+ * totals (items, discount, IVA, balance) and a report-style sum over many amounts.
+ * Run with {@code mvn test -Pbenchmark}; results land in {@code target/jmh/money-arithmetic.json}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmarkTest {
+
+    private static final int INVOICES = 1_000;
+    private static final int ITEMS_PER_INVOICE = 5;
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final BigDecimal TAX_PERCENTAGE = new BigDecimal("19.00");
+
+    private BigDecimal[] unitPrices;
+    private int[] quantities;
+    private BigDecimal[] itemDiscounts;
+    private BigDecimal[] invoiceDiscounts;
+    private BigDecimal[] paidAmounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int itemCount = INVOICES * ITEMS_PER_INVOICE;
+        unitPrices = new BigDecimal[itemCount];
+        quantities = new int[itemCount];
+        itemDiscounts = new BigDecimal[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            unitPrices[i] = BigDecimal.valueOf(1_000 + random.nextInt(25_000_000), 2);
+            quantities[i] = 1 + random.nextInt(4);
+            itemDiscounts[i] = i % 4 == 0 ? new BigDecimal("10.00") : BigDecimal.ZERO;
+        }
+        invoiceDiscounts = new BigDecimal[INVOICES];
+        paidAmounts = new BigDecimal[INVOICES];
+        for (int i = 0; i < INVOICES; i++) {
+            invoiceDiscounts[i] = i % 3 == 0 ? new BigDecimal("5.00") : BigDecimal.ZERO;
+            paidAmounts[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+        }
+    }
+
+    /** Invoice.calculateTotals / InvoiceItem.calculateTotal as they were before Money. */
+    @Benchmark
+    public void invoiceTotalsBigDecimal(Blackhole blackhole) {
+        for (int invoice = 0; invoice < INVOICES; invoice++) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int item = invoice * ITEMS_PER_INVOICE; item < (invoice + 1) * ITEMS_PER_INVOICE; item++) {
+                BigDecimal lineSubtotal = unitPrices[item].multiply(new BigDecimal(quantities[item]));
+                BigDecimal lineDiscount = itemDiscounts[item].compareTo(BigDecimal.ZERO) > 0
+                        ? lineSubtotal.multiply(itemDiscounts[item]).divide(HUNDRED)
+                        : BigDecimal.ZERO;
+                subtotal = subtotal.add(lineSubtotal.subtract(lineDiscount));
+            }
+            BigDecimal discount = subtotal.multiply(invoiceDiscounts[invoice]).divide(HUNDRED);
+            BigDecimal discounted = subtotal.subtract(discount);
+            BigDecimal tax = discounted.multiply(TAX_PERCENTAGE).divide(HUNDRED);
+            BigDecimal total = discounted.add(tax);
+            blackhole.consume(total.subtract(paidAmounts[invoice]));
+        }
+    }
+
+    /** Invoice.calculateTotals / InvoiceItem.calculateTotal now: cents via the static Money helpers. */
+    @Benchmark
+    public void invoiceTotalsMoney(Blackhole blackhole) {
+        for (int invoice = 0; invoice < INVOICES; invoice++) {
+            long subtotal = 0;
+            for (int item = invoice * ITEMS_PER_INVOICE; item < (invoice + 1) * ITEMS_PER_INVOICE; item++) {
+                long lineSubtotal = Math.multiplyExact(Money.cents(unitPrices[item]), quantities[item]);
+                subtotal = Math.addExact(subtotal, lineSubtotal - Money.percentage(lineSubtotal, itemDiscounts[item]));
+            }
+            long discounted = subtotal - Money.percentage(subtotal, invoiceDiscounts[invoice]);
+            long total = Math.addExact(discounted, Money.percentage(discounted, TAX_PERCENTAGE));
+            blackhole.consume(Money.amount(Math.subtractExact(total, Money.cents(paidAmounts[invoice]))));
+        }
+    }
+
+    /** Report-style aggregation: sum every line amount. */
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal amount : unitPrices) {
+            sum = sum.add(amount);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumMoneyCents() {
+        long cents = 0;
+        for (BigDecimal amount : unitPrices) {
+            cents = Math.addExact(cents, Money.cents(amount));
+        }
+        return cents;
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        File output = new File("target/jmh/money-arithmetic.json");
+        output.getParentFile().mkdirs();
+
+        Options options = new OptionsBuilder()
+                .include(MoneyArithmeticBenchmarkTest.class.getName() + "\\.")
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.getPath())
+                .build();
+
+        assertFalse(new Runner(options).run().isEmpty());
+    }
+}
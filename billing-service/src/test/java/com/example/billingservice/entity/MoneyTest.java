@@ -0,0 +1,93 @@
+package com.example.billingservice.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rounding and overflow rules of {@link Money}: HALF_UP to the cent on every step, and
+ * {@link ArithmeticException} instead of a silently wrapped {@code long}.
+ */
+class MoneyTest {
+
+    @Test
+    void roundsHalfUpToTheCent() {
+        assertEquals(101, Money.cents(new BigDecimal("1.005")));
+        assertEquals(100, Money.cents(new BigDecimal("1.004")));
+        assertEquals(-101, Money.cents(new BigDecimal("-1.005")));
+        assertEquals(13, Money.cents(new BigDecimal("0.125")));
+        assertEquals(123400, Money.cents(new BigDecimal("1234")));
+        assertEquals(0, Money.cents(null));
+        assertSame(Money.ZERO, Money.of((BigDecimal) null));
+    }
+
+    @Test
+    void convertsBackWithTwoDecimals() {
+        assertEquals(new BigDecimal("123.45"), Money.amount(12345));
+        assertEquals(new BigDecimal("-0.05"), Money.amount(-5));
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("1234.50", Money.of("1234.5").toString());
+    }
+
+    @Test
+    void percentageRoundsHalfUpAwayFromZero() {
+        // 19% IVA of 100.00
+        assertEquals(1900, Money.percentage(10000, new BigDecimal("19.00")));
+        // 63.27 cents
+        assertEquals(63, Money.percentage(333, new BigDecimal("19")));
+        // 0.5 cent ties
+        assertEquals(1, Money.percentage(50, new BigDecimal("1.00")));
+        assertEquals(-1, Money.percentage(-50, new BigDecimal("1.00")));
+        assertEquals(0, Money.percentage(10000, null));
+        assertEquals(Money.of("7.00"), Money.of("70.00").percentage(new BigDecimal("10")));
+    }
+
+    @Test
+    void dividedByRoundsHalfUpAwayFromZero() {
+        assertEquals(33, Money.dividedBy(100, 3));
+        assertEquals(67, Money.dividedBy(200, 3));
+        assertEquals(-67, Money.dividedBy(-200, 3));
+        assertEquals(3, Money.dividedBy(5, 2));
+        assertEquals(-3, Money.dividedBy(-5, 2));
+        assertEquals(-3, Money.dividedBy(5, -2));
+        assertThrows(ArithmeticException.class, () -> Money.dividedBy(100, 0));
+    }
+
+    @Test
+    void percentOfHasTwoDecimals() {
+        assertEquals(new BigDecimal("33.33"), Money.percentOf(1, 3));
+        assertEquals(new BigDecimal("66.67"), Money.percentOf(2, 3));
+        assertEquals(new BigDecimal("100.00"), Money.percentOf(500, 500));
+        assertEquals(BigDecimal.ZERO, Money.percentOf(500, 0));
+        assertEquals(new BigDecimal("25.00"), Money.of("25.00").percentOf(Money.of("100.00")));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).negate());
+        assertThrows(ArithmeticException.class, () -> Money.percentage(Long.MAX_VALUE, new BigDecimal("19.00")));
+        assertThrows(ArithmeticException.class, () -> Money.percentOf(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.cents(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void comparesByCents() {
+        assertEquals(Money.of("10.10"), Money.of(new BigDecimal("10.1")));
+        assertEquals(Money.of("10.10").hashCode(), Money.ofCents(1010).hashCode());
+        assertTrue(Money.of("9.99").compareTo(Money.of("10.00")) < 0);
+        assertEquals(Money.of("5.00"), Money.of("-5.00").abs());
+        assertTrue(Money.of("0.01").isPositive());
+        assertTrue(Money.of("-0.01").isNegative());
+        assertTrue(Money.of("0.004").isZero());
+    }
+}
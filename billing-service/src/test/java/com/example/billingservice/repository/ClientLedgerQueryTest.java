@@ -0,0 +1,172 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.dto.LedgerEntryProjection;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.Payment;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client ledger query: running balance from the window over the whole history, newest
+ * first, and keyset pages that keep the balance of their rows.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:client-ledger;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ClientLedgerQueryTest {
+
+    private static final Long CLIENT_ID = 40L;
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int paymentSeq;
+
+    @BeforeEach
+    void seedLedger() {
+        Invoice first = invoice(CLIENT_ID, "LED-1", DAY, "100.00", InvoiceStatus.SENT);
+        Invoice second = invoice(CLIENT_ID, "LED-2", DAY.plusDays(2), "50.00", InvoiceStatus.SENT);
+        pay(first, "40.00", PaymentStatus.PAID, DAY.plusDays(4));
+        pay(second, "50.00", PaymentStatus.PAID, DAY.plusDays(5));
+        // Stored as a negative amount; the ledger shows it as a debit
+        pay(first, "-10.00", PaymentStatus.REFUNDED, DAY.plusDays(6));
+        pay(second, "20.00", PaymentStatus.PENDING, DAY.plusDays(7));
+
+        // Neither a cancelled invoice nor its payment belongs in the ledger
+        Invoice cancelled = invoice(CLIENT_ID, "LED-X", DAY.plusDays(3), "70.00", InvoiceStatus.CANCELLED);
+        pay(cancelled, "70.00", PaymentStatus.PAID, DAY.plusDays(3).plusHours(2));
+        Invoice draft = invoice(CLIENT_ID, "LED-D", DAY.plusDays(1), "30.00", InvoiceStatus.DRAFT);
+        Invoice otherClient = invoice(41L, "LED-O", DAY.plusDays(1), "999.00", InvoiceStatus.SENT);
+        pay(otherClient, "999.00", PaymentStatus.PAID, DAY.plusDays(1));
+
+        for (Invoice invoice : List.of(first, second, cancelled, draft, otherClient)) {
+            entityManager.persist(invoice);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void carriesARunningBalanceNewestFirst() {
+        List<LedgerEntryProjection> ledger = invoiceRepository.findClientLedger(CLIENT_ID, 10);
+
+        assertEquals(List.of("REFUND LED-1 10.00 0.00 70.00", "PAYMENT LED-2 0.00 50.00 60.00",
+                "PAYMENT LED-1 0.00 40.00 110.00", "INVOICE LED-2 50.00 0.00 150.00",
+                "INVOICE LED-1 100.00 0.00 100.00"), describe(ledger));
+        assertEquals(DAY.plusDays(6), ledger.get(0).getEntryDate());
+    }
+
+    @Test
+    void keysetPagesContinueWithTheSameBalances() {
+        List<LedgerEntryProjection> all = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        List<LedgerEntryProjection> page = invoiceRepository.findClientLedger(CLIENT_ID, 2);
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            pageSizes.add(page.size());
+            LedgerEntryProjection last = page.get(page.size() - 1);
+            page = invoiceRepository.findClientLedgerAfter(CLIENT_ID, last.getEntryDate(), last.getSortId(), 2);
+        }
+
+        assertEquals(List.of(2, 2, 1), pageSizes);
+        assertEquals(describe(invoiceRepository.findClientLedger(CLIENT_ID, 10)), describe(all));
+    }
+
+    @Test
+    void entriesSharingATimestampAreOrderedBySortId() {
+        Invoice invoice = invoice(CLIENT_ID, "LED-3", DAY.plusDays(10), "25.00", InvoiceStatus.SENT);
+        pay(invoice, "25.00", PaymentStatus.PAID, DAY.plusDays(10));
+        entityManager.persist(invoice);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<LedgerEntryProjection> newest = invoiceRepository.findClientLedger(CLIENT_ID, 1);
+        List<LedgerEntryProjection> next = invoiceRepository.findClientLedgerAfter(CLIENT_ID,
+                newest.get(0).getEntryDate(), newest.get(0).getSortId(), 1);
+
+        // Same timestamp: the lower sort id comes first in the history and second on the page
+        assertEquals(newest.get(0).getEntryDate(), next.get(0).getEntryDate());
+        assertTrue(next.get(0).getSortId() < newest.get(0).getSortId());
+        assertEquals(new BigDecimal("70.00"), newest.get(0).getBalance());
+    }
+
+    @Test
+    void undatedEntriesComeLastAndPageAmongThemselves() {
+        // Rows loaded without issue or creation date have no entry date at all
+        entityManager.createNativeQuery("UPDATE invoices SET issue_date = NULL, created_at = NULL " +
+                "WHERE invoice_number IN ('LED-1', 'LED-2')").executeUpdate();
+
+        List<LedgerEntryProjection> all = new ArrayList<>();
+        List<LedgerEntryProjection> page = invoiceRepository.findClientLedger(CLIENT_ID, 1);
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            LedgerEntryProjection last = page.get(0);
+            page = invoiceRepository.findClientLedgerAfter(CLIENT_ID, last.getEntryDate(), last.getSortId(), 1);
+        }
+
+        assertEquals(List.of("REFUND LED-1 10.00 0.00 70.00", "PAYMENT LED-2 0.00 50.00 60.00",
+                "PAYMENT LED-1 0.00 40.00 110.00", "INVOICE LED-2 50.00 0.00 150.00",
+                "INVOICE LED-1 100.00 0.00 100.00"), describe(all));
+        assertNull(all.get(3).getEntryDate());
+        assertNull(all.get(4).getEntryDate());
+    }
+
+    private static List<String> describe(List<LedgerEntryProjection> entries) {
+        List<String> rows = new ArrayList<>();
+        for (LedgerEntryProjection entry : entries) {
+            rows.add(entry.getEntryType() + " " + entry.getInvoiceNumber() + " " + entry.getDebit().setScale(2)
+                    + " " + entry.getCredit().setScale(2) + " " + entry.getBalance().setScale(2));
+        }
+        return rows;
+    }
+
+    private static Invoice invoice(Long clientId, String number, LocalDateTime issueDate, String total,
+                                   InvoiceStatus status) {
+        BigDecimal amount = new BigDecimal(total);
+        Invoice invoice = new Invoice(clientId, "Cliente " + clientId);
+        invoice.setInvoiceNumber(number);
+        invoice.setIssueDate(issueDate);
+        invoice.setDueDate(issueDate.plusDays(30));
+        invoice.setStatus(status);
+        invoice.setSubtotal(amount);
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setDiscountAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(amount);
+        invoice.setPaidAmount(BigDecimal.ZERO);
+        invoice.setBalanceDue(amount);
+        return invoice;
+    }
+
+    private void pay(Invoice invoice, String amount, PaymentStatus status, LocalDateTime paymentDate) {
+        Payment payment = new Payment(invoice, new BigDecimal(amount), PaymentMethod.BANK_TRANSFER);
+        payment.setPaymentNumber("PAY-" + (++paymentSeq));
+        payment.setPaymentStatus(status);
+        payment.setPaymentDate(paymentDate);
+        invoice.getPayments().add(payment);
+    }
+}
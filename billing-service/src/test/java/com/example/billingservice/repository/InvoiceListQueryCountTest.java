@@ -0,0 +1,125 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.dto.InvoiceDto;
+import com.example.billingservice.dto.InvoiceSummaryDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceItem;
+import com.example.billingservice.entity.Payment;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.mapper.InvoiceItemMapper;
+import com.example.billingservice.mapper.InvoiceMapper;
+import com.example.billingservice.mapper.PaymentMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards against N+1 loading in invoice listings: a page of summaries costs the same number of
+ * statements whatever its size, and a single full invoice costs one query per collection.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Import({InvoiceMapper.class, InvoiceItemMapper.class, PaymentMapper.class})
+class InvoiceListQueryCountTest {
+
+    private static final int INVOICE_COUNT = 40;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceMapper invoiceMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long firstInvoiceId;
+
+    @BeforeEach
+    void seedInvoices() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < INVOICE_COUNT; i++) {
+            Invoice invoice = new Invoice(1L, "Cliente " + i);
+            invoice.setInvoiceNumber("COUNT-" + i);
+            invoice.setIssueDate(start.plusHours(i));
+            invoice.setDueDate(start.plusHours(i).plusDays(30));
+            invoice.setPaymentStatus(PaymentStatus.PARTIAL);
+            invoice.setTotalAmount(new BigDecimal("30.00"));
+            invoice.setPaidAmount(new BigDecimal("10.00"));
+            invoice.setBalanceDue(new BigDecimal("20.00"));
+            for (int j = 0; j < 3; j++) {
+                InvoiceItem item = new InvoiceItem("Consulta " + j, 1, new BigDecimal("10.00"));
+                item.setInvoice(invoice);
+                invoice.getItems().add(item);
+            }
+            Payment payment = new Payment(invoice, new BigDecimal("10.00"), PaymentMethod.CASH);
+            payment.setPaymentStatus(PaymentStatus.PAID);
+            invoice.getPayments().add(payment);
+            entityManager.persist(invoice);
+            if (firstInvoiceId == null) {
+                firstInvoiceId = invoice.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryPagesUseConstantStatementCount() {
+        for (int size : new int[]{5, 20, INVOICE_COUNT}) {
+            statistics.clear();
+            Page<InvoiceSummaryDto> page = invoiceRepository.findAllSummaries(PageRequest.of(0, size));
+            entityManager.clear();
+
+            assertEquals(size, page.getNumberOfElements());
+            // Content query plus count query, never one per row
+            assertEquals(2, statistics.getPrepareStatementCount(), "statements for page size " + size);
+        }
+    }
+
+    @Test
+    void cursorListingMapsSummariesWithoutTouchingCollections() {
+        statistics.clear();
+        invoiceRepository.findLatest(PageRequest.of(0, 25)).forEach(invoiceMapper::toSummaryDto);
+        entityManager.clear();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void singleInvoiceLoadsItemsAndPaymentsInTwoQueries() {
+        statistics.clear();
+        Invoice invoice = invoiceRepository.findWithItemsById(firstInvoiceId).orElseThrow();
+        invoiceRepository.findWithPaymentsById(firstInvoiceId);
+        InvoiceDto dto = invoiceMapper.toDto(invoice);
+
+        assertEquals(3, dto.getItems().size());
+        assertEquals(1, dto.getPayments().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.billingservice.repository;
+
+import com.example.billingservice.dto.SalesSummaryProjection;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old entity-loop sales aggregation against {@link InvoiceRepository#getSalesSummary}
+ * on 100k invoices. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.billingservice=INFO"
+})
+class SalesReportAggregationBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportAggregationBenchmarkTest.class);
+
+    private static final int INVOICE_COUNT = 100_000;
+    private static final int ITERATIONS = 5;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void aggregateQueryMatchesAndOutperformsEntityLoop() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = start.plusYears(1);
+        seedInvoices(start);
+
+        long[] legacy = null;
+        long legacyNanos = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t0 = System.nanoTime();
+            legacy = legacyAggregate(start, end);
+            legacyNanos = Math.min(legacyNanos, System.nanoTime() - t0);
+            entityManager.clear();
+        }
+
+        SalesSummaryProjection summary = null;
+        long aggregateNanos = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t0 = System.nanoTime();
+            summary = invoiceRepository.getSalesSummary(start, end);
+            aggregateNanos = Math.min(aggregateNanos, System.nanoTime() - t0);
+        }
+
+        logger.info("Sales report over {} invoices: entity loop {} ms, aggregate query {} ms",
+                INVOICE_COUNT, legacyNanos / 1_000_000, aggregateNanos / 1_000_000);
+
+        assertEquals((long) INVOICE_COUNT, summary.getTotalInvoices());
+        assertEquals(legacy[0], summary.getTotalSales().movePointRight(2).longValueExact());
+        assertEquals(legacy[1], summary.getPaidInvoices());
+        assertEquals(legacy[2], summary.getPendingInvoices());
+        assertEquals(legacy[3], summary.getOverdueInvoices());
+    }
+
+    /** The previous ReportServiceImpl implementation: hydrate every invoice and sum in Java. */
+    private long[] legacyAggregate(LocalDateTime start, LocalDateTime end) {
+        Page<Invoice> invoices = invoiceRepository.findByIssueDateBetween(
+                start, end, PageRequest.of(0, Integer.MAX_VALUE));
+
+        BigDecimal totalSales = BigDecimal.ZERO;
+        long paid = 0;
+        long pending = 0;
+        long overdue = 0;
+        for (Invoice invoice : invoices.getContent()) {
+            totalSales = totalSales.add(invoice.getTotalAmount() != null ? invoice.getTotalAmount() : BigDecimal.ZERO);
+            if (invoice.getPaymentStatus() != null) {
+                switch (invoice.getPaymentStatus()) {
+                    case PAID:
+                        paid++;
+                        break;
+                    case PENDING:
+                        pending++;
+                        break;
+                    default:
+                        if (invoice.getStatus() == InvoiceStatus.OVERDUE) {
+                            overdue++;
+                        }
+                        break;
+                }
+            }
+        }
+        return new long[]{totalSales.movePointRight(2).longValueExact(), paid, pending, overdue};
+    }
+
+    private void seedInvoices(LocalDateTime start) {
+        PaymentStatus[] paymentStatuses = {PaymentStatus.PAID, PaymentStatus.PENDING, PaymentStatus.PARTIAL};
+        InvoiceStatus[] statuses = {InvoiceStatus.PAID, InvoiceStatus.SENT, InvoiceStatus.OVERDUE};
+
+        for (int i = 0; i < INVOICE_COUNT; i++) {
+            Invoice invoice = new Invoice((long) (i % 500), "Cliente " + (i % 500));
+            invoice.setInvoiceNumber("BENCH-" + i);
+            invoice.setIssueDate(start.plusMinutes(i));
+            invoice.setDueDate(start.plusMinutes(i).plusDays(30));
+            invoice.setPaymentStatus(paymentStatuses[i % 3]);
+            invoice.setStatus(statuses[i % 3]);
+            invoice.setSubtotal(new BigDecimal("100.00"));
+            invoice.setTaxAmount(new BigDecimal("19.00"));
+            invoice.setTotalAmount(new BigDecimal("119.00"));
+            invoice.setPaidAmount(i % 3 == 0 ? new BigDecimal("119.00") : BigDecimal.ZERO);
+            invoice.setBalanceDue(i % 3 == 0 ? BigDecimal.ZERO : new BigDecimal("119.00"));
+            entityManager.persist(invoice);
+
+            if (i % 1000 == 999) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.BulkPaymentLineResultDto;
+import com.example.billingservice.dto.BulkPaymentRequest;
+import com.example.billingservice.dto.BulkPaymentResultDto;
+import com.example.billingservice.dto.PaymentAllocationDto;
+import com.example.billingservice.dto.PaymentAllocationMode;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.Payment;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.mapper.PaymentMapper;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.repository.PaymentRepository;
+import com.example.billingservice.service.impl.BillingRollupServiceImpl;
+import com.example.billingservice.service.impl.DocumentCacheServiceImpl;
+import com.example.billingservice.service.impl.DocumentNumberServiceImpl;
+import com.example.billingservice.service.impl.IdempotencyServiceImpl;
+import com.example.billingservice.service.impl.PaymentServiceImpl;
+import com.example.billingservice.service.impl.StatisticsCacheServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocates one remittance across several invoices in FIFO and EXPLICIT mode and checks the
+ * per-line results against the invoice balances that were actually committed.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk-allocation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        // Above the 56 lines of the slice test, below the 60 open invoices
+        "app.billing.payments.bulk-max-lines=58"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PaymentServiceImpl.class, PaymentMapper.class, BillingRollupServiceImpl.class, DocumentNumberServiceImpl.class,
+        DocumentCacheServiceImpl.class, StatisticsCacheServiceImpl.class, IdempotencyServiceImpl.class, ObjectMapper.class,
+        SimpleMeterRegistry.class})
+class BulkPaymentAllocationTest {
+
+    private static final LocalDateTime BASE_DUE = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private int invoiceSeq;
+
+    @BeforeEach
+    void cleanDatabase() {
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void fifoPaysOldestInvoicesFirstAndLeavesTheRestOpen() {
+        // Saved out of due-date order so the test does not pass on insertion order alone
+        Invoice newest = saveInvoice(10L, BASE_DUE.plusDays(20), "300.00");
+        Invoice oldest = saveInvoice(10L, BASE_DUE, "100.00");
+        Invoice middle = saveInvoice(10L, BASE_DUE.plusDays(10), "200.00");
+        Invoice otherClient = saveInvoice(11L, BASE_DUE.minusDays(30), "50.00");
+
+        BulkPaymentResultDto result = paymentService.allocatePayment(fifoRequest(10L, "250.00"), null);
+
+        assertEquals(0, result.getFailed());
+        assertEquals(2, result.getPaymentsCreated());
+        assertEquals(2, result.getInvoicesUpdated());
+        assertAmount("250.00", result.getAllocatedAmount());
+        assertAmount("0.00", result.getUnallocatedAmount());
+
+        List<BulkPaymentLineResultDto> lines = result.getResults();
+        assertEquals(2, lines.size());
+        assertLine(lines.get(0), oldest.getId(), "100.00", "0.00");
+        assertLine(lines.get(1), middle.getId(), "150.00", "50.00");
+
+        assertInvoice(oldest.getId(), "100.00", "0.00", PaymentStatus.PAID);
+        assertInvoice(middle.getId(), "150.00", "50.00", PaymentStatus.PARTIAL);
+        assertInvoice(newest.getId(), "0.00", "300.00", PaymentStatus.PENDING);
+        assertInvoice(otherClient.getId(), "0.00", "50.00", PaymentStatus.PENDING);
+        assertPaymentsStored(lines);
+    }
+
+    @Test
+    void fifoReportsWhatIsLeftWhenTheRemittanceExceedsTheOpenBalance() {
+        Invoice first = saveInvoice(20L, BASE_DUE, "40.00");
+        Invoice second = saveInvoice(20L, BASE_DUE.plusDays(5), "60.00");
+
+        BulkPaymentResultDto result = paymentService.allocatePayment(fifoRequest(20L, "130.00"), null);
+
+        assertEquals(2, result.getPaymentsCreated());
+        assertAmount("100.00", result.getAllocatedAmount());
+        assertAmount("30.00", result.getUnallocatedAmount());
+        assertInvoice(first.getId(), "40.00", "0.00", PaymentStatus.PAID);
+        assertInvoice(second.getId(), "60.00", "0.00", PaymentStatus.PAID);
+    }
+
+    @Test
+    void fifoContinuesPastTheFirstSliceOfOpenInvoices() {
+        // More open invoices than one FIFO read returns
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            invoices.add(saveInvoice(30L, BASE_DUE.plusDays(i), "10.00"));
+        }
+
+        BulkPaymentResultDto result = paymentService.allocatePayment(fifoRequest(30L, "555.00"), null);
+
+        assertEquals(56, result.getPaymentsCreated());
+        assertAmount("555.00", result.getAllocatedAmount());
+        assertLine(result.getResults().get(55), invoices.get(55).getId(), "5.00", "5.00");
+        assertInvoice(invoices.get(54).getId(), "10.00", "0.00", PaymentStatus.PAID);
+        assertInvoice(invoices.get(55).getId(), "5.00", "5.00", PaymentStatus.PARTIAL);
+        assertInvoice(invoices.get(56).getId(), "0.00", "10.00", PaymentStatus.PENDING);
+        assertPaymentsStored(result.getResults());
+    }
+
+    @Test
+    void fifoStopsAtTheLineLimitAndReportsTheRestAsUnallocated() {
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            invoices.add(saveInvoice(35L, BASE_DUE.plusDays(i), "10.00"));
+        }
+
+        BulkPaymentResultDto result = paymentService.allocatePayment(fifoRequest(35L, "600.00"), null);
+
+        assertEquals(0, result.getFailed());
+        assertEquals(58, result.getPaymentsCreated());
+        assertAmount("580.00", result.getAllocatedAmount());
+        assertAmount("20.00", result.getUnallocatedAmount());
+        assertInvoice(invoices.get(57).getId(), "10.00", "0.00", PaymentStatus.PAID);
+        assertInvoice(invoices.get(58).getId(), "0.00", "10.00", PaymentStatus.PENDING);
+        assertInvoice(invoices.get(59).getId(), "0.00", "10.00", PaymentStatus.PENDING);
+        assertPaymentsStored(result.getResults());
+    }
+
+    @Test
+    void explicitAppliesValidLinesAndReportsTheRest() {
+        Invoice first = saveInvoice(40L, BASE_DUE, "100.00");
+        Invoice second = saveInvoice(40L, BASE_DUE.plusDays(10), "200.00");
+
+        BulkPaymentRequest request = baseRequest(40L, "400.00");
+        request.setAllocationMode(PaymentAllocationMode.EXPLICIT);
+        request.setAllocations(List.of(
+                new PaymentAllocationDto(second.getId(), new BigDecimal("120.00")),
+                new PaymentAllocationDto(first.getId(), new BigDecimal("150.00")),
+                new PaymentAllocationDto(999_999L, new BigDecimal("10.00")),
+                new PaymentAllocationDto(first.getId(), new BigDecimal("100.00")),
+                // Only 80.00 of the second invoice is still open after the first line
+                new PaymentAllocationDto(second.getId(), new BigDecimal("90.00"))));
+
+        BulkPaymentResultDto result = paymentService.allocatePayment(request, null);
+
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getPaymentsCreated());
+        assertEquals(2, result.getInvoicesUpdated());
+        assertAmount("220.00", result.getAllocatedAmount());
+        assertAmount("180.00", result.getUnallocatedAmount());
+
+        List<BulkPaymentLineResultDto> lines = result.getResults();
+        assertEquals(5, lines.size());
+        assertLine(lines.get(0), second.getId(), "120.00", "80.00");
+        assertFailed(lines.get(1), 1, "Amount exceeds the balance due of 100.00");
+        assertFailed(lines.get(2), 2, "Invoice not found with ID: 999999");
+        assertLine(lines.get(3), first.getId(), "100.00", "0.00");
+        assertFailed(lines.get(4), 4, "Amount exceeds the balance due of 80.00");
+
+        assertInvoice(first.getId(), "100.00", "0.00", PaymentStatus.PAID);
+        assertInvoice(second.getId(), "120.00", "80.00", PaymentStatus.PARTIAL);
+        assertPaymentsStored(List.of(lines.get(0), lines.get(3)));
+    }
+
+    private Invoice saveInvoice(Long clientId, LocalDateTime dueDate, String total) {
+        BigDecimal amount = new BigDecimal(total);
+        Invoice invoice = new Invoice(clientId, "Cliente " + clientId);
+        invoice.setInvoiceNumber("BULK-" + (++invoiceSeq));
+        invoice.setDueDate(dueDate);
+        invoice.setTaxPercentage(BigDecimal.ZERO);
+        invoice.setDiscountPercentage(BigDecimal.ZERO);
+        invoice.setSubtotal(amount);
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setDiscountAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(amount);
+        invoice.setPaidAmount(BigDecimal.ZERO);
+        invoice.setBalanceDue(amount);
+        invoice.setPaymentStatus(PaymentStatus.PENDING);
+        return invoiceRepository.saveAndFlush(invoice);
+    }
+
+    private BulkPaymentRequest fifoRequest(Long clientId, String amount) {
+        BulkPaymentRequest request = baseRequest(clientId, amount);
+        request.setAllocationMode(PaymentAllocationMode.FIFO);
+        return request;
+    }
+
+    private BulkPaymentRequest baseRequest(Long clientId, String amount) {
+        BulkPaymentRequest request = new BulkPaymentRequest();
+        request.setClientId(clientId);
+        request.setAmount(new BigDecimal(amount));
+        request.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+        request.setPaymentDate(BASE_DUE.plusDays(1));
+        request.setReferenceNumber("REM-" + clientId);
+        return request;
+    }
+
+    private void assertLine(BulkPaymentLineResultDto line, Long invoiceId, String amount, String balanceDue) {
+        assertTrue(line.isSuccess(), line.getErrorMessage());
+        assertEquals(invoiceId, line.getInvoiceId());
+        assertAmount(amount, line.getAmount());
+        assertAmount(balanceDue, line.getBalanceDue());
+        assertNotNull(line.getPaymentId());
+        assertNotNull(line.getPaymentNumber());
+        assertNull(line.getErrorMessage());
+    }
+
+    private void assertFailed(BulkPaymentLineResultDto line, int index, String errorMessage) {
+        assertFalse(line.isSuccess());
+        assertEquals(index, line.getIndex());
+        assertEquals(errorMessage, line.getErrorMessage());
+        assertNull(line.getPaymentId());
+    }
+
+    private void assertInvoice(Long invoiceId, String paid, String balanceDue, PaymentStatus status) {
+        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        assertAmount(paid, invoice.getPaidAmount());
+        assertAmount(balanceDue, invoice.getBalanceDue());
+        assertEquals(status, invoice.getPaymentStatus());
+    }
+
+    // Ids come from the TABLE generator before the batch insert, so every line must point at a stored row
+    private void assertPaymentsStored(List<BulkPaymentLineResultDto> lines) {
+        Set<Long> ids = new HashSet<>();
+        for (BulkPaymentLineResultDto line : lines) {
+            ids.add(line.getPaymentId());
+        }
+        assertEquals(lines.size(), ids.size());
+
+        List<Payment> stored = paymentRepository.findAllById(ids);
+        assertEquals(lines.size(), stored.size());
+        for (Payment payment : stored) {
+            assertEquals(PaymentStatus.PAID, payment.getPaymentStatus());
+        }
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertNotNull(actual);
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
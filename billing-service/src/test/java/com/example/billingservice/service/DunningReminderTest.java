@@ -0,0 +1,190 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.DunningCandidateProjection;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.mapper.InvoiceItemMapper;
+import com.example.billingservice.mapper.InvoiceMapper;
+import com.example.billingservice.mapper.PaymentMapper;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.service.impl.BillingRollupServiceImpl;
+import com.example.billingservice.service.impl.DocumentCacheServiceImpl;
+import com.example.billingservice.service.impl.DocumentNumberServiceImpl;
+import com.example.billingservice.service.impl.InvoiceSearchServiceImpl;
+import com.example.billingservice.service.impl.InvoiceServiceImpl;
+import com.example.billingservice.service.impl.ReportServiceImpl;
+import com.example.billingservice.service.impl.StatisticsCacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the staged dunning engine against a real schema: stage selection by days overdue, chunks of
+ * {@code batch-size} until a short one, and the stage hand-back when the notification hand-off fails.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dunning;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.billing.dunning.stages=-7,1,15,30",
+        "app.billing.dunning.batch-size=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InvoiceServiceImpl.class, InvoiceMapper.class, InvoiceItemMapper.class, PaymentMapper.class,
+        ReportServiceImpl.class, InvoiceSearchServiceImpl.class, BillingRollupServiceImpl.class,
+        DocumentNumberServiceImpl.class, DocumentCacheServiceImpl.class, StatisticsCacheServiceImpl.class,
+        SimpleMeterRegistry.class, LocalValidatorFactoryBean.class, DunningReminderTest.RecordingNotificationService.class})
+class DunningReminderTest {
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private RecordingNotificationService notifications;
+
+    private LocalDateTime today;
+    private int invoiceSeq;
+
+    @BeforeEach
+    void cleanDatabase() {
+        invoiceRepository.deleteAllInBatch();
+        notifications.batches.clear();
+        notifications.failing = false;
+        today = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void farOverdueInvoiceGetsOnlyTheMostSevereReminder() {
+        Invoice farOverdue = saveInvoice(today.minusDays(40), PaymentStatus.PENDING);
+        Invoice overdue = saveInvoice(today.minusDays(20), PaymentStatus.PARTIAL);
+        Invoice justOverdue = saveInvoice(today.minusDays(2), PaymentStatus.PENDING);
+        Invoice dueSoon = saveInvoice(today.plusDays(5), PaymentStatus.PENDING);
+        Invoice notYet = saveInvoice(today.plusDays(10), PaymentStatus.PENDING);
+        Invoice paid = saveInvoice(today.minusDays(40), PaymentStatus.PAID);
+
+        assertEquals(4, invoiceService.sendOverdueReminders());
+
+        // Most severe stage first, one batch each
+        assertEquals(List.of("4:30:" + farOverdue.getId(), "3:15:" + overdue.getId(),
+                "2:1:" + justOverdue.getId(), "1:-7:" + dueSoon.getId()), notifications.sent());
+        assertStage(farOverdue, 4);
+        assertStage(overdue, 3);
+        assertStage(justOverdue, 2);
+        assertStage(dueSoon, 1);
+        assertStage(notYet, 0);
+        assertStage(paid, 0);
+
+        // Each stage at most once
+        notifications.batches.clear();
+        assertEquals(0, invoiceService.sendOverdueReminders());
+        assertEquals(List.of(), notifications.sent());
+    }
+
+    @Test
+    void continuesInChunksOfTheBatchSizeUntilAShortOne() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(saveInvoice(today.minusDays(2).minusHours(i), PaymentStatus.PENDING).getId());
+        }
+
+        assertEquals(7, invoiceService.sendOverdueReminders());
+
+        assertEquals(List.of(3, 3, 1), notifications.batches.stream().map(List::size).collect(Collectors.toList()));
+        for (Long id : ids) {
+            assertEquals(2, invoiceRepository.findById(id).orElseThrow().getDunningStage());
+        }
+    }
+
+    @Test
+    void failedHandOffRestoresStageAndSentAt() {
+        LocalDateTime previousSentAt = today.minusDays(10);
+        Invoice reminded = saveInvoice(today.minusDays(20), PaymentStatus.PENDING);
+        reminded.setDunningStage(2);
+        reminded.setDunningSentAt(previousSentAt);
+        reminded = invoiceRepository.saveAndFlush(reminded);
+        Invoice neverReminded = saveInvoice(today.minusDays(20), PaymentStatus.PENDING);
+
+        // Every stage claims its chunk, fails the hand-off and gives it back
+        notifications.failing = true;
+        assertEquals(0, invoiceService.sendOverdueReminders());
+
+        Invoice restored = invoiceRepository.findById(reminded.getId()).orElseThrow();
+        assertEquals(2, restored.getDunningStage());
+        assertEquals(previousSentAt, restored.getDunningSentAt());
+        Invoice untouched = invoiceRepository.findById(neverReminded.getId()).orElseThrow();
+        assertEquals(0, untouched.getDunningStage());
+        assertNull(untouched.getDunningSentAt());
+
+        // The next run claims them again
+        notifications.failing = false;
+        assertEquals(2, invoiceService.sendOverdueReminders());
+        assertStage(reminded, 3);
+        assertStage(neverReminded, 3);
+    }
+
+    private void assertStage(Invoice invoice, int stage) {
+        assertEquals(stage, invoiceRepository.findById(invoice.getId()).orElseThrow().getDunningStage(),
+                "dunning stage of " + invoice.getInvoiceNumber());
+    }
+
+    private Invoice saveInvoice(LocalDateTime dueDate, PaymentStatus paymentStatus) {
+        BigDecimal amount = new BigDecimal("100.00");
+        BigDecimal balance = paymentStatus == PaymentStatus.PAID ? BigDecimal.ZERO : amount;
+        Invoice invoice = new Invoice(30L, "Cliente 30");
+        invoice.setInvoiceNumber("DUN-" + (++invoiceSeq));
+        invoice.setClientEmail("cliente30@example.com");
+        invoice.setIssueDate(dueDate.minusDays(30));
+        invoice.setDueDate(dueDate);
+        invoice.setSubtotal(amount);
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setDiscountAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(amount);
+        invoice.setPaidAmount(amount.subtract(balance));
+        invoice.setBalanceDue(balance);
+        invoice.setPaymentStatus(paymentStatus);
+        return invoiceRepository.saveAndFlush(invoice);
+    }
+
+    static class RecordingNotificationService implements NotificationService {
+
+        private final List<List<String>> batches = new ArrayList<>();
+        private volatile boolean failing;
+
+        @Override
+        public void sendPaymentReminders(int stage, int daysFromDueDate, List<DunningCandidateProjection> invoices) {
+            if (failing) {
+                throw new IllegalStateException("Notification gateway unavailable");
+            }
+            batches.add(invoices.stream()
+                    .map(invoice -> stage + ":" + daysFromDueDate + ":" + invoice.getId())
+                    .collect(Collectors.toList()));
+        }
+
+        List<String> sent() {
+            return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.PaymentDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.mapper.PaymentMapper;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.repository.PaymentRepository;
+import com.example.billingservice.service.impl.BillingRollupServiceImpl;
+import com.example.billingservice.service.impl.DocumentCacheServiceImpl;
+import com.example.billingservice.service.impl.DocumentNumberServiceImpl;
+import com.example.billingservice.service.impl.IdempotencyServiceImpl;
+import com.example.billingservice.service.impl.PaymentServiceImpl;
+import com.example.billingservice.service.impl.StatisticsCacheServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Posts payments against one invoice from several threads and checks that paid amount and
+ * balance match the committed payments. Run with {@code mvn test -Pstress}.
+ */
+@Tag("stress")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-stress;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.billingservice=INFO",
+        "app.billing.payments.max-attempts=100"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PaymentServiceImpl.class, PaymentMapper.class, BillingRollupServiceImpl.class, DocumentNumberServiceImpl.class,
+        DocumentCacheServiceImpl.class, StatisticsCacheServiceImpl.class, IdempotencyServiceImpl.class, ObjectMapper.class,
+        SimpleMeterRegistry.class})
+class PaymentConcurrencyStressTest {
+
+    private static final int THREADS = 8;
+    private static final int PAYMENTS_PER_THREAD = 25;
+    private static final BigDecimal PAYMENT_AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void concurrentPaymentsKeepInvoiceTotalsConsistent() throws Exception {
+        Invoice invoice = new Invoice(1L, "Cliente Stress");
+        invoice.setInvoiceNumber("STRESS-1");
+        invoice.setDueDate(LocalDateTime.now().plusDays(30));
+        invoice.setTaxPercentage(BigDecimal.ZERO);
+        invoice.setDiscountPercentage(BigDecimal.ZERO);
+        invoice.setSubtotal(new BigDecimal("5000.00"));
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setDiscountAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(new BigDecimal("5000.00"));
+        invoice.setPaidAmount(BigDecimal.ZERO);
+        invoice.setBalanceDue(new BigDecimal("5000.00"));
+        invoice.setPaymentStatus(PaymentStatus.PENDING);
+        Long invoiceId = invoiceRepository.saveAndFlush(invoice).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                        PaymentDto payment = new PaymentDto();
+                        payment.setInvoiceId(invoiceId);
+                        payment.setAmount(PAYMENT_AMOUNT);
+                        payment.setPaymentMethod(PaymentMethod.CASH);
+                        payment.setPaymentStatus(PaymentStatus.PAID);
+                        payment.setPaymentDate(LocalDateTime.now());
+                        paymentService.createPayment(payment);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal expectedPaid = PAYMENT_AMOUNT.multiply(BigDecimal.valueOf((long) THREADS * PAYMENTS_PER_THREAD));
+        Invoice reloaded = invoiceRepository.findById(invoiceId).orElseThrow();
+
+        assertEquals(0, expectedPaid.compareTo(paymentRepository.getPaidAmountByInvoice(invoiceId)));
+        assertEquals(0, expectedPaid.compareTo(reloaded.getPaidAmount()));
+        assertEquals(0, new BigDecimal("5000.00").subtract(expectedPaid).compareTo(reloaded.getBalanceDue()));
+        assertEquals(PaymentStatus.PARTIAL, reloaded.getPaymentStatus());
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.BillingChangeEvent;
+import com.example.billingservice.dto.BulkPaymentLineResultDto;
+import com.example.billingservice.dto.BulkPaymentRequest;
+import com.example.billingservice.dto.BulkPaymentResultDto;
+import com.example.billingservice.dto.PaymentAllocationMode;
+import com.example.billingservice.dto.PaymentDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.mapper.PaymentMapper;
+import com.example.billingservice.repository.IdempotencyRecordRepository;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.repository.PaymentRepository;
+import com.example.billingservice.service.impl.BillingRollupServiceImpl;
+import com.example.billingservice.service.impl.DocumentCacheServiceImpl;
+import com.example.billingservice.service.impl.DocumentNumberServiceImpl;
+import com.example.billingservice.service.impl.IdempotencyServiceImpl;
+import com.example.billingservice.service.impl.PaymentServiceImpl;
+import com.example.billingservice.service.impl.StatisticsCacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Idempotency-Key handling of the payment writes: a replay returns the stored response, and a
+ * duplicate that races the first request waits for it and answers with its committed response.
+ */
+@DataJpaTest(properties = {
+        // Long enough for the duplicate to wait out the held transaction on the claim row
+        "spring.datasource.url=jdbc:h2:mem:payment-idempotency;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+// Request hashes and stored responses need the Java time support of the application's ObjectMapper
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({PaymentServiceImpl.class, PaymentMapper.class, BillingRollupServiceImpl.class, DocumentNumberServiceImpl.class,
+        DocumentCacheServiceImpl.class, StatisticsCacheServiceImpl.class, IdempotencyServiceImpl.class,
+        SimpleMeterRegistry.class, PaymentIdempotencyTest.PaymentWriteGate.class})
+class PaymentIdempotencyTest {
+
+    private static final LocalDateTime DUE = LocalDateTime.of(2026, 2, 1, 0, 0);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PaymentWriteGate gate;
+
+    private int invoiceSeq;
+
+    @BeforeEach
+    void cleanDatabase() {
+        gate.disarm();
+        idempotencyRecordRepository.deleteAllInBatch();
+        paymentRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void replayedKeyReturnsTheStoredPaymentWithoutCreatingAnother() {
+        Invoice invoice = saveInvoice(50L, "300.00");
+        PaymentDto request = paymentRequest(invoice.getId(), "120.00");
+
+        PaymentDto first = paymentService.createPayment(request, "pay-once");
+        PaymentDto replay = paymentService.createPayment(request, "pay-once");
+
+        assertEquals(first.getId(), replay.getId());
+        assertEquals(first.getPaymentNumber(), replay.getPaymentNumber());
+        assertEquals(1, paymentRepository.count());
+        assertAmount("120.00", invoiceRepository.findById(invoice.getId()).orElseThrow().getPaidAmount());
+
+        // Same key, different body
+        PaymentDto changed = paymentRequest(invoice.getId(), "130.00");
+        assertThrows(IllegalArgumentException.class, () -> paymentService.createPayment(changed, "pay-once"));
+        assertEquals(1, paymentRepository.count());
+    }
+
+    @Test
+    void concurrentDuplicateGetsTheWinnersPayment() throws Exception {
+        Invoice invoice = saveInvoice(51L, "300.00");
+        PaymentDto request = paymentRequest(invoice.getId(), "75.00");
+
+        List<PaymentDto> responses = raceDuplicates(() -> paymentService.createPayment(request, "pay-race"));
+
+        assertEquals(responses.get(0).getId(), responses.get(1).getId());
+        assertEquals(responses.get(0).getPaymentNumber(), responses.get(1).getPaymentNumber());
+        assertEquals(1, paymentRepository.count());
+        assertAmount("75.00", invoiceRepository.findById(invoice.getId()).orElseThrow().getPaidAmount());
+    }
+
+    @Test
+    void concurrentDuplicateBulkAllocationGetsTheWinnersResult() throws Exception {
+        saveInvoice(52L, "100.00");
+        saveInvoice(52L, "100.00");
+        BulkPaymentRequest request = new BulkPaymentRequest();
+        request.setClientId(52L);
+        request.setAmount(new BigDecimal("150.00"));
+        request.setAllocationMode(PaymentAllocationMode.FIFO);
+        request.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+        request.setPaymentDate(DUE);
+
+        List<BulkPaymentResultDto> responses =
+                raceDuplicates(() -> paymentService.allocatePayment(request, "bulk-race"));
+
+        assertEquals(paymentIds(responses.get(0)), paymentIds(responses.get(1)));
+        assertEquals(2, responses.get(1).getPaymentsCreated());
+        assertEquals(2, paymentRepository.count());
+    }
+
+    /**
+     * Holds the first request inside its transaction, after the payment is written and before it
+     * commits, and sends the duplicate meanwhile. Returns the winner's response, then the duplicate's.
+     */
+    private <T> List<T> raceDuplicates(Callable<T> call) throws Exception {
+        gate.arm();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<T> winner = executor.submit(call);
+            assertTrue(gate.reached.await(10, TimeUnit.SECONDS), "first request never reached its write");
+
+            Future<T> duplicate = executor.submit(call);
+            // Give the duplicate time to block on the claim row before the winner commits
+            Thread.sleep(300);
+            gate.release.countDown();
+
+            return List.of(winner.get(10, TimeUnit.SECONDS), duplicate.get(10, TimeUnit.SECONDS));
+        } finally {
+            gate.disarm();
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Long> paymentIds(BulkPaymentResultDto result) {
+        return result.getResults().stream().map(BulkPaymentLineResultDto::getPaymentId).collect(Collectors.toList());
+    }
+
+    private Invoice saveInvoice(Long clientId, String total) {
+        BigDecimal amount = new BigDecimal(total);
+        Invoice invoice = new Invoice(clientId, "Cliente " + clientId);
+        invoice.setInvoiceNumber("IDEM-" + (++invoiceSeq));
+        invoice.setDueDate(DUE.plusDays(invoiceSeq));
+        invoice.setTaxPercentage(BigDecimal.ZERO);
+        invoice.setDiscountPercentage(BigDecimal.ZERO);
+        invoice.setSubtotal(amount);
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setDiscountAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(amount);
+        invoice.setPaidAmount(BigDecimal.ZERO);
+        invoice.setBalanceDue(amount);
+        invoice.setPaymentStatus(PaymentStatus.PENDING);
+        return invoiceRepository.saveAndFlush(invoice);
+    }
+
+    private static PaymentDto paymentRequest(Long invoiceId, String amount) {
+        PaymentDto payment = new PaymentDto();
+        payment.setInvoiceId(invoiceId);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setPaymentMethod(PaymentMethod.CASH);
+        payment.setPaymentStatus(PaymentStatus.PAID);
+        payment.setPaymentDate(DUE);
+        return payment;
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+
+    /**
+     * Blocks the first payment change event, which is published inside the writing transaction.
+     */
+    static class PaymentWriteGate {
+
+        private final AtomicBoolean armed = new AtomicBoolean();
+        private volatile CountDownLatch reached = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(1);
+
+        void arm() {
+            reached = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+            armed.set(true);
+        }
+
+        void disarm() {
+            armed.set(false);
+            release.countDown();
+        }
+
+        @EventListener
+        public void onBillingChange(BillingChangeEvent event) throws InterruptedException {
+            if (event.getSource() != BillingChangeEvent.Source.PAYMENT || !armed.compareAndSet(true, false)) {
+                return;
+            }
+            reached.countDown();
+            if (!release.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Payment write was never released");
+            }
+        }
+    }
+}
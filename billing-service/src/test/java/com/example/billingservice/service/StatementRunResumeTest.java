@@ -0,0 +1,323 @@
+package com.example.billingservice.service;
+
+import com.example.billingservice.dto.AgingReportDto;
+import com.example.billingservice.dto.InvoiceReportDto;
+import com.example.billingservice.dto.PaymentReportDto;
+import com.example.billingservice.dto.ReportExportFormat;
+import com.example.billingservice.dto.ReportJobStatus;
+import com.example.billingservice.dto.SalesReportDto;
+import com.example.billingservice.dto.StatementRunDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.entity.StatementRun;
+import com.example.billingservice.repository.InvoiceRepository;
+import com.example.billingservice.repository.StatementRunRepository;
+import com.example.billingservice.service.impl.StatementRunServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checkpoints of a statement run: parts of {@code part-size} invoices, a run cut off mid-part that
+ * resumes after the last finished part without rendering it again, and the heartbeat rule that
+ * decides when a run that never recorded a failure may be resumed.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-runs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.billing.statement-runs.part-size=2",
+        "app.billing.statement-runs.render-threads=2",
+        "app.billing.statement-runs.directory=${java.io.tmpdir}/billing-statement-runs-test"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StatementRunServiceImpl.class, SimpleMeterRegistry.class, StatementRunResumeTest.ScriptedReportService.class})
+class StatementRunResumeTest {
+
+    private static final Long CLIENT_ID = 60L;
+
+    @Autowired
+    private StatementRunService statementRunService;
+
+    @Autowired
+    private StatementRunRepository statementRunRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ScriptedReportService renderer;
+
+    private int invoiceSeq;
+
+    @BeforeEach
+    void cleanDatabase() {
+        statementRunRepository.deleteAllInBatch();
+        invoiceRepository.deleteAllInBatch();
+        renderer.renders.clear();
+        renderer.brokenInvoiceId = null;
+        renderer.crashOnceInvoiceId = null;
+    }
+
+    @Test
+    void resumesAfterTheLastFinishedPart() throws Exception {
+        List<Long> ids = saveOpenInvoices(5);
+        // The second invoice never renders; the fourth takes the renderer down once
+        renderer.brokenInvoiceId = ids.get(1);
+        renderer.crashOnceInvoiceId = ids.get(3);
+
+        String runId = statementRunService.start().getRunId();
+        StatementRunDto failed = awaitFinished(runId);
+
+        assertEquals(ReportJobStatus.FAILED, failed.getStatus());
+        StatementRun checkpoint = statementRunRepository.findById(runId).orElseThrow();
+        assertEquals(1, checkpoint.getPartCount());
+        assertEquals(ids.get(1), checkpoint.getCheckpointInvoiceId());
+        assertEquals(1, failed.getRenderedInvoices());
+        assertEquals(1, failed.getFailedInvoices());
+
+        resumeWhenReleased(runId);
+        StatementRunDto completed = awaitFinished(runId);
+
+        assertEquals(ReportJobStatus.COMPLETED, completed.getStatus());
+        assertEquals(5, completed.getTotalInvoices());
+        assertEquals(4, completed.getRenderedInvoices());
+        assertEquals(1, completed.getFailedInvoices());
+        assertEquals(3, statementRunRepository.findById(runId).orElseThrow().getPartCount());
+
+        // The first part came from disk; only the part that was cut off is rendered twice
+        assertEquals(List.of(1, 1, 2, 2, 1), renderCounts(ids));
+        assertEquals(List.of("cliente-60/STM-1.pdf", "cliente-60/STM-3.pdf", "cliente-60/STM-4.pdf",
+                "cliente-60/STM-5.pdf"), archiveEntries(runId));
+    }
+
+    @Test
+    void resumesARunningRunOnlyOnceItsHeartbeatIsStale() {
+        List<Long> ids = saveOpenInvoices(3);
+
+        StatementRun live = runningRun(LocalDateTime.now().minusMinutes(2));
+        assertThrows(IllegalStateException.class, () -> statementRunService.resume(live.getId()));
+
+        StatementRun stale = runningRun(LocalDateTime.now().minusMinutes(30));
+        statementRunService.resume(stale.getId());
+        StatementRunDto completed = awaitFinished(stale.getId());
+
+        assertEquals(ReportJobStatus.COMPLETED, completed.getStatus());
+        assertEquals(3, completed.getRenderedInvoices());
+        assertEquals(List.of(1, 1, 1), renderCounts(ids));
+        assertThrows(IllegalStateException.class, () -> statementRunService.resume(stale.getId()));
+    }
+
+    private StatementRun runningRun(LocalDateTime heartbeat) {
+        StatementRun run = new StatementRun(UUID.randomUUID().toString());
+        run.setStatus(ReportJobStatus.RUNNING);
+        run.setTotalInvoices(3);
+        run.setStartedAt(heartbeat);
+        run.setUpdatedAt(heartbeat);
+        return statementRunRepository.save(run);
+    }
+
+    private StatementRunDto awaitFinished(String runId) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            StatementRunDto run = statementRunService.getRun(runId).orElseThrow();
+            if (run.getStatus() == ReportJobStatus.COMPLETED || run.getStatus() == ReportJobStatus.FAILED) {
+                return run;
+            }
+            sleep();
+        }
+        throw new AssertionError("Statement run " + runId + " did not finish");
+    }
+
+    // The coordinator records the failure just before it releases the run
+    private void resumeWhenReleased(String runId) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                statementRunService.resume(runId);
+                return;
+            } catch (IllegalStateException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                sleep();
+            }
+        }
+    }
+
+    private List<Integer> renderCounts(List<Long> ids) {
+        List<Integer> counts = new ArrayList<>();
+        for (Long id : ids) {
+            AtomicInteger count = renderer.renders.get(id);
+            counts.add(count != null ? count.get() : 0);
+        }
+        return counts;
+    }
+
+    private List<String> archiveEntries(String runId) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        statementRunService.writeArchive(runId, archive);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    private List<Long> saveOpenInvoices(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BigDecimal amount = new BigDecimal("80.00");
+            Invoice invoice = new Invoice(CLIENT_ID, "Cliente " + CLIENT_ID);
+            invoice.setInvoiceNumber("STM-" + (++invoiceSeq));
+            invoice.setDueDate(LocalDateTime.of(2026, 3, 1, 0, 0));
+            invoice.setSubtotal(amount);
+            invoice.setTaxAmount(BigDecimal.ZERO);
+            invoice.setDiscountAmount(BigDecimal.ZERO);
+            invoice.setTotalAmount(amount);
+            invoice.setPaidAmount(BigDecimal.ZERO);
+            invoice.setBalanceDue(amount);
+            invoice.setPaymentStatus(PaymentStatus.PENDING);
+            ids.add(invoiceRepository.saveAndFlush(invoice).getId());
+        }
+        return ids;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Renders a stand-in document per invoice and counts the renders; one invoice can be made to
+     * fail every time and another to take the renderer down once.
+     */
+    static class ScriptedReportService implements ReportService {
+
+        private final Map<Long, AtomicInteger> renders = new ConcurrentHashMap<>();
+        private volatile Long brokenInvoiceId;
+        private volatile Long crashOnceInvoiceId;
+
+        @Override
+        public byte[] renderInvoicePdf(Long invoiceId) {
+            renders.computeIfAbsent(invoiceId, id -> new AtomicInteger()).incrementAndGet();
+            if (invoiceId.equals(brokenInvoiceId)) {
+                throw new IllegalStateException("Invoice " + invoiceId + " cannot be rendered");
+            }
+            if (invoiceId.equals(crashOnceInvoiceId)) {
+                crashOnceInvoiceId = null;
+                // Not an Exception, so it is not counted as one failed invoice and stops the run
+                throw new Error("Renderer crashed");
+            }
+            return ("pdf-" + invoiceId).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] generateInvoicePdf(Long invoiceId) { throw unsupported(); }
+
+        @Override
+        public byte[] generatePaymentReceiptPdf(Long paymentId) { throw unsupported(); }
+
+        @Override
+        public byte[] generateSalesReportPdf(LocalDateTime startDate, LocalDateTime endDate) { throw unsupported(); }
+
+        @Override
+        public byte[] generateOutstandingInvoicesPdf() { throw unsupported(); }
+
+        @Override
+        public byte[] generateInvoicesExcel(LocalDateTime startDate, LocalDateTime endDate) { throw unsupported(); }
+
+        @Override
+        public byte[] generatePaymentsExcel(LocalDateTime startDate, LocalDateTime endDate) { throw unsupported(); }
+
+        @Override
+        public byte[] generateSalesAnalysisExcel(LocalDateTime startDate, LocalDateTime endDate) { throw unsupported(); }
+
+        @Override
+        public void writeInvoicesExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+            throw unsupported();
+        }
+
+        @Override
+        public void writePaymentsExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+            throw unsupported();
+        }
+
+        @Override
+        public SalesReportDto generateSalesReport(LocalDateTime startDate, LocalDateTime endDate) { throw unsupported(); }
+
+        @Override
+        public List<InvoiceReportDto> generateOverdueReport() { throw unsupported(); }
+
+        @Override
+        public AgingReportDto generateAgingReport(LocalDate asOfDate) { throw unsupported(); }
+
+        @Override
+        public byte[] generateAgingReportPdf(LocalDate asOfDate) { throw unsupported(); }
+
+        @Override
+        public void writeAgingReportExcel(LocalDate asOfDate, OutputStream outputStream) { throw unsupported(); }
+
+        @Override
+        public List<PaymentReportDto> generateCollectionReport(LocalDateTime startDate, LocalDateTime endDate) {
+            throw unsupported();
+        }
+
+        @Override
+        public void writeCollectionReport(LocalDateTime startDate, LocalDateTime endDate, ReportExportFormat format,
+                                          OutputStream outputStream) {
+            throw unsupported();
+        }
+
+        @Override
+        public void emailInvoice(Long invoiceId, String toEmail) { throw unsupported(); }
+
+        @Override
+        public void emailPaymentReceipt(Long paymentId, String toEmail) { throw unsupported(); }
+
+        @Override
+        public void emailMonthlyReport(String toEmail, int year, int month) { throw unsupported(); }
+
+        private static UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("Not used by statement runs");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round trip of the {@code after} token, including rows whose sort key is missing.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsSortKeyAndId() {
+        LocalDateTime sortKey = LocalDateTime.of(2024, 3, 15, 10, 30, 5);
+
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(sortKey, 42L));
+
+        assertEquals(sortKey, cursor.getSortKey());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void roundTripsAMissingSortKey() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(null, 7L));
+
+        assertNull(cursor.getSortKey());
+        assertEquals(7L, cursor.getId());
+    }
+
+    @Test
+    void pageEndingOnAnUndatedRowStillHasACursor() {
+        List<Object[]> rows = Arrays.asList(
+                new Object[] {LocalDateTime.of(2024, 1, 2, 0, 0), 3L},
+                new Object[] {null, 2L},
+                new Object[] {null, 1L});
+
+        CursorPage<Long> page = KeysetCursor.toPage(rows, 2, row -> (LocalDateTime) row[0], row -> (Long) row[1],
+                row -> (Long) row[1]);
+
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertNull(next.getSortKey());
+        assertEquals(2L, next.getId());
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertNull(KeysetCursor.decode(" "));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(KeysetCursor.encode(null, null)));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.ReconciliationCandidateProjection;
+import com.example.billingservice.dto.ReconciliationMatchType;
+import com.example.billingservice.entity.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Matching rules of the reconciliation index: identifiers first, then amount and date, with the
+ * absolute, fee and date tolerances applied at their edges.
+ */
+class PaymentMatchIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    // 1.00 either way, up to 3.5% short for fees, 3 days
+    private final PaymentMatchIndex index = new PaymentMatchIndex(Money.of("1.00"), new BigDecimal("3.50"), 3);
+
+    @Test
+    void matchesTransactionIdAtAnyDate() {
+        index.add(payment(1L, "100.00", DAY, "TX-77", null));
+
+        PaymentMatchIndex.Match match = index.match(line(DAY.plusDays(40), "100.00", null, "tx 77", null));
+
+        assertMatch(match, 1L, ReconciliationMatchType.TRANSACTION_ID);
+    }
+
+    @Test
+    void matchesLineReferenceAgainstPaymentTransactionId() {
+        index.add(payment(2L, "100.00", DAY, "AUTH123", null));
+
+        assertMatch(index.match(line(DAY, "100.00", "auth-123", null, null)), 2L, ReconciliationMatchType.TRANSACTION_ID);
+    }
+
+    @Test
+    void matchesReferenceWrittenWithDifferentSeparators() {
+        index.add(payment(3L, "250.00", DAY, null, "REF-00123"));
+
+        assertMatch(index.match(line(DAY.plusDays(2), "250.00", "ref 00 123", null, null)), 3L,
+                ReconciliationMatchType.REFERENCE);
+    }
+
+    @Test
+    void matchesReferenceSplitAcrossDescriptionWords() {
+        index.add(payment(4L, "250.00", DAY, null, "REF-00123"));
+        index.add(payment(5L, "250.00", DAY, null, "FAC 2024 77"));
+
+        assertMatch(index.match(line(DAY, "250.00", null, null, "Pago factura REF-00123 cliente")), 4L,
+                ReconciliationMatchType.REFERENCE);
+        assertMatch(index.match(line(DAY, "250.00", null, null, "ABONO FAC 2024 77")), 5L,
+                ReconciliationMatchType.REFERENCE);
+    }
+
+    @Test
+    void matchesSingleDescriptionWordReference() {
+        index.add(payment(6L, "80.00", DAY, null, "INV9001"));
+
+        assertMatch(index.match(line(DAY, "80.00", null, null, "Transferencia inv9001/ACME")), 6L,
+                ReconciliationMatchType.REFERENCE);
+    }
+
+    @Test
+    void ignoresReferenceOutsideTheDateTolerance() {
+        index.add(payment(7L, "99.99", DAY, null, "REF-555"));
+
+        assertNull(index.match(line(DAY.plusDays(4), "99.99", "REF-555", null, null)));
+        assertMatch(index.match(line(DAY.minusDays(3), "99.99", "REF-555", null, null)), 7L,
+                ReconciliationMatchType.REFERENCE);
+    }
+
+    @Test
+    void acceptsIdentifierMatchesWithinTheAbsoluteTolerance() {
+        index.add(payment(8L, "100.00", DAY, "TX-8", null));
+        index.add(payment(9L, "100.00", DAY, "TX-9", null));
+
+        assertNull(index.match(line(DAY, "101.01", null, "TX-8", null)));
+        assertMatch(index.match(line(DAY, "101.00", null, "TX-8", null)), 8L, ReconciliationMatchType.TRANSACTION_ID);
+        assertMatch(index.match(line(DAY, "99.00", null, "TX-9", null)), 9L, ReconciliationMatchType.TRANSACTION_ID);
+    }
+
+    @Test
+    void acceptsDepositsNetOfProcessorFees() {
+        index.add(payment(10L, "200.00", DAY, "TX-10", null));
+        index.add(payment(11L, "200.00", DAY, "TX-11", null));
+
+        // 3.5% of 200.00 is 7.00
+        assertMatch(index.match(line(DAY, "193.00", null, "TX-10", null)), 10L, ReconciliationMatchType.TRANSACTION_ID);
+        assertNull(index.match(line(DAY, "192.99", null, "TX-11", null)));
+    }
+
+    @Test
+    void matchesExactAmountOnTheClosestDate() {
+        index.add(payment(12L, "45.30", DAY.minusDays(2), null, null));
+        index.add(payment(13L, "45.30", DAY.plusDays(1), null, null));
+
+        assertMatch(index.match(line(DAY, "45.30", null, null, "Consignacion")), 13L,
+                ReconciliationMatchType.AMOUNT_DATE);
+        assertMatch(index.match(line(DAY, "45.30", null, null, null)), 12L, ReconciliationMatchType.AMOUNT_DATE);
+        assertNull(index.match(line(DAY, "45.30", null, null, null)));
+    }
+
+    @Test
+    void leavesAmountMatchesOnEquallyCloseDatesToAPerson() {
+        index.add(payment(14L, "60.00", DAY.minusDays(1), null, null));
+        index.add(payment(15L, "60.00", DAY.plusDays(1), null, null));
+
+        PaymentMatchIndex.Match match = index.match(line(DAY, "60.00", null, null, null));
+
+        assertTrue(match.isAmbiguous());
+        assertTrue(match.getPaymentIds().isEmpty());
+    }
+
+    @Test
+    void doesNotMatchAmountOnlyOutsideTheToleranceOrOffByACent() {
+        index.add(payment(16L, "60.00", DAY, null, null));
+
+        assertNull(index.match(line(DAY.plusDays(4), "60.00", null, null, null)));
+        assertNull(index.match(line(DAY, "60.01", null, null, null)));
+    }
+
+    @Test
+    void claimsEachPaymentOnce() {
+        index.add(payment(17L, "30.00", DAY, "TX-17", "REF-17"));
+
+        assertMatch(index.match(line(DAY, "30.00", null, "TX-17", null)), 17L, ReconciliationMatchType.TRANSACTION_ID);
+        assertNull(index.match(line(DAY, "30.00", "REF-17", "TX-17", null)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void matchesABulkRemittanceAgainstAllItsPayments() {
+        // One transfer allocated to three invoices
+        index.add(payment(20L, "100.00", DAY, "TRF-900", "REM-1"));
+        index.add(payment(21L, "250.50", DAY, "TRF-900", "REM-1"));
+        index.add(payment(22L, "49.50", DAY, "TRF-900", "REM-1"));
+
+        PaymentMatchIndex.Match match = index.match(line(DAY.plusDays(1), "400.00", null, "TRF-900", null));
+
+        assertEquals(List.of(20L, 21L, 22L), match.getPaymentIds());
+        assertEquals(Money.of("400.00"), match.getPaymentAmount());
+        assertEquals(ReconciliationMatchType.TRANSACTION_ID, match.getType());
+        assertNull(index.match(line(DAY, "400.00", "REM-1", "TRF-900", null)));
+    }
+
+    @Test
+    void matchesABulkRemittanceByDescriptionReference() {
+        index.add(payment(23L, "60.00", DAY, null, "REM-55"));
+        index.add(payment(24L, "40.00", DAY, null, "REM-55"));
+
+        PaymentMatchIndex.Match match = index.match(line(DAY, "100.00", null, null, "Abono REM-55 cliente"));
+
+        assertEquals(List.of(23L, 24L), match.getPaymentIds());
+        assertEquals(ReconciliationMatchType.REFERENCE, match.getType());
+    }
+
+    @Test
+    void appliesTheTolerancesToTheRemittanceTotal() {
+        index.add(payment(25L, "100.00", DAY, "TRF-25", null));
+        index.add(payment(26L, "100.00", DAY, "TRF-25", null));
+        index.add(payment(27L, "30.00", DAY, "TRF-27", null));
+        index.add(payment(28L, "30.00", DAY, "TRF-27", null));
+
+        // 3.5% of 200.00 is 7.00
+        assertEquals(List.of(25L, 26L), index.match(line(DAY, "193.00", null, "TRF-25", null)).getPaymentIds());
+        assertNull(index.match(line(DAY, "70.00", null, "TRF-27", null)));
+    }
+
+    @Test
+    void prefersASinglePaymentAndGroupsOnlyTheOpenOnes() {
+        index.add(payment(29L, "50.00", DAY, "TRF-29", null));
+        index.add(payment(30L, "50.00", DAY, "TRF-29", null));
+        index.add(payment(31L, "50.00", DAY, "TRF-29", null));
+
+        assertMatch(index.match(line(DAY, "50.00", null, "TRF-29", null)), 29L, ReconciliationMatchType.TRANSACTION_ID);
+        assertEquals(List.of(30L, 31L), index.match(line(DAY, "100.00", null, "TRF-29", null)).getPaymentIds());
+    }
+
+    private static void assertMatch(PaymentMatchIndex.Match match, Long paymentId, ReconciliationMatchType type) {
+        assertFalse(match == null || match.isAmbiguous(), "expected payment " + paymentId + " to match");
+        assertEquals(List.of(paymentId), match.getPaymentIds());
+        assertEquals(type, match.getType());
+    }
+
+    private static StatementLine line(LocalDate date, String amount, String reference, String transactionId,
+                                      String description) {
+        StatementLine line = new StatementLine(1);
+        line.setDate(date);
+        line.setAmount(Money.of(amount));
+        line.setReference(reference);
+        line.setTransactionId(transactionId);
+        line.setDescription(description);
+        return line;
+    }
+
+    private static ReconciliationCandidateProjection payment(Long id, String amount, LocalDate date,
+                                                             String transactionId, String reference) {
+        return new ReconciliationCandidateProjection() {
+            @Override
+            public Long getId() { return id; }
+
+            @Override
+            public String getReferenceNumber() { return reference; }
+
+            @Override
+            public String getTransactionId() { return transactionId; }
+
+            @Override
+            public BigDecimal getAmount() { return new BigDecimal(amount); }
+
+            @Override
+            public LocalDateTime getPaymentDate() { return date.atTime(10, 30); }
+        };
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.SalesReportDto;
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceItem;
+import com.example.billingservice.entity.InvoiceStatus;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.entity.Payment;
+import com.example.billingservice.entity.PaymentMethod;
+import com.example.billingservice.entity.PaymentStatus;
+import com.example.billingservice.entity.ServiceType;
+import com.example.billingservice.repository.InvoiceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks every figure {@link SalesReportAggregator} builds from the streamed report rows against
+ * the entity loop it replaced: invoices hydrated with their items and payments, summed in Java.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class SalesReportAggregatorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+    private static final int INVOICE_COUNT = 60;
+    private static final int TOP_CLIENTS = 3;
+
+    private static final ServiceType[] SERVICE_TYPES = ServiceType.values();
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seedInvoices() {
+        for (int i = 0; i < INVOICE_COUNT; i++) {
+            entityManager.persist(invoice(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void matchesTheEntityLoop() {
+        SalesReportDto report = new SalesReportDto(START, END, "CUSTOM");
+        SalesReportAggregator aggregator = new SalesReportAggregator(TOP_CLIENTS);
+        try (Stream<Object[]> rows = invoiceRepository.streamSalesReportRows(START, END)) {
+            rows.forEach(aggregator::accept);
+        }
+        aggregator.fill(report);
+        entityManager.clear();
+
+        List<Invoice> invoices = invoiceRepository.findByIssueDateBetween(START, END,
+                PageRequest.of(0, Integer.MAX_VALUE)).getContent();
+        assertTrue(invoices.size() > 0 && invoices.size() < INVOICE_COUNT, "seed must straddle the range");
+
+        assertTotals(invoices, report);
+        assertServices(invoices, report);
+        assertPaymentMethods(invoices, report);
+        assertTopClients(invoices, report);
+        assertMonths(invoices, report);
+    }
+
+    private void assertTotals(List<Invoice> invoices, SalesReportDto report) {
+        BigDecimal sales = BigDecimal.ZERO;
+        BigDecimal paid = BigDecimal.ZERO;
+        BigDecimal outstanding = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        BigDecimal discount = BigDecimal.ZERO;
+        int paidCount = 0;
+        int pendingCount = 0;
+        int overdueCount = 0;
+        int cancelledCount = 0;
+        long paymentSeconds = 0;
+        long timedPayments = 0;
+        for (Invoice invoice : invoices) {
+            sales = sales.add(invoice.getTotalAmount());
+            paid = paid.add(invoice.getPaidAmount());
+            outstanding = outstanding.add(invoice.getBalanceDue());
+            tax = tax.add(invoice.getTaxAmount());
+            discount = discount.add(invoice.getDiscountAmount());
+            if (invoice.getPaymentStatus() == PaymentStatus.PAID) {
+                paidCount++;
+            } else if (invoice.getPaymentStatus() == PaymentStatus.PENDING) {
+                pendingCount++;
+            } else if (invoice.getStatus() == InvoiceStatus.OVERDUE) {
+                overdueCount++;
+            }
+            if (invoice.getStatus() == InvoiceStatus.CANCELLED) {
+                cancelledCount++;
+            }
+            for (Payment payment : invoice.getPayments()) {
+                if (payment.getPaymentStatus() == PaymentStatus.PAID
+                        && !payment.getPaymentDate().isBefore(invoice.getIssueDate())) {
+                    paymentSeconds += Duration.between(invoice.getIssueDate(), payment.getPaymentDate()).getSeconds();
+                    timedPayments++;
+                }
+            }
+        }
+
+        assertEquals(invoices.size(), report.getTotalInvoices());
+        assertAmount(sales, report.getTotalSales());
+        assertAmount(paid, report.getTotalPaid());
+        assertAmount(outstanding, report.getTotalOutstanding());
+        assertAmount(tax, report.getTotalTax());
+        assertAmount(discount, report.getTotalDiscount());
+        assertEquals(paidCount, report.getPaidInvoices());
+        assertEquals(pendingCount, report.getPendingInvoices());
+        assertEquals(overdueCount, report.getOverdueInvoices());
+        assertEquals(cancelledCount, report.getCancelledInvoices());
+        assertTrue(overdueCount > 0 && cancelledCount > 0);
+        assertAmount(BigDecimal.valueOf(paymentSeconds)
+                        .divide(BigDecimal.valueOf(timedPayments * 86_400L), 2, RoundingMode.HALF_UP),
+                report.getAveragePaymentTime());
+    }
+
+    private void assertServices(List<Invoice> invoices, SalesReportDto report) {
+        Map<ServiceType, BigDecimal> amounts = new EnumMap<>(ServiceType.class);
+        Map<ServiceType, Integer> quantities = new EnumMap<>(ServiceType.class);
+        BigDecimal itemsTotal = BigDecimal.ZERO;
+        for (Invoice invoice : invoices) {
+            for (InvoiceItem item : invoice.getItems()) {
+                ServiceType type = item.getServiceType() != null ? item.getServiceType() : ServiceType.OTHER;
+                amounts.merge(type, item.getTotal(), BigDecimal::add);
+                quantities.merge(type, item.getQuantity(), Integer::sum);
+                itemsTotal = itemsTotal.add(item.getTotal());
+            }
+        }
+
+        List<SalesReportDto.ServiceSalesDto> services = report.getSalesByService();
+        assertEquals(amounts.size(), services.size());
+        for (SalesReportDto.ServiceSalesDto service : services) {
+            assertAmount(amounts.get(service.getServiceType()), service.getTotalAmount());
+            assertEquals(quantities.get(service.getServiceType()), service.getQuantity());
+            assertAmount(percent(amounts.get(service.getServiceType()), itemsTotal), service.getPercentage());
+        }
+        assertDescending(services.stream().map(SalesReportDto.ServiceSalesDto::getTotalAmount).collect(Collectors.toList()));
+    }
+
+    private void assertPaymentMethods(List<Invoice> invoices, SalesReportDto report) {
+        Map<PaymentMethod, BigDecimal> amounts = new EnumMap<>(PaymentMethod.class);
+        Map<PaymentMethod, Integer> counts = new EnumMap<>(PaymentMethod.class);
+        BigDecimal collected = BigDecimal.ZERO;
+        for (Invoice invoice : invoices) {
+            for (Payment payment : invoice.getPayments()) {
+                if (payment.getPaymentStatus() == PaymentStatus.PAID) {
+                    amounts.merge(payment.getPaymentMethod(), payment.getAmount(), BigDecimal::add);
+                    counts.merge(payment.getPaymentMethod(), 1, Integer::sum);
+                    collected = collected.add(payment.getAmount());
+                }
+            }
+        }
+
+        List<SalesReportDto.PaymentMethodSalesDto> methods = report.getSalesByPaymentMethod();
+        assertEquals(amounts.size(), methods.size());
+        for (SalesReportDto.PaymentMethodSalesDto method : methods) {
+            assertAmount(amounts.get(method.getPaymentMethod()), method.getTotalAmount());
+            assertEquals(counts.get(method.getPaymentMethod()), method.getTransactionCount());
+            assertAmount(percent(amounts.get(method.getPaymentMethod()), collected), method.getPercentage());
+        }
+        assertDescending(methods.stream().map(SalesReportDto.PaymentMethodSalesDto::getTotalAmount).collect(Collectors.toList()));
+    }
+
+    private void assertTopClients(List<Invoice> invoices, SalesReportDto report) {
+        Map<Long, BigDecimal> spent = new HashMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        Map<Long, Invoice> latest = new HashMap<>();
+        for (Invoice invoice : invoices) {
+            spent.merge(invoice.getClientId(), invoice.getTotalAmount(), BigDecimal::add);
+            counts.merge(invoice.getClientId(), 1, Integer::sum);
+            latest.merge(invoice.getClientId(), invoice,
+                    (a, b) -> b.getIssueDate().isAfter(a.getIssueDate()) ? b : a);
+        }
+        List<Long> expected = new ArrayList<>(spent.keySet());
+        expected.sort(Comparator.comparing((Long clientId) -> spent.get(clientId)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        expected = expected.subList(0, TOP_CLIENTS);
+
+        List<SalesReportDto.ClientSalesDto> top = report.getTopClients();
+        assertEquals(expected, top.stream().map(SalesReportDto.ClientSalesDto::getClientId).collect(Collectors.toList()));
+        for (SalesReportDto.ClientSalesDto client : top) {
+            Invoice last = latest.get(client.getClientId());
+            assertAmount(spent.get(client.getClientId()), client.getTotalSpent());
+            assertEquals(counts.get(client.getClientId()), client.getInvoiceCount());
+            assertEquals(last.getIssueDate(), client.getLastVisit());
+            assertEquals(last.getClientName(), client.getClientName());
+        }
+    }
+
+    private void assertMonths(List<Invoice> invoices, SalesReportDto report) {
+        Map<YearMonth, BigDecimal[]> months = new TreeMap<>();
+        Map<YearMonth, Integer> counts = new HashMap<>();
+        for (Invoice invoice : invoices) {
+            YearMonth month = YearMonth.from(invoice.getIssueDate());
+            BigDecimal[] totals = months.computeIfAbsent(month, key -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            totals[0] = totals[0].add(invoice.getTotalAmount());
+            totals[1] = totals[1].add(invoice.getPaidAmount());
+            counts.merge(month, 1, Integer::sum);
+        }
+
+        List<SalesReportDto.MonthlySalesDto> breakdown = report.getMonthlyBreakdown();
+        assertEquals(3, breakdown.size());
+        int index = 0;
+        BigDecimal previous = null;
+        for (Map.Entry<YearMonth, BigDecimal[]> entry : months.entrySet()) {
+            SalesReportDto.MonthlySalesDto month = breakdown.get(index++);
+            assertEquals(entry.getKey().getYear(), month.getYear());
+            assertEquals(entry.getKey().getMonthValue(), month.getMonth());
+            assertAmount(entry.getValue()[0], month.getTotalSales());
+            assertAmount(entry.getValue()[1], month.getTotalPaid());
+            assertEquals(counts.get(entry.getKey()), month.getInvoiceCount());
+            if (previous != null) {
+                assertAmount(percent(entry.getValue()[0].subtract(previous), previous), month.getGrowthPercentage());
+            }
+            previous = entry.getValue()[0];
+        }
+    }
+
+    // Issued every 1.6 days from mid-December to mid-March, so the first and last few fall outside the range
+    private static Invoice invoice(int i) {
+        LocalDateTime issueDate = START.minusDays(12).plusHours(i * 38L + i % 7);
+        long clientId = i % 7;
+        Invoice invoice = new Invoice(clientId, "Cliente " + clientId + (i >= 30 ? " SAS" : ""));
+        invoice.setInvoiceNumber("AGG-" + i);
+        invoice.setIssueDate(issueDate);
+        invoice.setDueDate(issueDate.plusDays(30));
+        invoice.setDiscountPercentage(i % 5 == 0 ? new BigDecimal("10.00") : BigDecimal.ZERO);
+
+        for (int j = 0; j <= i % 3; j++) {
+            InvoiceItem item = new InvoiceItem("Servicio " + j, 1 + j,
+                    new BigDecimal(10_000 + 2_500 * ((i * 7 + j) % 9)).setScale(2));
+            item.setServiceType(i % 10 == 5 && j == 0 ? null : SERVICE_TYPES[(i + j) % SERVICE_TYPES.length]);
+            if (j == 1) {
+                item.setDiscountPercentage(new BigDecimal("5.00"));
+            }
+            item.setInvoice(invoice);
+            invoice.getItems().add(item);
+        }
+        invoice.calculateTotals();
+
+        long total = Money.cents(invoice.getTotalAmount());
+        switch (i % 4) {
+            case 0:
+                pay(invoice, total, METHODS[i % METHODS.length], PaymentStatus.PAID, issueDate.plusDays(i % 15));
+                invoice.setStatus(InvoiceStatus.PAID);
+                break;
+            case 1:
+                pay(invoice, Money.percentage(total, new BigDecimal("40")), PaymentMethod.CASH, PaymentStatus.PAID,
+                        issueDate.plusDays(3).plusHours(5));
+                // Not collected yet: left out of the payment method breakdown
+                pay(invoice, 1_000_00, PaymentMethod.CREDIT_CARD, PaymentStatus.PENDING, issueDate.plusDays(4));
+                invoice.setStatus(i % 8 == 1 ? InvoiceStatus.OVERDUE : InvoiceStatus.SENT);
+                break;
+            case 2:
+                invoice.setStatus(InvoiceStatus.SENT);
+                break;
+            default:
+                if (i % 12 == 3) {
+                    invoice.setStatus(InvoiceStatus.CANCELLED);
+                    break;
+                }
+                // Recorded an hour before the invoice: paid but not timed
+                pay(invoice, 5_000_00, PaymentMethod.BANK_TRANSFER, PaymentStatus.PAID,
+                        i == 11 ? issueDate.minusHours(1) : issueDate.plusDays(1));
+                pay(invoice, 2_500_00, PaymentMethod.DIGITAL_WALLET, PaymentStatus.PAID, issueDate.plusDays(9));
+                invoice.setStatus(InvoiceStatus.OVERDUE);
+                break;
+        }
+        return invoice;
+    }
+
+    private static void pay(Invoice invoice, long cents, PaymentMethod method, PaymentStatus status,
+                            LocalDateTime paymentDate) {
+        Payment payment = new Payment(invoice, Money.amount(cents), method);
+        payment.setPaymentStatus(status);
+        payment.setPaymentDate(paymentDate);
+        invoice.getPayments().add(payment);
+        if (status == PaymentStatus.PAID) {
+            invoice.updatePaidAmount(invoice.getPaidAmount().add(payment.getAmount()));
+        }
+    }
+
+    private static BigDecimal percent(BigDecimal part, BigDecimal whole) {
+        return part.multiply(BigDecimal.valueOf(100)).divide(whole, 2, RoundingMode.HALF_UP);
+    }
+
+    private static void assertDescending(List<BigDecimal> amounts) {
+        for (int i = 1; i < amounts.size(); i++) {
+            assertTrue(amounts.get(i - 1).compareTo(amounts.get(i)) >= 0, "not sorted by amount: " + amounts);
+        }
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertEquals(0, expected.compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.StatementFormat;
+import com.example.billingservice.entity.Money;
+import com.example.billingservice.exception.BillingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Parses small CSV and OFX statements and checks each line's fields, including lines that come
+ * back with an error instead of failing the whole import.
+ */
+class StatementReaderTest {
+
+    @Test
+    void readsCommaCsvWithEnglishHeaders() throws IOException {
+        List<StatementLine> lines = readAll(StatementFormat.CSV,
+                "Date,Description,Amount,Reference,Transaction ID\n"
+                        + "2024-01-15,\"Pago factura, REF-00123\",1500.00,,TX-1\n"
+                        + "\n"
+                        + "15/01/2024,Transferencia,\"1,234.56\",INV-7,\n");
+
+        assertEquals(2, lines.size());
+        StatementLine first = lines.get(0);
+        assertEquals(2, first.getLineNumber());
+        assertEquals(LocalDate.of(2024, 1, 15), first.getDate());
+        assertEquals(Money.of("1500.00"), first.getAmount());
+        assertEquals("Pago factura, REF-00123", first.getDescription());
+        assertEquals("TX-1", first.getTransactionId());
+        assertNull(first.getReference());
+        assertNull(first.getError());
+
+        StatementLine second = lines.get(1);
+        assertEquals(4, second.getLineNumber());
+        assertEquals(LocalDate.of(2024, 1, 15), second.getDate());
+        assertEquals(Money.of("1234.56"), second.getAmount());
+        assertEquals("INV-7", second.getReference());
+        assertNull(second.getTransactionId());
+    }
+
+    @Test
+    void readsSemicolonCsvWithSpanishHeadersAndBom() throws IOException {
+        List<StatementLine> lines = readAll(StatementFormat.CSV,
+                "\uFEFFFecha;Concepto;Valor;Referencia\n"
+                        + "2024/02/01;Abono cliente;$ 1.234,56;REF 9\n"
+                        + "sin fecha;Abono;10,00;REF 10\n");
+
+        assertEquals(2, lines.size());
+        assertEquals(LocalDate.of(2024, 2, 1), lines.get(0).getDate());
+        assertEquals(Money.of("1234.56"), lines.get(0).getAmount());
+        assertEquals("Abono cliente", lines.get(0).getDescription());
+        assertEquals("REF 9", lines.get(0).getReference());
+
+        StatementLine invalid = lines.get(1);
+        assertEquals(3, invalid.getLineNumber());
+        assertEquals("Unrecognized date: sin fecha", invalid.getError());
+        assertEquals("REF 10", invalid.getReference());
+    }
+
+    @Test
+    void rejectsCsvWithoutAmountColumn() {
+        assertThrows(BillingException.class, () -> readAll(StatementFormat.CSV, "Date,Description\n2024-01-15,Pago\n"));
+    }
+
+    @Test
+    void readsSgmlOfxWrittenOnOneLine() throws IOException {
+        List<StatementLine> lines = readAll(StatementFormat.OFX,
+                "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>"
+                        + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240115120000[-5:COT]<TRNAMT>1500,00"
+                        + "<FITID>FIT-1<REFNUM>R-1<CHECKNUM>C-1<NAME>ACME SAS<MEMO>PAGO REF-00123</STMTTRN>"
+                        + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240116<FITID>FIT-2</STMTTRN>"
+                        + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>");
+
+        assertEquals(2, lines.size());
+        StatementLine first = lines.get(0);
+        assertEquals(1, first.getLineNumber());
+        assertEquals(LocalDate.of(2024, 1, 15), first.getDate());
+        assertEquals(Money.of("1500.00"), first.getAmount());
+        assertEquals("FIT-1", first.getTransactionId());
+        assertEquals("R-1", first.getReference());
+        assertEquals("ACME SAS PAGO REF-00123", first.getDescription());
+        assertNull(first.getError());
+
+        assertEquals("Transaction without DTPOSTED or TRNAMT", lines.get(1).getError());
+    }
+
+    @Test
+    void readsXmlOfxWithClosingTagsAndEntities() throws IOException {
+        List<StatementLine> lines = readAll(StatementFormat.OFX,
+                "<?xml version=\"1.0\"?>\n<OFX>\n  <STMTTRN>\n    <DTPOSTED>20240301</DTPOSTED>\n"
+                        + "    <TRNAMT>-25.50</TRNAMT>\n    <FITID>FIT-3</FITID>\n"
+                        + "    <MEMO>Comisi\u00f3n &amp; IVA</MEMO>\n  </STMTTRN>\n"
+                        + "  <STMTTRN>\n    <DTPOSTED>2024-03</DTPOSTED>\n    <TRNAMT>10.00</TRNAMT>\n  </STMTTRN>\n</OFX>\n");
+
+        assertEquals(2, lines.size());
+        assertEquals(LocalDate.of(2024, 3, 1), lines.get(0).getDate());
+        assertEquals(Money.of("-25.50"), lines.get(0).getAmount());
+        assertEquals("Comisi\u00f3n & IVA", lines.get(0).getDescription());
+        assertEquals("Invalid DTPOSTED: 2024-03", lines.get(1).getError());
+    }
+
+    @Test
+    void parsesAmountsWithEitherDecimalSeparator() {
+        assertEquals(Money.of("1234.56"), StatementReader.parseAmount("1234.56"));
+        assertEquals(Money.of("1234.56"), StatementReader.parseAmount("1,234.56"));
+        assertEquals(Money.of("1234.56"), StatementReader.parseAmount("1.234,56"));
+        assertEquals(Money.of("1234.50"), StatementReader.parseAmount("1234,5"));
+        assertEquals(Money.of("1234000.00"), StatementReader.parseAmount("COP 1.234.000"));
+        assertEquals(Money.of("-45.00"), StatementReader.parseAmount("-$45"));
+        assertThrows(IllegalArgumentException.class, () -> StatementReader.parseAmount("n/a"));
+    }
+
+    private static List<StatementLine> readAll(StatementFormat format, String content) throws IOException {
+        List<StatementLine> lines = new ArrayList<>();
+        try (StatementReader reader = StatementReader.open(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+            StatementLine line;
+            while ((line = reader.next()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.dto.BillingChangeEvent;
+import com.example.billingservice.service.StatisticsCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Single-flight loads and generation checks of the statistics cache: callers that miss together
+ * share one load, and a write committed while a load runs makes its result stale.
+ */
+@SpringJUnitConfig({StatisticsCacheServiceImpl.class, SimpleMeterRegistry.class})
+// No refresh interval, so a stale entry is reloaded on the next read
+@TestPropertySource(properties = "app.billing.statistics-cache.min-refresh-ms=0")
+class StatisticsCacheServiceImplTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private StatisticsCacheService statisticsCacheService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        double joinedBefore = joined();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> statisticsCacheService.get("shared", BillingChangeEvent.Source.PAYMENT,
+                        () -> {
+                            loads.incrementAndGet();
+                            await(release);
+                            return 42L;
+                        })));
+            }
+            // Hold the load until every other caller has joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (joined() - joinedBefore < THREADS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Long> future : futures) {
+                assertEquals(42L, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(THREADS - 1, joined() - joinedBefore);
+        assertEquals(42L, statisticsCacheService.get("shared", BillingChangeEvent.Source.PAYMENT, () -> -1L));
+    }
+
+    @Test
+    void changePublishedDuringALoadIsNotHiddenByItsResult() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> statisticsCacheService.get("totals",
+                    BillingChangeEvent.Source.INVOICE, () -> {
+                        int load = loads.incrementAndGet();
+                        loading.countDown();
+                        await(release);
+                        return load;
+                    }));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+            // A write commits after the load has read its data
+            eventPublisher.publishEvent(new BillingChangeEvent(BillingChangeEvent.Source.INVOICE));
+            release.countDown();
+            assertEquals(1, first.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, (int) statisticsCacheService.get("totals", BillingChangeEvent.Source.INVOICE,
+                loads::incrementAndGet));
+        assertEquals(2, (int) statisticsCacheService.get("totals", BillingChangeEvent.Source.INVOICE,
+                loads::incrementAndGet));
+        // Changes from the other source leave the entry alone
+        statisticsCacheService.invalidate(BillingChangeEvent.Source.PAYMENT);
+        assertEquals(2, (int) statisticsCacheService.get("totals", BillingChangeEvent.Source.INVOICE,
+                loads::incrementAndGet));
+    }
+
+    private double joined() {
+        return meterRegistry.get("billing.statistics.cache.requests").tag("result", "joined").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Load was never released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
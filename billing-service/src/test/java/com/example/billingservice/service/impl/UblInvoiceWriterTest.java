@@ -0,0 +1,173 @@
+package com.example.billingservice.service.impl;
+
+import com.example.billingservice.entity.Invoice;
+import com.example.billingservice.entity.InvoiceItem;
+import com.example.billingservice.entity.PaymentMethod;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.billingservice.service.impl.UblInvoiceWriter.CAC_NS;
+import static com.example.billingservice.service.impl.UblInvoiceWriter.CBC_NS;
+import static com.example.billingservice.service.impl.UblInvoiceWriter.INVOICE_NS;
+import static com.example.billingservice.service.impl.UblInvoiceWriter.STS_NS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Pins the CUFE of a fixed invoice and checks the UBL nodes DIAN validates: numbering, dates,
+ * totals, taxes and lines.
+ */
+class UblInvoiceWriterTest {
+
+    private static final String TECHNICAL_KEY = "fc8eac422eba16e22ffd8c6f94b3f40a6e38162c";
+
+    // SHA-384 of SETP990000001 2024-03-15 10:30:00-05:00 113000.00 01 21470.00 04 0.00 03 0.00 134470.00
+    // 900373115 1234567890 <technical key> 2, concatenated without separators
+    private static final String EXPECTED_CUFE = "7793bc7ccc425d4e16197fc513d8c6711427c485c82696ad"
+            + "7542cc3fda897111c8ad26218d8693c4a09e00ca3a1710d0";
+
+    private final UblInvoiceWriter writer =
+            new UblInvoiceWriter("900373115", "Clínica Veterinaria", "software-1", TECHNICAL_KEY, "2");
+
+    @Test
+    void cufeIsTheSha384OfTheDianFields() {
+        assertEquals(EXPECTED_CUFE, writer.cufe(invoice()));
+    }
+
+    @Test
+    void cufeChangesWithTheTotals() {
+        Invoice invoice = invoice();
+        invoice.setDiscountPercentage(new BigDecimal("5.00"));
+        invoice.calculateTotals();
+
+        assertEquals(96, writer.cufe(invoice).length());
+        assertNotEquals(EXPECTED_CUFE, writer.cufe(invoice));
+    }
+
+    @Test
+    void writesTheDianNodes() throws Exception {
+        Invoice invoice = invoice();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(invoice, writer.cufe(invoice), out);
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Element root = factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray())).getDocumentElement();
+
+        assertEquals(INVOICE_NS, root.getNamespaceURI());
+        assertEquals("Invoice", root.getLocalName());
+        assertEquals("SETP990000001", text(root, CBC_NS, "ID"));
+        Element uuid = child(root, CBC_NS, "UUID");
+        assertEquals(EXPECTED_CUFE, uuid.getTextContent());
+        assertEquals("CUFE-SHA384", uuid.getAttribute("schemeName"));
+        assertEquals("2", uuid.getAttribute("schemeID"));
+        assertEquals("2", text(root, CBC_NS, "ProfileExecutionID"));
+        assertEquals("2024-03-15", text(root, CBC_NS, "IssueDate"));
+        assertEquals("10:30:00-05:00", text(root, CBC_NS, "IssueTime"));
+        assertEquals("2024-04-14", text(root, CBC_NS, "DueDate"));
+        assertEquals("COP", text(root, CBC_NS, "DocumentCurrencyCode"));
+        assertEquals("2", text(root, CBC_NS, "LineCountNumeric"));
+
+        Element qrCode = (Element) root.getElementsByTagNameNS(STS_NS, "QRCode").item(0);
+        assertEquals("https://catalogo-vpfe-hab.dian.gov.co/document/searchqr?documentkey=" + EXPECTED_CUFE,
+                qrCode.getTextContent());
+        Element provider = (Element) root.getElementsByTagNameNS(STS_NS, "ProviderID").item(0);
+        assertEquals("3", provider.getAttribute("schemeID"));
+
+        // Credit sale by bank transfer
+        Element paymentMeans = child(root, CAC_NS, "PaymentMeans");
+        assertEquals("2", text(paymentMeans, CBC_NS, "ID"));
+        assertEquals("47", text(paymentMeans, CBC_NS, "PaymentMeansCode"));
+        assertEquals("2024-04-14", text(paymentMeans, CBC_NS, "PaymentDueDate"));
+
+        // No document-level discount
+        assertNull(child(root, CAC_NS, "AllowanceCharge"));
+
+        Element taxTotal = child(root, CAC_NS, "TaxTotal");
+        assertEquals("21470.00", text(taxTotal, CBC_NS, "TaxAmount"));
+        Element taxSubtotal = child(taxTotal, CAC_NS, "TaxSubtotal");
+        assertEquals("113000.00", text(taxSubtotal, CBC_NS, "TaxableAmount"));
+        assertEquals("19.00", text(child(taxSubtotal, CAC_NS, "TaxCategory"), CBC_NS, "Percent"));
+
+        Element totals = child(root, CAC_NS, "LegalMonetaryTotal");
+        assertEquals("113000.00", text(totals, CBC_NS, "LineExtensionAmount"));
+        assertEquals("113000.00", text(totals, CBC_NS, "TaxExclusiveAmount"));
+        assertEquals("134470.00", text(totals, CBC_NS, "TaxInclusiveAmount"));
+        assertEquals("0.00", text(totals, CBC_NS, "AllowanceTotalAmount"));
+        assertEquals("134470.00", text(totals, CBC_NS, "PayableAmount"));
+        assertEquals("COP", child(totals, CBC_NS, "PayableAmount").getAttribute("currencyID"));
+
+        List<Element> lines = children(root, CAC_NS, "InvoiceLine");
+        assertEquals(2, lines.size());
+        assertEquals("1", text(lines.get(0), CBC_NS, "ID"));
+        assertEquals("50000.00", text(lines.get(0), CBC_NS, "LineExtensionAmount"));
+        assertNull(child(lines.get(0), CAC_NS, "AllowanceCharge"));
+
+        Element discounted = lines.get(1);
+        assertEquals("2", text(discounted, CBC_NS, "InvoicedQuantity"));
+        assertEquals("63000.00", text(discounted, CBC_NS, "LineExtensionAmount"));
+        Element allowance = child(discounted, CAC_NS, "AllowanceCharge");
+        assertEquals("false", text(allowance, CBC_NS, "ChargeIndicator"));
+        assertEquals("10.00", text(allowance, CBC_NS, "MultiplierFactorNumeric"));
+        assertEquals("7000.00", text(allowance, CBC_NS, "Amount"));
+        assertEquals("70000.00", text(allowance, CBC_NS, "BaseAmount"));
+        assertEquals("Vacuna antirrábica", text(child(discounted, CAC_NS, "Item"), CBC_NS, "Description"));
+        assertEquals("35000.00", text(child(discounted, CAC_NS, "Price"), CBC_NS, "PriceAmount"));
+    }
+
+    @Test
+    void computesTheNitCheckDigit() {
+        assertEquals("3", UblInvoiceWriter.checkDigit("900373115"));
+        assertEquals("4", UblInvoiceWriter.checkDigit("800197268"));
+    }
+
+    // 50,000.00 + 2 x 35,000.00 less 10% = 113,000.00 before 19% IVA
+    private static Invoice invoice() {
+        Invoice invoice = new Invoice(1234567890L, "Ana Pérez");
+        invoice.setInvoiceNumber("SETP990000001");
+        invoice.setIssueDate(LocalDateTime.of(2024, 3, 15, 10, 30));
+        invoice.setDueDate(LocalDateTime.of(2024, 4, 14, 0, 0));
+        invoice.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+
+        InvoiceItem consultation = new InvoiceItem("Consulta general", 1, new BigDecimal("50000.00"));
+        InvoiceItem vaccine = new InvoiceItem("Vacuna antirrábica", 2, new BigDecimal("35000.00"));
+        vaccine.setDiscountPercentage(new BigDecimal("10.00"));
+        invoice.getItems().add(consultation);
+        invoice.getItems().add(vaccine);
+        invoice.calculateTotals();
+        return invoice;
+    }
+
+    private static String text(Element parent, String namespace, String name) {
+        return child(parent, namespace, name).getTextContent();
+    }
+
+    private static Element child(Element parent, String namespace, String name) {
+        List<Element> found = children(parent, namespace, name);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static List<Element> children(Element parent, String namespace, String name) {
+        List<Element> found = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE && namespace.equals(node.getNamespaceURI())
+                    && name.equals(node.getLocalName())) {
+                found.add((Element) node);
+            }
+        }
+        return found;
+    }
+}